@@ -0,0 +1,530 @@
+package ch.epfl.tchu;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+
+/**
+ * Class IndexedBag represents a sorted and immutable multiset whose elements belong to a small fixed universe, e.g.
+ * the cards or the tickets of the game. It has the same API and the same semantics as SortedBag, but stores the
+ * multiplicity of each element of the universe in an int array, indexed by the rank of the element in the universe.
+ * The size is cached, and get(int) runs in logarithmic time.
+ *
+ * @param <E> type of the elements of the multiset
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class IndexedBag<E extends Comparable<E>> implements Iterable<E> {
+
+    private final Universe<E> universe; // Elements which the bag can contain
+    private final int[] counts; // Multiplicity of each element of the universe, indexed by rank
+    private final int size; // Number of elements of the bag
+    private final int[] cumulativeCounts; // Number of elements of the bag of rank lower or equal to each rank
+
+    /**
+     * Private constructor, the bags are created with the static methods of(...) or with a Builder
+     *
+     * @param universe universe of the bag
+     * @param counts   multiplicity of each element, which must not be modified afterwards
+     */
+    private IndexedBag(Universe<E> universe, int[] counts) {
+        this.universe = universe;
+        this.counts = counts;
+        this.cumulativeCounts = new int[counts.length];
+        int total = 0;
+        for (int i = 0; i < counts.length; ++i) {
+            total += counts[i];
+            cumulativeCounts[i] = total;
+        }
+        this.size = total;
+    }
+
+    /**
+     * Method which creates an empty bag
+     *
+     * @param universe universe of the bag
+     * @param <E>      type of the elements
+     * @return IndexedBag
+     */
+    public static <E extends Comparable<E>> IndexedBag<E> of(Universe<E> universe) {
+        return new IndexedBag<>(universe, new int[universe.size()]);
+    }
+
+    /**
+     * Method which creates a bag containing a given number of occurrences of an element
+     *
+     * @param universe universe of the bag
+     * @param n        multiplicity of the element
+     * @param e        element
+     * @param <E>      type of the elements
+     * @return IndexedBag
+     * @throws IllegalArgumentException if n is negative or if the element is not in the universe
+     */
+    public static <E extends Comparable<E>> IndexedBag<E> of(Universe<E> universe, int n, E e) {
+        return new Builder<>(universe).add(n, e).build();
+    }
+
+    /**
+     * Method which creates a bag containing the elements of a sorted bag
+     *
+     * @param universe universe of the bag
+     * @param bag      sorted bag
+     * @param <E>      type of the elements
+     * @return IndexedBag
+     * @throws IllegalArgumentException if an element of the sorted bag is not in the universe
+     */
+    public static <E extends Comparable<E>> IndexedBag<E> of(Universe<E> universe, SortedBag<E> bag) {
+        Builder<E> builder = new Builder<>(universe);
+        bag.toMap().forEach((e, n) -> builder.add(n, e));
+        return builder.build();
+    }
+
+    /**
+     * Method which creates a bag containing the elements of an iterable
+     *
+     * @param universe universe of the bag
+     * @param iterable elements
+     * @param <E>      type of the elements
+     * @return IndexedBag
+     * @throws IllegalArgumentException if an element is not in the universe
+     */
+    public static <E extends Comparable<E>> IndexedBag<E> of(Universe<E> universe, Iterable<E> iterable) {
+        Builder<E> builder = new Builder<>(universe);
+        for (E e : iterable) {
+            builder.add(e);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Universe getter
+     *
+     * @return the universe of the bag
+     */
+    public Universe<E> universe() {
+        return universe;
+    }
+
+    /**
+     * Method which returns the same multiset as a SortedBag
+     *
+     * @return <pre>SortedBag<E></pre>
+     */
+    public SortedBag<E> toSortedBag() {
+        SortedBag.Builder<E> builder = new SortedBag.Builder<>();
+        for (int i = 0; i < counts.length; ++i) {
+            builder.add(counts[i], universe.get(i));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Method which returns true if the bag is empty
+     *
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Size getter, in constant time
+     *
+     * @return the number of elements of the bag
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Method which returns the multiplicity of the given element
+     *
+     * @param element element
+     * @return the multiplicity of the element, 0 if it is not in the bag or in the universe
+     */
+    public int countOf(E element) {
+        int rank = universe.rankOf(element);
+        return rank < 0 ? 0 : counts[rank];
+    }
+
+    /**
+     * Method which returns true if the bag contains the given element at least once
+     *
+     * @param element element
+     * @return boolean
+     */
+    public boolean contains(E element) {
+        return countOf(element) > 0;
+    }
+
+    /**
+     * Method which returns true if the given bag is a subset of this one
+     *
+     * @param that other bag, of the same universe
+     * @return boolean
+     * @throws IllegalArgumentException if the bags do not have the same universe
+     */
+    public boolean contains(IndexedBag<E> that) {
+        checkArgument(that.universe == universe);
+        for (int i = 0; i < counts.length; ++i) {
+            if (that.counts[i] > counts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method which returns the element of the given index, the elements being sorted
+     *
+     * @param index index of the element
+     * @return the element of the given index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        // First rank whose cumulative count is greater than the index
+        int low = 0;
+        int high = counts.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeCounts[middle] > index) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return universe.get(low);
+    }
+
+    /**
+     * Method which returns the union of this bag and of the given one
+     *
+     * @param that other bag, of the same universe
+     * @return IndexedBag
+     * @throws IllegalArgumentException if the bags do not have the same universe
+     */
+    public IndexedBag<E> union(IndexedBag<E> that) {
+        checkArgument(that.universe == universe);
+        int[] newCounts = new int[counts.length];
+        for (int i = 0; i < counts.length; ++i) {
+            newCounts[i] = counts[i] + that.counts[i];
+        }
+        return new IndexedBag<>(universe, newCounts);
+    }
+
+    /**
+     * Method which returns the difference between this bag and the given one
+     *
+     * @param that other bag, of the same universe
+     * @return IndexedBag
+     * @throws IllegalArgumentException if the bags do not have the same universe
+     */
+    public IndexedBag<E> difference(IndexedBag<E> that) {
+        checkArgument(that.universe == universe);
+        int[] newCounts = new int[counts.length];
+        for (int i = 0; i < counts.length; ++i) {
+            newCounts[i] = Math.max(counts[i] - that.counts[i], 0);
+        }
+        return new IndexedBag<>(universe, newCounts);
+    }
+
+    /**
+     * Method which returns all the subsets of the bag of the given size. Each subset is built once, by choosing the
+     * multiplicity of each element in turn
+     *
+     * @param size size of the subsets
+     * @return <pre>Set<IndexedBag<E>></pre>
+     * @throws IllegalArgumentException if the size is not between 0 and the size of the bag
+     */
+    public Set<IndexedBag<E>> subsetsOfSize(int size) {
+        checkArgument(0 <= size && size <= this.size);
+        Set<IndexedBag<E>> subsets = new HashSet<>();
+        addSubsets(subsets, new int[counts.length], 0, size);
+        return subsets;
+    }
+
+    /**
+     * Method which returns the elements of the bag, in order
+     *
+     * @return <pre>List<E></pre>
+     */
+    public List<E> toList() {
+        List<E> list = new ArrayList<>(size);
+        for (int i = 0; i < counts.length; ++i) {
+            for (int j = 0; j < counts[i]; ++j) {
+                list.add(universe.get(i));
+            }
+        }
+        return list;
+    }
+
+    /**
+     * Method which returns a stream of the elements of the bag, in order
+     *
+     * @return <pre>Stream<E></pre>
+     */
+    public Stream<E> stream() {
+        return IntStream.range(0, counts.length)
+                .boxed()
+                .flatMap(i -> Collections.nCopies(counts[i], universe.get(i)).stream());
+    }
+
+    /**
+     * Iterator over the elements of the bag, in order
+     *
+     * @return <pre>Iterator<E></pre>
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private int rank = 0; // Rank of the next element
+            private int returned = 0; // Number of occurrences of the element of this rank already returned
+
+            @Override
+            public boolean hasNext() {
+                while (rank < counts.length && returned == counts[rank]) {
+                    ++rank;
+                    returned = 0;
+                }
+                return rank < counts.length;
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ++returned;
+                return universe.get(rank);
+            }
+        };
+    }
+
+    /**
+     * Method which returns an (unmodifiable) map giving its multiplicity to each element of the bag
+     *
+     * @return <pre>SortedMap<E, Integer></pre>
+     */
+    public SortedMap<E, Integer> toMap() {
+        SortedMap<E, Integer> map = new TreeMap<>();
+        for (int i = 0; i < counts.length; ++i) {
+            if (counts[i] > 0) {
+                map.put(universe.get(i), counts[i]);
+            }
+        }
+        return Collections.unmodifiableSortedMap(map);
+    }
+
+    /**
+     * Method which returns the set of the elements of the bag, each element appearing only once
+     *
+     * @return <pre>Set<E></pre>
+     */
+    public Set<E> toSet() {
+        return toMap().keySet();
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof IndexedBag<?>
+                && ((IndexedBag<?>) that).universe == universe
+                && Arrays.equals(((IndexedBag<?>) that).counts, counts);
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < counts.length; ++i) {
+            if (counts[i] > 0) {
+                joiner.add((counts[i] > 1 ? counts[i] + "×" : "") + universe.get(i));
+            }
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Internal method which adds to the set all the subsets whose multiplicities are the given ones for the ranks
+     * lower than the given rank
+     *
+     * @param subsets   subsets found so far
+     * @param subset    multiplicities of the subset being built
+     * @param rank      rank of the next element to choose
+     * @param remaining number of elements still to choose
+     */
+    private void addSubsets(Set<IndexedBag<E>> subsets, int[] subset, int rank, int remaining) {
+        if (remaining == 0) {
+            subsets.add(new IndexedBag<>(universe, subset.clone()));
+            return;
+        }
+        // Stop if the remaining elements are not enough to complete the subset
+        if (rank == counts.length || size - (rank == 0 ? 0 : cumulativeCounts[rank - 1]) < remaining) {
+            return;
+        }
+        for (int n = Math.min(counts[rank], remaining); n >= 0; --n) {
+            subset[rank] = n;
+            addSubsets(subsets, subset, rank + 1, remaining - n);
+        }
+        subset[rank] = 0;
+    }
+
+    /**
+     * Class Universe represents the sorted elements which an IndexedBag can contain
+     *
+     * @param <E> type of the elements
+     */
+    public static final class Universe<E extends Comparable<E>> {
+
+        private final List<E> elements; // Elements, sorted and without duplicates
+
+        /**
+         * Private constructor, the universes are created with the static method of(...)
+         *
+         * @param elements sorted elements
+         */
+        private Universe(List<E> elements) {
+            this.elements = elements;
+        }
+
+        /**
+         * Method which creates the universe of the given elements
+         *
+         * @param elements elements, which are sorted and of which duplicates (according to compareTo, as in SortedBag)
+         *                 are removed
+         * @param <E>      type of the elements
+         * @return Universe
+         */
+        public static <E extends Comparable<E>> Universe<E> of(Collection<E> elements) {
+            return new Universe<>(List.copyOf(new TreeSet<>(elements)));
+        }
+
+        /**
+         * Size getter
+         *
+         * @return the number of elements of the universe
+         */
+        public int size() {
+            return elements.size();
+        }
+
+        /**
+         * Method which returns the element of the given rank
+         *
+         * @param rank rank of the element
+         * @return E
+         */
+        public E get(int rank) {
+            return elements.get(rank);
+        }
+
+        /**
+         * Method which returns the rank of the given element, in logarithmic time
+         *
+         * @param element element
+         * @return the rank of the element, -1 if it is not in the universe
+         */
+        public int rankOf(E element) {
+            return Math.max(Collections.binarySearch(elements, element), -1);
+        }
+    }
+
+    /**
+     * Builder of IndexedBag
+     *
+     * @param <E> type of the elements
+     */
+    public static final class Builder<E extends Comparable<E>> {
+
+        private final Universe<E> universe; // Universe of the bag to build
+        private final int[] counts; // Multiplicity of each element added so far
+        private int size; // Number of elements added so far
+
+        /**
+         * Builder constructor
+         *
+         * @param universe universe of the bag to build
+         */
+        public Builder(Universe<E> universe) {
+            this.universe = universe;
+            this.counts = new int[universe.size()];
+        }
+
+        /**
+         * Method which adds a given number of occurrences of an element
+         *
+         * @param count   number of occurrences
+         * @param element element
+         * @return the builder
+         * @throws IllegalArgumentException if count is negative or if the element is not in the universe
+         */
+        public Builder<E> add(int count, E element) {
+            checkArgument(count >= 0);
+            int rank = universe.rankOf(element);
+            checkArgument(rank >= 0);
+            counts[rank] += count;
+            size += count;
+            return this;
+        }
+
+        /**
+         * Method which adds one occurrence of an element
+         *
+         * @param element element
+         * @return the builder
+         * @throws IllegalArgumentException if the element is not in the universe
+         */
+        public Builder<E> add(E element) {
+            return add(1, element);
+        }
+
+        /**
+         * Method which adds all the elements of a bag
+         *
+         * @param that bag, of the same universe
+         * @return the builder
+         * @throws IllegalArgumentException if the bag does not have the same universe
+         */
+        public Builder<E> add(IndexedBag<E> that) {
+            checkArgument(that.universe == universe);
+            for (int i = 0; i < counts.length; ++i) {
+                counts[i] += that.counts[i];
+            }
+            size += that.size;
+            return this;
+        }
+
+        /**
+         * Method which returns true if no element has been added yet
+         *
+         * @return boolean
+         */
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Size getter
+         *
+         * @return the number of elements added so far
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Method which builds the bag of the elements added so far
+         *
+         * @return IndexedBag
+         */
+        public IndexedBag<E> build() {
+            return new IndexedBag<>(universe, counts.clone());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ch.epfl.tchu;
 
 import java.util.*;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Multiensemble trié et immuable.
@@ -178,20 +179,41 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E>{
      * la taille du multiensemble
      */
     public Set<SortedBag<E>> subsetsOfSize(int size) {
-        Preconditions.checkArgument(0 <= size && size <= size());
-        if (size == 0)
-            return Set.of(SortedBag.of());
-
-        var result = new HashSet<SortedBag<E>>();
-        for (var e1 : elements.keySet()) {
-            var s1 = SortedBag.of(e1);
-            this.difference(s1)
-                    .subsetsOfSize(size - 1)
-                    .forEach(e -> result.add(s1.union(e)));
-        }
+        var result = new LinkedHashSet<SortedBag<E>>();
+        lazySubsetsOfSize(size).forEach(result::add);
         return result;
     }
 
+    /**
+     * Retourne un itérable sur les sous-ensembles du multiensemble ayant une taille donnée.
+     * Les sous-ensembles sont produits paresseusement, chacun exactement une fois, dans l'ordre
+     * lexicographique de leurs éléments.
+     * @param size la taille des sous-ensembles à retourner
+     * @return un itérable sur les sous-ensembles de <code>this</code> de taille <code>size</code>
+     * @throws IllegalArgumentException si <code>size</code> n'est pas comprise entre 0 et
+     * la taille du multiensemble
+     */
+    public Iterable<SortedBag<E>> lazySubsetsOfSize(int size) {
+        Preconditions.checkArgument(0 <= size && size <= size());
+        return () -> new SubsetIterator<>(elements, size);
+    }
+
+    /**
+     * Retourne un flot des sous-ensembles du multiensemble ayant une taille donnée,
+     * dans le même ordre que <code>lazySubsetsOfSize</code>.
+     * @param size la taille des sous-ensembles à retourner
+     * @return un flot des sous-ensembles de <code>this</code> de taille <code>size</code>
+     * @throws IllegalArgumentException si <code>size</code> n'est pas comprise entre 0 et
+     * la taille du multiensemble
+     */
+    public Stream<SortedBag<E>> subsetsOfSizeStream(int size) {
+        var characteristics = Spliterator.ORDERED | Spliterator.DISTINCT
+                | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(lazySubsetsOfSize(size).iterator(), characteristics),
+                false);
+    }
+
     /**
      * Retourne une liste contenant les éléments du multiensemble, dans l'ordre.
      * @return une liste contenant les éléments de <code>this</code>
@@ -270,6 +292,63 @@ public final class SortedBag<E extends Comparable<E>> implements Iterable<E>{
         return j.toString();
     }
 
+    // Itérateur sur les sous-ensembles d'une taille donnée. Chaque sous-ensemble est représenté par
+    // la multiplicité de chacun des éléments distincts, et le suivant est obtenu en retirant une
+    // occurrence de l'élément le plus à droite possible, puis en remplissant goulûment la suite.
+    private static final class SubsetIterator<E extends Comparable<E>> implements Iterator<SortedBag<E>> {
+        private final List<E> keys; // éléments distincts, dans l'ordre
+        private final int[] maxCounts; // multiplicités des éléments dans le multiensemble
+        private final int[] counts; // multiplicités des éléments dans le prochain sous-ensemble
+        private boolean hasNext = true;
+
+        SubsetIterator(SortedMap<E, Integer> elements, int size) {
+            keys = List.copyOf(elements.keySet());
+            maxCounts = elements.values().stream().mapToInt(Integer::intValue).toArray();
+            counts = new int[maxCounts.length];
+            fill(0, size);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public SortedBag<E> next() {
+            if (!hasNext) throw new NoSuchElementException();
+            var subset = new TreeMap<E, Integer>();
+            for (var i = 0; i < counts.length; i++)
+                if (counts[i] > 0) subset.put(keys.get(i), counts[i]);
+            advance();
+            return new SortedBag<>(subset);
+        }
+
+        // Passe au sous-ensemble suivant, ou termine l'itération s'il n'y en a plus.
+        private void advance() {
+            var suffixCount = 0;
+            var suffixCapacity = 0;
+            for (var i = counts.length - 1; i >= 0; i--) {
+                if (counts[i] > 0 && suffixCount < suffixCapacity) {
+                    counts[i]--;
+                    fill(i + 1, suffixCount + 1);
+                    return;
+                }
+                suffixCount += counts[i];
+                suffixCapacity += maxCounts[i];
+            }
+            hasNext = false;
+        }
+
+        // Répartit goulûment n occurrences sur les éléments à partir de l'index donné.
+        private void fill(int from, int n) {
+            for (var i = from; i < counts.length; i++) {
+                counts[i] = Math.min(n, maxCounts[i]);
+                n -= counts[i];
+            }
+            assert n == 0;
+        }
+    }
+
     /**
      * Bâtisseur de multiensemble.
      * @param <E> le type des éléments du multiensemble à bâtir.
@@ -20,17 +20,17 @@ import static ch.epfl.tchu.game.Constants.FACE_UP_CARDS_COUNT;
 public final class CardState extends PublicCardState {
 
     private final Deck<Card> deck; //Represents the deck
-    private final SortedBag<Card> discard; // Represents the discard
+    private final long discard; // Represents the discard, packed with PackedCardBag
 
     /**
      * private constructor of CardState, this constructor calls the super-constructor
      * to initialize the attributes of SuperCardState and then initialize it's own attribute
      * @param faceUpCards //List that contains the 5 faceUpCards
      * @param deck //Represents the deck
-     * @param discard // Represents the discard
+     * @param discard // Represents the discard, packed with PackedCardBag
      */
-    private CardState(List<Card> faceUpCards,Deck<Card> deck,SortedBag<Card> discard){
-        super(faceUpCards,deck.size(),discard.size());
+    private CardState(List<Card> faceUpCards,Deck<Card> deck,long discard){
+        super(faceUpCards,deck.size(),PackedCardBag.size(discard));
         this.deck = deck ;
         this.discard = discard;
     }
@@ -46,7 +46,34 @@ public final class CardState extends PublicCardState {
 
         return new CardState(deck.topCards(FACE_UP_CARDS_COUNT).toList(),
                 deck.withoutTopCards(FACE_UP_CARDS_COUNT),
-                SortedBag.of());
+                PackedCardBag.EMPTY);
+    }
+
+    /**
+     * Package-private method used to rebuild a card state from its components
+     * @param faceUpCards the 5 faceUpCards
+     * @param deck the deck
+     * @param discard the discard
+     * @return a new CardState with the given components
+     */
+    static CardState of(List<Card> faceUpCards, Deck<Card> deck, SortedBag<Card> discard){
+        return new CardState(faceUpCards, deck, PackedCardBag.of(discard));
+    }
+
+    /**
+     * Package-private deck getter
+     * @return the deck
+     */
+    Deck<Card> deck(){
+        return deck;
+    }
+
+    /**
+     * Package-private discard getter
+     * @return the discard
+     */
+    SortedBag<Card> discard(){
+        return PackedCardBag.toSortedBag(discard);
     }
 
     /**
@@ -103,9 +130,9 @@ public final class CardState extends PublicCardState {
      */
     public CardState withDeckRecreatedFromDiscards(Random rng){
         checkArgument(isDeckEmpty());
-        Deck<Card> deckRecreated = Deck.of(discard,rng);
+        Deck<Card> deckRecreated = Deck.of(PackedCardBag.toSortedBag(discard),rng);
         return new CardState(faceUpCards(),
-                deckRecreated,SortedBag.of());
+                deckRecreated,PackedCardBag.EMPTY);
     }
 
     /**
@@ -114,7 +141,7 @@ public final class CardState extends PublicCardState {
      * @return a new CardState, adding the list of cards given in argument to the discard
      */
     public CardState withMoreDiscardedCards(SortedBag<Card> additionalDiscards){
-    return new CardState(faceUpCards(), deck, discard.union(additionalDiscards));
+    return new CardState(faceUpCards(), deck, PackedCardBag.union(discard, PackedCardBag.of(additionalDiscards)));
     }
 
 }
@@ -0,0 +1,158 @@
+package ch.epfl.tchu.game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+
+/**
+ * Class ChMapIndex gives each route and each ticket of ChMap its index in ChMap.routes() and ChMap.tickets(), and
+ * reads and writes them in binary form as this index, on a single byte. It is the only indexing of the routes and
+ * tickets of ChMap, shared by RouteSet, the snapshots of GameStateCodec, the journals and the binary messages of the
+ * network, so that they all agree on the index of each route and ticket
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class ChMapIndex {
+
+    /**
+     * Value returned as the index of the routes and tickets which are not in ChMap
+     */
+    public static final int NO_INDEX = -1;
+
+    private static final List<Route> ROUTES = ChMap.routes(); // Routes, indexed by their index in ChMap
+    private static final List<Ticket> TICKETS = ChMap.tickets(); // Tickets, indexed by their index in ChMap
+    private static final Map<Route, Integer> ROUTE_INDICES = indicesOf(ROUTES); // Index of each route of ChMap
+    private static final Map<Ticket, Integer> TICKET_INDICES = indicesOf(TICKETS); // Index of each ticket of ChMap
+
+    /**
+     * Number of routes of ChMap, whose indices are 0 to ROUTE_COUNT - 1
+     */
+    public static final int ROUTE_COUNT = ROUTES.size();
+
+    /**
+     * Number of tickets of ChMap, whose indices are 0 to TICKET_COUNT - 1
+     */
+    public static final int TICKET_COUNT = TICKETS.size();
+
+    /**
+     * Private constructor, the class is not instantiable
+     */
+    private ChMapIndex() {}
+
+    /**
+     * Method which returns the index of the given route in ChMap.routes()
+     *
+     * @param route route
+     * @return the index of the route, NO_INDEX if it is not in ChMap
+     */
+    public static int routeIndex(Route route) {
+        return ROUTE_INDICES.getOrDefault(route, NO_INDEX);
+    }
+
+    /**
+     * Method which returns the route of ChMap of the given index
+     *
+     * @param index index of the route in ChMap.routes()
+     * @return Route
+     * @throws IllegalArgumentException if no route of ChMap has the given index
+     */
+    public static Route route(int index) {
+        checkArgument(index >= 0 && index < ROUTE_COUNT);
+        return ROUTES.get(index);
+    }
+
+    /**
+     * Method which returns the index of the given ticket in ChMap.tickets()
+     *
+     * @param ticket ticket
+     * @return the index of the ticket, NO_INDEX if it is not in ChMap
+     */
+    public static int ticketIndex(Ticket ticket) {
+        return TICKET_INDICES.getOrDefault(ticket, NO_INDEX);
+    }
+
+    /**
+     * Method which returns the ticket of ChMap of the given index
+     *
+     * @param index index of the ticket in ChMap.tickets()
+     * @return Ticket
+     * @throws IllegalArgumentException if no ticket of ChMap has the given index
+     */
+    public static Ticket ticket(int index) {
+        checkArgument(index >= 0 && index < TICKET_COUNT);
+        return TICKETS.get(index);
+    }
+
+    /**
+     * Method which writes a route of ChMap as its index, on a single byte
+     *
+     * @param out   output
+     * @param route route of ChMap
+     * @throws IOException              if the route cannot be written
+     * @throws IllegalArgumentException if the route is not in ChMap
+     */
+    public static void writeRoute(DataOutput out, Route route) throws IOException {
+        int index = routeIndex(route);
+        checkArgument(index != NO_INDEX);
+        out.writeByte(index);
+    }
+
+    /**
+     * Method which reads a route written with writeRoute(...)
+     *
+     * @param in input
+     * @return Route
+     * @throws IOException              if the route cannot be read
+     * @throws IllegalArgumentException if the index of the route is invalid
+     */
+    public static Route readRoute(DataInput in) throws IOException {
+        return route(in.readUnsignedByte());
+    }
+
+    /**
+     * Method which writes a ticket of ChMap as its index, on a single byte
+     *
+     * @param out    output
+     * @param ticket ticket of ChMap
+     * @throws IOException              if the ticket cannot be written
+     * @throws IllegalArgumentException if the ticket is not in ChMap
+     */
+    public static void writeTicket(DataOutput out, Ticket ticket) throws IOException {
+        int index = ticketIndex(ticket);
+        checkArgument(index != NO_INDEX);
+        out.writeByte(index);
+    }
+
+    /**
+     * Method which reads a ticket written with writeTicket(...)
+     *
+     * @param in input
+     * @return Ticket
+     * @throws IOException              if the ticket cannot be read
+     * @throws IllegalArgumentException if the index of the ticket is invalid
+     */
+    public static Ticket readTicket(DataInput in) throws IOException {
+        return ticket(in.readUnsignedByte());
+    }
+
+    /**
+     * Internal method which indexes the elements of a list by identity
+     *
+     * @param list list
+     * @param <E>  type of the elements
+     * @return map with element and index relationship
+     */
+    private static <E> Map<E, Integer> indicesOf(List<E> list) {
+        Map<E, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < list.size(); ++i) {
+            indices.put(list.get(i), i);
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,159 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class ClaimabilityEngine keeps track of the routes of ChMap that a player can claim, i.e. the routes of which no
+ * route of the group is claimed, and for which the player has enough cars and cards. Each update only recomputes the
+ * routes affected by what changed since the previous one: the routes using the kinds of cards whose count changed,
+ * the routes whose length lies between the previous and the new car count, and the groups of the routes whose owner
+ * changed.
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class ClaimabilityEngine {
+
+    private static final List<Route> ROUTES = ChMap.routes(); // Routes, in the order of their index
+    private static final int[][] ROUTES_USING_CARD = computeRoutesUsingCard(); // Routes which can be claimed with each kind of card
+
+    private final boolean[] claimable = new boolean[ROUTES.size()]; // True for the routes which can be claimed
+    private final boolean[] affected = new boolean[ROUTES.size()]; // Work array of the routes to recompute
+    private final int[] affectedRoutes = new int[ROUTES.size()]; // Work array of the indices of the routes to recompute
+    private int affectedCount; // Number of routes to recompute
+
+    private RouteSet claimedRoutes = RouteSet.EMPTY; // Claimed routes at the last update
+    private long cards = PackedCardBag.EMPTY; // Cards of the player at the last update, packed with PackedCardBag
+    private int carCount = 0; // Car count of the player at the last update
+
+    /**
+     * Method which returns true if the route of the given index could be claimed at the last update
+     *
+     * @param index index of the route in ChMap.routes()
+     * @return boolean
+     * @throws IndexOutOfBoundsException if no route of ChMap has the given index
+     */
+    public boolean isClaimable(int index) {
+        return claimable[index];
+    }
+
+    /**
+     * Method which updates the claimable routes
+     *
+     * @param claimedRoutes routes claimed by any player
+     * @param cards         cards of the player, packed with PackedCardBag
+     * @param carCount      car count of the player
+     * @return the routes whose claimability changed
+     */
+    public RouteSet update(RouteSet claimedRoutes, long cards, int carCount) {
+        affectedCount = 0;
+
+        // Routes using the kinds of cards whose count changed
+        for (int i = 0; i < Card.COUNT; ++i) {
+            Card card = Card.ALL.get(i);
+            if (PackedCardBag.countOf(cards, card) != PackedCardBag.countOf(this.cards, card)) {
+                for (int route : ROUTES_USING_CARD[i]) {
+                    markAffected(route);
+                }
+            }
+        }
+
+        // Routes which became too long, or short enough, for the car count
+        if (carCount != this.carCount) {
+            int minCarCount = Math.min(carCount, this.carCount);
+            int maxCarCount = Math.max(carCount, this.carCount);
+            for (int route = 0; route < ROUTES.size(); ++route) {
+                int length = ROUTES.get(route).length();
+                if (length > minCarCount && length <= maxCarCount) {
+                    markAffected(route);
+                }
+            }
+        }
+
+        // Groups of the routes whose owner changed
+        markGroupsOfMissingRoutes(claimedRoutes, this.claimedRoutes);
+        markGroupsOfMissingRoutes(this.claimedRoutes, claimedRoutes);
+
+        this.claimedRoutes = claimedRoutes;
+        this.cards = cards;
+        this.carCount = carCount;
+
+        List<Route> changedRoutes = new ArrayList<>();
+        for (int i = 0; i < affectedCount; ++i) {
+            int route = affectedRoutes[i];
+            affected[route] = false;
+            boolean newClaimable = computeClaimable(route);
+            if (newClaimable != claimable[route]) {
+                claimable[route] = newClaimable;
+                changedRoutes.add(ROUTES.get(route));
+            }
+        }
+        return RouteSet.of(changedRoutes);
+    }
+
+    /**
+     * Internal method which computes if the route of the given index can be claimed
+     *
+     * @param index index of the route
+     * @return boolean
+     */
+    private boolean computeClaimable(int index) {
+        Route route = ROUTES.get(index);
+        return carCount >= route.length()
+                && !claimedRoutes.intersects(RouteGroups.groupOf(index))
+                && route.canClaim(cards);
+    }
+
+    /**
+     * Internal method which marks the groups of the routes of the first set which are not in the second one
+     *
+     * @param routes      first set of routes
+     * @param otherRoutes second set of routes
+     */
+    private void markGroupsOfMissingRoutes(RouteSet routes, RouteSet otherRoutes) {
+        for (Route route : routes) {
+            int index = RouteSet.indexOf(route);
+            if (index < ROUTES.size() && !otherRoutes.contains(index)) {
+                for (Route sibling : RouteGroups.groupOf(index)) {
+                    markAffected(RouteSet.indexOf(sibling));
+                }
+            }
+        }
+    }
+
+    /**
+     * Internal method which marks the route of the given index as one to recompute
+     *
+     * @param index index of the route
+     */
+    private void markAffected(int index) {
+        if (!affected[index]) {
+            affected[index] = true;
+            affectedRoutes[affectedCount++] = index;
+        }
+    }
+
+    /**
+     * Internal method which computes the routes which can be claimed with each kind of card
+     *
+     * @return the indices of the routes, indexed by card ordinal
+     */
+    private static int[][] computeRoutesUsingCard() {
+        int[][] routesUsingCard = new int[Card.COUNT][];
+        for (int i = 0; i < Card.COUNT; ++i) {
+            Card card = Card.ALL.get(i);
+            List<Integer> routes = new ArrayList<>();
+            for (int route = 0; route < ROUTES.size(); ++route) {
+                for (long option : ROUTES.get(route).packedClaimCards()) {
+                    if (PackedCardBag.countOf(option, card) > 0) {
+                        routes.add(route);
+                        break;
+                    }
+                }
+            }
+            routesUsingCard[i] = routes.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return routesUsingCard;
+    }
+}
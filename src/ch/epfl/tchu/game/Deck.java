@@ -2,6 +2,7 @@ package ch.epfl.tchu.game;
 
 import ch.epfl.tchu.SortedBag;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
@@ -16,28 +17,70 @@ import static ch.epfl.tchu.Preconditions.checkArgument;
 //
 public final class Deck<C extends Comparable<C>> {
 
-    private final List<C> cards; //Represents cards in the deck
+    private final Object[] cards; //Represents cards in the deck, shared by all the decks obtained by drawing from it
+    private final int top; //Index of the top card of the deck in the array
 
     /**
-     * Deck constructor (private), creates the list of cards
-     * @param cards represents cards in the deck
+     * Deck constructor (private)
+     * @param cards represents cards in the deck, which must never be modified
+     * @param top index of the top card of the deck in the array
      */
-    private Deck(List<C> cards){
-        this.cards = List.copyOf(cards);
+    private Deck(Object[] cards, int top){
+        this.cards = cards;
+        this.top = top;
     }
 
     /**
-     * Method that is used to construct a deck
+     * Method that is used to construct a deck. The cards are shuffled exactly like Collections.shuffle would shuffle
+     * the list of the cards with the same random generator
      * @param cards cards that are in the sortedBag
      * @param rng random generator to shuffle the cards
      * @param <C> type of the cards in the sorted bag
      * @return a deck with shuffled cards
      */
     public static <C extends Comparable<C>> Deck<C> of(SortedBag<C> cards, Random rng){
-        List<C> deckCards = cards.toList(); //Creation of the list that contains the cards that are in the sortedBag
-        Collections.shuffle(deckCards,rng); //Shuffle of cards
-        return new Deck(deckCards);
+        Object[] sortedCards = new Object[cards.size()]; //Cards that are in the sortedBag, in order
+        int index = 0;
+        for(C card : cards){
+            sortedCards[index++] = card;
+        }
 
+        //Fisher-Yates shuffle of the positions of the cards, with the same calls to rng as Collections.shuffle
+        int[] positions = new int[sortedCards.length];
+        for(int i = 0; i < positions.length; ++i){
+            positions[i] = i;
+        }
+        for(int i = positions.length; i > 1; --i){
+            int j = rng.nextInt(i);
+            int position = positions[i - 1];
+            positions[i - 1] = positions[j];
+            positions[j] = position;
+        }
+
+        Object[] deckCards = new Object[sortedCards.length];
+        for(int i = 0; i < deckCards.length; ++i){
+            deckCards[i] = sortedCards[positions[i]];
+        }
+        return new Deck<>(deckCards, 0);
+    }
+
+    /**
+     * Package-private method used to rebuild a deck whose cards are already in the right order
+     * @param cards cards of the deck, the first one being the top card
+     * @param <C> type of the cards
+     * @return a deck containing the given cards in the given order
+     */
+    static <C extends Comparable<C>> Deck<C> ofOrdered(List<C> cards){
+        return new Deck<>(List.copyOf(cards).toArray(), 0);
+    }
+
+    /**
+     * Package-private getter of the cards of the deck, in order
+     * @return the (unmodifiable) list of the cards, the first one being the top card
+     */
+    @SuppressWarnings("unchecked")
+    List<C> cards(){
+        return Collections.unmodifiableList((List<C>) (List<?>) Arrays.asList(cards).subList(top, cards.length));
     }
 
     /**
@@ -45,7 +88,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return the number of cards that are remaining in the deck
      */
     public int size(){
-        return cards.size();
+        return cards.length - top;
     }
 
     /**
@@ -53,7 +96,7 @@ public final class Deck<C extends Comparable<C>> {
      * @return true iff the deck is empty
      */
     public boolean isEmpty(){
-        return cards.isEmpty();
+        return top == cards.length;
     }
 
     /**
@@ -61,19 +104,20 @@ public final class Deck<C extends Comparable<C>> {
      * @return the card at the top of the deck
      * @throws IllegalArgumentException there remains no card in the deck
      */
+    @SuppressWarnings("unchecked")
     public C topCard(){
-        checkArgument(!cards.isEmpty());
-        return cards.get(0);
+        checkArgument(!isEmpty());
+        return (C) cards[top];
     }
 
     /**
-     *
+     * The cards are not copied, so this method runs in constant time
      * @return the deck without the card at the top of the deck
      * @throws IllegalArgumentException there remains no card in the deck
      */
-    public Deck withoutTopCard(){
-        checkArgument(!cards.isEmpty());
-        return new Deck(cards.subList(1, cards.size()));
+    public Deck<C> withoutTopCard(){
+        checkArgument(!isEmpty());
+        return new Deck<>(cards, top + 1);
     }
 
     /**
@@ -82,19 +126,24 @@ public final class Deck<C extends Comparable<C>> {
      * @return a sortedBad that contains the count's cards at the top of the deck
      * @throws IllegalArgumentException if the argument count is negative of if it exceeds the number of cards in the deck
      */
+    @SuppressWarnings("unchecked")
     public SortedBag<C> topCards(int count) {
-        checkArgument(count >= 0 && count <= cards.size());
-        return SortedBag.of(cards.subList(0,count));
+        checkArgument(count >= 0 && count <= size());
+        SortedBag.Builder<C> topCards = new SortedBag.Builder<>();
+        for(int i = top; i < top + count; ++i){
+            topCards.add((C) cards[i]);
+        }
+        return topCards.build();
     }
 
     /**
-     *
+     * The cards are not copied, so this method runs in constant time
      * @param count number of cards at the top that need to be skipped while creating the new deck
      * @return a deck without the count's cards at the top of the deck
      * @throws IllegalArgumentException if the argument count is negative of if it exceeds the number of cards in the deck
      */
     public Deck<C> withoutTopCards(int count){
-        checkArgument(count >= 0 && count <= cards.size());
-        return new Deck(cards.subList(count, cards.size()));
+        checkArgument(count >= 0 && count <= size());
+        return new Deck<>(cards, top + count);
     }
 }
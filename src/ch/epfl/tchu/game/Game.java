@@ -316,21 +316,25 @@ public final class Game {
         // this variable will stock the length of the longest trail
         int playerLongestTrailLength = 0;
 
+        // the longest trail of each player, computed only once
+        Map<PlayerId, Trail> longestTrails = new EnumMap<>(PlayerId.class);
+
         // this loop compute the points for each players and give the value of the longest trail
         for (PlayerId playerId : PlayerId.ALL) {
             playerTotalPoints.add(gameState.playerState(playerId).finalPoints());
-            if (Trail.longest(gameState.playerState(playerId).routes()).length() > playerLongestTrailLength) {
-                playerLongestTrailLength = Trail.longest(gameState.playerState(playerId).routes()).length();
+            longestTrails.put(playerId, Trail.longest(gameState.playerState(playerId).routes()));
+            if (longestTrails.get(playerId).length() > playerLongestTrailLength) {
+                playerLongestTrailLength = longestTrails.get(playerId).length();
             }
         }
 
         for (PlayerId playerId : PlayerId.values()) {
-            if (playerLongestTrailLength == Trail.longest(gameState.playerState(playerId).routes()).length()){
+            if (playerLongestTrailLength == longestTrails.get(playerId).length()){
                 // give the longest trail bonus to the player
                 playerTotalPoints.set(playerId.ordinal(), playerTotalPoints.get(playerId.ordinal()) + LONGEST_TRAIL_BONUS_POINTS);
 
                 info = new Info(playerNames.get(playerId));
-                giveInfoToPlayers(info.getsLongestTrailBonus(Trail.longest(gameState.playerState(playerId).routes())), players);
+                giveInfoToPlayers(info.getsLongestTrailBonus(longestTrails.get(playerId)), players);
             }
         }
 
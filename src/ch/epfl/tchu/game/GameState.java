@@ -18,8 +18,9 @@ public final class GameState extends PublicGameState {
 
     private final Deck<Ticket> ticketsDeck; // Represents the deck of tickets
 
-    private final Map<PlayerId,PlayerState> playerState; /*Represents the state of the Player1 or Player2
-             (the state of a player is defined by the tickets, the cards and the routes that he owns)*/
+    private final PlayerState[] playerStates; /*Represents the state of the Player1 or Player2, indexed by player id ordinal
+             (the state of a player is defined by the tickets, the cards and the routes that he owns). The array is
+             shared with PublicGameState and never modified*/
 
     private final CardState privateCardState; /*Represents the private state of the cards that is inaccessible to players
              (the card's state is defined by the 5 faceUpCards, the deck and the discard)*/
@@ -30,24 +31,28 @@ public final class GameState extends PublicGameState {
      * Private constructor of GameState that is called with the method initial(...) (the constructor represents the state of the game)
      * @param cardState current card state
      * @param currentPlayerId Id of the player that
-     * @param playerState ID of the player whose turn it is
+     * @param playerStates state of each player, indexed by player id ordinal (not copied)
      * @param lastPlayer ID of the player that is not actually playing
      * @param ticketsDeck amount of tickets
      */
-    private GameState(CardState cardState, PlayerId currentPlayerId, Map<PlayerId, PlayerState> playerState, PlayerId lastPlayer,Deck<Ticket> ticketsDeck) {
-        super(ticketsDeck.size(), cardState, currentPlayerId, makePublic(playerState), lastPlayer);
+    private GameState(CardState cardState, PlayerId currentPlayerId, PlayerState[] playerStates, PlayerId lastPlayer,Deck<Ticket> ticketsDeck) {
+        super(ticketsDeck.size(), cardState, currentPlayerId, lastPlayer, playerStates);
         this.ticketsDeck = Objects.requireNonNull(ticketsDeck);
-        this.playerState = Map.copyOf(playerState);
+        this.playerStates = playerStates;
         this.privateCardState = Objects.requireNonNull(cardState);
     }
 
     /**
-     * Internal method to make a map with public player states
-     * @param stateMap represents the state of the Player1 or Player2
-     * @return the StateMap with public information of the state of Player1 and Player2
+     * Internal method which returns the player states with the state of the given player replaced, the other slots
+     * being shared with this state
+     * @param playerId ID of the player whose state is replaced
+     * @param newState new state of the player
+     * @return a new array of player states, indexed by player id ordinal
      */
-    private static Map<PlayerId,PublicPlayerState> makePublic(Map<PlayerId,PlayerState> stateMap){
-        return Map.copyOf(stateMap);
+    private PlayerState[] withPlayerState(PlayerId playerId, PlayerState newState){
+        PlayerState[] newPlayerStates = playerStates.clone();
+        newPlayerStates[playerId.ordinal()] = newState;
+        return newPlayerStates;
     }
 
     /**
@@ -64,28 +69,62 @@ public final class GameState extends PublicGameState {
         Deck<Ticket> ticketInit = Deck.of(tickets,rng); // creation of the draw shuffling the tickets given in argument
         PlayerId currentPlayerId = PlayerId.ALL.get(rng.nextInt(PlayerId.COUNT)); // we randomly select the current player
 
-        // We create a new Map that link the playerId modifying it state (we add the 4 top cards of the deck to each player)
-        Map<PlayerId,PlayerState> playerState = new HashMap<>();
+        // We create the state of each player (we add the 4 top cards of the deck to each player)
+        PlayerState[] playerStates = new PlayerState[PlayerId.COUNT];
         for(PlayerId playerId : PlayerId.ALL){
-            playerState.put(playerId,new PlayerState(SortedBag.of(),deckInit.topCards(INITIAL_CARDS_COUNT),new ArrayList<>()));
+            playerStates[playerId.ordinal()] = new PlayerState(SortedBag.of(),deckInit.topCards(INITIAL_CARDS_COUNT),new ArrayList<>());
             deckInit = deckInit.withoutTopCards(INITIAL_CARDS_COUNT);
         }
 
         return new GameState(
                 CardState.of(deckInit),
                 currentPlayerId,
-                playerState,
+                playerStates,
                 null,
                 ticketInit);
     }
 
+    /**
+     * Package-private method used to rebuild a game state from its components
+     * @param cardState card state
+     * @param currentPlayerId ID of the player whose turn it is
+     * @param playerStates state of each player, indexed by player id ordinal
+     * @param lastPlayer ID of the last player (null if the last turn has not begun)
+     * @param ticketsDeck deck of tickets
+     * @return a new game state with the given components
+     * @throws IllegalArgumentException if there is not exactly one state per player
+     */
+    static GameState of(CardState cardState, PlayerId currentPlayerId, PlayerState[] playerStates, PlayerId lastPlayer, Deck<Ticket> ticketsDeck){
+        checkArgument(playerStates.length == PlayerId.COUNT);
+        for(PlayerState playerState : playerStates){
+            Objects.requireNonNull(playerState);
+        }
+        return new GameState(cardState, currentPlayerId, playerStates.clone(), lastPlayer, ticketsDeck);
+    }
+
+    /**
+     * Package-private getter of the private card state
+     * @return the card state, with its deck and discard
+     */
+    CardState privateCardState(){
+        return privateCardState;
+    }
+
+    /**
+     * Package-private getter of the deck of tickets
+     * @return the deck of tickets
+     */
+    Deck<Ticket> ticketsDeck(){
+        return ticketsDeck;
+    }
+
     /**
      * @param playerId is the Id of the player (1 or 2)
      * @return the state of one of the two player (with ID = 1 or 2)
      */
     @Override
     public PlayerState playerState(PlayerId playerId){
-        return playerState.get(playerId);
+        return playerStates[playerId.ordinal()];
     }
 
     /**
@@ -120,7 +159,7 @@ public final class GameState extends PublicGameState {
         return new GameState(
                 privateCardState,
                 currentPlayerId(),
-                playerState,
+                playerStates,
                 lastPlayer(),
                 ticketsDeck.withoutTopCards(count));
 
@@ -146,7 +185,7 @@ public final class GameState extends PublicGameState {
         return new GameState(
                 privateCardState.withoutTopDeckCard(),
                 currentPlayerId(),
-                playerState,
+                playerStates,
                 lastPlayer(),
                 ticketsDeck);
     }
@@ -160,7 +199,7 @@ public final class GameState extends PublicGameState {
         return new GameState(
                 privateCardState.withMoreDiscardedCards(discardedCards),
                 currentPlayerId(),
-                playerState,
+                playerStates,
                 lastPlayer(),
                 ticketsDeck);
     }
@@ -176,7 +215,7 @@ public final class GameState extends PublicGameState {
             return new GameState(
                     privateCardState.withDeckRecreatedFromDiscards(rng),
                     currentPlayerId(),
-                    playerState,
+                    playerStates,
                     lastPlayer(),
                     ticketsDeck);
         } else{
@@ -192,11 +231,10 @@ public final class GameState extends PublicGameState {
      * @throws IllegalArgumentException if the player already own at least 1 billet
      */
     public GameState withInitiallyChosenTickets(PlayerId playerId, SortedBag<Ticket> chosenTickets){
-        checkArgument(playerState.get(playerId).ticketCount() == 0);
+        checkArgument(playerState(playerId).ticketCount() == 0);
 
         // Change the ID of the player to his new state (he has chosen the chosenTickets)
-        Map<PlayerId,PlayerState> playerWithChosenTickets = new TreeMap<>(playerState);
-        playerWithChosenTickets.replace(playerId,playerState.get(playerId).withAddedTickets(chosenTickets));
+        PlayerState[] playerWithChosenTickets = withPlayerState(playerId,playerState(playerId).withAddedTickets(chosenTickets));
 
         return new GameState(
                 privateCardState,
@@ -223,15 +261,13 @@ public final class GameState extends PublicGameState {
         // Creation of a new player state with adding the chosen tickets to the player (1 or 2)
         PlayerState playerStateWithChosenTickets = currentPlayerState().withAddedTickets(chosenTickets);
 
-        // Creation of a new map associating the ID of the player to his new state (he has chosen the chosenTickets)
-        Map<PlayerId,PlayerState> playerIdPlayerStateMap = new TreeMap<>();
-        playerIdPlayerStateMap.put(currentPlayerId(),playerStateWithChosenTickets);
-        playerIdPlayerStateMap.put(currentPlayerId().next(),playerState.get(currentPlayerId().next()));
+        // Replacement of the state of the current player by his new state (he has chosen the chosenTickets)
+        PlayerState[] newPlayerStates = withPlayerState(currentPlayerId(),playerStateWithChosenTickets);
 
         return new GameState(
                 privateCardState,
                 currentPlayerId(),
-                playerIdPlayerStateMap,
+                newPlayerStates,
                 lastPlayer(),
                 ticketsWithoutDrawnTickets);
 
@@ -246,13 +282,12 @@ public final class GameState extends PublicGameState {
     public GameState withDrawnFaceUpCard(int slot){
 
         // Associate the current player a new state where he took the card at the slot position
-        Map<PlayerId,PlayerState> playerIdPlayerStateMap= new TreeMap<>(playerState);
-        playerIdPlayerStateMap.replace(currentPlayerId(),playerState.get(currentPlayerId()).withAddedCard(privateCardState.faceUpCard(slot)));
+        PlayerState[] newPlayerStates = withPlayerState(currentPlayerId(),currentPlayerState().withAddedCard(privateCardState.faceUpCard(slot)));
 
         return new GameState(
                 privateCardState.withDrawnFaceUpCard(slot),
                 currentPlayerId(),
-                playerIdPlayerStateMap,
+                newPlayerStates,
                 lastPlayer(),
                 ticketsDeck);
 
@@ -265,13 +300,12 @@ public final class GameState extends PublicGameState {
     public GameState withBlindlyDrawnCard(){
 
         // Associate the current player a new state where he took the card at the top of the deck
-        Map<PlayerId,PlayerState> playerIdPlayerStateMap = new TreeMap<>(playerState);
-        playerIdPlayerStateMap.replace(currentPlayerId(),playerState.get(currentPlayerId()).withAddedCard(privateCardState.topDeckCard()));
+        PlayerState[] newPlayerStates = withPlayerState(currentPlayerId(),currentPlayerState().withAddedCard(privateCardState.topDeckCard()));
 
         return new GameState(
                 privateCardState.withoutTopDeckCard(),
                 currentPlayerId(),
-                playerIdPlayerStateMap,
+                newPlayerStates,
                 lastPlayer(),
                 ticketsDeck);
 
@@ -286,14 +320,13 @@ public final class GameState extends PublicGameState {
     public GameState withClaimedRoute(Route route, SortedBag<Card> cards){
 
         // Associate the current player a new state where he has claimed the route with the cards
-        Map<PlayerId,PlayerState> playerIdPlayerStateMap= new TreeMap<>(playerState);
-        playerIdPlayerStateMap.replace(currentPlayerId(),playerState.get(currentPlayerId()).withClaimedRoute(route,cards));
+        PlayerState[] newPlayerStates = withPlayerState(currentPlayerId(),currentPlayerState().withClaimedRoute(route,cards));
 
 
         return new GameState(
                 privateCardState.withMoreDiscardedCards(cards),
                 currentPlayerId(),
-                playerIdPlayerStateMap,
+                newPlayerStates,
                 lastPlayer(),
                 ticketsDeck);
 
@@ -304,7 +337,7 @@ public final class GameState extends PublicGameState {
      * @return true iff the identity of the last player is null and if the current player has at most 2 cars
      */
     public boolean lastTurnBegins(){
-        return (lastPlayer() == null && playerState.get(currentPlayerId()).carCount() <= CARS_COUNT);
+        return (lastPlayer() == null && currentPlayerState().carCount() <= CARS_COUNT);
     }
 
     /**
@@ -319,7 +352,7 @@ public final class GameState extends PublicGameState {
         return new GameState(
                 privateCardState,
                 currentPlayerId().next(),
-                playerState,
+                playerStates,
                 lastPlayer,
                 ticketsDeck);
     }
@@ -0,0 +1,293 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+import static ch.epfl.tchu.game.Constants.FACE_UP_CARDS_COUNT;
+
+/**
+ * Class GameStateCodec writes and reads complete game states, including the order of the decks and the private states
+ * of the players, in a compact and versioned binary format of a few hundred bytes. The snapshot starts with a magic
+ * number and the version, followed by the current and last players, the face-up cards, the deck of cards (two cards
+ * per byte), the count of each card in the discard, the deck of tickets and the state of each player (tickets, count
+ * of each card and routes, in the order they were claimed). Routes and tickets are encoded by their index in ChMap, so
+ * only states built from the routes and tickets of ChMap can be written
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class GameStateCodec {
+
+    private static final int MAGIC = 0x54434853; // Magic number at the beginning of each snapshot ("TCHS")
+    private static final int VERSION = 1; // Version of the format
+    private static final int NO_PLAYER = 0xFF; // Value written instead of the last player before the last turn
+
+    private static final List<Card> CARDS = Card.ALL; // Cards, indexed by ordinal
+    private static final List<Route> ROUTES = ChMap.routes(); // Routes, indexed by their index in ChMap
+    private static final List<Ticket> TICKETS = ChMap.tickets(); // Tickets, indexed by their index in ChMap
+    private static final Map<Route, Integer> ROUTE_INDICES = indicesOf(ROUTES); // Index of each route of ChMap
+    private static final Map<Ticket, Integer> TICKET_INDICES = indicesOf(TICKETS); // Index of each ticket of ChMap
+
+    /**
+     * Private constructor, the class is not instantiable
+     */
+    private GameStateCodec() {}
+
+    /**
+     * Method which encodes the given game state
+     *
+     * @param state game state
+     * @return the snapshot of the state
+     * @throws IllegalArgumentException if the state contains routes or tickets which are not in ChMap
+     */
+    public static byte[] encode(GameState state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(new DataOutputStream(bytes), state);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never happens with a ByteArrayOutputStream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Method which decodes a game state encoded with encode(...)
+     *
+     * @param snapshot snapshot of the state
+     * @return GameState
+     * @throws IllegalArgumentException if the snapshot is invalid, truncated or of another version
+     */
+    public static GameState decode(byte[] snapshot) {
+        try {
+            return read(new DataInputStream(new ByteArrayInputStream(snapshot)));
+        } catch (EOFException e) {
+            throw new IllegalArgumentException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never happens with a ByteArrayInputStream
+        }
+    }
+
+    /**
+     * Method which writes the snapshot of the given game state
+     *
+     * @param out   output
+     * @param state game state
+     * @throws IOException              if the snapshot cannot be written
+     * @throws IllegalArgumentException if the state contains routes or tickets which are not in ChMap
+     */
+    public static void write(DataOutput out, GameState state) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(state.currentPlayerId().ordinal());
+        out.writeByte(state.lastPlayer() == null ? NO_PLAYER : state.lastPlayer().ordinal());
+
+        CardState cardState = state.privateCardState();
+        for (Card card : cardState.faceUpCards()) {
+            out.writeByte(card.ordinal());
+        }
+        List<Card> deck = cardState.deck().cards();
+        out.writeByte(deck.size());
+        for (int i = 0; i < deck.size(); i += 2) {
+            int high = deck.get(i).ordinal();
+            int low = i + 1 < deck.size() ? deck.get(i + 1).ordinal() : 0;
+            out.writeByte(high << 4 | low);
+        }
+        writeCardCounts(out, cardState.discard());
+
+        List<Ticket> ticketsDeck = state.ticketsDeck().cards();
+        out.writeByte(ticketsDeck.size());
+        for (Ticket ticket : ticketsDeck) {
+            writeTicket(out, ticket);
+        }
+
+        for (PlayerId playerId : PlayerId.ALL) {
+            PlayerState playerState = state.playerState(playerId);
+            out.writeByte(playerState.ticketCount());
+            for (Ticket ticket : playerState.tickets()) {
+                writeTicket(out, ticket);
+            }
+            writeCardCounts(out, playerState.cards());
+            out.writeByte(playerState.routes().size());
+            for (Route route : playerState.routes()) {
+                Integer index = ROUTE_INDICES.get(route);
+                checkArgument(index != null);
+                out.writeByte(index);
+            }
+        }
+    }
+
+    /**
+     * Method which reads a snapshot written with write(...)
+     *
+     * @param in input
+     * @return GameState
+     * @throws IOException              if the snapshot cannot be read
+     * @throws IllegalArgumentException if the snapshot is invalid or of another version
+     */
+    public static GameState read(DataInput in) throws IOException {
+        checkArgument(in.readInt() == MAGIC);
+        checkArgument(in.readUnsignedByte() == VERSION);
+        PlayerId currentPlayerId = readPlayerId(in);
+        int lastPlayer = in.readUnsignedByte();
+        PlayerId lastPlayerId = lastPlayer == NO_PLAYER ? null : playerId(lastPlayer);
+
+        List<Card> faceUpCards = new ArrayList<>(FACE_UP_CARDS_COUNT);
+        for (int i = 0; i < FACE_UP_CARDS_COUNT; ++i) {
+            faceUpCards.add(card(in.readUnsignedByte()));
+        }
+        int deckSize = in.readUnsignedByte();
+        List<Card> deck = new ArrayList<>(deckSize);
+        for (int i = 0; i < deckSize; i += 2) {
+            int pair = in.readUnsignedByte();
+            deck.add(card(pair >>> 4));
+            if (i + 1 < deckSize) {
+                deck.add(card(pair & 0xF));
+            }
+        }
+        SortedBag<Card> discard = readCardCounts(in);
+
+        int ticketsDeckSize = in.readUnsignedByte();
+        List<Ticket> ticketsDeck = new ArrayList<>(ticketsDeckSize);
+        for (int i = 0; i < ticketsDeckSize; ++i) {
+            ticketsDeck.add(readTicket(in));
+        }
+
+        PlayerState[] playerStates = new PlayerState[PlayerId.COUNT];
+        for (PlayerId playerId : PlayerId.ALL) {
+            int ticketCount = in.readUnsignedByte();
+            SortedBag.Builder<Ticket> tickets = new SortedBag.Builder<>();
+            for (int i = 0; i < ticketCount; ++i) {
+                tickets.add(readTicket(in));
+            }
+            SortedBag<Card> cards = readCardCounts(in);
+            int routeCount = in.readUnsignedByte();
+            List<Route> routes = new ArrayList<>(routeCount);
+            for (int i = 0; i < routeCount; ++i) {
+                int index = in.readUnsignedByte();
+                checkArgument(index < ROUTES.size());
+                routes.add(ROUTES.get(index));
+            }
+            playerStates[playerId.ordinal()] = new PlayerState(tickets.build(), cards, routes);
+        }
+
+        return GameState.of(
+                CardState.of(faceUpCards, Deck.ofOrdered(deck), discard),
+                currentPlayerId,
+                playerStates,
+                lastPlayerId,
+                Deck.ofOrdered(ticketsDeck));
+    }
+
+    /**
+     * Internal method which writes the count of each card of the given bag
+     *
+     * @param out   output
+     * @param cards cards
+     * @throws IOException if the counts cannot be written
+     */
+    private static void writeCardCounts(DataOutput out, SortedBag<Card> cards) throws IOException {
+        for (Card card : CARDS) {
+            out.writeByte(cards.countOf(card));
+        }
+    }
+
+    /**
+     * Internal method which reads the count of each card of a bag
+     *
+     * @param in input
+     * @return <pre>SortedBag<Card></pre>
+     * @throws IOException if the counts cannot be read
+     */
+    private static SortedBag<Card> readCardCounts(DataInput in) throws IOException {
+        SortedBag.Builder<Card> cards = new SortedBag.Builder<>();
+        for (Card card : CARDS) {
+            cards.add(in.readUnsignedByte(), card);
+        }
+        return cards.build();
+    }
+
+    /**
+     * Internal method which writes a ticket of ChMap
+     *
+     * @param out    output
+     * @param ticket ticket of ChMap
+     * @throws IOException              if the ticket cannot be written
+     * @throws IllegalArgumentException if the ticket is not in ChMap
+     */
+    private static void writeTicket(DataOutput out, Ticket ticket) throws IOException {
+        Integer index = TICKET_INDICES.get(ticket);
+        checkArgument(index != null);
+        out.writeByte(index);
+    }
+
+    /**
+     * Internal method which reads a ticket of ChMap
+     *
+     * @param in input
+     * @return Ticket
+     * @throws IOException              if the ticket cannot be read
+     * @throws IllegalArgumentException if the index of the ticket is invalid
+     */
+    private static Ticket readTicket(DataInput in) throws IOException {
+        int index = in.readUnsignedByte();
+        checkArgument(index < TICKETS.size());
+        return TICKETS.get(index);
+    }
+
+    /**
+     * Internal method which reads a player id
+     *
+     * @param in input
+     * @return PlayerId
+     * @throws IOException              if the id cannot be read
+     * @throws IllegalArgumentException if the ordinal of the id is invalid
+     */
+    private static PlayerId readPlayerId(DataInput in) throws IOException {
+        return playerId(in.readUnsignedByte());
+    }
+
+    /**
+     * Internal method which returns the player id of the given ordinal
+     *
+     * @param ordinal ordinal
+     * @return PlayerId
+     * @throws IllegalArgumentException if the ordinal is invalid
+     */
+    private static PlayerId playerId(int ordinal) {
+        checkArgument(ordinal < PlayerId.COUNT);
+        return PlayerId.ALL.get(ordinal);
+    }
+
+    /**
+     * Internal method which returns the card of the given ordinal
+     *
+     * @param ordinal ordinal
+     * @return Card
+     * @throws IllegalArgumentException if the ordinal is invalid
+     */
+    private static Card card(int ordinal) {
+        checkArgument(ordinal < CARDS.size());
+        return CARDS.get(ordinal);
+    }
+
+    /**
+     * Internal method which indexes the elements of a list by identity
+     *
+     * @param list list
+     * @param <E>  type of the elements
+     * @return map with element and index relationship
+     */
+    private static <E> Map<E, Integer> indicesOf(List<E> list) {
+        Map<E, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < list.size(); ++i) {
+            indices.put(list.get(i), i);
+        }
+        return indices;
+    }
+}
@@ -0,0 +1,280 @@
+package ch.epfl.tchu.game;
+
+import java.util.*;
+
+/**
+ * Class LongestTrail computes the longest trail of a list of routes with a depth-first search over bitmasks of used
+ * routes and per-station adjacency arrays, without building any intermediate trail. The results are memoized per
+ * list of routes. It returns exactly the trail that the level-by-level search of Trail.longest used to return: the
+ * longest one, then the one with the fewest routes, then the first one in the order of the given routes.
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class LongestTrail {
+
+    private static final int CACHE_CAPACITY = 1 << 10; // Maximum number of memoized results
+    private static final int WORD_BITS = Long.SIZE; // Number of routes in each word of a bitmask
+
+    // Memoized results, indexed by the (immutable) list of routes, the least recently used ones being removed first
+    private static final Map<List<Route>, Trail> CACHE = new LinkedHashMap<>(CACHE_CAPACITY, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Route>, Trail> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+
+    private final Route[] routes; // Routes, without duplicates
+    private final int[] routeStations1; // Index of the first station of each route
+    private final int[] routeStations2; // Index of the second station of each route
+    private final Station[] stations; // Stations of the routes
+    private final int[][] adjacentRoutes; // Indices of the routes adjacent to each station, in increasing order
+    private final long[] usedRoutes; // Bitmask of the routes of the current trail
+    private final int[] path; // Routes of the current trail
+    private final int[] stationQueue; // Stations visited by the computation of the reachable length
+    private final int[] stationDegrees; // Number of reachable routes adjacent to each visited station
+    private final int[] stationVisits; // Last computation of the reachable length which visited each station
+    private final int[] routeVisits; // Last computation of the reachable length which counted each route
+    private int visit; // Number of computations of the reachable length
+
+    private int bestLength = -1; // Length of the best trail found so far
+    private int bestCount; // Number of routes of the best trail found so far
+    private int bestStart; // Index of the departure station of the best trail found so far
+    private int bestEnd; // Index of the arrival station of the best trail found so far
+    private int[] bestPath; // Routes of the best trail found so far
+
+    /**
+     * Private constructor, which prepares the search over the given routes
+     *
+     * @param routeList routes
+     */
+    private LongestTrail(List<Route> routeList) {
+        // Remove the duplicates, which cannot give a better trail than their first occurrence
+        Set<Route> distinctRoutes = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Route> routesWithoutDuplicates = new ArrayList<>(routeList.size());
+        for (Route route : routeList) {
+            if (distinctRoutes.add(route)) {
+                routesWithoutDuplicates.add(route);
+            }
+        }
+        routes = routesWithoutDuplicates.toArray(new Route[0]);
+
+        Map<Station, Integer> stationIndices = new IdentityHashMap<>();
+        List<Station> stationList = new ArrayList<>();
+        routeStations1 = new int[routes.length];
+        routeStations2 = new int[routes.length];
+        for (int i = 0; i < routes.length; ++i) {
+            routeStations1[i] = stationIndex(routes[i].station1(), stationIndices, stationList);
+            routeStations2[i] = stationIndex(routes[i].station2(), stationIndices, stationList);
+        }
+        stations = stationList.toArray(new Station[0]);
+
+        int[] degrees = new int[stations.length];
+        for (int i = 0; i < routes.length; ++i) {
+            ++degrees[routeStations1[i]];
+            ++degrees[routeStations2[i]];
+        }
+        adjacentRoutes = new int[stations.length][];
+        for (int station = 0; station < stations.length; ++station) {
+            adjacentRoutes[station] = new int[degrees[station]];
+            degrees[station] = 0;
+        }
+        for (int i = 0; i < routes.length; ++i) {
+            adjacentRoutes[routeStations1[i]][degrees[routeStations1[i]]++] = i;
+            adjacentRoutes[routeStations2[i]][degrees[routeStations2[i]]++] = i;
+        }
+
+        usedRoutes = new long[(routes.length + WORD_BITS - 1) / WORD_BITS];
+        path = new int[routes.length];
+        stationQueue = new int[stations.length];
+        stationDegrees = new int[stations.length];
+        stationVisits = new int[stations.length];
+        routeVisits = new int[routes.length];
+        bestPath = new int[0];
+    }
+
+    /**
+     * Method which returns the longest trail of the given routes, computing it only if it has not been computed
+     * recently for the same list of routes
+     *
+     * @param routes routes
+     * @return the longest Trail
+     */
+    public static Trail of(List<Route> routes) {
+        List<Route> key = List.copyOf(routes);
+        synchronized (CACHE) {
+            Trail trail = CACHE.get(key);
+            if (trail != null) {
+                return trail;
+            }
+        }
+
+        Trail trail = compute(key);
+        synchronized (CACHE) {
+            CACHE.put(key, trail);
+        }
+        return trail;
+    }
+
+    /**
+     * Method which computes the longest trail of the given routes, without using the memoized results
+     *
+     * @param routes routes, which must not be empty
+     * @return the longest Trail
+     * @throws IllegalArgumentException if the list of routes is empty
+     */
+    static Trail compute(List<Route> routes) {
+        return new LongestTrail(routes).search();
+    }
+
+    /**
+     * Internal method which explores every trail, starting with each route in both directions, in the order of the
+     * routes
+     *
+     * @return the longest Trail
+     */
+    private Trail search() {
+        if (routes.length == 0) {
+            throw new IllegalArgumentException();
+        }
+
+        for (int i = 0; i < routes.length; ++i) {
+            use(i);
+            path[0] = i;
+            extend(routeStations1[i], routeStations2[i], 1, routes[i].length());
+            extend(routeStations2[i], routeStations1[i], 1, routes[i].length());
+            release(i);
+        }
+
+        List<Route> trailRoutes = new ArrayList<>(bestCount);
+        for (int i = 0; i < bestCount; ++i) {
+            trailRoutes.add(routes[bestPath[i]]);
+        }
+        return Trail.of(stations[bestStart], stations[bestEnd], trailRoutes);
+    }
+
+    /**
+     * Internal method which records the current trail if it is better than the best one, then explores all of its
+     * extensions in the order of the routes
+     *
+     * @param start  index of the departure station of the current trail
+     * @param end    index of the arrival station of the current trail
+     * @param count  number of routes of the current trail
+     * @param length length of the current trail
+     */
+    private void extend(int start, int end, int count, int length) {
+        if (length > bestLength || (length == bestLength && count < bestCount)) {
+            bestLength = length;
+            bestCount = count;
+            bestStart = start;
+            bestEnd = end;
+            bestPath = Arrays.copyOf(path, count);
+        }
+
+        // Stop if no extension can be better than the best trail (an extension as good would come after it)
+        int maxLength = length + reachableLength(end);
+        if (maxLength < bestLength || (maxLength == bestLength && count + 1 >= bestCount)) {
+            return;
+        }
+
+        for (int route : adjacentRoutes[end]) {
+            if (!isUsed(route)) {
+                use(route);
+                path[count] = route;
+                int next = routeStations1[route] == end ? routeStations2[route] : routeStations1[route];
+                extend(start, next, count + 1, length + routes[route].length());
+                release(route);
+            }
+        }
+    }
+
+    /**
+     * Internal method which computes an upper bound of the length by which the current trail can be extended from
+     * the given station: the total length of the routes which are not in the current trail and which can be reached
+     * from it, minus the shortest of these routes for each pair of stations of odd degree beyond the first one, as a
+     * trail cannot use all the routes around more than two such stations
+     *
+     * @param station index of the station
+     * @return int
+     */
+    private int reachableLength(int station) {
+        ++visit;
+        int length = 0;
+        int minLength = Integer.MAX_VALUE;
+        int visitedCount = 0;
+        stationQueue[visitedCount++] = station;
+        stationVisits[station] = visit;
+        stationDegrees[station] = 0;
+
+        for (int i = 0; i < visitedCount; ++i) {
+            int current = stationQueue[i];
+            for (int route : adjacentRoutes[current]) {
+                if (!isUsed(route) && routeVisits[route] != visit) {
+                    routeVisits[route] = visit;
+                    length += routes[route].length();
+                    minLength = Math.min(minLength, routes[route].length());
+                    int next = routeStations1[route] == current ? routeStations2[route] : routeStations1[route];
+                    if (stationVisits[next] != visit) {
+                        stationVisits[next] = visit;
+                        stationDegrees[next] = 0;
+                        stationQueue[visitedCount++] = next;
+                    }
+                    ++stationDegrees[current];
+                    ++stationDegrees[next];
+                }
+            }
+        }
+
+        int oddCount = 0;
+        for (int i = 0; i < visitedCount; ++i) {
+            oddCount += stationDegrees[stationQueue[i]] & 1;
+        }
+        return oddCount > 2 ? length - (oddCount - 2) / 2 * minLength : length;
+    }
+
+    /**
+     * Internal method which returns true if the given route is in the current trail
+     *
+     * @param route index of the route
+     * @return boolean
+     */
+    private boolean isUsed(int route) {
+        return (usedRoutes[route / WORD_BITS] & (1L << route)) != 0;
+    }
+
+    /**
+     * Internal method which adds the given route to the current trail
+     *
+     * @param route index of the route
+     */
+    private void use(int route) {
+        usedRoutes[route / WORD_BITS] |= 1L << route;
+    }
+
+    /**
+     * Internal method which removes the given route from the current trail
+     *
+     * @param route index of the route
+     */
+    private void release(int route) {
+        usedRoutes[route / WORD_BITS] &= ~(1L << route);
+    }
+
+    /**
+     * Internal method which returns the index of a station, giving it the next free index if it has none
+     *
+     * @param station        station
+     * @param stationIndices indices of the stations
+     * @param stationList    stations, ordered by index
+     * @return int
+     */
+    private static int stationIndex(Station station, Map<Station, Integer> stationIndices, List<Station> stationList) {
+        Integer index = stationIndices.get(station);
+        if (index == null) {
+            index = stationList.size();
+            stationIndices.put(station, index);
+            stationList.add(station);
+        }
+        return index;
+    }
+}
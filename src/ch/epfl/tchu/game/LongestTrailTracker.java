@@ -0,0 +1,133 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class LongestTrailTracker keeps track of the length of the longest trail of a growing set of routes. The routes are
+ * grouped by connected component, and adding a route only recomputes the longest trail of the component that the
+ * route joins, the lengths of the other components being carried forward. The trackers are immutable, and the length
+ * of the longest trail is available in constant time.
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class LongestTrailTracker {
+
+    /**
+     * Tracker of an empty set of routes
+     */
+    public static final LongestTrailTracker EMPTY = new LongestTrailTracker(noComponents(), new int[0], new int[0], 0);
+
+    private static final int NO_COMPONENT = -1; // Component of the stations which are not reached by any route
+
+    private final List<Route>[] components; // Routes of each component, empty for the components merged into another
+    private final int[] componentLengths; // Length of the longest trail of each component
+    private final int[] stationComponents; // Component of each station, indexed by station id
+    private final int length; // Length of the longest trail of all the routes
+
+    /**
+     * Private constructor, the trackers are created from EMPTY or with the static method of(...)
+     *
+     * @param components        routes of each component
+     * @param componentLengths  length of the longest trail of each component
+     * @param stationComponents component of each station, indexed by station id
+     * @param length            length of the longest trail
+     */
+    private LongestTrailTracker(List<Route>[] components, int[] componentLengths, int[] stationComponents, int length) {
+        this.components = components;
+        this.componentLengths = componentLengths;
+        this.stationComponents = stationComponents;
+        this.length = length;
+    }
+
+    /**
+     * Method which creates the tracker of the given routes, by adding them one after the other
+     *
+     * @param routes routes
+     * @return LongestTrailTracker
+     */
+    public static LongestTrailTracker of(List<Route> routes) {
+        LongestTrailTracker tracker = EMPTY;
+        for (Route route : routes) {
+            tracker = tracker.withRoute(route);
+        }
+        return tracker;
+    }
+
+    /**
+     * Internal method which creates the (empty) array of the components of EMPTY
+     *
+     * @return an empty array of lists of routes
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Arrays of a generic type can only be created raw
+    private static List<Route>[] noComponents() {
+        return new List[0];
+    }
+
+    /**
+     * Length getter
+     *
+     * @return the length of the longest trail of the routes, 0 if there are none
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Method which returns the tracker of the routes of this one and of the given route. Only the longest trail of
+     * the component joined by the route is recomputed
+     *
+     * @param route route to add
+     * @return LongestTrailTracker
+     */
+    public LongestTrailTracker withRoute(Route route) {
+        int id1 = route.station1().id();
+        int id2 = route.station2().id();
+        int[] newStationComponents = Arrays.copyOf(stationComponents,
+                Math.max(stationComponents.length, Math.max(id1, id2) + 1));
+        Arrays.fill(newStationComponents, stationComponents.length, newStationComponents.length, NO_COMPONENT);
+
+        int component1 = newStationComponents[id1];
+        int component2 = newStationComponents[id2];
+        List<Route>[] newComponents;
+        int[] newComponentLengths;
+        int component;
+
+        if (component1 == NO_COMPONENT && component2 == NO_COMPONENT) {
+            // The route creates a new component
+            component = components.length;
+            newComponents = Arrays.copyOf(components, components.length + 1);
+            newComponentLengths = Arrays.copyOf(componentLengths, componentLengths.length + 1);
+            newComponents[component] = List.of();
+        } else {
+            newComponents = components.clone();
+            newComponentLengths = componentLengths.clone();
+            component = component1 != NO_COMPONENT ? component1 : component2;
+        }
+
+        List<Route> componentRoutes = new ArrayList<>(newComponents[component]);
+        if (component1 != NO_COMPONENT && component2 != NO_COMPONENT && component1 != component2) {
+            // The route joins two components, the second one is merged into the first one
+            componentRoutes.addAll(newComponents[component2]);
+            for (int id = 0; id < newStationComponents.length; ++id) {
+                if (newStationComponents[id] == component2) {
+                    newStationComponents[id] = component;
+                }
+            }
+            newComponents[component2] = List.of();
+            newComponentLengths[component2] = 0;
+        }
+        componentRoutes.add(route);
+        newStationComponents[id1] = component;
+        newStationComponents[id2] = component;
+        newComponents[component] = Collections.unmodifiableList(componentRoutes);
+        newComponentLengths[component] = LongestTrail.of(componentRoutes).length();
+
+        // Adding a route never shortens the longest trail of a component
+        int newLength = Math.max(length, newComponentLengths[component]);
+        return new LongestTrailTracker(newComponents, newComponentLengths, newStationComponents, newLength);
+    }
+}
@@ -0,0 +1,1098 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.*;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Class MutableGameState represents the complete state of a game, like GameState, but which is modified in place
+ * by applying moves and which can undo them. It is meant to be used by bots exploring many positions: applying or
+ * undoing a move does not allocate any object.
+ * <p>
+ * A move is encoded in an int, built by the static methods of this class. A turn is made of one action (drawing
+ * tickets, claiming a route or drawing a card twice) followed by the move {@link #endTurn()}, which is also the
+ * only legal move of a player who cannot play any action.
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class MutableGameState {
+
+    // Kinds of moves, stored in the lowest bits of a move
+    private static final int DRAW_BLIND_CARD = 0;
+    private static final int DRAW_FACE_UP_CARD = 1;
+    private static final int DRAW_TICKETS = 2;
+    private static final int CLAIM_ROUTE = 3;
+    private static final int END_TURN = 4;
+
+    // Layout of a move
+    private static final int KIND_MASK = 0b111;
+    private static final int ARGUMENT_SHIFT = 3; // Slot, ticket mask or route index
+    private static final int ROUTE_MASK = 0xFF;
+    private static final int CARD_SHIFT = 11; // Ordinal of the colored card used to claim a route
+    private static final int CAR_CARDS_SHIFT = 15; // Number of colored cards used to claim a route
+    private static final int LOCOMOTIVES_SHIFT = 19; // Number of locomotives used to claim a route
+    private static final int COUNT_MASK = 0xF;
+    private static final int CARD_BITS = 4; // Number of bits needed to store a card ordinal or a card count
+    private static final int SLOT_MASK = 0b111;
+    private static final int ABANDON_BIT = 1 << 23; // Set if the player gives up a tunnel requiring additional cards
+
+    // Kinds of the records of the undo stack
+    private static final int MOVE_MARK = 0;
+    private static final int DECK_POP = 1;
+    private static final int DECK_RECREATION = 2;
+    private static final int HAND_CHANGE = 3;
+    private static final int DISCARD_CHANGE = 4;
+    private static final int FACE_UP_CHANGE = 5;
+    private static final int TICKETS_DRAWN = 6;
+    private static final int ROUTE_CLAIMED = 7;
+    private static final int TURN_CHANGE = 8;
+
+    // Phases of a turn
+    private static final int TURN_START = 0;
+    private static final int ONE_CARD_DRAWN = 1;
+    private static final int ACTION_DONE = 2;
+    private static final int GAME_OVER = 3;
+
+    private static final int NO_PLAYER = -1; // Value representing a null player id
+    private static final int LOCOMOTIVE = Card.LOCOMOTIVE.ordinal(); // Ordinal of the locomotive card
+    private static final int CARS_COUNT = 2; // Lower limit of cars a player can have after which the last turn begins
+    private static final int MAX_TICKET_MASK = (1 << IN_GAME_TICKETS_COUNT) - 1; // Mask keeping every drawn ticket
+    private static final int INITIAL_UNDO_CAPACITY = 1 << 10; // Initial capacity of the undo stack
+    private static final Card[] CARDS = Card.values();
+    private static final PlayerId[] PLAYERS = PlayerId.values();
+
+    private final Random rng; // Random generator used to shuffle the discard when the deck is empty
+
+    private final Route[] routes; // Every route which may be claimed, the first ones being those of ChMap
+    private final Map<Route, Integer> routeIndices; // Index of each route in the routes array
+    private final int[] routeGroups; // Index of the group (routes connecting the same stations) of each route
+    private final Ticket[] tickets; // Every ticket of the game
+
+    private final int[] deck; // Ordinals of the cards of the deck, the top card being at index deckTop
+    private int deckTop; // Index of the top card of the deck
+    private int deckEnd; // Index following the bottom card of the deck
+    private final int[] discard = new int[Card.COUNT]; // Number of cards of each kind in the discard
+    private int discardsSize; // Number of cards in the discard
+    private final int[] faceUpCards = new int[FACE_UP_CARDS_COUNT]; // Ordinals of the face up cards
+
+    private final int[] hands = new int[PlayerId.COUNT * Card.COUNT]; // Number of cards of each kind of each player
+    private final int[] cardCounts = new int[PlayerId.COUNT]; // Number of cards of each player
+    private final int[] ticketsDeck; // Indices of the tickets of the deck, the top one being at index ticketsTop
+    private int ticketsTop; // Index of the top ticket of the deck
+    private final int[] playerTickets; // Indices of the tickets of each player (one row of tickets.length per player)
+    private final int[] ticketCounts = new int[PlayerId.COUNT]; // Number of tickets of each player
+    private final int[] routeOwners; // Ordinal of the owner of each route, NO_PLAYER if it is not claimed
+    private final int[] groupClaims; // Number of claimed routes in each group
+    private final int[] playerRoutes; // Indices of the routes of each player, in claim order (one row per player)
+    private final int[] routeCounts = new int[PlayerId.COUNT]; // Number of routes of each player
+    private final int[] carCounts = new int[PlayerId.COUNT]; // Number of cars of each player
+    private final int[] claimPoints = new int[PlayerId.COUNT]; // Claim points of each player
+
+    private int currentPlayer; // Ordinal of the current player
+    private int lastPlayer; // Ordinal of the last player, NO_PLAYER if the last turn has not begun
+    private int phase; // Phase of the current turn
+
+    private int[] undoStack = new int[INITIAL_UNDO_CAPACITY]; // Records allowing to undo the applied moves
+    private int undoSize; // Number of ints in the undo stack
+    private final int[] stationRepresentatives; // Work array used to compute the ticket points
+
+    /**
+     * Private constructor, the mutable game states are created from immutable ones with the method of(...)
+     *
+     * @param state game state to copy
+     * @param rng   random generator used to shuffle the discard when the deck is empty
+     */
+    private MutableGameState(GameState state, Random rng) {
+        this.rng = Objects.requireNonNull(rng);
+
+        // Index the routes, those of ChMap first, then those claimed by the players which are not in ChMap
+        List<Route> allRoutes = new ArrayList<>(ChMap.routes());
+        routeIndices = new IdentityHashMap<>();
+        for (Route route : ChMap.routes()) {
+            routeIndices.putIfAbsent(route, routeIndices.size());
+        }
+        for (PlayerId playerId : PlayerId.ALL) {
+            for (Route route : state.playerState(playerId).routes()) {
+                if (!routeIndices.containsKey(route)) {
+                    routeIndices.put(route, allRoutes.size());
+                    allRoutes.add(route);
+                }
+            }
+        }
+        checkArgument(allRoutes.size() <= ROUTE_MASK + 1);
+        routes = allRoutes.toArray(new Route[0]);
+        routeGroups = computeRouteGroups(routes);
+
+        // Index the tickets, those of the deck first, then those of the players
+        List<Ticket> allTickets = new ArrayList<>(state.ticketsDeck().cards());
+        for (PlayerId playerId : PlayerId.ALL) {
+            allTickets.addAll(state.playerState(playerId).tickets().toList());
+        }
+        tickets = allTickets.toArray(new Ticket[0]);
+        ticketsDeck = new int[state.ticketsCount()];
+        for (int i = 0; i < ticketsDeck.length; ++i) {
+            ticketsDeck[i] = i;
+        }
+        playerTickets = new int[PlayerId.COUNT * tickets.length];
+        int nextTicket = ticketsDeck.length;
+        for (PlayerId playerId : PlayerId.ALL) {
+            int player = playerId.ordinal();
+            for (int i = 0; i < state.playerState(playerId).ticketCount(); ++i) {
+                playerTickets[player * tickets.length + ticketCounts[player]++] = nextTicket++;
+            }
+        }
+
+        // Copy the cards
+        CardState cardState = state.privateCardState();
+        int totalCards = cardState.deckSize() + cardState.discardsSize() + FACE_UP_CARDS_COUNT;
+        for (PlayerId playerId : PlayerId.ALL) {
+            PlayerState playerState = state.playerState(playerId);
+            totalCards += playerState.cardCount();
+            for (Card card : CARDS) {
+                hands[playerId.ordinal() * Card.COUNT + card.ordinal()] = playerState.cards().countOf(card);
+            }
+            cardCounts[playerId.ordinal()] = playerState.cardCount();
+        }
+        deck = new int[totalCards];
+        for (Card card : cardState.deck().cards()) {
+            deck[deckEnd++] = card.ordinal();
+        }
+        for (Card card : CARDS) {
+            discard[card.ordinal()] = cardState.discard().countOf(card);
+        }
+        discardsSize = cardState.discardsSize();
+        for (int slot : FACE_UP_CARD_SLOTS) {
+            faceUpCards[slot] = cardState.faceUpCard(slot).ordinal();
+        }
+
+        // Copy the routes
+        routeOwners = new int[routes.length];
+        Arrays.fill(routeOwners, NO_PLAYER);
+        groupClaims = new int[routes.length];
+        playerRoutes = new int[PlayerId.COUNT * routes.length];
+        for (PlayerId playerId : PlayerId.ALL) {
+            int player = playerId.ordinal();
+            for (Route route : state.playerState(playerId).routes()) {
+                int index = routeIndices.get(route);
+                routeOwners[index] = player;
+                ++groupClaims[routeGroups[index]];
+                playerRoutes[player * routes.length + routeCounts[player]++] = index;
+            }
+            carCounts[player] = state.playerState(playerId).carCount();
+            claimPoints[player] = state.playerState(playerId).claimPoints();
+        }
+
+        currentPlayer = state.currentPlayerId().ordinal();
+        lastPlayer = state.lastPlayer() == null ? NO_PLAYER : state.lastPlayer().ordinal();
+        phase = TURN_START;
+
+        stationRepresentatives = new int[maxStationId(routes) + 1];
+    }
+
+    /**
+     * Method which creates a mutable copy of the given game state, at the beginning of the turn of its current player
+     *
+     * @param state game state to copy
+     * @param rng   random generator used to shuffle the discard when the deck is empty
+     * @return MutableGameState
+     */
+    public static MutableGameState of(GameState state, Random rng) {
+        return new MutableGameState(state, rng);
+    }
+
+    /**
+     * Method which converts the current state into an immutable game state
+     *
+     * @return GameState
+     */
+    public GameState toGameState() {
+        List<Card> deckCards = new ArrayList<>(deckEnd - deckTop);
+        for (int i = deckTop; i < deckEnd; ++i) {
+            deckCards.add(CARDS[deck[i]]);
+        }
+        SortedBag.Builder<Card> discardBuilder = new SortedBag.Builder<>();
+        List<Card> faceUp = new ArrayList<>(FACE_UP_CARDS_COUNT);
+        for (int slot : FACE_UP_CARD_SLOTS) {
+            faceUp.add(CARDS[faceUpCards[slot]]);
+        }
+        for (Card card : CARDS) {
+            discardBuilder.add(discard[card.ordinal()], card);
+        }
+        CardState cardState = CardState.of(faceUp, Deck.ofOrdered(deckCards), discardBuilder.build());
+
+        List<Ticket> deckTickets = new ArrayList<>(ticketsDeck.length - ticketsTop);
+        for (int i = ticketsTop; i < ticketsDeck.length; ++i) {
+            deckTickets.add(tickets[ticketsDeck[i]]);
+        }
+
+        PlayerState[] playerStates = new PlayerState[PlayerId.COUNT];
+        for (PlayerId playerId : PlayerId.ALL) {
+            int player = playerId.ordinal();
+            SortedBag.Builder<Ticket> ticketsBuilder = new SortedBag.Builder<>();
+            for (int i = 0; i < ticketCounts[player]; ++i) {
+                ticketsBuilder.add(tickets[playerTickets[player * tickets.length + i]]);
+            }
+            SortedBag.Builder<Card> cardsBuilder = new SortedBag.Builder<>();
+            for (Card card : CARDS) {
+                cardsBuilder.add(hands[player * Card.COUNT + card.ordinal()], card);
+            }
+            List<Route> ownRoutes = new ArrayList<>(routeCounts[player]);
+            for (int i = 0; i < routeCounts[player]; ++i) {
+                ownRoutes.add(routes[playerRoutes[player * routes.length + i]]);
+            }
+            playerStates[player] = new PlayerState(ticketsBuilder.build(), cardsBuilder.build(), ownRoutes);
+        }
+
+        return GameState.of(
+                cardState,
+                PLAYERS[currentPlayer],
+                playerStates,
+                lastPlayer == NO_PLAYER ? null : PLAYERS[lastPlayer],
+                Deck.ofOrdered(deckTickets));
+    }
+
+    /*=====================================================================
+                                   Moves :
+     =====================================================================*/
+
+    /**
+     * Method which encodes the move consisting in drawing the top card of the deck
+     *
+     * @return int move
+     */
+    public static int drawBlindCard() {
+        return DRAW_BLIND_CARD;
+    }
+
+    /**
+     * Method which encodes the move consisting in drawing the face up card of the given slot
+     *
+     * @param slot face up slot
+     * @return int move
+     * @throws IndexOutOfBoundsException if the slot is not between 0 and 4 (both included)
+     */
+    public static int drawFaceUpCard(int slot) {
+        Objects.checkIndex(slot, FACE_UP_CARDS_COUNT);
+        return DRAW_FACE_UP_CARD | slot << ARGUMENT_SHIFT;
+    }
+
+    /**
+     * Method which encodes the move consisting in drawing the 3 top tickets of the deck and keeping some of them
+     *
+     * @param keptTickets mask of the kept tickets, bit i being set if the i-th ticket from the top is kept
+     * @return int move
+     * @throws IllegalArgumentException if no ticket is kept or if the mask is invalid
+     */
+    public static int drawTickets(int keptTickets) {
+        checkArgument(keptTickets > 0 && keptTickets <= MAX_TICKET_MASK);
+        return DRAW_TICKETS | keptTickets << ARGUMENT_SHIFT;
+    }
+
+    /**
+     * Method which encodes the move consisting in ending the current turn
+     *
+     * @return int move
+     */
+    public static int endTurn() {
+        return END_TURN;
+    }
+
+    /**
+     * Method which encodes the move consisting in claiming a route with the given cards. If the route is a tunnel,
+     * the 3 top cards of the deck are drawn and, if additional cards are required, the player plays the first
+     * option (the one with the fewest locomotives) that is playable, unless he gives up
+     *
+     * @param route       route to claim
+     * @param claimCards  initial claim cards, made of at most one kind of car card and of locomotives
+     * @param giveUpTunnel true if the player gives up the tunnel as soon as additional cards are required
+     * @return int move
+     * @throws IllegalArgumentException if the route is not known by this state or if the cards are invalid
+     */
+    public int claimRoute(Route route, SortedBag<Card> claimCards, boolean giveUpTunnel) {
+        Integer index = routeIndices.get(route);
+        checkArgument(index != null);
+        checkArgument(claimCards.size() == route.length());
+
+        int locomotives = claimCards.countOf(Card.LOCOMOTIVE);
+        int carCards = claimCards.size() - locomotives;
+        checkArgument(carCards == 0 || claimCards.toSet().size() == (locomotives == 0 ? 1 : 2));
+        int card = carCards == 0 ? LOCOMOTIVE : claimCards.get(0).ordinal();
+        return claimMove(index, card, carCards, locomotives, giveUpTunnel);
+    }
+
+    /**
+     * Internal method which encodes a claim move
+     *
+     * @param route       index of the route
+     * @param card        ordinal of the car card used (LOCOMOTIVE if only locomotives are used)
+     * @param carCards    number of car cards used
+     * @param locomotives number of locomotives used
+     * @param giveUpTunnel true if the player gives up the tunnel as soon as additional cards are required
+     * @return int move
+     */
+    private static int claimMove(int route, int card, int carCards, int locomotives, boolean giveUpTunnel) {
+        return CLAIM_ROUTE
+                | route << ARGUMENT_SHIFT
+                | card << CARD_SHIFT
+                | carCards << CAR_CARDS_SHIFT
+                | locomotives << LOCOMOTIVES_SHIFT
+                | (giveUpTunnel ? ABANDON_BIT : 0);
+    }
+
+    /**
+     * Method which applies the given move to the state
+     *
+     * @param move the move to apply, built with the methods of this class
+     * @throws IllegalArgumentException if the move cannot be played in the current phase of the turn
+     */
+    public void apply(int move) {
+        int kind = move & KIND_MASK;
+        checkArgument(phase != GAME_OVER);
+        checkArgument(kind == END_TURN
+                ? phase != TURN_START || !canPlayAction()
+                : phase == TURN_START || (phase == ONE_CARD_DRAWN && isCardDraw(kind)));
+
+        push(phase);
+        push(MOVE_MARK);
+
+        switch (kind) {
+            case DRAW_BLIND_CARD:
+                addToHand(currentPlayer, popDeck(), 1);
+                phase = phase == TURN_START ? ONE_CARD_DRAWN : ACTION_DONE;
+                break;
+
+            case DRAW_FACE_UP_CARD:
+                int slot = (move >>> ARGUMENT_SHIFT) & SLOT_MASK;
+                recreateDeckIfNeeded();
+                addToHand(currentPlayer, faceUpCards[slot], 1);
+                setFaceUpCard(slot, popDeck());
+                phase = phase == TURN_START ? ONE_CARD_DRAWN : ACTION_DONE;
+                break;
+
+            case DRAW_TICKETS:
+                applyDrawTickets((move >>> ARGUMENT_SHIFT) & MAX_TICKET_MASK);
+                phase = ACTION_DONE;
+                break;
+
+            case CLAIM_ROUTE:
+                applyClaimRoute(move);
+                phase = ACTION_DONE;
+                break;
+
+            case END_TURN:
+                applyEndTurn();
+                break;
+
+            default:
+                throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Method which undoes the last applied move
+     *
+     * @throws IllegalStateException if no move has been applied
+     */
+    public void undo() {
+        if (undoSize == 0) {
+            throw new IllegalStateException();
+        }
+
+        int kind;
+        while ((kind = pop()) != MOVE_MARK) {
+            switch (kind) {
+                case DECK_POP:
+                    --deckTop;
+                    break;
+
+                case DECK_RECREATION:
+                    int count = pop();
+                    for (int i = count - 1; i >= 0; --i) {
+                        int card = deck[i];
+                        ++discard[card];
+                        deck[i] = pop();
+                    }
+                    discardsSize += count;
+                    deckEnd = pop();
+                    deckTop = pop();
+                    break;
+
+                case HAND_CHANGE:
+                    int cardCount = pop();
+                    int card = pop();
+                    int player = pop();
+                    hands[player * Card.COUNT + card] -= cardCount;
+                    cardCounts[player] -= cardCount;
+                    break;
+
+                case DISCARD_CHANGE:
+                    cardCount = pop();
+                    card = pop();
+                    discard[card] -= cardCount;
+                    discardsSize -= cardCount;
+                    break;
+
+                case FACE_UP_CHANGE:
+                    card = pop();
+                    faceUpCards[pop()] = card;
+                    break;
+
+                case TICKETS_DRAWN:
+                    int keptCount = pop();
+                    ticketCounts[currentPlayer] -= keptCount;
+                    ticketsTop -= IN_GAME_TICKETS_COUNT;
+                    break;
+
+                case ROUTE_CLAIMED:
+                    int route = pop();
+                    player = routeOwners[route];
+                    routeOwners[route] = NO_PLAYER;
+                    --groupClaims[routeGroups[route]];
+                    --routeCounts[player];
+                    carCounts[player] += routes[route].length();
+                    claimPoints[player] -= routes[route].claimPoints();
+                    break;
+
+                case TURN_CHANGE:
+                    lastPlayer = pop();
+                    currentPlayer = pop();
+                    break;
+
+                default:
+                    throw new Error(); // should never happen
+            }
+        }
+        phase = pop();
+    }
+
+    /**
+     * Method which writes the moves that can be played in the current state into the given array, and returns their
+     * number. A tunnel is always claimed by accepting to play additional cards
+     *
+     * @param moves array receiving the moves, whose length must be at least {@link #maxLegalMoves()}
+     * @return the number of moves written
+     */
+    public int legalMoves(int[] moves) {
+        int count = 0;
+        switch (phase) {
+            case TURN_START:
+                if (ticketsDeck.length - ticketsTop >= IN_GAME_TICKETS_COUNT) {
+                    for (int mask = 1; mask <= MAX_TICKET_MASK; ++mask) {
+                        moves[count++] = drawTickets(mask);
+                    }
+                }
+                if ((deckEnd - deckTop) + discardsSize >= FACE_UP_CARDS_COUNT) {
+                    count = addCardDraws(moves, count);
+                }
+                for (int route = 0; route < routes.length; ++route) {
+                    if (isClaimable(route)) {
+                        count = addClaims(moves, count, route);
+                    }
+                }
+                if (count == 0) {
+                    // The player cannot do anything, and can only pass
+                    moves[count++] = END_TURN;
+                }
+                break;
+
+            case ONE_CARD_DRAWN:
+                count = (deckEnd - deckTop) + discardsSize > 0 ? addCardDraws(moves, count) : count;
+                if (count == 0) {
+                    moves[count++] = END_TURN;
+                }
+                break;
+
+            case ACTION_DONE:
+                moves[count++] = END_TURN;
+                break;
+
+            default:
+                break;
+        }
+        return count;
+    }
+
+    /**
+     * Method which returns an upper bound of the number of moves that can be played in any state
+     *
+     * @return int
+     */
+    public int maxLegalMoves() {
+        return MAX_TICKET_MASK + FACE_UP_CARDS_COUNT + 1 + routes.length * (Color.COUNT * MAX_ROUTE_LENGTH + 1);
+    }
+
+    /*=====================================================================
+                                   Getters :
+     =====================================================================*/
+
+    /**
+     * Current player id getter
+     *
+     * @return PlayerId
+     */
+    public PlayerId currentPlayerId() {
+        return PLAYERS[currentPlayer];
+    }
+
+    /**
+     * Last player id getter
+     *
+     * @return PlayerId, null if the last turn has not begun
+     */
+    public PlayerId lastPlayer() {
+        return lastPlayer == NO_PLAYER ? null : PLAYERS[lastPlayer];
+    }
+
+    /**
+     * Method which returns true if the game is over
+     *
+     * @return boolean
+     */
+    public boolean isGameOver() {
+        return phase == GAME_OVER;
+    }
+
+    /**
+     * Method which returns true if the current player has done the action of its turn, and must end it
+     *
+     * @return boolean
+     */
+    public boolean isActionDone() {
+        return phase == ACTION_DONE;
+    }
+
+    /**
+     * Ticket count getter
+     *
+     * @return the number of tickets in the deck
+     */
+    public int ticketsCount() {
+        return ticketsDeck.length - ticketsTop;
+    }
+
+    /**
+     * Deck size getter
+     *
+     * @return the number of cards in the deck
+     */
+    public int deckSize() {
+        return deckEnd - deckTop;
+    }
+
+    /**
+     * Discard size getter
+     *
+     * @return the number of cards in the discard
+     */
+    public int discardsSize() {
+        return discardsSize;
+    }
+
+    /**
+     * Face up card getter for a given slot
+     *
+     * @param slot index
+     * @return Card
+     * @throws IndexOutOfBoundsException if the slot is not between 0 and 4 (both included)
+     */
+    public Card faceUpCard(int slot) {
+        return CARDS[faceUpCards[Objects.checkIndex(slot, FACE_UP_CARDS_COUNT)]];
+    }
+
+    /**
+     * Getter of the number of cards of a given kind that a player has
+     *
+     * @param playerId player id
+     * @param card     kind of card
+     * @return int
+     */
+    public int cardCount(PlayerId playerId, Card card) {
+        return hands[playerId.ordinal() * Card.COUNT + card.ordinal()];
+    }
+
+    /**
+     * Getter of the total number of cards of a player
+     *
+     * @param playerId player id
+     * @return int
+     */
+    public int cardCount(PlayerId playerId) {
+        return cardCounts[playerId.ordinal()];
+    }
+
+    /**
+     * Getter of the number of tickets of a player
+     *
+     * @param playerId player id
+     * @return int
+     */
+    public int ticketCount(PlayerId playerId) {
+        return ticketCounts[playerId.ordinal()];
+    }
+
+    /**
+     * Car count getter
+     *
+     * @param playerId player id
+     * @return int
+     */
+    public int carCount(PlayerId playerId) {
+        return carCounts[playerId.ordinal()];
+    }
+
+    /**
+     * Claim points getter
+     *
+     * @param playerId player id
+     * @return int
+     */
+    public int claimPoints(PlayerId playerId) {
+        return claimPoints[playerId.ordinal()];
+    }
+
+    /**
+     * Route owner getter
+     *
+     * @param route route
+     * @return the id of the player owning the route, null if it is not claimed
+     * @throws IllegalArgumentException if the route is not known by this state
+     */
+    public PlayerId routeOwner(Route route) {
+        Integer index = routeIndices.get(route);
+        checkArgument(index != null);
+        return routeOwners[index] == NO_PLAYER ? null : PLAYERS[routeOwners[index]];
+    }
+
+    /**
+     * Method which computes the ticket points of a player, without allocating any object
+     *
+     * @param playerId player id
+     * @return int
+     */
+    public int ticketPoints(PlayerId playerId) {
+        int player = playerId.ordinal();
+        for (int i = 0; i < stationRepresentatives.length; ++i) {
+            stationRepresentatives[i] = i;
+        }
+        for (int i = 0; i < routeCounts[player]; ++i) {
+            Route route = routes[playerRoutes[player * routes.length + i]];
+            stationRepresentatives[representative(route.station1().id())] = representative(route.station2().id());
+        }
+        // Each station is linked directly to its representative, which is used as component id by the tickets
+        for (int i = 0; i < stationRepresentatives.length; ++i) {
+            stationRepresentatives[i] = representative(i);
+        }
+
+        int points = 0;
+        for (int i = 0; i < ticketCounts[player]; ++i) {
+            points += tickets[playerTickets[player * tickets.length + i]].points(stationRepresentatives);
+        }
+        return points;
+    }
+
+    /*=====================================================================
+                              Internal methods :
+     =====================================================================*/
+
+    /**
+     * Internal method which returns true if the given kind of move is a card draw
+     *
+     * @param kind kind of move
+     * @return boolean
+     */
+    private static boolean isCardDraw(int kind) {
+        return kind == DRAW_BLIND_CARD || kind == DRAW_FACE_UP_CARD;
+    }
+
+    /**
+     * Internal method which returns true if the current player can play an action (draw tickets or cards, or claim
+     * a route). If not, he is allowed to end his turn without playing
+     *
+     * @return boolean
+     */
+    private boolean canPlayAction() {
+        if (ticketsDeck.length - ticketsTop >= IN_GAME_TICKETS_COUNT
+                || (deckEnd - deckTop) + discardsSize >= FACE_UP_CARDS_COUNT) {
+            return true;
+        }
+        for (int route = 0; route < routes.length; ++route) {
+            if (isClaimable(route)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Internal method which returns true if the current player can claim the given route, i.e. if no route of its
+     * group is claimed and if he has enough cars and cards
+     *
+     * @param route index of the route
+     * @return boolean
+     */
+    private boolean isClaimable(int route) {
+        Route r = routes[route];
+        int length = r.length();
+        if (groupClaims[routeGroups[route]] != 0 || carCounts[currentPlayer] < length) {
+            return false;
+        }
+
+        boolean isTunnel = r.level() == Route.Level.UNDERGROUND;
+        int locomotives = isTunnel ? cardCount(currentPlayer, LOCOMOTIVE) : 0;
+        if (locomotives >= length) {
+            return true;
+        }
+        for (Color color : Color.ALL) {
+            if ((r.color() == null || r.color() == color)
+                    && cardCount(currentPlayer, Card.of(color).ordinal()) + locomotives >= length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Internal method which draws the top tickets of the deck, and gives the kept ones to the current player
+     *
+     * @param keptTickets mask of the kept tickets
+     */
+    private void applyDrawTickets(int keptTickets) {
+        checkArgument(ticketsDeck.length - ticketsTop >= IN_GAME_TICKETS_COUNT);
+        int keptCount = 0;
+        for (int i = 0; i < IN_GAME_TICKETS_COUNT; ++i) {
+            if ((keptTickets & (1 << i)) != 0) {
+                playerTickets[currentPlayer * tickets.length + ticketCounts[currentPlayer]++] = ticketsDeck[ticketsTop + i];
+                ++keptCount;
+            }
+        }
+        ticketsTop += IN_GAME_TICKETS_COUNT;
+        push(keptCount);
+        push(TICKETS_DRAWN);
+    }
+
+    /**
+     * Internal method which applies a claim move, drawing the 3 additional cards if the route is a tunnel
+     *
+     * @param move claim move
+     */
+    private void applyClaimRoute(int move) {
+        int route = (move >>> ARGUMENT_SHIFT) & ROUTE_MASK;
+        int card = (move >>> CARD_SHIFT) & COUNT_MASK;
+        int carCards = (move >>> CAR_CARDS_SHIFT) & COUNT_MASK;
+        int locomotives = (move >>> LOCOMOTIVES_SHIFT) & COUNT_MASK;
+        checkArgument(routeOwners[route] == NO_PLAYER);
+
+        if (routes[route].level() == Route.Level.UNDERGROUND) {
+            // Draw the 3 additional cards, which are discarded once all of them have been drawn, as in Game.play
+            int additionalCount = 0;
+            int drawnCards = 0;
+            for (int i = 0; i < ADDITIONAL_TUNNEL_CARDS; ++i) {
+                int drawnCard = popDeck();
+                drawnCards = drawnCards << CARD_BITS | drawnCard;
+                if (drawnCard == LOCOMOTIVE || (drawnCard == card && carCards > 0)) {
+                    ++additionalCount;
+                }
+            }
+            for (int i = 0; i < ADDITIONAL_TUNNEL_CARDS; ++i) {
+                addToDiscard(drawnCards & COUNT_MASK, 1);
+                drawnCards >>>= CARD_BITS;
+            }
+
+            if (additionalCount > 0) {
+                if ((move & ABANDON_BIT) != 0) {
+                    return;
+                }
+                int remainingCarCards = carCards > 0 ? cardCount(currentPlayer, card) - carCards : 0;
+                int remainingLocomotives = cardCount(currentPlayer, LOCOMOTIVE) - locomotives;
+
+                // Options are ordered by number of locomotives, the first playable one is chosen
+                int additionalLocomotives = carCards > 0 ? 0 : additionalCount;
+                while (additionalLocomotives <= additionalCount
+                        && (additionalCount - additionalLocomotives > remainingCarCards
+                        || additionalLocomotives > remainingLocomotives)) {
+                    ++additionalLocomotives;
+                }
+                if (additionalLocomotives > additionalCount) {
+                    return;
+                }
+                carCards += additionalCount - additionalLocomotives;
+                locomotives += additionalLocomotives;
+            }
+        }
+
+        if (carCards > 0) {
+            payCards(card, carCards);
+        }
+        if (locomotives > 0) {
+            payCards(LOCOMOTIVE, locomotives);
+        }
+        claim(route);
+    }
+
+    /**
+     * Internal method which moves cards from the hand of the current player to the discard
+     *
+     * @param card  ordinal of the card
+     * @param count number of cards
+     */
+    private void payCards(int card, int count) {
+        checkArgument(cardCount(currentPlayer, card) >= count);
+        addToHand(currentPlayer, card, -count);
+        addToDiscard(card, count);
+    }
+
+    /**
+     * Internal method which gives the given route to the current player
+     *
+     * @param route index of the route
+     */
+    private void claim(int route) {
+        routeOwners[route] = currentPlayer;
+        ++groupClaims[routeGroups[route]];
+        playerRoutes[currentPlayer * routes.length + routeCounts[currentPlayer]++] = route;
+        carCounts[currentPlayer] -= routes[route].length();
+        claimPoints[currentPlayer] += routes[route].claimPoints();
+        push(route);
+        push(ROUTE_CLAIMED);
+    }
+
+    /**
+     * Internal method which ends the current turn, the same way as Game.play and GameState.forNextTurn do
+     */
+    private void applyEndTurn() {
+        push(currentPlayer);
+        push(lastPlayer);
+        push(TURN_CHANGE);
+
+        if (currentPlayer == lastPlayer) {
+            phase = GAME_OVER;
+            return;
+        }
+        if (lastPlayer == NO_PLAYER && carCounts[currentPlayer] <= CARS_COUNT) {
+            lastPlayer = currentPlayer;
+        }
+        currentPlayer = (currentPlayer + 1) % PlayerId.COUNT;
+        phase = TURN_START;
+    }
+
+    /**
+     * Internal method which writes the possible card draws into the given array
+     *
+     * @param moves array receiving the moves
+     * @param count number of moves already written
+     * @return the new number of moves written
+     */
+    private static int addCardDraws(int[] moves, int count) {
+        moves[count++] = DRAW_BLIND_CARD;
+        for (int slot : FACE_UP_CARD_SLOTS) {
+            moves[count++] = DRAW_FACE_UP_CARD | slot << ARGUMENT_SHIFT;
+        }
+        return count;
+    }
+
+    /**
+     * Internal method which writes the possible claims of the given route into the given array, in the same order as
+     * PlayerState.possibleClaimCards
+     *
+     * @param moves array receiving the moves
+     * @param count number of moves already written
+     * @param route index of the route
+     * @return the new number of moves written
+     */
+    private int addClaims(int[] moves, int count, int route) {
+        Route r = routes[route];
+        int length = r.length();
+        int locomotives = cardCount(currentPlayer, LOCOMOTIVE);
+        int maxLocomotives = r.level() == Route.Level.UNDERGROUND ? length - 1 : 0;
+
+        for (int usedLocomotives = 0; usedLocomotives <= maxLocomotives && usedLocomotives <= locomotives; ++usedLocomotives) {
+            for (Color color : Color.ALL) {
+                int card = Card.of(color).ordinal();
+                if ((r.color() == null || r.color() == color) && cardCount(currentPlayer, card) >= length - usedLocomotives) {
+                    moves[count++] = claimMove(route, card, length - usedLocomotives, usedLocomotives, false);
+                }
+            }
+        }
+        if (r.level() == Route.Level.UNDERGROUND && locomotives >= length) {
+            moves[count++] = claimMove(route, LOCOMOTIVE, 0, length, false);
+        }
+        return count;
+    }
+
+    /**
+     * Internal method which recreates the deck from the discard if it is empty, shuffling the discard the same way
+     * as Deck.of does
+     */
+    private void recreateDeckIfNeeded() {
+        if (deckTop != deckEnd) {
+            return;
+        }
+
+        // Save the cards that are overwritten, as they are needed to undo the previous draws
+        push(deckTop);
+        push(deckEnd);
+        for (int i = 0; i < discardsSize; ++i) {
+            push(deck[i]);
+        }
+
+        int count = 0;
+        for (int card = 0; card < Card.COUNT; ++card) {
+            for (int i = 0; i < discard[card]; ++i) {
+                deck[count++] = card;
+            }
+            discard[card] = 0;
+        }
+        for (int i = count; i > 1; --i) {
+            int j = rng.nextInt(i);
+            int card = deck[i - 1];
+            deck[i - 1] = deck[j];
+            deck[j] = card;
+        }
+
+        deckTop = 0;
+        deckEnd = count;
+        discardsSize = 0;
+        push(count);
+        push(DECK_RECREATION);
+    }
+
+    /**
+     * Internal method which removes the top card of the deck, after having recreated it if needed
+     *
+     * @return the ordinal of the removed card
+     */
+    private int popDeck() {
+        recreateDeckIfNeeded();
+        checkArgument(deckTop != deckEnd);
+        push(DECK_POP);
+        return deck[deckTop++];
+    }
+
+    /**
+     * Internal method which adds (or removes if count is negative) cards to the hand of a player
+     *
+     * @param player ordinal of the player
+     * @param card   ordinal of the card
+     * @param count  number of cards to add
+     */
+    private void addToHand(int player, int card, int count) {
+        hands[player * Card.COUNT + card] += count;
+        cardCounts[player] += count;
+        push(player);
+        push(card);
+        push(count);
+        push(HAND_CHANGE);
+    }
+
+    /**
+     * Internal method which adds cards to the discard
+     *
+     * @param card  ordinal of the card
+     * @param count number of cards to add
+     */
+    private void addToDiscard(int card, int count) {
+        discard[card] += count;
+        discardsSize += count;
+        push(card);
+        push(count);
+        push(DISCARD_CHANGE);
+    }
+
+    /**
+     * Internal method which replaces a face up card
+     *
+     * @param slot face up slot
+     * @param card ordinal of the new card
+     */
+    private void setFaceUpCard(int slot, int card) {
+        push(slot);
+        push(faceUpCards[slot]);
+        push(FACE_UP_CHANGE);
+        faceUpCards[slot] = card;
+    }
+
+    /**
+     * Internal getter of the number of cards of a given kind that a player has
+     *
+     * @param player ordinal of the player
+     * @param card   ordinal of the card
+     * @return int
+     */
+    private int cardCount(int player, int card) {
+        return hands[player * Card.COUNT + card];
+    }
+
+    /**
+     * Internal method which pushes a value on the undo stack, growing it if needed
+     *
+     * @param value value to push
+     */
+    private void push(int value) {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, 2 * undoStack.length);
+        }
+        undoStack[undoSize++] = value;
+    }
+
+    /**
+     * Internal method which pops a value from the undo stack
+     *
+     * @return the popped value
+     */
+    private int pop() {
+        return undoStack[--undoSize];
+    }
+
+    /**
+     * Internal method which returns the representative of a station in the work partition
+     *
+     * @param station id of the station
+     * @return id of the representative
+     */
+    private int representative(int station) {
+        while (stationRepresentatives[station] != station) {
+            station = stationRepresentatives[station];
+        }
+        return station;
+    }
+
+    /**
+     * Internal method which computes the group of each route, two routes being in the same group if they connect
+     * the same stations
+     *
+     * @param routes routes
+     * @return the index of the group of each route (the index of its first route)
+     */
+    private static int[] computeRouteGroups(Route[] routes) {
+        int[] groups = new int[routes.length];
+        for (int i = 0; i < routes.length; ++i) {
+            groups[i] = i;
+            for (int j = 0; j < i; ++j) {
+                if ((routes[i].station1() == routes[j].station1() && routes[i].station2() == routes[j].station2())
+                        || (routes[i].station1() == routes[j].station2() && routes[i].station2() == routes[j].station1())) {
+                    groups[i] = groups[j];
+                    break;
+                }
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Internal method which computes the highest station id used by the given routes
+     *
+     * @param routes routes
+     * @return int
+     */
+    private static int maxStationId(Route[] routes) {
+        int max = 0;
+        for (Route route : routes) {
+            max = Math.max(max, Math.max(route.station1().id(), route.station2().id()));
+        }
+        return max;
+    }
+}
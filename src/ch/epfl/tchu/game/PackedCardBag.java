@@ -0,0 +1,248 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.Objects;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+
+/**
+ * Class PackedCardBag contains static methods to manipulate multisets of cards packed in a single long, which are
+ * used instead of <pre>SortedBag<Card></pre> on hot paths. The number of cards of each kind is stored in a lane of
+ * 7 bits (at most 127 cards of each kind), the lane of a card being given by its ordinal. None of the methods of this
+ * class allocates any object, except the adapters from and to SortedBag.
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class PackedCardBag {
+
+    /**
+     * Empty packed bag of cards
+     */
+    public static final long EMPTY = 0L;
+
+    /**
+     * Maximum number of cards of each kind that a packed bag can contain
+     */
+    public static final int MAX_COUNT = (1 << 7) - 1;
+
+    private static final int LANE_BITS = 7; // Number of bits of the counter of each kind of card
+    private static final long LOW_BITS = computeLaneMask(MAX_COUNT >>> 1); // Low 6 bits of every lane
+    private static final long HIGH_BITS = computeLaneMask(MAX_COUNT ^ (MAX_COUNT >>> 1)); // High bit of every lane
+    private static final Card[] CARDS = Card.values();
+
+    /**
+     * private constructor without parameters to make this class non instantiable
+     */
+    private PackedCardBag() {}
+
+    /**
+     * Method which returns the packed bag containing the given number of times the given card
+     *
+     * @param n    number of cards
+     * @param card card
+     * @return long packed bag
+     * @throws IllegalArgumentException if n is not between 0 and MAX_COUNT (both included)
+     */
+    public static long of(int n, Card card) {
+        checkArgument(n >= 0 && n <= MAX_COUNT);
+        return (long) n << shift(card.ordinal());
+    }
+
+    /**
+     * Adapter which packs the given sorted bag of cards
+     *
+     * @param cards sorted bag of cards
+     * @return long packed bag
+     * @throws IllegalArgumentException if the bag contains more than MAX_COUNT cards of a kind
+     */
+    public static long of(SortedBag<Card> cards) {
+        long bag = EMPTY;
+        for (Card card : cards.toSet()) {
+            bag |= of(cards.countOf(card), card);
+        }
+        return bag;
+    }
+
+    /**
+     * Adapter which unpacks the given packed bag into a sorted bag of cards
+     *
+     * @param bag packed bag
+     * @return <pre>SortedBag<Card></pre>
+     */
+    public static SortedBag<Card> toSortedBag(long bag) {
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (Card card : CARDS) {
+            int count = countOf(bag, card);
+            if (count > 0) {
+                builder.add(count, card);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Method which returns the number of cards of the given kind in the packed bag
+     *
+     * @param bag  packed bag
+     * @param card card
+     * @return int
+     */
+    public static int countOf(long bag, Card card) {
+        return (int) (bag >>> shift(card.ordinal())) & MAX_COUNT;
+    }
+
+    /**
+     * Method which returns the total number of cards in the packed bag
+     *
+     * @param bag packed bag
+     * @return int
+     */
+    public static int size(long bag) {
+        int size = 0;
+        for (; bag != 0; bag >>>= LANE_BITS) {
+            size += (int) bag & MAX_COUNT;
+        }
+        return size;
+    }
+
+    /**
+     * Method which returns true if the packed bag is empty
+     *
+     * @param bag packed bag
+     * @return boolean
+     */
+    public static boolean isEmpty(long bag) {
+        return bag == EMPTY;
+    }
+
+    /**
+     * Method which returns the number of different kinds of cards in the packed bag
+     *
+     * @param bag packed bag
+     * @return int
+     */
+    public static int distinctCount(long bag) {
+        // A lane is non empty iff its high bit, or the carry of its low bits plus all ones, is set
+        long nonEmptyLanes = (((bag & LOW_BITS) + LOW_BITS) | bag) & HIGH_BITS;
+        return Long.bitCount(nonEmptyLanes);
+    }
+
+    /**
+     * Method which returns the card at the given index of the packed bag, the cards being sorted like in a SortedBag
+     *
+     * @param bag   packed bag
+     * @param index index of the card
+     * @return Card
+     * @throws IndexOutOfBoundsException if the index is not between 0 (included) and the size of the bag (excluded)
+     */
+    public static Card get(long bag, int index) {
+        Objects.checkIndex(index, size(bag));
+        int ordinal = 0;
+        for (int count = (int) bag & MAX_COUNT; index >= count; count = countOf(bag, CARDS[++ordinal])) {
+            index -= count;
+        }
+        return CARDS[ordinal];
+    }
+
+    /**
+     * Method which returns the packed bag containing the cards of both bags
+     *
+     * @param bag1 first packed bag
+     * @param bag2 second packed bag
+     * @return long packed bag
+     * @throws IllegalArgumentException if the union contains more than MAX_COUNT cards of a kind
+     */
+    public static long union(long bag1, long bag2) {
+        long sum = ((bag1 & LOW_BITS) + (bag2 & LOW_BITS)) ^ ((bag1 ^ bag2) & HIGH_BITS);
+        long carries = ((bag1 & bag2) | ((bag1 | bag2) & ~sum)) & HIGH_BITS;
+        checkArgument(carries == 0);
+        return sum;
+    }
+
+    /**
+     * Method which returns the packed bag containing the given card in addition to the cards of the bag
+     *
+     * @param bag  packed bag
+     * @param card card to add
+     * @return long packed bag
+     * @throws IllegalArgumentException if the result contains more than MAX_COUNT cards of a kind
+     */
+    public static long withAdded(long bag, Card card) {
+        return union(bag, of(1, card));
+    }
+
+    /**
+     * Method which returns the packed bag containing the cards of the first bag which are not in the second one, the
+     * same way as SortedBag.difference does
+     *
+     * @param bag1 first packed bag
+     * @param bag2 second packed bag
+     * @return long packed bag
+     */
+    public static long difference(long bag1, long bag2) {
+        long difference = subtract(bag1, bag2);
+        long borrowLanes = borrows(bag1, bag2, difference) >>> (LANE_BITS - 1);
+        // Lanes which borrowed are cleared, as the second bag contains more cards of their kind
+        return difference & ~(borrowLanes * MAX_COUNT);
+    }
+
+    /**
+     * Method which returns true if the first packed bag contains all the cards of the second one
+     *
+     * @param bag  packed bag
+     * @param that packed bag which may be contained in the first one
+     * @return boolean
+     */
+    public static boolean contains(long bag, long that) {
+        return borrows(bag, that, subtract(bag, that)) == 0;
+    }
+
+    /**
+     * Internal method which subtracts the lanes of the second bag from those of the first one, modulo 128
+     *
+     * @param bag1 first packed bag
+     * @param bag2 second packed bag
+     * @return long lane-wise difference
+     */
+    private static long subtract(long bag1, long bag2) {
+        return ((bag1 | HIGH_BITS) - (bag2 & LOW_BITS)) ^ ((bag1 ^ ~bag2) & HIGH_BITS);
+    }
+
+    /**
+     * Internal method which computes the lanes for which the subtraction borrowed
+     *
+     * @param bag1       first packed bag
+     * @param bag2       second packed bag
+     * @param difference lane-wise difference of the bags
+     * @return long with the high bit of every lane which borrowed set
+     */
+    private static long borrows(long bag1, long bag2, long difference) {
+        return ((~bag1 & bag2) | (~(bag1 ^ bag2) & difference)) & HIGH_BITS;
+    }
+
+    /**
+     * Internal method which computes the position of the lane of a card
+     *
+     * @param ordinal ordinal of the card
+     * @return int
+     */
+    private static int shift(int ordinal) {
+        return ordinal * LANE_BITS;
+    }
+
+    /**
+     * Internal method which repeats the given lane value in every lane
+     *
+     * @param laneValue value of each lane
+     * @return long
+     */
+    private static long computeLaneMask(long laneValue) {
+        long mask = 0;
+        for (int i = 0; i < Card.COUNT; ++i) {
+            mask |= laneValue << shift(i);
+        }
+        return mask;
+    }
+}
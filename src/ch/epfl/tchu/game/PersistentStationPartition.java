@@ -0,0 +1,178 @@
+package ch.epfl.tchu.game;
+
+import java.util.Arrays;
+
+/**
+ * Class PersistentStationPartition represents the connectivity of a route network as an immutable union-find, which
+ * is extended one connection at a time. The parent of each station is stored in small chunks of ids, and a new
+ * version only copies the chunks it modifies, the other ones being shared with the previous version. The trees are
+ * kept shallow with union by rank and with path compression of the stations visited by each connection.
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class PersistentStationPartition implements StationConnectivity {
+
+    /**
+     * Partition in which every station is only connected to itself
+     */
+    public static final PersistentStationPartition EMPTY = new PersistentStationPartition(new int[0][]);
+
+    private static final int CHUNK_BITS = 3; // Base 2 logarithm of the number of stations of each chunk
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS; // Number of stations of each chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1; // Mask giving the position of a station in its chunk
+    private static final int ROOT = -1; // Entry of a representative station of rank 0
+
+    /* Entries of each chunk of station ids, null if all of its stations are only connected to themselves.
+       The entry of a station is the id of its parent if it is positive, and -(rank + 1) if it is a representative */
+    private final int[][] chunks;
+
+    /**
+     * Private constructor, the partitions are created from EMPTY or with the static method of(...)
+     *
+     * @param chunks entries of each chunk of station ids
+     */
+    private PersistentStationPartition(int[][] chunks) {
+        this.chunks = chunks;
+    }
+
+    /**
+     * Method which creates the partition in which the stations of each of the given routes are connected
+     *
+     * @param routes routes
+     * @return PersistentStationPartition
+     */
+    public static PersistentStationPartition of(Iterable<Route> routes) {
+        PersistentStationPartition partition = EMPTY;
+        for (Route route : routes) {
+            partition = partition.withConnected(route.station1(), route.station2());
+        }
+        return partition;
+    }
+
+    /**
+     * @param s1 is a station
+     * @param s2 is a station
+     * @return true if both stations have the same representative station
+     */
+    @Override
+    public boolean connected(Station s1, Station s2) {
+        return representative(s1.id()) == representative(s2.id());
+    }
+
+    /**
+     * Method which returns the partition in which the two given stations are connected too. The partition itself
+     * is returned if they already are
+     *
+     * @param s1 is a station
+     * @param s2 is a station
+     * @return PersistentStationPartition
+     */
+    public PersistentStationPartition withConnected(Station s1, Station s2) {
+        int r1 = representative(s1.id());
+        int r2 = representative(s2.id());
+        if (r1 == r2) {
+            return this;
+        }
+
+        int[][] newChunks = Arrays.copyOf(chunks, Math.max(chunks.length, (Math.max(s1.id(), s2.id()) >> CHUNK_BITS) + 1));
+        boolean[] copied = new boolean[newChunks.length];
+
+        // Union by rank : the representative of the lower tree is linked to the other one
+        int rank1 = -entry(r1) - 1;
+        int rank2 = -entry(r2) - 1;
+        int root = rank1 >= rank2 ? r1 : r2;
+        int child = root == r1 ? r2 : r1;
+        setEntry(newChunks, copied, child, root);
+        if (rank1 == rank2) {
+            setEntry(newChunks, copied, root, -(rank1 + 2));
+        }
+
+        // Path compression : the stations visited on the way are linked directly to the new representative
+        compress(newChunks, copied, s1.id(), root);
+        compress(newChunks, copied, s2.id(), root);
+        return new PersistentStationPartition(newChunks);
+    }
+
+    /**
+     * Method which returns the id of the representative station of each station, which can be used as component id
+     * by Ticket.points(int[]). The stations with an id greater than the ones of the array are only connected to
+     * themselves
+     *
+     * @return the representative station id of each station, indexed by station id
+     */
+    public int[] componentIds() {
+        int[] componentIds = new int[chunks.length * CHUNK_SIZE];
+        for (int id = 0; id < componentIds.length; ++id) {
+            componentIds[id] = representative(id);
+        }
+        return componentIds;
+    }
+
+    /**
+     * Representative id getter
+     *
+     * @param id id of the station
+     * @return the id of the representative station of the given one
+     */
+    private int representative(int id) {
+        int entry = entry(id);
+        while (entry >= 0) {
+            id = entry;
+            entry = entry(id);
+        }
+        return id;
+    }
+
+    /**
+     * Internal method which returns the entry of a station in this version
+     *
+     * @param id id of the station
+     * @return int
+     */
+    private int entry(int id) {
+        int chunk = id >> CHUNK_BITS;
+        return chunk < chunks.length && chunks[chunk] != null ? chunks[chunk][id & CHUNK_MASK] : ROOT;
+    }
+
+    /**
+     * Internal method which links every station on the path from the given one to its former representative to the
+     * given representative, in the new version
+     *
+     * @param newChunks      chunks of the new version
+     * @param copied         true for the chunks which already belong to the new version only
+     * @param id             id of the station
+     * @param representative id of the new representative
+     */
+    private void compress(int[][] newChunks, boolean[] copied, int id, int representative) {
+        int entry = entry(id);
+        while (entry >= 0 && id != representative) {
+            setEntry(newChunks, copied, id, representative);
+            id = entry;
+            entry = entry(id);
+        }
+    }
+
+    /**
+     * Internal method which sets the entry of a station in the new version, copying its chunk first if it is shared
+     * with this version
+     *
+     * @param newChunks chunks of the new version
+     * @param copied    true for the chunks which already belong to the new version only
+     * @param id        id of the station
+     * @param entry     new entry of the station
+     */
+    private static void setEntry(int[][] newChunks, boolean[] copied, int id, int entry) {
+        int chunk = id >> CHUNK_BITS;
+        if (!copied[chunk]) {
+            if (newChunks[chunk] == null) {
+                newChunks[chunk] = new int[CHUNK_SIZE];
+                Arrays.fill(newChunks[chunk], ROOT);
+            } else {
+                newChunks[chunk] = newChunks[chunk].clone();
+            }
+            copied[chunk] = true;
+        }
+        newChunks[chunk][id & CHUNK_MASK] = entry;
+    }
+}
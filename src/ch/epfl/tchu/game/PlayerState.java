@@ -3,6 +3,7 @@ package ch.epfl.tchu.game;
 import ch.epfl.tchu.SortedBag;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static ch.epfl.tchu.Preconditions.checkArgument;
@@ -17,6 +18,11 @@ public final class PlayerState extends PublicPlayerState {
 
     private final SortedBag<Ticket> tickets; //Tickets the player has
     private final SortedBag<Card> cards; ///Cards the player has
+    private final long packedCards; // Cards the player has, packed with PackedCardBag
+    private final PersistentStationPartition stationPartition; // Connectivity of the routes the player has
+
+    //Possible additional cards to claim a tunnel, see computeAdditionalCardsTable
+    private static final List<SortedBag<Card>>[][][][] ADDITIONAL_CARDS_TABLE = computeAdditionalCardsTable();
 
     /**
      * Player state constructor
@@ -29,6 +35,29 @@ public final class PlayerState extends PublicPlayerState {
         super(tickets.size(), cards.size(), routes);
         this.tickets = tickets;
         this.cards = cards;
+        this.packedCards = PackedCardBag.of(cards);
+        this.stationPartition = PersistentStationPartition.of(routes());
+    }
+
+    /**
+     * Private player state constructor used by the transitions, which carries forward the values that did not change
+     * @param tickets the players' tickets
+     * @param cards the players' cards
+     * @param packedCards the same cards, packed with PackedCardBag
+     * @param routes the players' routes, which must not be modifiable
+     * @param routeSet the same routes, as a set
+     * @param claimPoints the total claim points of the routes
+     * @param carCount the car count of the player
+     * @param stationPartition the connectivity of the routes
+     */
+    private PlayerState(SortedBag<Ticket> tickets, SortedBag<Card> cards, long packedCards, List<Route> routes,
+                        RouteSet routeSet, int claimPoints, int carCount, PersistentStationPartition stationPartition)
+    {
+        super(tickets.size(), PackedCardBag.size(packedCards), routes, routeSet, claimPoints, carCount);
+        this.tickets = tickets;
+        this.cards = cards;
+        this.packedCards = packedCards;
+        this.stationPartition = stationPartition;
     }
 
     /**
@@ -57,7 +86,8 @@ public final class PlayerState extends PublicPlayerState {
      * @return PlayerState with added tickets
      */
     public PlayerState withAddedTickets(SortedBag<Ticket> newTickets){
-        return new PlayerState(tickets.union(newTickets),cards,routes());
+        return new PlayerState(tickets.union(newTickets), cards, packedCards, routes(), routeSet(), claimPoints(),
+                carCount(), stationPartition);
     }
 
 
@@ -69,13 +99,22 @@ public final class PlayerState extends PublicPlayerState {
         return cards;
     }
 
+    /**
+     * Packed card getter
+     * @return the players' cards, packed with PackedCardBag
+     */
+    public long packedCards(){
+        return packedCards;
+    }
+
     /**
      * Method which adds a single card to the players' cards
      * @param card the card to be added to the players' cards
      * @return PlayerState with added Card
      */
     public PlayerState withAddedCard(Card card){
-        return new PlayerState(tickets, cards.union(SortedBag.of(card)), routes());
+        return new PlayerState(tickets, cards.union(SortedBag.of(card)), PackedCardBag.withAdded(packedCards, card),
+                routes(), routeSet(), claimPoints(), carCount(), stationPartition);
     }
 
     /**
@@ -84,7 +123,7 @@ public final class PlayerState extends PublicPlayerState {
      * @return boolean
      */
     public boolean canClaimRoute(Route route){
-        return super.carCount() >= route.length() && !possibleClaimCards(route).isEmpty();
+        return super.carCount() >= route.length() && route.canClaim(packedCards);
     }
 
     /**
@@ -98,7 +137,7 @@ public final class PlayerState extends PublicPlayerState {
         //Throw exception if the player doesn't have enough cards
         checkArgument(super.carCount() >= route.length());
 
-        return playableCards(route.possibleClaimCards(), this.cards);
+        return playableCards(route.possibleClaimCards(), route.packedClaimCards(), packedCards);
     }
 
     /**
@@ -120,55 +159,22 @@ public final class PlayerState extends PublicPlayerState {
         checkArgument(additionalCardsCount >= 1);
         checkArgument(additionalCardsCount <= ADDITIONAL_TUNNEL_CARDS);
         checkArgument(!initialCards.isEmpty());
-        checkArgument(differentCardTypes(initialCards) <= 2);
-
-        Card claimCardType = null; //Determine the type of card that is used to claim the road (other than Card.LOCOMOTIVE)
-
-        for(Card c : initialCards)
-        {
-            if(!c.equals(Card.LOCOMOTIVE))
-            {
-                claimCardType = c;
-                break;
-            }
-        }
-
-        //Generate a list of all possible hands that can be used to claim the tunnel
-        List<SortedBag<Card>> allPossibleAdditionalCards = new ArrayList<>();
-
-        //If the player does not only use locomotive cards
-        if(claimCardType != null)
-        {
-            //Generate all possible combinations of cards
-            for(int i = 0; i < additionalCardsCount; ++i) //Loop for combination with i locomotive cards
-            {
-                List<Card> hand = new ArrayList<>();
-
-                for(int j = 0; j < additionalCardsCount; ++j) //Loop for card placement in combination
-                {
-                    if(i <= j)
-                    {
-                        hand.add(claimCardType);
-                    }
-                    else
-                    {
-                        hand.add(Card.LOCOMOTIVE);
-                    }
-                }
-
-                allPossibleAdditionalCards.add(SortedBag.of(hand));
-            }
-        }
-
-        //Create the locomotive only hand
-        List<Card> onlyLocomotiveHand = new ArrayList<>();
-        for(int i = 0; i < additionalCardsCount; ++i)
-        {
-            onlyLocomotiveHand.add(Card.LOCOMOTIVE);
-        }
-        allPossibleAdditionalCards.add(SortedBag.of(onlyLocomotiveHand));
-
-        return playableCards(allPossibleAdditionalCards, cards.difference(initialCards));
+        long packedInitialCards = PackedCardBag.of(initialCards);
+        checkArgument(PackedCardBag.distinctCount(packedInitialCards) <= 2);
+
+        //Determine the type of card that is used to claim the road (other than Card.LOCOMOTIVE). The locomotives
+        //come last in a bag, so it is the first card unless the initial cards only contain locomotives
+        Card claimCardType = PackedCardBag.get(packedInitialCards, 0);
+        int claimTypeIndex = (claimCardType == Card.LOCOMOTIVE) ? Card.CARS.size() : claimCardType.ordinal();
+
+        //Only the number of remaining cards of each usable type matters, up to the number of additional cards
+        long remainingCards = PackedCardBag.difference(packedCards, packedInitialCards);
+        int remainingCarCards = (claimCardType == Card.LOCOMOTIVE) ? 0 : PackedCardBag.countOf(remainingCards, claimCardType);
+        int remainingLocomotives = PackedCardBag.countOf(remainingCards, Card.LOCOMOTIVE);
+
+        return ADDITIONAL_CARDS_TABLE[additionalCardsCount][claimTypeIndex]
+                [Math.min(remainingCarCards, ADDITIONAL_TUNNEL_CARDS)]
+                [Math.min(remainingLocomotives, ADDITIONAL_TUNNEL_CARDS)];
     }
 
     /**
@@ -180,7 +186,14 @@ public final class PlayerState extends PublicPlayerState {
     public PlayerState withClaimedRoute(Route route, SortedBag<Card> claimCards){
         List<Route> newRoutes = new ArrayList<>(routes());
         newRoutes.add(route);
-        return new PlayerState(tickets, cards.difference(claimCards),newRoutes);
+        return new PlayerState(tickets,
+                cards.difference(claimCards),
+                PackedCardBag.difference(packedCards, PackedCardBag.of(claimCards)),
+                Collections.unmodifiableList(newRoutes),
+                routeSet().with(route),
+                claimPoints() + route.claimPoints(),
+                carCount() - route.length(),
+                stationPartition.withConnected(route.station1(), route.station2()));
     }
 
     /**
@@ -189,30 +202,8 @@ public final class PlayerState extends PublicPlayerState {
      */
     public int ticketPoints(){
 
-        int maxIdStation = 0;
-        StationPartition.Builder buildPartition;
-        for (Route route : routes()){
-            if (route.station1().id() > maxIdStation){
-                maxIdStation = route.station1().id();
-            }
-            if (route.station2().id() > maxIdStation){
-                maxIdStation = route.station2().id();
-            }
-        }
-        buildPartition = new StationPartition.Builder(maxIdStation+1);
-
-        for(Route route : routes())
-        {
-            buildPartition.connect(route.station1(), route.station2());
-        }
-        StationPartition partition = buildPartition.build();
-
-        int sum = 0;
-        for(Ticket ticket : tickets)
-        {
-            sum += ticket.points(partition);
-        }
-        return sum;
+        //The partition of the routes is carried forward by withClaimedRoute, so it is not rebuilt here
+        return Ticket.points(tickets, stationPartition.componentIds());
 
     }
 
@@ -225,28 +216,84 @@ public final class PlayerState extends PublicPlayerState {
     }
 
     /**
-     * Internal method which computes the amount of distinct cards in a sorted bag
-     * @param cards the cards to test
-     * @return int
+     * Internal method which computes the possible additional cards for every number of additional cards, type of
+     * claim card and number of remaining cards of this type and of locomotives
+     * @return the table of the possible additional cards, indexed by number of additional cards, type of claim card
+     * (Card.CARS.size() if only locomotives are used) and number of remaining car cards and locomotives (at most
+     * ADDITIONAL_TUNNEL_CARDS)
+     */
+    private static List<SortedBag<Card>>[][][][] computeAdditionalCardsTable()
+    {
+        int countLimit = ADDITIONAL_TUNNEL_CARDS + 1;
+        @SuppressWarnings({"unchecked", "rawtypes"}) // Arrays of a generic type can only be created raw
+        List<SortedBag<Card>>[][][][] table = new List[countLimit][Card.CARS.size() + 1][countLimit][countLimit];
+        for(int additionalCardsCount = 1; additionalCardsCount <= ADDITIONAL_TUNNEL_CARDS; ++additionalCardsCount)
+        {
+            for(int claimTypeIndex = 0; claimTypeIndex <= Card.CARS.size(); ++claimTypeIndex)
+            {
+                Card claimCardType = (claimTypeIndex == Card.CARS.size()) ? null : Card.CARS.get(claimTypeIndex);
+                for(int carCards = 0; carCards < countLimit; ++carCards)
+                {
+                    for(int locomotives = 0; locomotives < countLimit; ++locomotives)
+                    {
+                        table[additionalCardsCount][claimTypeIndex][carCards][locomotives] =
+                                computeAdditionalCards(additionalCardsCount, claimCardType, carCards, locomotives);
+                    }
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Internal method which computes the possible additional cards the player can play to claim a tunnel
+     * @param additionalCardsCount the number of additional cards
+     * @param claimCardType the type of car card used to claim the tunnel (<code>null</code> if only locomotives are used)
+     * @param carCards the number of remaining cards of that type
+     * @param locomotives the number of remaining locomotives
+     * @return <pre>List<SortedBag<Card>></pre>
      */
-    private int differentCardTypes(SortedBag<Card> cards)
+    private static List<SortedBag<Card>> computeAdditionalCards(int additionalCardsCount, Card claimCardType,
+                                                                int carCards, int locomotives)
     {
-        return cards.toSet().size();
+        //Generate a list of all possible hands that can be used to claim the tunnel, ordered by number of locomotives
+        List<SortedBag<Card>> allPossibleAdditionalCards = new ArrayList<>();
+
+        //If the player does not only use locomotive cards
+        if(claimCardType != null)
+        {
+            for(int i = 0; i < additionalCardsCount; ++i) //Loop for combination with i locomotive cards
+            {
+                if(additionalCardsCount - i <= carCards && i <= locomotives)
+                {
+                    allPossibleAdditionalCards.add(SortedBag.of(additionalCardsCount - i, claimCardType, i, Card.LOCOMOTIVE));
+                }
+            }
+        }
+
+        //The locomotive only hand
+        if(additionalCardsCount <= locomotives)
+        {
+            allPossibleAdditionalCards.add(SortedBag.of(additionalCardsCount, Card.LOCOMOTIVE));
+        }
+        return List.copyOf(allPossibleAdditionalCards);
     }
 
     /**
      * Internal method which computes all the card combinations the player can play with his cards
      * @param possibleCards <pre>List<SortedBag<Card>></pre> with all possible combinations to choose from
+     * @param packedPossibleCards the same combinations, packed with PackedCardBag
+     * @param currentPlayerCards the cards the player can use, packed with PackedCardBag
      * @return <pre>List<SortedBag<Card></pre> Playable hands
      */
-    private List<SortedBag<Card>> playableCards(List<SortedBag<Card>> possibleCards, SortedBag<Card> currentPlayerCards)
+    private List<SortedBag<Card>> playableCards(List<SortedBag<Card>> possibleCards, long[] packedPossibleCards, long currentPlayerCards)
     {
         List<SortedBag<Card>> out = new ArrayList<>(); //Create the output list
-        for(SortedBag<Card> option : possibleCards)
+        for(int i = 0; i < packedPossibleCards.length; ++i)
         {
-            if(currentPlayerCards.contains(option))
+            if(PackedCardBag.contains(currentPlayerCards, packedPossibleCards[i]))
             {
-                out.add(option);
+                out.add(possibleCards.get(i));
             }
         }
         return List.copyOf(out);
@@ -18,8 +18,9 @@ public class PublicGameState {
     private final int ticketsCount; ///Ticket count
     private final PublicCardState cardState; //Current public card state
     private final PlayerId currentPlayerId; //Id of the current player
-    private final Map<PlayerId, PublicPlayerState> playerState; //Map which maps each player id to its corresponding public player state
+    private final PublicPlayerState[] playerStates; //Public player state of each player, indexed by player id ordinal (never modified)
     private final PlayerId lastPlayer; //Id of the last player
+    private final RouteSet claimedRouteSet; //Routes claimed by any player
 
     /**
      * Public game state constructor
@@ -31,14 +32,46 @@ public class PublicGameState {
      * @throws IllegalArgumentException if the card states' deck size is strictly negative, and if the number of key/entry relationships in the playerState map is different than two
      */
     public PublicGameState(int ticketsCount, PublicCardState cardState, PlayerId currentPlayerId, Map<PlayerId, PublicPlayerState> playerState, PlayerId lastPlayer){
-        checkArgument(  playerState.size() == PlayerId.COUNT);
+        this(ticketsCount, cardState, currentPlayerId, lastPlayer, toArray(playerState));
+    }
+
+    /**
+     * Package-private public game state constructor, which takes the player states as an array indexed by player id
+     * ordinal. The array is not copied, and must therefore never be modified afterwards
+     * @param ticketsCount amount of tickets
+     * @param cardState current public card state
+     * @param currentPlayerId current player id
+     * @param lastPlayer last players' player id
+     * @param playerStates public player state of each player, indexed by player id ordinal
+     * @throws IllegalArgumentException if the ticket count is strictly negative, or if the array does not contain one
+     * state per player
+     */
+    PublicGameState(int ticketsCount, PublicCardState cardState, PlayerId currentPlayerId, PlayerId lastPlayer, PublicPlayerState[] playerStates){
         checkArgument(ticketsCount >= 0);
+        checkArgument(playerStates.length == PlayerId.COUNT);
 
         this.ticketsCount = ticketsCount;
         this.cardState = Objects.requireNonNull(cardState);
         this.currentPlayerId = Objects.requireNonNull(currentPlayerId);
-        this.playerState = Objects.requireNonNull(Map.copyOf(playerState));
+        this.playerStates = playerStates;
         this.lastPlayer = lastPlayer;
+        this.claimedRouteSet = computeClaimedRouteSet();
+    }
+
+    /**
+     * Internal method which copies the player states of the given map into an array indexed by player id ordinal
+     * @param playerState map which maps each player id to the corresponding public player state
+     * @return the player states, indexed by player id ordinal
+     * @throws IllegalArgumentException if the map does not contain exactly one state per player
+     */
+    private static PublicPlayerState[] toArray(Map<PlayerId, PublicPlayerState> playerState){
+        checkArgument(playerState.size() == PlayerId.COUNT);
+        PublicPlayerState[] playerStates = new PublicPlayerState[PlayerId.COUNT];
+        for(PlayerId player : PlayerId.ALL)
+        {
+            playerStates[player.ordinal()] = Objects.requireNonNull(playerState.get(player));
+        }
+        return playerStates;
     }
 
 
@@ -88,7 +121,7 @@ public class PublicGameState {
      * @return PublicPlayerState
      */
     public PublicPlayerState playerState(PlayerId playerId){
-        return playerState.get(playerId);
+        return playerStates[playerId.ordinal()];
     }
 
     /**
@@ -105,9 +138,31 @@ public class PublicGameState {
      */
     public List<Route> claimedRoutes(){
         List<Route> out = new ArrayList<>();
-        for(PlayerId player : playerState.keySet())
+        for(PlayerId player : PlayerId.ALL)
+        {
+            out.addAll(playerState(player).routes());
+        }
+        return out;
+    }
+
+    /**
+     * Getter which returns the set of the roads claimed by any player, which allows to test in constant time if a
+     * road is claimed
+     * @return RouteSet
+     */
+    public RouteSet claimedRouteSet(){
+        return claimedRouteSet;
+    }
+
+    /**
+     * Internal method which computes the set of the roads claimed by any player
+     * @return RouteSet
+     */
+    private RouteSet computeClaimedRouteSet(){
+        RouteSet out = RouteSet.EMPTY;
+        for(PublicPlayerState state : playerStates)
         {
-            out.addAll(playerState.get(player).routes());
+            out = out.union(state.routeSet());
         }
         return out;
     }
@@ -15,6 +15,7 @@ public class PublicPlayerState {
     private final int ticketCount; //Number of tickets the player has
     private final int cardCount; //Number of cards the player has
     private final List<Route> routes; //Routes claimed by the player
+    private final RouteSet routeSet; //Routes claimed by the player, as a set
     private final int carCount; //Number of car cards the player has
     private final int claimPoints; //Number of points the player has through claimed routes
 
@@ -32,8 +33,33 @@ public class PublicPlayerState {
         this.ticketCount = ticketCount;
         this.cardCount = cardCount;
         this.routes = List.copyOf(routes);
-        claimPoints = computeClaimPoints();
-        carCount = computeCarCount();
+        this.routeSet = RouteSet.of(this.routes);
+        claimPoints = computeClaimPoints(this.routes);
+        carCount = computeCarCount(this.routes);
+    }
+
+    /**
+     * PublicPlayerState constructor used by the transitions of PlayerState, which carry the values depending on the
+     * routes forward instead of walking the route list again
+     * @param ticketCount amount of tickets the player has
+     * @param cardCount amount of cards the player has
+     * @param routes routes the player has claimed, which must not be modifiable
+     * @param routeSet the same routes, as a set
+     * @param claimPoints total claim points of the routes
+     * @param carCount car count of the player
+     * @throws IllegalArgumentException if cardCount or ticketCount are negative
+     */
+    PublicPlayerState(int ticketCount, int cardCount, List<Route> routes, RouteSet routeSet, int claimPoints,
+                      int carCount)
+    {
+        checkArgument(cardCount >= 0);
+        checkArgument(ticketCount >= 0);
+        this.ticketCount = ticketCount;
+        this.cardCount = cardCount;
+        this.routes = routes;
+        this.routeSet = routeSet;
+        this.claimPoints = claimPoints;
+        this.carCount = carCount;
     }
 
     /**
@@ -63,6 +89,15 @@ public class PublicPlayerState {
         return routes;
     }
 
+    /**
+     * Claimed route set getter, which allows to test in constant time if the player owns a route
+     * @return RouteSet
+     */
+    public RouteSet routeSet()
+    {
+        return routeSet;
+    }
+
     /**
      * Car count getter
      * @return int
@@ -81,11 +116,22 @@ public class PublicPlayerState {
         return claimPoints;
     }
 
+    /**
+     * Longest trail length getter, which computes the longest trail of the routes when it is called (i.e. at the end
+     * of the game) instead of following it during the whole game
+     * @return the length of the longest trail of the routes claimed by the player
+     */
+    public int longestTrailLength()
+    {
+        return Trail.longest(routes).length();
+    }
+
     /**
      * Internal method which computes the total claim points from the routes claimed by the player
+     * @param routes routes claimed by the player
      * @return int
      */
-    private int computeClaimPoints()
+    private static int computeClaimPoints(List<Route> routes)
     {
         int sum = 0;
         for(Route route : routes)
@@ -97,9 +143,10 @@ public class PublicPlayerState {
 
     /**
      * Internal method to compute the car count
+     * @param routes routes claimed by the player
      * @return int
      */
-    private int computeCarCount()
+    private static int computeCarCount(List<Route> routes)
     {
         int tempCarCount = 0;
         for(Route route : routes)
@@ -23,12 +23,20 @@ public final class Route {
         OVERGROUND
     }
 
+    //Cards which can be used to claim a route, indexed by level, color (Color.COUNT for neutral routes) and length
+    private static final List<SortedBag<Card>>[][][] CLAIM_CARDS_TABLE = computeClaimCardsTable();
+
+    //The same cards, packed with PackedCardBag
+    private static final long[][][][] PACKED_CLAIM_CARDS_TABLE = computePackedClaimCardsTable();
+
     private final String id; //unique ID associated to the route
     private final Station station1; //first station
     private final Station station2; //second station
     private final int length; //length of the route
     private final Level level; //level of the route
     private final Color color; //color of the route
+    private final List<SortedBag<Card>> claimCards; //cards which can be used to claim the route, shared with the routes of same kind
+    private final long[] packedClaimCards; //the same cards, packed with PackedCardBag
 
     /**
      * Route constructor
@@ -52,6 +60,10 @@ public final class Route {
         this.length = length;
         this.level = Objects.requireNonNull(level);
         this.color = color;
+
+        int colorIndex = (color == null) ? Color.COUNT : color.ordinal();
+        this.claimCards = CLAIM_CARDS_TABLE[level.ordinal()][colorIndex][length];
+        this.packedClaimCards = PACKED_CLAIM_CARDS_TABLE[level.ordinal()][colorIndex][length];
     }
 
     /**
@@ -138,10 +150,56 @@ public final class Route {
      * route. These combinations depend on the color of the route and are become a lot if the color is neutral. The
      * combinations range from all colored car cards up to all locomotive cards and any combination in between. The
      * amount of different combinations can be computed by <code>C = LENGTH + 1</code> if the routes' color is
-     * specified and <code>C = 8 * LENGTH + 1</code> if it is neutral.
+     * specified and <code>C = 8 * LENGTH + 1</code> if it is neutral. The list is computed once for all the routes
+     * with the same length, level and color.
      * @return <pre>List<SortedBag<Card>></pre>
      */
     public List<SortedBag<Card>> possibleClaimCards(){
+        return claimCards;
+    }
+
+    /**
+     * Method which returns the same combinations of cards as possibleClaimCards, in the same order, but packed with
+     * PackedCardBag
+     * @return <pre>long[]</pre> packed bags
+     */
+    public long[] packedPossibleClaimCards(){
+        return packedClaimCards.clone();
+    }
+
+    /**
+     * Method which returns true if the given cards contain one of the combinations of cards needed to take over the
+     * route, without allocating any object. The car count of the player is not checked
+     * @param cards cards, packed with PackedCardBag
+     * @return boolean
+     */
+    public boolean canClaim(long cards){
+        for(long option : packedClaimCards)
+        {
+            if(PackedCardBag.contains(cards, option))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Packed claim cards getter, which returns the shared array without copying it. It must not be modified
+     * @return <pre>long[]</pre> packed bags
+     */
+    long[] packedClaimCards(){
+        return packedClaimCards;
+    }
+
+    /**
+     * Internal method which computes the combinations of cards needed to take over a route
+     * @param length length of the route
+     * @param level level of the route
+     * @param color color of the route (<code>null</code> for neutral color)
+     * @return <pre>List<SortedBag<Card>></pre>
+     */
+    private static List<SortedBag<Card>> computeClaimCards(int length, Level level, Color color){
 
         List<SortedBag<Card>> out = new ArrayList<>(); //Create the output list
 
@@ -171,6 +229,35 @@ public final class Route {
         return List.copyOf(out);
     }
 
+    /**
+     * Internal method which computes the same combinations of cards as computeClaimCards, in the same order, but
+     * packed with PackedCardBag
+     * @param length length of the route
+     * @param level level of the route
+     * @param color color of the route (<code>null</code> for neutral color)
+     * @return <pre>long[]</pre> packed bags
+     */
+    private static long[] computePackedClaimCards(int length, Level level, Color color){
+
+        List<Color> colors = (color == null) ? Color.ALL : List.of(color);
+        int locomotiveCounts = (level == Level.UNDERGROUND) ? length : 1;
+        long[] out = new long[locomotiveCounts * colors.size() + (level == Level.UNDERGROUND ? 1 : 0)];
+
+        int index = 0;
+        for(int i = 0; i < locomotiveCounts; ++i)
+        {
+            for(Color c : colors)
+            {
+                out[index++] = PackedCardBag.of(length - i, Card.of(c)) | PackedCardBag.of(i, Card.LOCOMOTIVE);
+            }
+        }
+        if(level == Level.UNDERGROUND)
+        {
+            out[index] = PackedCardBag.of(length, Card.LOCOMOTIVE);
+        }
+        return out;
+    }
+
     /**
      * Method which returns the amount of additional cards the player has to play to claim the tunnel.
      * @param claimCards <pre>SortedBag<Card></pre> which contains the hand of cards the player uses to claim the tunnel
@@ -196,6 +283,30 @@ public final class Route {
         }
     }
 
+    /**
+     * Method which returns the same amount of additional cards as additionalClaimCardsCount, from cards packed with
+     * PackedCardBag, without allocating any object
+     * @param claimCards the hand of cards the player uses to claim the tunnel, packed with PackedCardBag
+     * @param drawnCards the three cards drawn from the deck, packed with PackedCardBag
+     * @return int representing the additional cards the player has to play
+     * @throws IllegalArgumentException if the route is not a tunnel or if the number of drawnCards is not 3
+     */
+    public int additionalClaimCardsCount(long claimCards, long drawnCards)
+    {
+        checkArgument(level == Level.UNDERGROUND && PackedCardBag.size(drawnCards) == ADDITIONAL_TUNNEL_CARDS);
+
+        int out = PackedCardBag.countOf(drawnCards, Card.LOCOMOTIVE); //Locomotives always require an additional card
+        for(int i = 0; i < Card.CARS.size(); ++i)
+        {
+            Card car = Card.CARS.get(i);
+            if(PackedCardBag.countOf(claimCards, car) > 0)
+            {
+                out += PackedCardBag.countOf(drawnCards, car);
+            }
+        }
+        return out;
+    }
+
     /**
      * Method which returns the claimed points if the route is claimed, depending on its length
      * @return int
@@ -205,6 +316,49 @@ public final class Route {
         return ROUTE_CLAIM_POINTS.get(length);
     }
 
+    /**
+     * Internal method which computes the claim cards of every kind of route
+     * @return the table of the claim cards, indexed by level, color (Color.COUNT for neutral routes) and length
+     */
+    private static List<SortedBag<Card>>[][][] computeClaimCardsTable()
+    {
+        @SuppressWarnings({"unchecked", "rawtypes"}) // Arrays of a generic type can only be created raw
+        List<SortedBag<Card>>[][][] table = new List[Level.values().length][Color.COUNT + 1][Constants.MAX_ROUTE_LENGTH + 1];
+        for(Level level : Level.values())
+        {
+            for(int colorIndex = 0; colorIndex <= Color.COUNT; ++colorIndex)
+            {
+                Color color = (colorIndex == Color.COUNT) ? null : Color.ALL.get(colorIndex);
+                for(int length = Constants.MIN_ROUTE_LENGTH; length <= Constants.MAX_ROUTE_LENGTH; ++length)
+                {
+                    table[level.ordinal()][colorIndex][length] = computeClaimCards(length, level, color);
+                }
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Internal method which computes the packed claim cards of every kind of route
+     * @return the table of the packed claim cards, indexed by level, color (Color.COUNT for neutral routes) and length
+     */
+    private static long[][][][] computePackedClaimCardsTable()
+    {
+        long[][][][] table = new long[Level.values().length][Color.COUNT + 1][Constants.MAX_ROUTE_LENGTH + 1][];
+        for(Level level : Level.values())
+        {
+            for(int colorIndex = 0; colorIndex <= Color.COUNT; ++colorIndex)
+            {
+                Color color = (colorIndex == Color.COUNT) ? null : Color.ALL.get(colorIndex);
+                for(int length = Constants.MIN_ROUTE_LENGTH; length <= Constants.MAX_ROUTE_LENGTH; ++length)
+                {
+                    table[level.ordinal()][colorIndex][length] = computePackedClaimCards(length, level, color);
+                }
+            }
+        }
+        return table;
+    }
+
     /**
      * Internal method to generate a bag with a given length, color and number of locomotive cards.
      * @param cardCount number of total cards in the bag
@@ -212,7 +366,7 @@ public final class Route {
      * @param locomotiveCards number of locomotive cards
      * @return <pre>SortedBag<Card></pre>
      */
-    private SortedBag<Card> generateBag(int cardCount, Color color, int locomotiveCards)
+    private static SortedBag<Card> generateBag(int cardCount, Color color, int locomotiveCards)
     {
         List<Card> out = new ArrayList<>();
         for(int i = 0; i < cardCount; ++i)
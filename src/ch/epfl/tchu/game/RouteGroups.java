@@ -0,0 +1,66 @@
+package ch.epfl.tchu.game;
+
+import java.util.*;
+
+/**
+ * Class RouteGroups indexes the groups of routes of ChMap, two routes being in the same group if they connect the
+ * same stations (double routes). Only one route of each group can be claimed. The index is built once, and gives the
+ * group of a route as a RouteSet in constant time.
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class RouteGroups {
+
+    private static final RouteSet[] GROUPS = computeGroups(ChMap.routes()); // Group of each route, indexed by route index
+
+    /**
+     * Private constructor, the class is not instantiable
+     */
+    private RouteGroups() {}
+
+    /**
+     * Method which returns the group of the given route, i.e. the routes of ChMap which connect the same stations,
+     * including the route itself
+     *
+     * @param route route of ChMap
+     * @return RouteSet
+     * @throws IndexOutOfBoundsException if the route is not in ChMap
+     */
+    public static RouteSet groupOf(Route route) {
+        return groupOf(RouteSet.indexOf(route));
+    }
+
+    /**
+     * Method which returns the group of the route of the given index
+     *
+     * @param index index of the route in ChMap.routes()
+     * @return RouteSet
+     * @throws IndexOutOfBoundsException if no route of ChMap has the given index
+     */
+    public static RouteSet groupOf(int index) {
+        return GROUPS[Objects.checkIndex(index, GROUPS.length)];
+    }
+
+    /**
+     * Internal method which computes the group of each route
+     *
+     * @param routes routes
+     * @return the group of each route
+     */
+    private static RouteSet[] computeGroups(List<Route> routes) {
+        // Routes indexed by the stations they connect, regardless of their order
+        Map<Set<Station>, List<Route>> routesByStations = new HashMap<>();
+        for (Route route : routes) {
+            routesByStations.computeIfAbsent(Set.of(route.station1(), route.station2()), stations -> new ArrayList<>())
+                    .add(route);
+        }
+
+        RouteSet[] groups = new RouteSet[routes.size()];
+        for (int i = 0; i < groups.length; ++i) {
+            Route route = routes.get(i);
+            groups[i] = RouteSet.of(routesByStations.get(Set.of(route.station1(), route.station2())));
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,270 @@
+package ch.epfl.tchu.game;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class RouteSet represents an immutable set of routes, stored as a bitset in which each route has a fixed index.
+ * The routes of ChMap have the indices 0 to 87, in the order of ChMap.routes(), and any other route gets the next
+ * free index the first time it is put in a set. Membership is tested in constant time, and the routes are iterated
+ * in index order, i.e. in ChMap order for the routes of the map.
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class RouteSet implements Iterable<Route> {
+
+    /**
+     * Empty set of routes
+     */
+    public static final RouteSet EMPTY = new RouteSet(new long[0]);
+
+    private static final int WORD_BITS = Long.SIZE; // Number of routes stored in each word
+    private static final Map<Route, Integer> INDICES = new ConcurrentHashMap<>(); // Index of each known route
+    private static volatile Route[] routes = new Route[0]; // Known routes, ordered by index
+
+    static {
+        for (Route route : ChMap.routes()) {
+            indexOf(route);
+        }
+    }
+
+    private final long[] words; // Bitset, bit i of word i / 64 being set if the route of index i is in the set
+
+    /**
+     * Private constructor, the sets are created with the static methods of(...)
+     *
+     * @param words bitset, without trailing empty words
+     */
+    private RouteSet(long[] words) {
+        this.words = words;
+    }
+
+    /**
+     * Method which creates a set containing the given routes
+     *
+     * @param routes routes
+     * @return RouteSet
+     */
+    public static RouteSet of(Collection<Route> routes) {
+        if (routes.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[] words = new long[0];
+        for (Route route : routes) {
+            int index = indexOf(route);
+            if (index / WORD_BITS >= words.length) {
+                words = Arrays.copyOf(words, index / WORD_BITS + 1);
+            }
+            words[index / WORD_BITS] |= 1L << index;
+        }
+        return new RouteSet(words);
+    }
+
+    /**
+     * Method which creates a set containing the given routes
+     *
+     * @param routes routes
+     * @return RouteSet
+     */
+    public static RouteSet of(Route... routes) {
+        return of(Arrays.asList(routes));
+    }
+
+    /**
+     * Method which returns the index of the given route, ChMap routes having their index in ChMap.routes()
+     *
+     * @param route route
+     * @return int
+     */
+    public static int indexOf(Route route) {
+        Integer index = INDICES.get(route);
+        return index != null ? index : register(route);
+    }
+
+    /**
+     * Method which returns the route of the given index
+     *
+     * @param index index of the route
+     * @return Route
+     * @throws IndexOutOfBoundsException if no route has the given index
+     */
+    public static Route routeAt(int index) {
+        Route[] knownRoutes = routes;
+        return knownRoutes[Objects.checkIndex(index, knownRoutes.length)];
+    }
+
+    /**
+     * Method which returns true if the set contains the given route
+     *
+     * @param route route
+     * @return boolean
+     */
+    public boolean contains(Route route) {
+        return contains(indexOf(route));
+    }
+
+    /**
+     * Method which returns true if the set contains the route of the given index
+     *
+     * @param index index of the route
+     * @return boolean
+     */
+    public boolean contains(int index) {
+        return index / WORD_BITS < words.length && (words[index / WORD_BITS] & (1L << index)) != 0;
+    }
+
+    /**
+     * Method which returns true if the set and the given one have at least one route in common
+     *
+     * @param that other set
+     * @return boolean
+     */
+    public boolean intersects(RouteSet that) {
+        for (int i = 0; i < Math.min(words.length, that.words.length); ++i) {
+            if ((words[i] & that.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method which returns the union of the set and of the given one
+     *
+     * @param that other set
+     * @return RouteSet
+     */
+    public RouteSet union(RouteSet that) {
+        if (that.words.length > words.length) {
+            return that.union(this);
+        }
+        if (that.isEmpty()) {
+            return this;
+        }
+
+        long[] union = words.clone();
+        for (int i = 0; i < that.words.length; ++i) {
+            union[i] |= that.words[i];
+        }
+        return new RouteSet(union);
+    }
+
+    /**
+     * Method which returns the set containing the routes of this one and the given route
+     *
+     * @param route route to add
+     * @return RouteSet
+     */
+    public RouteSet with(Route route) {
+        int index = indexOf(route);
+        if (contains(index)) {
+            return this;
+        }
+
+        long[] newWords = Arrays.copyOf(words, Math.max(words.length, index / WORD_BITS + 1));
+        newWords[index / WORD_BITS] |= 1L << index;
+        return new RouteSet(newWords);
+    }
+
+    /**
+     * Size getter
+     *
+     * @return the number of routes in the set
+     */
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    /**
+     * Method which returns true if the set is empty
+     *
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    /**
+     * Method which returns the routes of the set, in index order
+     *
+     * @return <pre>List<Route></pre>
+     */
+    public List<Route> toList() {
+        List<Route> list = new ArrayList<>(size());
+        for (Route route : this) {
+            list.add(route);
+        }
+        return list;
+    }
+
+    /**
+     * Iterator over the routes of the set, in index order
+     *
+     * @return <pre>Iterator<Route></pre>
+     */
+    @Override
+    public Iterator<Route> iterator() {
+        return new Iterator<>() {
+            private int word = 0; // Index of the current word
+            private long remaining = words.length == 0 ? 0 : words[0]; // Bits of the current word not iterated yet
+
+            @Override
+            public boolean hasNext() {
+                while (remaining == 0 && word + 1 < words.length) {
+                    remaining = words[++word];
+                }
+                return remaining != 0;
+            }
+
+            @Override
+            public Route next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int index = word * WORD_BITS + Long.numberOfTrailingZeros(remaining);
+                remaining &= remaining - 1;
+                return routeAt(index);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof RouteSet && Arrays.equals(words, ((RouteSet) that).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        return toList().toString();
+    }
+
+    /**
+     * Internal method which gives the next free index to a route which does not have any yet
+     *
+     * @param route route
+     * @return the index of the route
+     */
+    private static synchronized int register(Route route) {
+        Integer index = INDICES.get(route);
+        if (index != null) {
+            return index;
+        }
+
+        Route[] newRoutes = Arrays.copyOf(routes, routes.length + 1);
+        newRoutes[routes.length] = Objects.requireNonNull(route);
+        routes = newRoutes;
+        INDICES.put(route, routes.length - 1);
+        return routes.length - 1;
+    }
+}
@@ -44,6 +44,7 @@ public final class StationPartition implements StationConnectivity {
     public final static class Builder {
 
         private final int[]buildPartition;//The partition to build
+        private final byte[] ranks;//Upper bound of the height of the tree of each representative station
 
         /**
          * Builder constructor
@@ -54,25 +55,34 @@ public final class StationPartition implements StationConnectivity {
             checkArgument(stationCount >=0 );
 
             this.buildPartition = new int[stationCount];
+            this.ranks = new byte[stationCount];
             for (int i = 0;i<stationCount;++i){
                 buildPartition[i] = i;
             }
         }
 
         /**
-         * Representative id getter
+         * Representative id getter, which links every station on the way directly to the representative station
          * @param idStation is the id of the station
          * @return the representative station of the idStation given in argument
          */
         private int representative(int idStation){
             //Definition : a representative station of a station has the same index and id in the partition. A station can represents itself too
-            while(buildPartition[idStation] != idStation){
+            int representative = idStation;
+            while(buildPartition[representative] != representative){
 
                 /*If the current id of the station is not the same as it index,
                 we look on the station that is at this index until tne station id equals it index in the partition*/
-                idStation = buildPartition[idStation];
+                representative = buildPartition[representative];
             }
-            return idStation;
+
+            //Path compression : the next searches from these stations will find the representative in one step
+            while(buildPartition[idStation] != representative){
+                int next = buildPartition[idStation];
+                buildPartition[idStation] = representative;
+                idStation = next;
+            }
+            return representative;
         }
 
         /**
@@ -83,11 +93,23 @@ public final class StationPartition implements StationConnectivity {
          */
         public Builder connect(Station s1, Station s2) {
             int r1 = representative(s1.id());
+            int r2 = representative(s2.id());
+            if(r1 == r2){
+                return this;
+            }
 
             /*to connect two stations between them,
-             we take the index of the representative station s1 and modify its value
-             which takes the value of the id of the representative station s2  */
-            buildPartition[r1] = representative(s2.id());
+             the representative station of the lower tree takes the value of the id of the other representative
+             station (union by rank), so that the trees stay shallow */
+            if(ranks[r1] > ranks[r2]){
+                buildPartition[r2] = r1;
+            }
+            else {
+                buildPartition[r1] = r2;
+                if(ranks[r1] == ranks[r2]){
+                    ++ranks[r2];
+                }
+            }
             return this;
         }
 
@@ -1,5 +1,7 @@
 package ch.epfl.tchu.game;
 
+import ch.epfl.tchu.SortedBag;
+
 import java.util.List;
 import java.util.TreeSet;
 
@@ -14,6 +16,9 @@ public final class Ticket implements Comparable<Ticket> {
 
     private final String text; // Textual representation of the ticket
     private final List<Trip> trips; // Trips possibilities
+    private final int[] fromIds; // Id of the departure station of each trip (countries have several stations)
+    private final int[] toIds; // Id of the arrival station of each trip
+    private final int[] tripPoints; // Points of each trip
 
     /**
      * First constructor. Create ticket with all possible trips
@@ -25,6 +30,16 @@ public final class Ticket implements Comparable<Ticket> {
         //Throw and argumentException if the list of trips is empty or if all elements don't have same start station;
         this.trips = List.copyOf(trips);
         this.text = computeText(trips);
+
+        //Tables used to compute the points from the component ids of the stations, without any virtual call
+        this.fromIds = new int[trips.size()];
+        this.toIds = new int[trips.size()];
+        this.tripPoints = new int[trips.size()];
+        for(int i = 0; i < toIds.length; ++i){
+            fromIds[i] = trips.get(i).from().id();
+            toIds[i] = trips.get(i).to().id();
+            tripPoints[i] = trips.get(i).points();
+        }
     }
 
     /**
@@ -106,17 +121,64 @@ public final class Ticket implements Comparable<Ticket> {
      * @return maxPoints return the maxPoints in absolute value
      */
     public int points(StationConnectivity connectivity){
-        int maxPoints = trips.get(0).points(connectivity);
+        int maxPoints = Integer.MIN_VALUE;
 
         for(Trip trip : trips){
-            if(maxPoints < trip.points(connectivity)){
-                maxPoints = trip.points(connectivity);
+            int points = trip.points(connectivity);
+            if(maxPoints < points){
+                maxPoints = points;
             }
         }
 
         return maxPoints;
     }
 
+    /**
+     * Method which returns the points from the component ids of the stations, two stations being connected if they
+     * have the same component id
+     * @param componentIds component id of each station, indexed by station id. The stations outside of the array are
+     *                     only connected to themselves
+     * @return maxPoints return the maxPoints in absolute value
+     */
+    public int points(int[] componentIds){
+        int maxPoints = Integer.MIN_VALUE;
+
+        for(int i = 0; i < toIds.length; ++i){
+            boolean connected = componentId(componentIds, fromIds[i]) == componentId(componentIds, toIds[i]);
+            int points = connected ? tripPoints[i] : -tripPoints[i];
+            if(maxPoints < points){
+                maxPoints = points;
+            }
+        }
+
+        return maxPoints;
+    }
+
+    /**
+     * Method which returns the total points of the given tickets from the component ids of the stations
+     * @param tickets tickets
+     * @param componentIds component id of each station, indexed by station id
+     * @return the sum of the points of the tickets
+     */
+    public static int points(SortedBag<Ticket> tickets, int[] componentIds){
+        int sum = 0;
+        for(Ticket ticket : tickets){
+            sum += ticket.points(componentIds);
+        }
+        return sum;
+    }
+
+    /**
+     * Internal method which returns the component id of a station, the stations outside of the array getting a
+     * negative id of their own
+     * @param componentIds component id of each station, indexed by station id
+     * @param id id of the station
+     * @return int
+     */
+    private static int componentId(int[] componentIds, int id){
+        return id < componentIds.length ? componentIds[id] : -1 - id;
+    }
+
     /**
      * Method which compares the ticket to a given ticket
      * @param that Is a ticket
@@ -46,58 +46,29 @@ public final class Trail {
     }
 
     /**
-     * Method which computes the longest trail in a given list of routes
+     * Package-private method used to build a trail whose routes are already known to form a chain
+     * @param station1 Trail's departure station
+     * @param station2 Trail's arrival station
+     * @param routes contains all of the routes of the trail, in order
+     * @return Trail
+     */
+    static Trail of(Station station1, Station station2, List<Route> routes){
+        return new Trail(station1, station2, routes);
+    }
+
+    /**
+     * Method which computes the longest trail in a given list of routes. Among the longest trails, the one with the
+     * fewest routes is returned, and among those, the first one in the order of the given routes
      * @param routes All of the routes of the trail
      * @return the longest Trail
      */
     public static Trail longest(List<Route> routes) {
 
-        Trail longestTrail = null;//initialisation of the Longest trail
-        List<Trail> trailsWithNRoute = new ArrayList<>();//List of trails that has n trails (depend of iteration of the method)
-
         //check if the list of routes that are given in argument is empty
         if (routes.size() == 0) {
             return emptyTrail;
         }
-
-        //This for loop compute a list of trails that only have one route (the trails have to start in both directions)
-        for (Route route : routes) {
-            List<Route> listRoutes = new ArrayList<>();
-            listRoutes.add(route);
-            trailsWithNRoute.add(new Trail(route.station1(), route.station2(), listRoutes));
-            trailsWithNRoute.add(new Trail(route.station2(), route.station1(), listRoutes));
-        }
-
-
-        while(trailsWithNRoute.size() != 0){
-            List<Trail> extendedTrail = new ArrayList<>();//trails with n+1 routes (n starts at 1)
-            for (Trail t : trailsWithNRoute){
-                for(Route r : routes){
-                    /*We can extend a trail if the trail doesn't already contains the route and
-                      if trail's arrival station is the same as the route's departure station */
-                    if (!t.routes.contains(r)){
-                        if(t.station2() == r.station1()){
-                            List<Route> listRoute = new ArrayList<>(t.routes);//create new list with actual routes of the trail t
-                            listRoute.add(r);//Extends the trail adding the route r
-                            extendedTrail.add(new Trail(t.station1(),r.station2(),listRoute));//add the extended trail to the list with n+1 routes
-                        }
-                        else if(t.station2() == r.station2()){
-                            List<Route> listRoute = new ArrayList<>(t.routes);//create new list with actual routes of the trail t
-                            listRoute.add(r);//Extends the trail adding the route r
-                            extendedTrail.add(new Trail(t.station1(),r.station1(),listRoute));//add the extended trail to the list with n+1 routes
-                        }
-                    }
-                }
-                //this condition selects the longest trail
-                if (longestTrail == null || longestTrail.length() < t.length()){
-                    longestTrail = t;
-                }
-            }
-            //Create a new list of trails with n+1 routes;
-            trailsWithNRoute = new ArrayList<>(extendedTrail);
-        }
-        return longestTrail;
-
+        return LongestTrail.of(routes);
     }
 
     /**
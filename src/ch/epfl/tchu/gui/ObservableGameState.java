@@ -7,7 +7,6 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 import static ch.epfl.tchu.Preconditions.checkArgument;
 import static ch.epfl.tchu.game.PlayerId.*;
@@ -39,6 +38,7 @@ public final class ObservableGameState {
     private final ObservableList<Ticket> ownTickets = FXCollections.observableArrayList(); // List of own tickets
     private final List<IntegerProperty> ownCardCounts = new ArrayList<>(); // Number of each type of card the player has
     private final List<BooleanProperty> claimableRoutes = new ArrayList<>(); // List of booleans for every route, if they are claimable or not
+    private final ClaimabilityEngine claimability = new ClaimabilityEngine(); // Claimable routes, recomputed incrementally
 
     private static final int PERCENT = 100; // represents 100 percent
 
@@ -98,12 +98,12 @@ public final class ObservableGameState {
         }
 
         // Update the route owners
-        for (Route currentRoute : ChMap.routes()) {
-            if (publicGameState.playerState(PLAYER_1).routes().contains(currentRoute)) {
-                routeOwners.get(ChMap.routes().indexOf(currentRoute)).set(PLAYER_1);
+        for (int i = 0; i < ChMap.routes().size(); ++i) {
+            if (publicGameState.playerState(PLAYER_1).routeSet().contains(i)) {
+                routeOwners.get(i).set(PLAYER_1);
             }
-            if (publicGameState.playerState(PLAYER_2).routes().contains(currentRoute)) {
-                routeOwners.get(ChMap.routes().indexOf(currentRoute)).set(PLAYER_2);
+            if (publicGameState.playerState(PLAYER_2).routeSet().contains(i)) {
+                routeOwners.get(i).set(PLAYER_2);
             }
         }
 
@@ -123,25 +123,13 @@ public final class ObservableGameState {
             ownCardCounts.get(card.ordinal()).set(playerState.cards().countOf(Card.values()[card.ordinal()]));
         }
 
-        // Update claimable routes
-        for (Route currentRoute : ChMap.routes()) {
-            boolean hasCards = playerState.canClaimRoute(currentRoute); // If the player has the necessary cards / cars
-
-            // Generate the list of routes which are in the same group (for double, triple, etc. routes) by checking
-            // if they have the same stations
-            List<Route> otherRoutesInGroup = ChMap.routes().stream().filter((route) ->
-                    (route.station1() == currentRoute.station1() && route.station2() == currentRoute.station2())
-                            // Redundant check if the double route has been initialised backwards
-                            || (route.station1() == currentRoute.station2() && route.station2() == currentRoute.station1()))
-                    .collect(Collectors.toList());
-
-            boolean alreadyClaimedInGroup = false; // If another player has already claimed any of the routes
-            for (Route r : otherRoutesInGroup) {
-                alreadyClaimedInGroup = publicGameState.claimedRoutes().contains(r);
-                if (alreadyClaimedInGroup) break;
-            }
-
-            claimableRoutes.get(ChMap.routes().indexOf(currentRoute)).set(hasCards && !alreadyClaimedInGroup);
+        // Update claimable routes. Only the routes affected by the changes of the hand, of the car count or of the
+        // owners of the routes of their group (double routes) are recomputed
+        RouteSet changedRoutes = claimability.update(publicGameState.claimedRouteSet(), playerState.packedCards(),
+                playerState.carCount());
+        for (Route route : changedRoutes) {
+            int index = RouteSet.indexOf(route);
+            claimableRoutes.get(index).set(claimability.isClaimable(index));
         }
     }
 
@@ -183,8 +171,8 @@ public final class ObservableGameState {
      * @throws IllegalArgumentException if the route is not in the routes given in ChMap
      */
     public ReadOnlyObjectProperty<PlayerId> getRouteOwner(Route route) {
-        checkArgument(ChMap.routes().contains(route));
-        int index = ChMap.routes().indexOf(route);
+        int index = RouteSet.indexOf(route);
+        checkArgument(index < routeOwners.size());
         return routeOwners.get(index);
     }
 
@@ -255,8 +243,7 @@ public final class ObservableGameState {
      * @return Read-only boolean property
      */
     public ReadOnlyBooleanProperty claimable(Route route) {
-        int index = ChMap.routes().indexOf(route);
-        return claimableRoutes.get(index);
+        return claimableRoutes.get(RouteSet.indexOf(route));
     }
 
     /**
@@ -0,0 +1,171 @@
+package ch.epfl.tchu.journal;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.List;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+
+/**
+ * Class Journal defines the binary format of the game journals, written by JournalWriter and read by JournalReplayer.
+ * A journal is a sequence of games, each made of a header followed by records. The header contains the magic number,
+ * the version, the seed of the game and its tickets. Each record is a tag byte followed by its payload: either a
+ * decision of a player, or a checkpoint of the public state, written every time the players receive a new state.
+ * Routes and tickets are encoded by their index in ChMap (see ChMapIndex), cards by their ordinal and bags by their size followed by
+ * their elements
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class Journal {
+
+    static final int MAGIC = 0x5443484A; // Magic number at the beginning of each game ("TCHJ")
+    static final int VERSION = 1; // Version of the format
+
+    static final int CHECKPOINT = 0; // Tag of a checkpoint of the public state
+    static final int INITIAL_TICKETS = 1; // Tag of the choice of the initial tickets
+    static final int NEXT_TURN = 2; // Tag of the kind of turn
+    static final int CHOSEN_TICKETS = 3; // Tag of the choice of tickets during the game
+    static final int DRAW_SLOT = 4; // Tag of the slot of a drawn card
+    static final int CLAIMED_ROUTE = 5; // Tag of the route the player attempts to claim
+    static final int INITIAL_CLAIM_CARDS = 6; // Tag of the initial cards used to claim a route
+    static final int ADDITIONAL_CARDS = 7; // Tag of the additional cards used to claim a tunnel
+
+    private static final List<Card> CARDS = Card.ALL; // Cards, indexed by ordinal
+
+    /**
+     * Private constructor, the class is not instantiable
+     */
+    private Journal() {}
+
+    /**
+     * Method which computes the checkpoint of the given state, a hash of every public information of the game which
+     * changes during a turn
+     *
+     * @param state public game state
+     * @return int
+     */
+    static int checkpoint(PublicGameState state) {
+        int hash = state.currentPlayerId().ordinal();
+        hash = 31 * hash + (state.lastPlayer() == null ? -1 : state.lastPlayer().ordinal());
+        hash = 31 * hash + state.ticketsCount();
+        hash = 31 * hash + state.cardState().deckSize();
+        hash = 31 * hash + state.cardState().discardsSize();
+        for (Card card : state.cardState().faceUpCards()) {
+            hash = 31 * hash + card.ordinal();
+        }
+        for (PlayerId playerId : PlayerId.ALL) {
+            PublicPlayerState playerState = state.playerState(playerId);
+            hash = 31 * hash + playerState.ticketCount();
+            hash = 31 * hash + playerState.cardCount();
+            hash = 31 * hash + playerState.carCount();
+            hash = 31 * hash + playerState.claimPoints();
+        }
+        return hash;
+    }
+
+    /**
+     * Method which writes a route of ChMap
+     *
+     * @param out   output
+     * @param route route of ChMap
+     * @throws IOException              if the route cannot be written
+     * @throws IllegalArgumentException if the route is not in ChMap
+     */
+    static void writeRoute(DataOutput out, Route route) throws IOException {
+        ChMapIndex.writeRoute(out, route);
+    }
+
+    /**
+     * Method which reads a route of ChMap
+     *
+     * @param in input
+     * @return Route
+     * @throws IOException              if the route cannot be read
+     * @throws IllegalArgumentException if the index of the route is invalid
+     */
+    static Route readRoute(DataInput in) throws IOException {
+        return ChMapIndex.readRoute(in);
+    }
+
+    /**
+     * Method which writes a bag of tickets of ChMap
+     *
+     * @param out     output
+     * @param tickets tickets of ChMap
+     * @throws IOException              if the tickets cannot be written
+     * @throws IllegalArgumentException if a ticket is not in ChMap
+     */
+    static void writeTickets(DataOutput out, SortedBag<Ticket> tickets) throws IOException {
+        out.writeShort(tickets.size());
+        for (Ticket ticket : tickets) {
+            ChMapIndex.writeTicket(out, ticket);
+        }
+    }
+
+    /**
+     * Method which reads a bag of tickets of ChMap
+     *
+     * @param in input
+     * @return <pre>SortedBag<Ticket></pre>
+     * @throws IOException              if the tickets cannot be read
+     * @throws IllegalArgumentException if the index of a ticket is invalid
+     */
+    static SortedBag<Ticket> readTickets(DataInput in) throws IOException {
+        int size = in.readUnsignedShort();
+        SortedBag.Builder<Ticket> builder = new SortedBag.Builder<>();
+        for (int i = 0; i < size; ++i) {
+            builder.add(ChMapIndex.readTicket(in));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Method which writes a bag of cards
+     *
+     * @param out   output
+     * @param cards cards
+     * @throws IOException if the cards cannot be written
+     */
+    static void writeCards(DataOutput out, SortedBag<Card> cards) throws IOException {
+        out.writeByte(cards.size());
+        for (Card card : cards) {
+            out.writeByte(card.ordinal());
+        }
+    }
+
+    /**
+     * Method which reads a bag of cards
+     *
+     * @param in input
+     * @return <pre>SortedBag<Card></pre>
+     * @throws IOException              if the cards cannot be read
+     * @throws IllegalArgumentException if the ordinal of a card is invalid
+     */
+    static SortedBag<Card> readCards(DataInput in) throws IOException {
+        int size = in.readUnsignedByte();
+        SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+        for (int i = 0; i < size; ++i) {
+            int ordinal = in.readUnsignedByte();
+            checkArgument(ordinal < CARDS.size());
+            builder.add(CARDS.get(ordinal));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Method which reads a tag and checks that it is the expected one
+     *
+     * @param in  input
+     * @param tag expected tag
+     * @throws IOException              if the tag cannot be read
+     * @throws IllegalArgumentException if the tag read is not the expected one
+     */
+    static void readTag(DataInput in, int tag) throws IOException {
+        checkArgument(in.readUnsignedByte() == tag);
+    }
+}
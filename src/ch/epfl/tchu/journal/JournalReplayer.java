@@ -0,0 +1,200 @@
+package ch.epfl.tchu.journal;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.*;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+import static ch.epfl.tchu.game.Constants.*;
+import static ch.epfl.tchu.journal.Journal.*;
+
+/**
+ * Class JournalReplayer rebuilds the states of the games recorded by JournalWriter. It runs the same transitions of
+ * GameState as Game.play, with the random generator of the game recreated from its seed, but reads the decisions of
+ * the players from the journal instead of asking them, and neither builds the information messages nor sends states
+ * to anyone. Every checkpoint of the journal is compared to the rebuilt state
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class JournalReplayer {
+
+    private static final int DRAWN_CARDS_COUNT = 2; // Number of cards drawn during a turn
+
+    private final DataInputStream in; // Input from which the journal is read
+    private long moveCount; // Number of decisions replayed so far
+
+    /**
+     * JournalReplayer constructor
+     *
+     * @param in input from which the journal is read
+     */
+    public JournalReplayer(InputStream in) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+    }
+
+    /**
+     * Number of decisions replayed so far getter
+     *
+     * @return long
+     */
+    public long moveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Method which replays the next game of the journal
+     *
+     * @param checkpoints consumer to which the state of the game is given at each checkpoint, i.e. every time the
+     *                    players received a new state during the game
+     * @return the final state of the game, or null if the journal does not contain any more game
+     * @throws UncheckedIOException     if the journal cannot be read, or ends in the middle of a game
+     * @throws IllegalArgumentException if the journal is invalid, or if a checkpoint does not match the rebuilt state
+     */
+    public GameState replayNextGame(Consumer<? super GameState> checkpoints) {
+        try {
+            int magic;
+            try {
+                magic = in.readInt();
+            } catch (EOFException e) {
+                return null;
+            }
+            checkArgument(magic == MAGIC);
+            checkArgument(in.readUnsignedByte() == VERSION);
+            Random rng = new Random(in.readLong());
+            SortedBag<Ticket> tickets = readTickets(in);
+            return replay(GameState.initial(tickets, rng), rng, checkpoints);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Internal method which replays a game from its initial state, following the same steps as Game.play
+     *
+     * @param state       initial state of the game
+     * @param rng         random generator of the game
+     * @param checkpoints consumer to which the state of the game is given at each checkpoint
+     * @return the final state of the game
+     * @throws IOException if the journal cannot be read
+     */
+    private GameState replay(GameState state, Random rng, Consumer<? super GameState> checkpoints) throws IOException {
+        for (PlayerId playerId : PlayerId.ALL) {
+            state = state.withoutTopTickets(INITIAL_TICKETS_COUNT);
+        }
+        readCheckpoint(state, checkpoints);
+
+        for (PlayerId playerId : PlayerId.ALL) {
+            readTag(in, INITIAL_TICKETS);
+            state = state.withInitiallyChosenTickets(playerId, readTickets(in));
+            ++moveCount;
+        }
+
+        while (true) {
+            readCheckpoint(state, checkpoints);
+
+            readTag(in, NEXT_TURN);
+            int turnKind = in.readUnsignedByte();
+            checkArgument(turnKind < Player.TurnKind.ALL.size());
+            ++moveCount;
+
+            switch (Player.TurnKind.ALL.get(turnKind)) {
+                case DRAW_TICKETS:
+                    readTag(in, CHOSEN_TICKETS);
+                    SortedBag<Ticket> drawnTickets = state.topTickets(IN_GAME_TICKETS_COUNT);
+                    state = state.withChosenAdditionalTickets(drawnTickets, readTickets(in));
+                    ++moveCount;
+                    break;
+
+                case DRAW_CARDS:
+                    for (int i = 0; i < DRAWN_CARDS_COUNT; ++i) {
+                        state = state.withCardsDeckRecreatedIfNeeded(rng);
+                        if (i == 1) {
+                            readCheckpoint(state, checkpoints);
+                        }
+                        readTag(in, DRAW_SLOT);
+                        int slot = in.readByte();
+                        state = slot == DECK_SLOT ? state.withBlindlyDrawnCard() : state.withDrawnFaceUpCard(slot);
+                        ++moveCount;
+                    }
+                    break;
+
+                case CLAIM_ROUTE:
+                    state = replayClaim(state, rng);
+                    break;
+            }
+
+            if (state.currentPlayerId() == state.lastPlayer()) {
+                break;
+            }
+            state = state.forNextTurn();
+        }
+
+        // Game.play sends the final state twice, before and after the final information messages
+        readCheckpoint(state, checkpoints);
+        readCheckpoint(state, checkpoints);
+        return state;
+    }
+
+    /**
+     * Internal method which replays the attempt of the current player to claim a route
+     *
+     * @param state current state of the game
+     * @param rng   random generator of the game
+     * @return the state after the attempt
+     * @throws IOException if the journal cannot be read
+     */
+    private GameState replayClaim(GameState state, Random rng) throws IOException {
+        readTag(in, CLAIMED_ROUTE);
+        Route route = readRoute(in);
+        readTag(in, INITIAL_CLAIM_CARDS);
+        SortedBag<Card> initialCards = readCards(in);
+        moveCount += 2;
+
+        if (route.level() == Route.Level.OVERGROUND) {
+            return state.withClaimedRoute(route, initialCards);
+        }
+
+        SortedBag.Builder<Card> drawnCardsBuilder = new SortedBag.Builder<>();
+        for (int i = 0; i < ADDITIONAL_TUNNEL_CARDS; ++i) {
+            state = state.withCardsDeckRecreatedIfNeeded(rng);
+            drawnCardsBuilder.add(state.topCard());
+            state = state.withoutTopCard();
+        }
+        SortedBag<Card> drawnCards = drawnCardsBuilder.build();
+
+        int additionalCount = route.additionalClaimCardsCount(initialCards, drawnCards);
+        if (additionalCount == 0) {
+            return state.withMoreDiscardedCards(drawnCards).withClaimedRoute(route, initialCards);
+        }
+
+        List<SortedBag<Card>> options = state.currentPlayerState().possibleAdditionalCards(additionalCount, initialCards);
+        if (options.isEmpty()) {
+            return state.withMoreDiscardedCards(drawnCards);
+        }
+
+        readTag(in, ADDITIONAL_CARDS);
+        SortedBag<Card> additionalCards = readCards(in);
+        ++moveCount;
+        state = state.withMoreDiscardedCards(drawnCards);
+        return additionalCards.isEmpty() ? state : state.withClaimedRoute(route, initialCards.union(additionalCards));
+    }
+
+    /**
+     * Internal method which reads a checkpoint, compares it to the given state and gives the state to the consumer
+     *
+     * @param state       rebuilt state
+     * @param checkpoints consumer to which the state is given
+     * @throws IOException              if the checkpoint cannot be read
+     * @throws IllegalArgumentException if the checkpoint does not match the state
+     */
+    private void readCheckpoint(GameState state, Consumer<? super GameState> checkpoints) throws IOException {
+        readTag(in, CHECKPOINT);
+        checkArgument(in.readInt() == checkpoint(state));
+        checkpoints.accept(state);
+    }
+}
@@ -0,0 +1,235 @@
+package ch.epfl.tchu.journal;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.*;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+import static ch.epfl.tchu.journal.Journal.*;
+
+/**
+ * Class JournalWriter records a game in the binary format defined by Journal. The players of the game are wrapped in
+ * decorators which append every decision they take to the journal, and the first of them also appends a checkpoint
+ * every time it receives a new state. The records of a game are kept in memory, and only appended to the output in a
+ * single write once the game completed, so that a game interrupted by an exception leaves nothing in the journal.
+ * Many games can thus be written one after the other in the same file, e.g. opened with StandardOpenOption.APPEND
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class JournalWriter {
+
+    private final OutputStream target; // Output to which the completed game is appended
+    private final ByteArrayOutputStream game = new ByteArrayOutputStream(); // Records of the game, kept until it ends
+    private final DataOutputStream out = new DataOutputStream(game); // Output to which the records are written
+
+    /**
+     * JournalWriter constructor, which records the header of the game
+     *
+     * @param out     output to which the journal is appended once the game completed
+     * @param seed    seed of the random generator of the game, which must be new Random(seed)
+     * @param tickets tickets of the game, which must be tickets of ChMap
+     * @throws IllegalArgumentException if a ticket is not in ChMap
+     */
+    public JournalWriter(OutputStream out, long seed, SortedBag<Ticket> tickets) {
+        this.target = Objects.requireNonNull(out);
+        try {
+            this.out.writeInt(MAGIC);
+            this.out.writeByte(VERSION);
+            this.out.writeLong(seed);
+            writeTickets(this.out, tickets);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never happens with a ByteArrayOutputStream
+        }
+    }
+
+    /**
+     * Method which plays a game, with the random generator new Random(seed), and appends its journal to the given
+     * output once it completed. Nothing is appended if the game is interrupted by an exception
+     *
+     * @param players     represents each player in function of his id
+     * @param playerNames represents each player's name in function of his id
+     * @param tickets     tickets of the game, which must be tickets of ChMap
+     * @param seed        seed of the random generator of the game
+     * @param out         output to which the journal is appended
+     * @throws UncheckedIOException     if the journal cannot be written
+     * @throws IllegalArgumentException if a ticket is not in ChMap, or if one of the maps does not contain every id
+     */
+    public static void play(Map<PlayerId, Player> players, Map<PlayerId, String> playerNames,
+                            SortedBag<Ticket> tickets, long seed, OutputStream out) {
+        checkArgument(players.size() == PlayerId.COUNT);
+        JournalWriter writer = new JournalWriter(out, seed, tickets);
+        Map<PlayerId, Player> recordedPlayers = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            recordedPlayers.put(playerId, writer.record(playerId, players.get(playerId)));
+        }
+        Game.play(recordedPlayers, playerNames, tickets, new Random(seed));
+        writer.complete();
+    }
+
+    /**
+     * Method which wraps the given player in a decorator which appends its decisions to the journal
+     *
+     * @param playerId id of the player
+     * @param player   player to which the calls are delegated
+     * @return Player
+     */
+    public Player record(PlayerId playerId, Player player) {
+        return new RecordedPlayer(playerId == PlayerId.ALL.get(0), player);
+    }
+
+    /**
+     * Method which appends the recorded game to the output, in a single write, and flushes the output. It must only be
+     * called once the game completed, i.e. once Game.play returned
+     *
+     * @throws UncheckedIOException if the game cannot be written
+     */
+    public void complete() {
+        try {
+            game.writeTo(target);
+            target.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        game.reset();
+    }
+
+    /**
+     * Class RecordedPlayer is a player which delegates every call to another player, and appends the decisions of
+     * this player to the journal
+     */
+    private final class RecordedPlayer implements Player {
+
+        private final boolean writesCheckpoints; // True for the player which appends the checkpoints
+        private final Player player; // Player to which the calls are delegated
+
+        /**
+         * RecordedPlayer constructor
+         *
+         * @param writesCheckpoints true for the player which appends the checkpoints
+         * @param player            player to which the calls are delegated
+         */
+        private RecordedPlayer(boolean writesCheckpoints, Player player) {
+            this.writesCheckpoints = writesCheckpoints;
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            if (writesCheckpoints) {
+                try {
+                    out.writeByte(CHECKPOINT);
+                    out.writeInt(checkpoint(newState));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            SortedBag<Ticket> tickets = player.chooseInitialTickets();
+            try {
+                out.writeByte(INITIAL_TICKETS);
+                writeTickets(out, tickets);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return tickets;
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            TurnKind turnKind = player.nextTurn();
+            try {
+                out.writeByte(NEXT_TURN);
+                out.writeByte(turnKind.ordinal());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return turnKind;
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            SortedBag<Ticket> tickets = player.chooseTickets(options);
+            try {
+                out.writeByte(CHOSEN_TICKETS);
+                writeTickets(out, tickets);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return tickets;
+        }
+
+        @Override
+        public int drawSlot() {
+            int slot = player.drawSlot();
+            try {
+                out.writeByte(DRAW_SLOT);
+                out.writeByte(slot);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return slot;
+        }
+
+        @Override
+        public Route claimedRoute() {
+            Route route = player.claimedRoute();
+            try {
+                out.writeByte(CLAIMED_ROUTE);
+                writeRoute(out, route);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return route;
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            SortedBag<Card> cards = player.initialClaimCards();
+            try {
+                out.writeByte(INITIAL_CLAIM_CARDS);
+                writeCards(out, cards);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return cards;
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            SortedBag<Card> cards = player.chooseAdditionalCards(options);
+            try {
+                out.writeByte(ADDITIONAL_CARDS);
+                writeCards(out, cards);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return cards;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.game.PublicGameState;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static ch.epfl.tchu.net.MessageId.RECEIVE_INFO;
+import static ch.epfl.tchu.net.Serdes.*;
+
+/**
+ * Class BroadcastGroup is shared by the proxies of the players (and spectators) of a game, so that the payloads sent
+ * to each of them are only encoded once per event: the RECEIVE_INFO messages, and the public part of the UPDATE_STATE
+ * messages, in full or as a delta. Game gives the same info and state instances to every player, so each payload is
+ * kept until another instance is given; only the own state of each player is then encoded by its proxy. The encoded
+ * payloads are shared between the proxies and must never be modified
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class BroadcastGroup {
+
+    private final Map<WireFormat, byte[]> infoMessages = new EnumMap<>(WireFormat.class); // Encoded lastInfo
+    private String lastInfo; // Last info encoded, compared by identity
+    private PublicGameState lastDeltaBase; // Base of the last public delta encoded, compared by identity
+    private PublicGameState lastDeltaState; // State of the last public delta encoded, compared by identity
+    private byte[] lastDelta; // Last public delta encoded
+    private long encodedCount; // Number of payloads encoded
+    private long sharedCount; // Number of payloads reused instead of being encoded again
+
+    /**
+     * Serde of the public game states, which keeps the text and binary forms of the last state encoded
+     */
+    final Serde<PublicGameState> publicStates = new SharedSerde<>(PUBLIC_GAME_STATE_SERDE);
+
+    /**
+     * Method which returns the RECEIVE_INFO message carrying the given info, encoded as a line or a frame
+     *
+     * @param format format of the message
+     * @param info   info
+     * @return the encoded message, which must not be modified
+     */
+    synchronized byte[] infoMessage(WireFormat format, String info) {
+        if (info != lastInfo) {
+            infoMessages.clear();
+            lastInfo = info;
+        }
+        byte[] message = infoMessages.get(format);
+        if (message != null) {
+            ++sharedCount;
+            return message;
+        }
+        MessageWriter writer = new MessageWriter(format)
+                .add(MESSAGE_ID_SERDE, RECEIVE_INFO)
+                .add(STRING_SERDE, info);
+        message = writer.encoded();
+        infoMessages.put(format, message);
+        ++encodedCount;
+        return message;
+    }
+
+    /**
+     * Method which returns the binary delta between the given public states (see StateSync)
+     *
+     * @param base     last public state sent
+     * @param newState new public state
+     * @return the encoded delta, which must not be modified
+     */
+    synchronized byte[] publicDelta(PublicGameState base, PublicGameState newState) {
+        if (base == lastDeltaBase && newState == lastDeltaState) {
+            ++sharedCount;
+            return lastDelta;
+        }
+        lastDelta = encode(out -> StateSync.writePublicDelta(out, base, newState));
+        lastDeltaBase = base;
+        lastDeltaState = newState;
+        ++encodedCount;
+        return lastDelta;
+    }
+
+    /**
+     * Number of payloads encoded getter
+     *
+     * @return long
+     */
+    public synchronized long encodedCount() {
+        return encodedCount;
+    }
+
+    /**
+     * Number of payloads encoded once and sent to several proxies getter, i.e. of encodings saved
+     *
+     * @return long
+     */
+    public synchronized long sharedCount() {
+        return sharedCount;
+    }
+
+    /**
+     * Internal method which returns the bytes written by the given writer
+     *
+     * @param writer writer
+     * @return the bytes written
+     */
+    private static byte[] encode(BinaryWriter writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            writer.writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never happens with a ByteArrayOutputStream
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Interface BinaryWriter represents a function writing a payload to a binary output
+     */
+    @FunctionalInterface
+    private interface BinaryWriter {
+
+        /**
+         * Method which writes the payload to the given output
+         *
+         * @param out output
+         * @throws IOException if the payload cannot be written
+         */
+        void writeTo(DataOutput out) throws IOException;
+    }
+
+    /**
+     * Class SharedSerde is a serde which keeps the text and binary forms of the last value it encoded, and reuses them
+     * while the same instance is encoded again
+     *
+     * @param <T> type of the values
+     */
+    private final class SharedSerde<T> implements Serde<T> {
+
+        private final Serde<T> serde; // Serde encoding the values
+        private T lastSerialized; // Last value serialized, compared by identity
+        private String serialized; // Text form of lastSerialized
+        private T lastWritten; // Last value written, compared by identity
+        private byte[] written; // Binary form of lastWritten
+
+        /**
+         * SharedSerde constructor
+         *
+         * @param serde serde encoding the values
+         */
+        private SharedSerde(Serde<T> serde) {
+            this.serde = serde;
+        }
+
+        /**
+         * Method which serializes the value, unless it was the last one serialized
+         *
+         * @param value value
+         * @return the text form of the value
+         */
+        @Override
+        public String serialize(T value) {
+            synchronized (BroadcastGroup.this) {
+                if (value == lastSerialized && serialized != null) {
+                    ++sharedCount;
+                    return serialized;
+                }
+                serialized = serde.serialize(value);
+                lastSerialized = value;
+                ++encodedCount;
+                return serialized;
+            }
+        }
+
+        /**
+         * Method which deserializes a value, with the underlying serde
+         *
+         * @param serializedText text form of the value
+         * @return the value
+         */
+        @Override
+        public T deserialize(String serializedText) {
+            return serde.deserialize(serializedText);
+        }
+
+        /**
+         * Method which writes the value, unless it was the last one written, in which case its bytes are copied
+         *
+         * @param out   output
+         * @param value value
+         * @throws IOException if the value cannot be written
+         */
+        @Override
+        public void write(DataOutput out, T value) throws IOException {
+            byte[] bytes;
+            synchronized (BroadcastGroup.this) {
+                if (value == lastWritten && written != null) {
+                    ++sharedCount;
+                } else {
+                    written = encode(output -> serde.write(output, value));
+                    lastWritten = value;
+                    ++encodedCount;
+                }
+                bytes = written;
+            }
+            out.write(bytes);
+        }
+
+        /**
+         * Method which reads a value, with the underlying serde
+         *
+         * @param in input
+         * @return the value
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public T read(DataInput in) throws IOException {
+            return serde.read(in);
+        }
+    }
+}
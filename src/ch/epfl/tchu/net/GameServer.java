@@ -0,0 +1,458 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class GameServer hosts many simultaneous games in a single JVM. It accepts connections continuously, pairs the
+ * clients in the order of their arrival, and plays each game between two RemotePlayerProxy on its own thread. The
+ * threads are virtual when the JVM supports them (Java 21 and later), and platform threads from a cached pool
+ * otherwise. The sockets of a game are closed as soon as it ends. The binary format is offered to the clients by
+ * default, and the games which fail are reported on the standard error output and kept in the statistics
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class GameServer implements Closeable {
+
+    private static final int DEFAULT_PORT = 5108; // Port used if none is given
+    private static final long REPORT_PERIOD_SECONDS = 10; // Period of the reports printed by main
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1); // Number of nanoseconds in a minute
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets()); // Tickets used for every game
+    private static final List<String> DEFAULT_NAMES = List.of("Ada", "Charles"); // Names of the players
+    private static final int MAX_RECENT_FAILURES = 16; // Number of failures kept in the statistics
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean(); // Platform threads of the JVM
+
+    private final ServerSocket serverSocket; // Socket on which the connections are accepted
+    private final WireFormat format; // Format offered to the clients
+    private final ExecutorService games; // Executor running each game on its own thread
+    private final boolean virtualThreads; // True if the games run on virtual threads
+    private final Thread acceptor; // Thread accepting the connections
+
+    private final AtomicInteger activeGames = new AtomicInteger(); // Number of games being played
+    private final AtomicLong startedGames = new AtomicLong(); // Number of games started, which numbers them
+    private final AtomicLong finishedGames = new AtomicLong(); // Number of games which ended normally
+    private final AtomicLong failedGames = new AtomicLong(); // Number of games interrupted by an exception
+    private final Deque<Long> finishTimes = new ConcurrentLinkedDeque<>(); // End times of the games of the last minute
+    private final Deque<Failure> recentFailures = new ConcurrentLinkedDeque<>(); // Last failures, the oldest first
+
+    /**
+     * Game server constructor, which offers the binary format to the clients and starts accepting connections
+     * immediately
+     *
+     * @param port port on which the connections are accepted (0 to choose any free port)
+     * @throws UncheckedIOException if the server socket cannot be opened
+     */
+    public GameServer(int port) {
+        this(port, WireFormat.BINARY);
+    }
+
+    /**
+     * Game server constructor, which offers the given format to the clients (see RemotePlayerProxy) and starts
+     * accepting connections immediately
+     *
+     * @param port   port on which the connections are accepted (0 to choose any free port)
+     * @param format format offered to the clients, TEXT for the clients which do not answer the offer
+     * @throws UncheckedIOException if the server socket cannot be opened
+     */
+    public GameServer(int port, WireFormat format) {
+        this.format = Objects.requireNonNull(format);
+        try {
+            serverSocket = new ServerSocket(port);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ExecutorService virtualExecutor = newVirtualThreadExecutor();
+        virtualThreads = virtualExecutor != null;
+        games = virtualThreads ? virtualExecutor : Executors.newCachedThreadPool();
+        acceptor = new Thread(this::acceptConnections, "tCHu acceptor");
+        acceptor.start();
+    }
+
+    /**
+     * Main method, which starts a server and periodically prints its statistics
+     *
+     * @param args optional arguments: the port on which the connections are accepted, and the format offered to the
+     *             clients (TEXT or BINARY)
+     * @throws InterruptedException if the main thread is interrupted
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        WireFormat format = args.length > 1 ? WireFormat.valueOf(args[1]) : WireFormat.BINARY;
+        try (GameServer server = new GameServer(port, format)) {
+            System.out.printf("Listening on port %d (%s threads)%n",
+                    server.port(), server.virtualThreads ? "virtual" : "platform");
+            while (true) {
+                TimeUnit.SECONDS.sleep(REPORT_PERIOD_SECONDS);
+                System.out.println(server.stats());
+            }
+        }
+    }
+
+    /**
+     * Port getter
+     *
+     * @return the port on which the connections are accepted
+     */
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Method which returns the current statistics of the server
+     *
+     * @return Stats
+     */
+    public Stats stats() {
+        long now = System.nanoTime();
+        Long oldest;
+        while ((oldest = finishTimes.peekFirst()) != null && now - oldest > MINUTE_NANOS) {
+            finishTimes.pollFirst();
+        }
+        return new Stats(activeGames.get(), finishedGames.get(), failedGames.get(), finishTimes.size(),
+                THREADS.getThreadCount(), THREADS.getPeakThreadCount(), virtualThreads,
+                List.copyOf(recentFailures));
+    }
+
+    /**
+     * Method which stops accepting connections. The games being played continue until they end
+     *
+     * @throws UncheckedIOException if the server socket cannot be closed
+     */
+    @Override
+    public void close() {
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            games.shutdown();
+        }
+    }
+
+    /**
+     * Method which waits until every game being played has ended, once the server has been closed
+     *
+     * @param timeout maximum time to wait
+     * @param unit    unit of the timeout
+     * @return true if every game has ended, false if the timeout elapsed before
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public boolean awaitGames(long timeout, TimeUnit unit) throws InterruptedException {
+        return games.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Internal method run by the acceptor thread, which pairs the clients in the order of their arrival
+     */
+    private void acceptConnections() {
+        List<Socket> waiting = new ArrayList<>(PlayerId.COUNT);
+        try {
+            while (true) {
+                waiting.add(serverSocket.accept());
+                if (waiting.size() == PlayerId.COUNT) {
+                    List<Socket> sockets = List.copyOf(waiting);
+                    waiting.clear();
+                    activeGames.incrementAndGet();
+                    try {
+                        games.execute(() -> playGame(sockets));
+                    } catch (RejectedExecutionException e) {
+                        // The server has been closed meanwhile
+                        activeGames.decrementAndGet();
+                        sockets.forEach(GameServer::closeQuietly);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // The server socket has been closed: the clients still waiting for an opponent are disconnected
+            waiting.forEach(GameServer::closeQuietly);
+        }
+    }
+
+    /**
+     * Internal method which plays a game between the clients connected to the given sockets, and closes them at the end
+     *
+     * @param sockets sockets of the clients, in the order of the player ids
+     */
+    private void playGame(List<Socket> sockets) {
+        long gameNumber = startedGames.incrementAndGet();
+        try {
+            Map<PlayerId, RemotePlayerProxy> players = new EnumMap<>(PlayerId.class);
+            Map<PlayerId, String> playerNames = new EnumMap<>(PlayerId.class);
+            BroadcastGroup broadcast = new BroadcastGroup(); // Infos and public states are encoded once per game
+            for (PlayerId playerId : PlayerId.ALL) {
+                players.put(playerId,
+                        new RemotePlayerProxy(sockets.get(playerId.ordinal()), format, broadcast));
+                playerNames.put(playerId, DEFAULT_NAMES.get(playerId.ordinal()));
+            }
+            Game.play(Map.copyOf(players), playerNames, TICKETS, new Random());
+            players.values().forEach(RemotePlayerProxy::flush);
+            finishedGames.incrementAndGet();
+            finishTimes.addLast(System.nanoTime());
+        } catch (RuntimeException e) {
+            failedGames.incrementAndGet();
+            reportFailure(new Failure(gameNumber, sockets, e));
+        } finally {
+            sockets.forEach(GameServer::closeQuietly);
+            activeGames.decrementAndGet();
+        }
+    }
+
+    /**
+     * Internal method which prints the given failure, with its stack trace, and keeps it in the statistics
+     *
+     * @param failure failure of a game
+     */
+    private void reportFailure(Failure failure) {
+        synchronized (System.err) {
+            System.err.println(failure);
+            failure.exception().printStackTrace();
+        }
+        recentFailures.addLast(failure);
+        while (recentFailures.size() > MAX_RECENT_FAILURES) {
+            recentFailures.pollFirst();
+        }
+    }
+
+    /**
+     * Internal method which closes a socket, ignoring the errors since the client may already be gone
+     *
+     * @param socket socket
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing more can be done for this client
+        }
+    }
+
+    /**
+     * Internal method which creates an executor starting a new virtual thread for each task, if the JVM supports them.
+     * It is looked up reflectively so that the server still runs on JVMs without virtual threads
+     *
+     * @return the executor, or null if virtual threads are not supported
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Class Stats represents the statistics of the server at a given time
+     */
+    public static final class Stats {
+
+        private final int activeGames; // Number of games being played
+        private final long finishedGames; // Number of games which ended normally
+        private final long failedGames; // Number of games interrupted by an exception
+        private final int gamesLastMinute; // Number of games which ended normally during the last minute
+        private final int liveThreads; // Number of live platform threads of the JVM
+        private final int peakThreads; // Maximum number of live platform threads of the JVM since it started
+        private final boolean virtualThreads; // True if the games run on virtual threads
+        private final List<Failure> recentFailures; // Last failures, the oldest first
+
+        /**
+         * Stats constructor
+         *
+         * @param activeGames     number of games being played
+         * @param finishedGames   number of games which ended normally
+         * @param failedGames     number of games interrupted by an exception
+         * @param gamesLastMinute number of games which ended normally during the last minute
+         * @param liveThreads     number of live platform threads of the JVM
+         * @param peakThreads     maximum number of live platform threads of the JVM since it started
+         * @param virtualThreads  true if the games run on virtual threads
+         * @param recentFailures  last failures, the oldest first
+         */
+        private Stats(int activeGames, long finishedGames, long failedGames, int gamesLastMinute, int liveThreads,
+                      int peakThreads, boolean virtualThreads, List<Failure> recentFailures) {
+            this.activeGames = activeGames;
+            this.finishedGames = finishedGames;
+            this.failedGames = failedGames;
+            this.gamesLastMinute = gamesLastMinute;
+            this.liveThreads = liveThreads;
+            this.peakThreads = peakThreads;
+            this.virtualThreads = virtualThreads;
+            this.recentFailures = recentFailures;
+        }
+
+        /**
+         * Active games count getter
+         *
+         * @return int
+         */
+        public int activeGames() {
+            return activeGames;
+        }
+
+        /**
+         * Finished games count getter
+         *
+         * @return long
+         */
+        public long finishedGames() {
+            return finishedGames;
+        }
+
+        /**
+         * Failed games count getter
+         *
+         * @return long
+         */
+        public long failedGames() {
+            return failedGames;
+        }
+
+        /**
+         * Getter of the number of games which ended normally during the last minute
+         *
+         * @return int
+         */
+        public int gamesPerMinute() {
+            return gamesLastMinute;
+        }
+
+        /**
+         * Live platform threads count getter. Virtual threads are not counted, since they do not use a platform thread
+         * while they wait for a client
+         *
+         * @return int
+         */
+        public int liveThreads() {
+            return liveThreads;
+        }
+
+        /**
+         * Peak platform threads count getter
+         *
+         * @return int
+         */
+        public int peakThreads() {
+            return peakThreads;
+        }
+
+        /**
+         * Method which computes the number of live platform threads of the JVM per active game, which stays close to 1
+         * with platform threads and tends to 0 with virtual threads as the number of games grows
+         *
+         * @return double, 0 if no game is being played
+         */
+        public double threadsPerGame() {
+            return activeGames == 0 ? 0 : liveThreads / (double) activeGames;
+        }
+
+        /**
+         * Recent failures getter
+         *
+         * @return the last failures (at most MAX_RECENT_FAILURES), the oldest first
+         */
+        public List<Failure> recentFailures() {
+            return recentFailures;
+        }
+
+        /**
+         * Returns true if the games run on virtual threads
+         *
+         * @return boolean
+         */
+        public boolean virtualThreads() {
+            return virtualThreads;
+        }
+
+        /**
+         * Method which returns a textual summary of the statistics
+         *
+         * @return String
+         */
+        @Override
+        public String toString() {
+            return String.format("%d active games, %d finished (%d failed), %d games/min, "
+                            + "%d live platform threads (peak %d), games on %s threads",
+                    activeGames, finishedGames, failedGames, gamesLastMinute, liveThreads, peakThreads,
+                    virtualThreads ? "virtual" : "platform");
+        }
+    }
+
+    /**
+     * Class Failure represents a game interrupted by an exception
+     */
+    public static final class Failure {
+
+        private final long gameNumber; // Number of the game, in the order in which the games started
+        private final List<String> peers; // Addresses of the clients, in the order of the player ids
+        private final RuntimeException exception; // Exception which interrupted the game
+
+        /**
+         * Failure constructor
+         *
+         * @param gameNumber number of the game
+         * @param sockets    sockets of the clients, in the order of the player ids
+         * @param exception  exception which interrupted the game
+         */
+        private Failure(long gameNumber, List<Socket> sockets, RuntimeException exception) {
+            this.gameNumber = gameNumber;
+            List<String> peers = new ArrayList<>(sockets.size());
+            for (Socket socket : sockets) {
+                peers.add(String.valueOf(socket.getRemoteSocketAddress()));
+            }
+            this.peers = List.copyOf(peers);
+            this.exception = exception;
+        }
+
+        /**
+         * Game number getter
+         *
+         * @return the number of the game, in the order in which the games started (from 1)
+         */
+        public long gameNumber() {
+            return gameNumber;
+        }
+
+        /**
+         * Peers getter
+         *
+         * @return the addresses of the clients, in the order of the player ids
+         */
+        public List<String> peers() {
+            return peers;
+        }
+
+        /**
+         * Exception getter
+         *
+         * @return the exception which interrupted the game
+         */
+        public RuntimeException exception() {
+            return exception;
+        }
+
+        /**
+         * Method which returns a textual description of the failure
+         *
+         * @return String
+         */
+        @Override
+        public String toString() {
+            return String.format("game %d between %s failed: %s", gameNumber, String.join(" and ", peers), exception);
+        }
+    }
+}
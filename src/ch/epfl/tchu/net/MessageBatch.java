@@ -0,0 +1,155 @@
+package ch.epfl.tchu.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class MessageBatch is a message channel which queues the messages sent through it, and writes them to the
+ * underlying channel in a single write: just before waiting for a message, when flush is called, when too many bytes
+ * are queued, or at the latest LINGER_MILLIS after the first message queued. The messages which do not expect an
+ * answer are thus sent with the next question, instead of one write (and one TCP segment) each
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+final class MessageBatch implements MessageChannel {
+
+    /**
+     * Maximum time during which a message is kept in the batch, in milliseconds
+     */
+    static final long LINGER_MILLIS = 5;
+
+    private static final int MAX_BATCH_SIZE = 16 * 1024; // Number of bytes above which the batch is written at once
+
+    // Timer flushing the batches whose messages lingered, shared by every batch
+    private static final ScheduledExecutorService LINGER_TIMER = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "tchu-message-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final MessageChannel channel; // Channel to which the batches are written
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream(); // Messages queued, encoded
+    private boolean lingerScheduled; // True if the timer will flush the batch
+    private UncheckedIOException failure; // Error of the last flush done by the timer, rethrown to the sender
+    private long flushCount; // Number of writes to the channel
+    private long sentBytes; // Number of bytes written to the channel
+
+    /**
+     * MessageBatch constructor
+     *
+     * @param channel channel to which the batches are written
+     */
+    MessageBatch(MessageChannel channel) {
+        this.channel = Objects.requireNonNull(channel);
+    }
+
+    @Override
+    public void send(String message) {
+        queue(WireIO.line(message));
+    }
+
+    @Override
+    public String receive() {
+        flush();
+        return channel.receive();
+    }
+
+    @Override
+    public void sendFrame(byte[] payload) {
+        queue(WireIO.frame(payload));
+    }
+
+    @Override
+    public byte[] receiveFrame() {
+        flush();
+        return channel.receiveFrame();
+    }
+
+    @Override
+    public void sendBatch(byte[] messages) {
+        queue(messages);
+    }
+
+    /**
+     * Method which writes the messages queued to the channel, in a single write
+     *
+     * @throws UncheckedIOException if the messages cannot be written, or if the timer could not write the previous ones
+     */
+    synchronized void flush() {
+        rethrowFailure();
+        if (batch.size() == 0) {
+            return;
+        }
+        byte[] messages = batch.toByteArray();
+        batch.reset();
+        channel.sendBatch(messages);
+        ++flushCount;
+        sentBytes += messages.length;
+    }
+
+    /**
+     * Number of writes to the channel getter
+     *
+     * @return long
+     */
+    synchronized long flushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Number of bytes written to the channel getter
+     *
+     * @return long
+     */
+    synchronized long sentBytes() {
+        return sentBytes;
+    }
+
+    /**
+     * Internal method which queues the given encoded messages, and makes sure they are written soon enough
+     *
+     * @param messages encoded messages
+     * @throws UncheckedIOException if the timer could not write the previous messages
+     */
+    private synchronized void queue(byte[] messages) {
+        rethrowFailure();
+        batch.writeBytes(messages);
+        if (batch.size() >= MAX_BATCH_SIZE) {
+            flush();
+        } else if (!lingerScheduled) {
+            lingerScheduled = true;
+            LINGER_TIMER.schedule(this::lingerExpired, LINGER_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Internal method called by the timer, which writes the messages still queued. An error is kept to be rethrown to
+     * the thread sending the messages
+     */
+    private synchronized void lingerExpired() {
+        lingerScheduled = false;
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Internal method which rethrows the error of the last flush done by the timer, once
+     *
+     * @throws UncheckedIOException if the timer could not write the previous messages
+     */
+    private void rethrowFailure() {
+        if (failure != null) {
+            UncheckedIOException e = failure;
+            failure = null;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ch.epfl.tchu.net;
+
+/**
+ * Interface MessageChannel represents a bidirectional channel carrying the messages of the tCHu protocol between the
+ * proxy of a remote player and its client, either one per line (WireFormat.TEXT) or one per frame (WireFormat.BINARY).
+ * Both sides must agree on the format of each message
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+interface MessageChannel {
+
+    /**
+     * Sends the given message, without its end of line
+     * @param message message to send
+     * @throws java.io.UncheckedIOException if the message cannot be sent
+     */
+    void send(String message);
+
+    /**
+     * Waits for the next message and returns it, without its end of line
+     * @return the message received
+     * @throws java.io.UncheckedIOException if no message can be received, e.g. because the connection has been closed
+     */
+    String receive();
+
+    /**
+     * Sends the given binary message, in a frame prefixed by its length
+     * @param payload message to send
+     * @throws java.io.UncheckedIOException if the message cannot be sent
+     */
+    void sendFrame(byte[] payload);
+
+    /**
+     * Waits for the next frame and returns its message
+     * @return the message received
+     * @throws java.io.UncheckedIOException if no message can be received, e.g. because the connection has been closed
+     */
+    byte[] receiveFrame();
+
+    /**
+     * Sends the given messages, already encoded as lines or frames by WireIO, in a single write
+     * @param messages encoded messages to send
+     * @throws java.io.UncheckedIOException if the messages cannot be sent
+     */
+    void sendBatch(byte[] messages);
+}
@@ -1,5 +1,7 @@
 package ch.epfl.tchu.net;
 
+import java.util.List;
+
 /**
  * enumeration MessageId represents the types of messages that the server can send to clients
  *
@@ -18,6 +20,10 @@ public enum MessageId {
     DRAW_SLOT,
     ROUTE,
     CARDS,
-    CHOOSE_ADDITIONAL_CARDS
+    CHOOSE_ADDITIONAL_CARDS,
+    PROTOCOL,
+    UPDATE_STATE_DELTA;
+
+    public static final List<MessageId> ALL = List.of(MessageId.values()); // List of all message ids
 
 }
@@ -0,0 +1,76 @@
+package ch.epfl.tchu.net;
+
+import java.io.*;
+import java.util.regex.Pattern;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+
+/**
+ * Class MessageReader reads the values of a message of the tCHu protocol, one after the other, in the order in which
+ * they were added to the MessageWriter which built the message
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+final class MessageReader {
+
+    private final static String SPACE = " "; // Separator of the values of a text message
+
+    private final String[] parts; // Serialized values of a text message, null for a binary message
+    private final DataInputStream in; // Input reading a binary message, null for a text message
+    private int nextPart; // Index of the next value of a text message
+
+    /**
+     * MessageReader constructor, for a text message
+     *
+     * @param line message
+     */
+    MessageReader(String line) {
+        parts = line.split(Pattern.quote(SPACE), -1);
+        in = null;
+    }
+
+    /**
+     * MessageReader constructor, for a binary message
+     *
+     * @param frame message
+     */
+    MessageReader(byte[] frame) {
+        parts = null;
+        in = new DataInputStream(new ByteArrayInputStream(frame));
+    }
+
+    /**
+     * Method which waits for the next message of the given channel
+     *
+     * @param channel channel
+     * @param format  format of the message
+     * @return a reader of the message
+     * @throws UncheckedIOException if no message can be received
+     */
+    static MessageReader receiveFrom(MessageChannel channel, WireFormat format) {
+        return format == WireFormat.BINARY ? new MessageReader(channel.receiveFrame()) : new MessageReader(channel.receive());
+    }
+
+    /**
+     * Method which reads the next value of the message
+     *
+     * @param serde serde of the value
+     * @param <T>   type of the value
+     * @return the value
+     * @throws IllegalArgumentException if the message does not contain any more value, or is invalid
+     */
+    <T> T next(Serde<T> serde) {
+        if (parts != null) {
+            checkArgument(nextPart < parts.length);
+            return serde.deserialize(parts[nextPart++]);
+        }
+        try {
+            return serde.read(in);
+        } catch (EOFException | StreamCorruptedException e) {
+            throw new IllegalArgumentException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // never happens with a ByteArrayInputStream
+        }
+    }
+}
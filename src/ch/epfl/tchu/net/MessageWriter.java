@@ -0,0 +1,85 @@
+package ch.epfl.tchu.net;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.StringJoiner;
+
+/**
+ * Class MessageWriter builds a message of the tCHu protocol, value after value, in the given wire format. In TEXT, the
+ * values are serialized and separated by spaces; in BINARY, their binary forms are concatenated
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+final class MessageWriter {
+
+    private final static String SPACE = " "; // Separator of the values of a text message
+
+    private final StringJoiner text; // Values of a text message, null in BINARY
+    private final ByteArrayOutputStream bytes; // Values of a binary message, null in TEXT
+    private final DataOutputStream out; // Output writing to bytes, null in TEXT
+
+    /**
+     * MessageWriter constructor
+     *
+     * @param format format of the message
+     */
+    MessageWriter(WireFormat format) {
+        if (format == WireFormat.BINARY) {
+            text = null;
+            bytes = new ByteArrayOutputStream();
+            out = new DataOutputStream(bytes);
+        } else {
+            text = new StringJoiner(SPACE);
+            bytes = null;
+            out = null;
+        }
+    }
+
+    /**
+     * Method which adds a value to the message
+     *
+     * @param serde serde of the value
+     * @param value value
+     * @param <T>   type of the value
+     * @return this writer
+     */
+    <T> MessageWriter add(Serde<T> serde, T value) {
+        if (text != null) {
+            text.add(serde.serialize(value));
+        } else {
+            try {
+                serde.write(out, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // never happens with a ByteArrayOutputStream
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Method which returns the message encoded as a line in TEXT, or as a frame in BINARY, ready to be sent through
+     * MessageChannel.sendBatch
+     *
+     * @return the bytes of the message
+     */
+    byte[] encoded() {
+        return text != null ? WireIO.line(text.toString()) : WireIO.frame(bytes.toByteArray());
+    }
+
+    /**
+     * Method which sends the message through the given channel
+     *
+     * @param channel channel
+     * @throws UncheckedIOException if the message cannot be sent
+     */
+    void sendTo(MessageChannel channel) {
+        if (text != null) {
+            channel.send(text.toString());
+        } else {
+            channel.sendFrame(bytes.toByteArray());
+        }
+    }
+}
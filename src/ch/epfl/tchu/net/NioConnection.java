@@ -0,0 +1,313 @@
+package ch.epfl.tchu.net;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class NioConnection represents a connection served by an event loop of a NioTransport. The messages sent by any
+ * thread are queued and written by the loop when the channel can accept them. The bytes received are queued by the loop
+ * as they come, and decoded into lines or frames by the thread asking for a message, which is the only one to wait
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class NioConnection implements MessageChannel, Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024; // Size of the direct buffers of a connection
+    private static final byte[] END_OF_STREAM = new byte[0]; // Marks the end of the received bytes (by identity)
+
+    private final SocketChannel channel; // Channel of the connection
+    private final Executor loop; // Event loop serving the connection
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE); // Bytes read from the channel
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE); // Bytes to write to the channel
+    private final Queue<byte[]> outbound = new ConcurrentLinkedQueue<>(); // Encoded messages waiting to be written
+    private final BlockingQueue<byte[]> inbound = new LinkedBlockingQueue<>(); // Bytes received, not yet decoded
+    private final DataInputStream input = new DataInputStream(new InboundStream()); // Decoder of the received bytes
+    private final AtomicBoolean writeScheduled = new AtomicBoolean(); // True if a write is pending on the loop
+
+    private volatile boolean closing; // True once close() has been called
+    private SelectionKey key; // Selection key of the channel, set by the loop
+    private byte[] pending; // Message being copied to the write buffer, accessed by the loop only
+    private int pendingOffset; // Number of bytes of the pending message already copied
+
+    /**
+     * NioConnection constructor, called by NioTransport
+     *
+     * @param channel non-blocking channel of the connection
+     * @param loop    event loop serving the connection
+     */
+    NioConnection(SocketChannel channel, Executor loop) {
+        this.channel = channel;
+        this.loop = loop;
+        writeBuffer.flip(); // The write buffer is kept ready to be drained
+    }
+
+    /**
+     * Queues the given message, which is written by the event loop as soon as possible
+     *
+     * @param message message to send
+     * @throws UncheckedIOException if the connection is closed
+     */
+    @Override
+    public void send(String message) {
+        enqueue(WireIO.line(message));
+    }
+
+    /**
+     * Waits for the next line received
+     *
+     * @return the message received
+     * @throws UncheckedIOException if the connection has been closed, or if the waiting thread is interrupted
+     */
+    @Override
+    public String receive() {
+        try {
+            return WireIO.readLine(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Queues the given binary message, which is written by the event loop as soon as possible
+     *
+     * @param payload message to send
+     * @throws UncheckedIOException if the connection is closed
+     */
+    @Override
+    public void sendFrame(byte[] payload) {
+        enqueue(WireIO.frame(payload));
+    }
+
+    /**
+     * Queues the given encoded messages, which are written together by the event loop as soon as possible
+     *
+     * @param messages encoded messages to send
+     * @throws UncheckedIOException if the connection is closed
+     */
+    @Override
+    public void sendBatch(byte[] messages) {
+        enqueue(messages);
+    }
+
+    /**
+     * Waits for the next frame received
+     *
+     * @return the message received
+     * @throws UncheckedIOException if the connection has been closed, or if the waiting thread is interrupted
+     */
+    @Override
+    public byte[] receiveFrame() {
+        try {
+            return WireIO.readFrame(input);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns true if the connection is still open
+     *
+     * @return boolean
+     */
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    /**
+     * Closes the connection once the messages already queued have been written. The threads waiting for a message are
+     * then woken up
+     */
+    @Override
+    public void close() {
+        closing = true;
+        loop.execute(this::onWritable);
+    }
+
+    /**
+     * Closes the connection immediately, without writing the messages queued. The threads waiting for a message are
+     * woken up
+     */
+    void closeNow() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing more can be done
+        }
+        inbound.add(END_OF_STREAM);
+    }
+
+    /**
+     * Method called by the loop once the channel has been registered
+     *
+     * @param key selection key of the channel, null if it could not be registered
+     */
+    void setKey(SelectionKey key) {
+        if (key == null) {
+            closeNow();
+        }
+        this.key = key;
+    }
+
+    /**
+     * Method called by the loop when bytes can be read from the channel. The bytes read are queued
+     */
+    void onReadable() {
+        try {
+            int count = channel.read(readBuffer);
+            if (count < 0) {
+                closeNow();
+                return;
+            }
+            if (count > 0) {
+                byte[] bytes = new byte[count];
+                readBuffer.flip();
+                readBuffer.get(bytes);
+                readBuffer.clear();
+                inbound.add(bytes);
+            }
+        } catch (IOException e) {
+            closeNow();
+        }
+    }
+
+    /**
+     * Method called by the loop when bytes can be written to the channel, or when messages have been queued. It
+     * writes as many queued messages as the channel accepts, and waits for the channel to be writable again if some
+     * remain. Once everything has been written, the connection is closed if close() has been called
+     */
+    void onWritable() {
+        if (key == null || !key.isValid()) {
+            writeScheduled.set(false);
+            if (closing) {
+                closeNow();
+            }
+            return;
+        }
+        try {
+            while (true) {
+                fillWriteBuffer();
+                if (!writeBuffer.hasRemaining()) {
+                    // Everything has been written: messages queued from now on schedule a new write
+                    writeScheduled.set(false);
+                    if (closing && outbound.isEmpty()) {
+                        closeNow();
+                        return;
+                    }
+                    key.interestOps(SelectionKey.OP_READ);
+                    if (outbound.isEmpty() || !writeScheduled.compareAndSet(false, true)) {
+                        return;
+                    }
+                    continue;
+                }
+                channel.write(writeBuffer);
+                if (writeBuffer.hasRemaining()) {
+                    // The channel is full: wait until it is writable again
+                    key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            closeNow();
+        }
+    }
+
+    /**
+     * Internal method which queues the bytes of a message and schedules their writing
+     *
+     * @param bytes bytes of a line or of a frame
+     * @throws UncheckedIOException if the connection is closed or being closed
+     */
+    private void enqueue(byte[] bytes) {
+        if (closing || !channel.isOpen()) {
+            throw new UncheckedIOException(new EOFException());
+        }
+        outbound.add(bytes);
+        if (writeScheduled.compareAndSet(false, true)) {
+            loop.execute(this::onWritable);
+        }
+    }
+
+    /**
+     * Internal method which copies as many queued bytes as possible to the write buffer
+     */
+    private void fillWriteBuffer() {
+        writeBuffer.compact();
+        while (writeBuffer.hasRemaining()) {
+            if (pending == null) {
+                pending = outbound.poll();
+                pendingOffset = 0;
+                if (pending == null) {
+                    break;
+                }
+            }
+            int length = Math.min(writeBuffer.remaining(), pending.length - pendingOffset);
+            writeBuffer.put(pending, pendingOffset, length);
+            pendingOffset += length;
+            if (pendingOffset == pending.length) {
+                pending = null;
+            }
+        }
+        writeBuffer.flip();
+    }
+
+    /**
+     * Class InboundStream is the stream of the bytes queued by the loop, read by the thread waiting for a message
+     */
+    private final class InboundStream extends InputStream {
+
+        private byte[] chunk = new byte[0]; // Bytes being read
+        private int position; // Index of the next byte of the chunk to read
+        private boolean ended; // True if the end of the stream has been reached
+
+        @Override
+        public int read() throws IOException {
+            return nextChunk() ? chunk[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int count = Math.min(len, chunk.length - position);
+            System.arraycopy(chunk, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        /**
+         * Internal method which waits for the next chunk of bytes if the current one has been read entirely
+         *
+         * @return false if the end of the stream has been reached
+         * @throws InterruptedIOException if the waiting thread is interrupted
+         */
+        private boolean nextChunk() throws InterruptedIOException {
+            while (position == chunk.length) {
+                if (ended) {
+                    return false;
+                }
+                try {
+                    chunk = inbound.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException();
+                }
+                position = 0;
+                ended = chunk == END_OF_STREAM;
+            }
+            return true;
+        }
+    }
+}
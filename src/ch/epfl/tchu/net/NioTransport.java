@@ -0,0 +1,254 @@
+package ch.epfl.tchu.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.*;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+
+/**
+ * Class NioTransport carries the messages of the tCHu protocol over non-blocking socket channels. A small, fixed number
+ * of event loops, each running on its own thread with its own selector, serve every connection: no thread is blocked
+ * reading a connection, so thousands of connections can be served by a handful of threads. The connections are
+ * distributed among the loops in a round-robin fashion
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class NioTransport implements Closeable {
+
+    private final EventLoop[] loops; // Event loops serving the connections
+    private final AtomicInteger nextLoop = new AtomicInteger(); // Index of the loop of the next connection
+
+    /**
+     * NioTransport constructor, which starts the event loops
+     *
+     * @param loopCount number of event loops
+     * @throws IllegalArgumentException if the number of loops is not strictly positive
+     * @throws UncheckedIOException     if a selector cannot be opened
+     */
+    public NioTransport(int loopCount) {
+        checkArgument(loopCount > 0);
+        loops = new EventLoop[loopCount];
+        for (int i = 0; i < loopCount; ++i) {
+            loops[i] = new EventLoop(i);
+        }
+    }
+
+    /**
+     * Method which starts accepting connections on the given port. The given consumer is called on an event loop
+     * thread for each accepted connection, and must therefore not block
+     *
+     * @param port     port on which the connections are accepted (0 to choose any free port)
+     * @param onAccept consumer called with each accepted connection
+     * @return the port on which the connections are accepted
+     * @throws UncheckedIOException if the port cannot be opened
+     */
+    public int listen(int port, Consumer<NioConnection> onAccept) {
+        try {
+            ServerSocketChannel server = ServerSocketChannel.open();
+            server.bind(new InetSocketAddress(port));
+            server.configureBlocking(false);
+            EventLoop loop = nextLoop();
+            loop.execute(() -> loop.register(server, SelectionKey.OP_ACCEPT, onAccept));
+            return server.socket().getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method which opens a connection to the given host
+     *
+     * @param host name of the host
+     * @param port port of the host
+     * @return NioConnection
+     * @throws UncheckedIOException if the connection cannot be opened
+     */
+    public NioConnection connect(String host, int port) {
+        try {
+            SocketChannel channel = SocketChannel.open(new InetSocketAddress(host, port));
+            return register(channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Method which stops the event loops and closes every connection and listening channel
+     */
+    @Override
+    public void close() {
+        for (EventLoop loop : loops) {
+            loop.close();
+        }
+    }
+
+    /**
+     * Internal method which registers a connected channel with the next event loop
+     *
+     * @param channel connected channel
+     * @return the connection
+     * @throws IOException if the channel cannot be configured
+     */
+    private NioConnection register(SocketChannel channel) throws IOException {
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        EventLoop loop = nextLoop();
+        NioConnection connection = new NioConnection(channel, loop::execute);
+        loop.execute(() -> connection.setKey(loop.register(channel, SelectionKey.OP_READ, connection)));
+        return connection;
+    }
+
+    /**
+     * Internal method which returns the event loop of the next connection
+     *
+     * @return EventLoop
+     */
+    private EventLoop nextLoop() {
+        return loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+    }
+
+    /**
+     * Class EventLoop waits for the events of its channels with a selector, and handles them on its own thread. The
+     * other threads act on its channels by submitting tasks, which are run by the loop between two selections
+     */
+    private final class EventLoop implements Runnable {
+
+        private final Selector selector; // Selector of the channels of the loop
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>(); // Tasks to run on the loop thread
+        private final Thread thread; // Thread of the loop
+
+        /**
+         * EventLoop constructor, which starts the loop thread
+         *
+         * @param index index of the loop
+         * @throws UncheckedIOException if the selector cannot be opened
+         */
+        private EventLoop(int index) {
+            try {
+                selector = Selector.open();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            thread = new Thread(this, "tCHu NIO loop " + index);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Method which submits a task to run on the loop thread
+         *
+         * @param task task
+         */
+        private void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        /**
+         * Method which registers a channel with the selector, on the loop thread
+         *
+         * @param channel    channel
+         * @param ops        operations of interest
+         * @param attachment object handling the events of the channel
+         * @return the selection key of the channel, or null if it cannot be registered
+         */
+        private SelectionKey register(SelectableChannel channel, int ops, Object attachment) {
+            try {
+                return channel.register(selector, ops, attachment);
+            } catch (ClosedChannelException | ClosedSelectorException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Method which stops the loop and closes its channels
+         */
+        private void close() {
+            thread.interrupt();
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!thread.isInterrupted()) {
+                    selector.select();
+                    for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                        task.run();
+                    }
+                    for (SelectionKey key : selector.selectedKeys()) {
+                        handle(key);
+                    }
+                    selector.selectedKeys().clear();
+                }
+            } catch (IOException e) {
+                // The selector is broken: the loop stops and closes its channels
+            } finally {
+                for (SelectionKey key : selector.keys()) {
+                    closeChannel(key);
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // Nothing more can be done
+                }
+            }
+        }
+
+        /**
+         * Internal method which handles the events of a key
+         *
+         * @param key selection key
+         */
+        @SuppressWarnings("unchecked")
+        private void handle(SelectionKey key) {
+            if (!key.isValid()) {
+                return;
+            }
+            if (key.isAcceptable()) {
+                try {
+                    SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+                    if (channel != null) {
+                        ((Consumer<NioConnection>) key.attachment()).accept(NioTransport.this.register(channel));
+                    }
+                } catch (IOException e) {
+                    // The client is already gone
+                }
+                return;
+            }
+            NioConnection connection = (NioConnection) key.attachment();
+            if (key.isReadable()) {
+                connection.onReadable();
+            }
+            if (key.isValid() && key.isWritable()) {
+                connection.onWritable();
+            }
+        }
+
+        /**
+         * Internal method which closes the channel of a key
+         *
+         * @param key selection key
+         */
+        private void closeChannel(SelectionKey key) {
+            if (key.attachment() instanceof NioConnection) {
+                ((NioConnection) key.attachment()).closeNow();
+            } else {
+                try {
+                    key.channel().close();
+                } catch (IOException e) {
+                    // Nothing more can be done
+                }
+            }
+        }
+    }
+}
@@ -7,25 +7,22 @@ import java.io.*;
 import java.net.Socket;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.regex.Pattern;
 
 import static ch.epfl.tchu.net.Serdes.*;
-import static java.nio.charset.StandardCharsets.US_ASCII;
 
 /**
- * Player client for player-proxy interactions
+ * Player client for player-proxy interactions. The client accepts the binary format when the proxy offers it, and
+ * rebuilds the full states from the deltas sent in its latest versions
  * @author Lorin Lieberherr (326858)
  * @author Elija Dirren (310502)
  */
 public final class RemotePlayerClient {
 
     private final Player player; // Client player object
-    private final BufferedReader reader; // Reader head
-    private final BufferedWriter writer; // Writer head
     private final Socket socket; // Socket
-    private final static String SPACE = " ";
-    private final static String RETURN_SYMBOL = "\n";
+    private final MessageChannel channel; // Channel carrying the messages to and from the proxy
+    private WireFormat format = WireFormat.TEXT; // Format of the messages, every connection starting in the text format
+    private StateSync sync; // Last states received, null if they are not sent as deltas
 
     /**
      * Remote player client constructor
@@ -41,13 +38,12 @@ public final class RemotePlayerClient {
         try
         {
             socket = new Socket(name, port);
-            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
-            writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), US_ASCII));
         }
         catch (IOException e)
         {
             throw new UncheckedIOException(e);
         }
+        channel = new SocketMessageChannel(socket);
     }
 
     /**
@@ -59,110 +55,122 @@ public final class RemotePlayerClient {
      */
     public void run()
     {
-        try {
-            // Keep running / receiving messages. Exits on null input through break keyword
-            while(socket.isConnected()) {
-                String input = reader.readLine(); // Read the latest message
-
-                // If the input is null, break out of the loop. This indicates that the server has cut the connection
-                if(Objects.isNull(input))
+        // Keep running / receiving messages. Exits at the end of the input through break keyword
+        while(socket.isConnected()) {
+            MessageReader message;
+            try
+            {
+                message = MessageReader.receiveFrom(channel, format); // Read the latest message
+            }
+            catch (UncheckedIOException e)
+            {
+                // If the input has ended, break out of the loop. This indicates that the server has cut the connection
+                if (e.getCause() instanceof EOFException)
                 {
                     break;
                 }
+                throw e;
+            }
 
-                String[] stringWithoutSeparator = input.split(Pattern.quote(SPACE), -1); // Split the string
+            // Act according to the id received (this id is the first value of the message)
+            switch(message.next(MESSAGE_ID_SERDE))
+            {
+                case PROTOCOL:
+                    // Accept the latest version of the binary format known by both sides
+                    int version = Math.max(0, Math.min(message.next(INTEGER_SERDE), WireFormat.BINARY_VERSION));
+                    answer(INTEGER_SERDE, version);
+                    format = version > 0 ? WireFormat.BINARY : WireFormat.TEXT;
+                    sync = version >= WireFormat.DELTA_VERSION ? new StateSync() : null;
+                    break;
 
-                // Act according to the id received (this id will be index 0 of the array)
-                switch(stringWithoutSeparator[0])
-                {
-                    case "INIT_PLAYERS":
-                        PlayerId ownId = PLAYER_ID_SERDE.deserialize(stringWithoutSeparator[1]);
-                        List<String> playerNames = STRING_LIST_SERDE.deserialize(stringWithoutSeparator[2]);
-                        Map<PlayerId, String> playerMap = Map.of(PlayerId.PLAYER_1, playerNames.get(0),PlayerId.PLAYER_2, playerNames.get(1));
-                        player.initPlayers(ownId, playerMap);
-                        break;
-
-                    case "RECEIVE_INFO":
-                        String info = STRING_SERDE.deserialize(stringWithoutSeparator[1]);
-                        player.receiveInfo(info);
-                        break;
-
-                    case "UPDATE_STATE":
-                        PublicGameState newGameState = PUBLIC_GAME_STATE_SERDE.deserialize(stringWithoutSeparator[1]);
-                        PlayerState newOwnState = PLAYER_STATE_SERDE.deserialize(stringWithoutSeparator[2]);
+                case INIT_PLAYERS:
+                    PlayerId ownId = message.next(PLAYER_ID_SERDE);
+                    List<String> playerNames = message.next(STRING_LIST_SERDE);
+                    Map<PlayerId, String> playerMap = Map.of(PlayerId.PLAYER_1, playerNames.get(0),PlayerId.PLAYER_2, playerNames.get(1));
+                    player.initPlayers(ownId, playerMap);
+                    break;
+
+                case RECEIVE_INFO:
+                    player.receiveInfo(message.next(STRING_SERDE));
+                    break;
+
+                case UPDATE_STATE:
+                    PublicGameState newGameState = message.next(PUBLIC_GAME_STATE_SERDE);
+                    PlayerState newOwnState = message.next(PLAYER_STATE_SERDE);
+                    player.updateState(newGameState, newOwnState);
+                    break;
+
+                case UPDATE_STATE_DELTA:
+                    int sequence = message.next(INTEGER_SERDE);
+                    int baseSequence = message.next(INTEGER_SERDE);
+                    if (baseSequence == StateSync.NO_BASE) {
+                        newGameState = message.next(PUBLIC_GAME_STATE_SERDE);
+                        newOwnState = message.next(PLAYER_STATE_SERDE);
+                        sync.full(newGameState, newOwnState, sequence);
                         player.updateState(newGameState, newOwnState);
-                        break;
-
-                    case "SET_INITIAL_TICKETS":
-                        SortedBag<Ticket> tickets = TICKET_BAG_SERDE.deserialize(stringWithoutSeparator[1]);
-                        player.setInitialTicketChoice(tickets);
-                        break;
-
-                    case "CHOOSE_INITIAL_TICKETS":
-                        SortedBag<Ticket> chosenTickets = player.chooseInitialTickets();
-                        String out = String.join(SPACE, TICKET_BAG_SERDE.serialize(chosenTickets));
-                        flushMessage(out);
-                        break;
-
-                    case "NEXT_TURN":
-                        Player.TurnKind turn = player.nextTurn();
-                        out = String.join(SPACE, TURN_KIND_SERDE.serialize(turn));
-                        flushMessage(out);
-                        break;
-
-                    case "CHOOSE_TICKETS":
-                        SortedBag<Ticket> givenTickets = TICKET_BAG_SERDE.deserialize(stringWithoutSeparator[1]);
-
-                        chosenTickets = player.chooseTickets(givenTickets);
-                        out = String.join(SPACE, TICKET_BAG_SERDE.serialize(chosenTickets));
-                        flushMessage(out);
-                        break;
-
-                    case "DRAW_SLOT":
-                        int chosenSlot = player.drawSlot();
-                        out = String.join(SPACE, INTEGER_SERDE.serialize(chosenSlot));
-                        flushMessage(out);
-                        break;
-
-                    case "ROUTE":
-                        Route routeToSend = player.claimedRoute();
-                        out = String.join(SPACE, ROUTE_SERDE.serialize(routeToSend));
-                        flushMessage(out);
-                        break;
-
-                    case "CARDS":
-                        SortedBag<Card> cardsToSend = player.initialClaimCards();
-                        out = String.join(SPACE, CARD_BAG_SERDE.serialize(cardsToSend));
-                        flushMessage(out);
-                        break;
-
-                    case "CHOOSE_ADDITIONAL_CARDS":
-                        List<SortedBag<Card>> possibleAdditionalCards = CARD_BAG_LIST_SERDE.deserialize(stringWithoutSeparator[1]);
-                        cardsToSend = SortedBag.of(player.chooseAdditionalCards(possibleAdditionalCards));
-                        out = String.join(SPACE, CARD_BAG_SERDE.serialize(cardsToSend));
-                        flushMessage(out);
-                        break;
-                }
+                    } else if (sync.canRebuild(baseSequence)) {
+                        newGameState = message.next(sync.publicDeltas);
+                        newOwnState = message.next(sync.ownDeltas);
+                        sync.delta(sequence);
+                        player.updateState(newGameState, newOwnState);
+                    }
+                    // Otherwise the delta cannot be applied: the next answer asks for a resynchronization
+                    break;
+
+                case SET_INITIAL_TICKETS:
+                    player.setInitialTicketChoice(message.next(TICKET_BAG_SERDE));
+                    break;
+
+                case CHOOSE_INITIAL_TICKETS:
+                    answer(TICKET_BAG_SERDE, player.chooseInitialTickets());
+                    break;
+
+                case NEXT_TURN:
+                    answer(TURN_KIND_SERDE, player.nextTurn());
+                    break;
+
+                case CHOOSE_TICKETS:
+                    SortedBag<Ticket> givenTickets = message.next(TICKET_BAG_SERDE);
+                    answer(TICKET_BAG_SERDE, player.chooseTickets(givenTickets));
+                    break;
+
+                case DRAW_SLOT:
+                    answer(INTEGER_SERDE, player.drawSlot());
+                    break;
+
+                case ROUTE:
+                    answer(ROUTE_SERDE, player.claimedRoute());
+                    break;
 
+                case CARDS:
+                    answer(CARD_BAG_SERDE, player.initialClaimCards());
+                    break;
+
+                case CHOOSE_ADDITIONAL_CARDS:
+                    List<SortedBag<Card>> possibleAdditionalCards = message.next(CARD_BAG_LIST_SERDE);
+                    answer(CARD_BAG_SERDE, SortedBag.of(player.chooseAdditionalCards(possibleAdditionalCards)));
+                    break;
             }
 
         }
-        catch(IOException e)
-        {
-            throw new UncheckedIOException(e);
-        }
     }
 
     /**
-     * Internal method that sends a given message
+     * Internal method that sends the answer to a question of the proxy, preceded by the number of the last state
+     * received if the states are sent as deltas
      *
-     * @param out is the message to flush
-     * @throws IOException if there is a problem with the message to send
+     * @param serde is the serde of the answer
+     * @param value is the answer
+     * @param <T> is the type of the answer
+     * @throws UncheckedIOException if there is a problem with the message to send
      */
-    private void flushMessage(String out) throws IOException
+    private <T> void answer(Serde<T> serde, T value)
     {
-        writer.write(out);
-        writer.write(RETURN_SYMBOL);
-        writer.flush();
+        MessageWriter answer = new MessageWriter(format);
+        if (sync != null)
+        {
+            answer.add(INTEGER_SERDE, sync.sequence());
+        }
+        answer.add(serde, value).sendTo(channel);
     }
 }
@@ -3,19 +3,24 @@ package ch.epfl.tchu.net;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
-import java.io.*;
+import java.io.UncheckedIOException;
 import java.net.Socket;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Pattern;
+import java.util.Objects;
 
 import static ch.epfl.tchu.net.MessageId.*;
 import static ch.epfl.tchu.net.Serdes.*;
-import static java.nio.charset.StandardCharsets.US_ASCII;
 
 /**
  * The class RemotePlayerProxy represents the proxy of the remote players
  * It allows communication between the class  Game and the remote player's client by acting as an intermediary between them
+ * The messages are sent in the text format, unless the binary format is offered when the proxy is created and the
+ * client accepts it. In the binary format, the states are sent as deltas if the client supports them.
+ * The messages which do not expect an answer are batched and sent with the next question (see MessageBatch), so the
+ * proxy must be flushed once the game is over, before its connection is closed.
+ * The proxies of a game may share a BroadcastGroup, so that the infos and public states sent to every player are only
+ * encoded once
  *
  * @author Lorin Lieberherr (326858)
  * @author Elija Dirren (310502)
@@ -23,10 +28,11 @@ import static java.nio.charset.StandardCharsets.US_ASCII;
 public final class RemotePlayerProxy implements Player{
 
 
-    private final BufferedWriter writer; // Writer head
-    private final BufferedReader reader; // Reader head
-    private final static String SPACE = " "; // Space character
-    private final static String RETURN_SYMBOL = "\n"; // Return symbol
+    private final MessageBatch channel; // Channel carrying the messages to and from the client, batching them
+    private final WireFormat format; // Format of the messages, negotiated with the client
+    private final BroadcastGroup broadcast; // Group sharing the payloads sent to every player of the game
+    private final StateSync sync; // Last states sent to the client, null if they are not sent as deltas
+    private volatile long turnCount; // Number of turns played by the client, written by the game thread only
 
 
     /**
@@ -37,49 +43,192 @@ public final class RemotePlayerProxy implements Player{
      * @throws IllegalArgumentException if there is a problem with the socket
      */
     public RemotePlayerProxy(Socket socket) {
-        try{
-            writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), US_ASCII));
-            reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII));
-        }
-        catch (IOException e){
-            throw new UncheckedIOException(e);
-        }
+        this(socket, WireFormat.TEXT);
     }
 
     /**
-     * This method sends the serialized message given in argument to the Client of the remote player
+     * RemotePlayerProxy Constructor, which offers the given format to the client. The binary format is only used if
+     * the client accepts it, and the constructor waits for its answer: it must only be offered to clients which answer,
+     * such as RemotePlayerClient
      *
-     * @param messageToSend is the message to send
-     * @throws UncheckedIOException if there is a problem with sending messages
-     * @throws IllegalArgumentException if the sent message's type is not recognised
+     * @param socket allows the server to wait for TCP connections on a given port,
+     * @param format format offered to the client
+     * @throws UncheckedIOException if there is a problem with the socket
+     * @throws IllegalArgumentException if the answer of the client is invalid
      */
-    private void sendMessage(String messageToSend){
-        try {
-            writer.write(messageToSend);
-            writer.write(RETURN_SYMBOL);
-            writer.flush();
-        }
-        catch (IOException e){
-            throw new UncheckedIOException(e);
-        }
+    public RemotePlayerProxy(Socket socket, WireFormat format) {
+        this(socket, format, new BroadcastGroup());
     }
 
     /**
-     * Internal method which reads the last received line
+     * RemotePlayerProxy Constructor, which offers the given format to the client (see
+     * RemotePlayerProxy(Socket, WireFormat)), and shares the payloads sent to every player with the other proxies of
+     * the given group
      *
-     * @return the specific part of the message to deserialize
-     * @throws UncheckedIOException if there is a problem with receiving messages
-     * @throws IllegalArgumentException if the received message's type is not recognised
+     * @param socket    allows the server to wait for TCP connections on a given port,
+     * @param format    format offered to the client
+     * @param broadcast group of the proxies of the game
+     * @throws UncheckedIOException if there is a problem with the socket
+     * @throws IllegalArgumentException if the answer of the client is invalid
      */
-    private String receiveMessage() {
-        try {
-            String[] messageToReceive =  reader.readLine().split(Pattern.quote(SPACE), -1); // Split the string;
-            return messageToReceive[0]; // the index 0 of the string will be the message to deserialize
+    public RemotePlayerProxy(Socket socket, WireFormat format, BroadcastGroup broadcast) {
+        this(new SocketMessageChannel(socket), format, WireFormat.BINARY_VERSION, broadcast);
+    }
 
-        }catch (IOException e){
-            throw new UncheckedIOException(e);
-        }
+    /**
+     * RemotePlayerProxy Constructor, for a client connected through a non-blocking NioTransport
+     *
+     * @param connection connection of the client
+     */
+    public RemotePlayerProxy(NioConnection connection) {
+        this(connection, WireFormat.TEXT);
+    }
+
+    /**
+     * RemotePlayerProxy Constructor, for a client connected through a non-blocking NioTransport, which offers the given
+     * format to the client (see RemotePlayerProxy(Socket, WireFormat))
+     *
+     * @param connection connection of the client
+     * @param format     format offered to the client
+     * @throws UncheckedIOException if there is a problem with the connection
+     * @throws IllegalArgumentException if the answer of the client is invalid
+     */
+    public RemotePlayerProxy(NioConnection connection, WireFormat format) {
+        this(connection, format, new BroadcastGroup());
+    }
+
+    /**
+     * RemotePlayerProxy Constructor, for a client connected through a non-blocking NioTransport, which offers the given
+     * format to the client (see RemotePlayerProxy(Socket, WireFormat)), and shares the payloads sent to every player
+     * with the other proxies of the given group
+     *
+     * @param connection connection of the client
+     * @param format     format offered to the client
+     * @param broadcast  group of the proxies of the game
+     * @throws UncheckedIOException if there is a problem with the connection
+     * @throws IllegalArgumentException if the answer of the client is invalid
+     */
+    public RemotePlayerProxy(NioConnection connection, WireFormat format, BroadcastGroup broadcast) {
+        this(connection, format, WireFormat.BINARY_VERSION, broadcast);
+    }
+
+    /**
+     * Package-private RemotePlayerProxy Constructor
+     *
+     * @param channel channel carrying the messages to and from the client
+     * @param format  format offered to the client
+     */
+    RemotePlayerProxy(MessageChannel channel, WireFormat format) {
+        this(channel, format, WireFormat.BINARY_VERSION);
+    }
+
+    /**
+     * Package-private RemotePlayerProxy Constructor, which offers the given version of the binary format
+     *
+     * @param channel       channel carrying the messages to and from the client
+     * @param format        format offered to the client
+     * @param binaryVersion version of the binary format offered to the client
+     */
+    RemotePlayerProxy(MessageChannel channel, WireFormat format, int binaryVersion) {
+        this(channel, format, binaryVersion, new BroadcastGroup());
+    }
+
+    /**
+     * Package-private RemotePlayerProxy Constructor, which offers the given version of the binary format and shares
+     * the payloads sent to every player with the other proxies of the given group
+     *
+     * @param channel       channel carrying the messages to and from the client
+     * @param format        format offered to the client
+     * @param binaryVersion version of the binary format offered to the client
+     * @param broadcast     group of the proxies of the game
+     */
+    RemotePlayerProxy(MessageChannel channel, WireFormat format, int binaryVersion, BroadcastGroup broadcast) {
+        this.channel = new MessageBatch(channel);
+        this.broadcast = Objects.requireNonNull(broadcast);
+        int version = format == WireFormat.BINARY ? negotiate(this.channel, binaryVersion) : 0;
+        this.format = version > 0 ? WireFormat.BINARY : WireFormat.TEXT;
+        this.sync = version >= WireFormat.DELTA_VERSION ? new StateSync(broadcast) : null;
+    }
+
+    /**
+     * Internal method which offers the binary format to the client, in the text format
+     *
+     * @param channel       channel carrying the messages to and from the client
+     * @param binaryVersion version of the binary format offered to the client
+     * @return the version of the binary format accepted by the client, 0 if the client keeps the text format
+     */
+    private static int negotiate(MessageChannel channel, int binaryVersion) {
+        new MessageWriter(WireFormat.TEXT)
+                .add(MESSAGE_ID_SERDE, PROTOCOL)
+                .add(INTEGER_SERDE, binaryVersion)
+                .sendTo(channel);
+        int version = MessageReader.receiveFrom(channel, WireFormat.TEXT).next(INTEGER_SERDE);
+        return version >= 1 && version <= binaryVersion ? version : 0;
+    }
+
+    /**
+     * Sends the messages batched so far to the client. Must be called once the game is over, since the last messages
+     * are otherwise only sent when the linger delay of the batch expires
+     *
+     * @throws UncheckedIOException if the messages cannot be sent
+     */
+    public void flush() {
+        channel.flush();
+    }
+
+    /**
+     * Number of writes done to the connection of the client getter, each of them sending a batch of messages
+     *
+     * @return long
+     */
+    public long flushCount() {
+        return channel.flushCount();
+    }
+
+    /**
+     * Number of bytes sent to the client getter
+     *
+     * @return long
+     */
+    public long sentBytes() {
+        return channel.sentBytes();
+    }
+
+    /**
+     * Number of turns played by the client getter, by which flushCount and sentBytes can be divided to get the writes
+     * and bytes per turn
+     *
+     * @return long
+     */
+    public long turnCount() {
+        return turnCount;
+    }
 
+    /**
+     * Internal method which starts a message of the given type, in the negotiated format
+     *
+     * @param messageId type of the message
+     * @return the writer of the message
+     */
+    private MessageWriter message(MessageId messageId) {
+        return new MessageWriter(format).add(MESSAGE_ID_SERDE, messageId);
+    }
+
+    /**
+     * Internal method which waits for the answer of the client
+     *
+     * @param serde serde of the answer
+     * @param <T>   type of the answer
+     * @return the answer
+     * @throws UncheckedIOException if there is a problem with receiving messages
+     * @throws IllegalArgumentException if the answer is invalid
+     */
+    private <T> T receiveAnswer(Serde<T> serde) {
+        MessageReader answer = MessageReader.receiveFrom(channel, format);
+        if (sync != null) {
+            sync.acknowledge(answer.next(INTEGER_SERDE));
+        }
+        return answer.next(serde);
     }
 
     /**
@@ -94,44 +243,59 @@ public final class RemotePlayerProxy implements Player{
         // creates the list to serialize the name of the players
         List<String> listStringSerde = List.of(playerNames.get(PlayerId.PLAYER_1),playerNames.get(PlayerId.PLAYER_2));
 
-        sendMessage(
-                String.join(
-                    SPACE,
-                    INIT_PLAYERS.name(),
-                    PLAYER_ID_SERDE.serialize(ownId),
-                    STRING_LIST_SERDE.serialize(listStringSerde)));
+        message(INIT_PLAYERS)
+                .add(PLAYER_ID_SERDE, ownId)
+                .add(STRING_LIST_SERDE, listStringSerde)
+                .sendTo(channel);
 
     }
 
     /**
-     * Send the serialized message of the received information by the player
+     * Send the serialized message of the received information by the player, encoded once for the whole group
      *
      * @param info is the information to communicate to the player
      */
     @Override
     public void receiveInfo(String info) {
-        sendMessage(
-                String.join(
-                    SPACE,
-                    RECEIVE_INFO.name(),
-                    STRING_SERDE.serialize(info)));
+        channel.sendBatch(broadcast.infoMessage(format, info));
     }
 
     /**
-     * send the update state serialized message
+     * send the update state serialized message. If the states are sent as deltas, only the fields which changed since
+     * the last states sent are sent, except periodically and when the client asked for a resynchronization. The public
+     * part of the message is encoded once for the whole group, only the own state being encoded for this player
      *
      * @param newState is the public game state
      * @param ownState ownState is the state of the player on which the method is called
      */
     @Override
     public void updateState(PublicGameState newState, PlayerState ownState) {
-        sendMessage(
-                String.join(
-                    SPACE,
-                    UPDATE_STATE.name(),
-                    PUBLIC_GAME_STATE_SERDE.serialize(newState),
-                    PLAYER_STATE_SERDE.serialize(ownState)));
+        if (sync == null) {
+            message(UPDATE_STATE)
+                    .add(broadcast.publicStates, newState)
+                    .add(PLAYER_STATE_SERDE, ownState)
+                    .sendTo(channel);
+            return;
+        }
 
+        int sequence = sync.sequence() + 1;
+        if (sync.canSendDelta(newState, ownState)) {
+            message(UPDATE_STATE_DELTA)
+                    .add(INTEGER_SERDE, sequence)
+                    .add(INTEGER_SERDE, sync.sequence())
+                    .add(sync.publicDeltas, newState)
+                    .add(sync.ownDeltas, ownState)
+                    .sendTo(channel);
+            sync.delta(sequence);
+        } else {
+            message(UPDATE_STATE_DELTA)
+                    .add(INTEGER_SERDE, sequence)
+                    .add(INTEGER_SERDE, StateSync.NO_BASE)
+                    .add(broadcast.publicStates, newState)
+                    .add(PLAYER_STATE_SERDE, ownState)
+                    .sendTo(channel);
+            sync.full(newState, ownState, sequence);
+        }
     }
 
     /**
@@ -141,11 +305,9 @@ public final class RemotePlayerProxy implements Player{
      */
     @Override
     public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
-        sendMessage(
-                String.join(
-                    SPACE,
-                    SET_INITIAL_TICKETS.name(),
-                    TICKET_BAG_SERDE.serialize(tickets)));
+        message(SET_INITIAL_TICKETS)
+                .add(TICKET_BAG_SERDE, tickets)
+                .sendTo(channel);
     }
 
     /**
@@ -155,8 +317,8 @@ public final class RemotePlayerProxy implements Player{
      */
     @Override
     public SortedBag<Ticket> chooseInitialTickets() {
-        sendMessage(CHOOSE_INITIAL_TICKETS.toString());
-        return TICKET_BAG_SERDE.deserialize(receiveMessage());
+        message(CHOOSE_INITIAL_TICKETS).sendTo(channel);
+        return receiveAnswer(TICKET_BAG_SERDE);
     }
 
     /**
@@ -166,8 +328,9 @@ public final class RemotePlayerProxy implements Player{
      */
     @Override
     public TurnKind nextTurn() {
-        sendMessage(NEXT_TURN.toString());
-        return TURN_KIND_SERDE.deserialize(receiveMessage());
+        ++turnCount;
+        message(NEXT_TURN).sendTo(channel);
+        return receiveAnswer(TURN_KIND_SERDE);
     }
 
     /**
@@ -178,12 +341,10 @@ public final class RemotePlayerProxy implements Player{
      */
     @Override
     public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
-        sendMessage(
-                String.join(
-                    SPACE,
-                    CHOOSE_TICKETS.name(),
-                    TICKET_BAG_SERDE.serialize(options)));
-        return TICKET_BAG_SERDE.deserialize(receiveMessage());
+        message(CHOOSE_TICKETS)
+                .add(TICKET_BAG_SERDE, options)
+                .sendTo(channel);
+        return receiveAnswer(TICKET_BAG_SERDE);
 
     }
 
@@ -195,8 +356,8 @@ public final class RemotePlayerProxy implements Player{
      */
     @Override
     public int drawSlot() {
-        sendMessage(DRAW_SLOT.toString());
-        return INTEGER_SERDE.deserialize(receiveMessage());
+        message(DRAW_SLOT).sendTo(channel);
+        return receiveAnswer(INTEGER_SERDE);
     }
 
     /**
@@ -206,8 +367,8 @@ public final class RemotePlayerProxy implements Player{
      */
     @Override
     public Route claimedRoute() {
-        sendMessage(ROUTE.toString());
-        return ROUTE_SERDE.deserialize(receiveMessage());
+        message(ROUTE).sendTo(channel);
+        return receiveAnswer(ROUTE_SERDE);
     }
 
     /**
@@ -217,8 +378,8 @@ public final class RemotePlayerProxy implements Player{
      */
     @Override
     public SortedBag<Card> initialClaimCards() {
-        sendMessage(CARDS.toString());
-        return CARD_BAG_SERDE.deserialize(receiveMessage());
+        message(CARDS).sendTo(channel);
+        return receiveAnswer(CARD_BAG_SERDE);
     }
 
     /**
@@ -229,11 +390,9 @@ public final class RemotePlayerProxy implements Player{
      */
     @Override
     public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
-        sendMessage(
-            String.join(
-                SPACE,
-                CHOOSE_ADDITIONAL_CARDS.name(),
-                CARD_BAG_LIST_SERDE.serialize(options)));
-        return CARD_BAG_SERDE.deserialize(receiveMessage());
+        message(CHOOSE_ADDITIONAL_CARDS)
+                .add(CARD_BAG_LIST_SERDE, options)
+                .sendTo(channel);
+        return receiveAnswer(CARD_BAG_SERDE);
     }
 }
@@ -3,6 +3,9 @@ package ch.epfl.tchu.net;
 
 import ch.epfl.tchu.SortedBag;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
@@ -11,7 +14,9 @@ import java.util.regex.Pattern;
 /**
  * Interface Serde represents an object that is able to (de)serialize values of a given type.
  * The serde are used to establish the communication between server and client by transforming
- * java values in ASCII string (serialization) or ASCII String in java values (deserialization)
+ * java values in ASCII string (serialization) or ASCII String in java values (deserialization).
+ * Each serde also has a binary form, used by the WireFormat.BINARY protocol, which by default is the length of the
+ * serialized text followed by the text itself, and which the serdes of Serdes replace with compact encodings
  *
  * @author Elija Dirren (310502)
  * @author Lorin Lieberherr (326858)
@@ -34,6 +39,28 @@ public interface Serde<T> {
      */
     T deserialize(String serializedText);
 
+    /**
+     * This method writes the binary form of the given value
+     *
+     * @param out   is the output on which the value is written
+     * @param value is the value to write
+     * @throws IOException if the value cannot be written
+     */
+    default void write(DataOutput out, T value) throws IOException {
+        WireIO.writeString(out, serialize(value));
+    }
+
+    /**
+     * This method reads a value written with write(...)
+     *
+     * @param in is the input from which the value is read
+     * @return the value read
+     * @throws IOException if the value cannot be read
+     */
+    default T read(DataInput in) throws IOException {
+        return deserialize(WireIO.readString(in));
+    }
+
     /**
      * Create a serde that corresponding to the arguments given in the method
      *
@@ -98,6 +125,30 @@ public interface Serde<T> {
             public T deserialize(String serializedText) {
                 return enumElements.get(Integer.parseInt(serializedText));
             }
+
+            /**
+             * This method writes the index of the type in the list of enumerated elements
+             *
+             * @param out   is the output on which the value is written
+             * @param value is the value to write
+             * @throws IOException if the value cannot be written
+             */
+            @Override
+            public void write(DataOutput out, T value) throws IOException {
+                WireIO.writeVarInt(out, enumElements.indexOf(value));
+            }
+
+            /**
+             * This method reads the index of a type in the list of enumerated elements
+             *
+             * @param in is the input from which the value is read
+             * @return the type that is at the index read
+             * @throws IOException if the value cannot be read
+             */
+            @Override
+            public T read(DataInput in) throws IOException {
+                return enumElements.get(WireIO.readVarInt(in));
+            }
         };
     }
 
@@ -150,6 +201,38 @@ public interface Serde<T> {
                 }
                 return deserializedList;
             }
+
+            /**
+             * This method writes the size of the list followed by each of its elements
+             *
+             * @param out  is the output on which the list is written
+             * @param list is the list to write
+             * @throws IOException if the list cannot be written
+             */
+            @Override
+            public void write(DataOutput out, List<T> list) throws IOException {
+                WireIO.writeVarInt(out, list.size());
+                for (T t : list) {
+                    serde.write(out, t);
+                }
+            }
+
+            /**
+             * This method reads a list written with write(...)
+             *
+             * @param in is the input from which the list is read
+             * @return the list read
+             * @throws IOException if the list cannot be read
+             */
+            @Override
+            public List<T> read(DataInput in) throws IOException {
+                int size = WireIO.readVarInt(in);
+                List<T> list = new ArrayList<>();
+                for (int i = 0; i < size; ++i) {
+                    list.add(serde.read(in));
+                }
+                return list;
+            }
         };
     }
 
@@ -203,6 +286,38 @@ public interface Serde<T> {
                 }
                 return SortedBag.of(deserializedList);
             }
+
+            /**
+             * This method writes the size of the sortedBag followed by each of its elements
+             *
+             * @param out       is the output on which the sortedBag is written
+             * @param sortedBag is the sortedBag to write
+             * @throws IOException if the sortedBag cannot be written
+             */
+            @Override
+            public void write(DataOutput out, SortedBag<T> sortedBag) throws IOException {
+                WireIO.writeVarInt(out, sortedBag.size());
+                for (T t : sortedBag) {
+                    serde.write(out, t);
+                }
+            }
+
+            /**
+             * This method reads a sortedBag written with write(...)
+             *
+             * @param in is the input from which the sortedBag is read
+             * @return the sortedBag read
+             * @throws IOException if the sortedBag cannot be read
+             */
+            @Override
+            public SortedBag<T> read(DataInput in) throws IOException {
+                int size = WireIO.readVarInt(in);
+                SortedBag.Builder<T> builder = new SortedBag.Builder<>();
+                for (int i = 0; i < size; ++i) {
+                    builder.add(serde.read(in));
+                }
+                return builder.build();
+            }
         };
     }
 }
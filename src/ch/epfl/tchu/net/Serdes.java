@@ -3,15 +3,21 @@ package ch.epfl.tchu.net;
 import ch.epfl.tchu.SortedBag;
 import ch.epfl.tchu.game.*;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
-import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
+import java.util.*;
 import java.util.regex.Pattern;
 
+import static ch.epfl.tchu.Preconditions.checkArgument;
+import static ch.epfl.tchu.game.Constants.FACE_UP_CARDS_COUNT;
+
 /**
- * Class Serde <T> creates all the Serdes that will be used for the interaction between the client and the server
+ * Class Serde <T> creates all the Serdes that will be used for the interaction between the client and the server.
+ * Besides their textual form, the serdes have a compact binary form: enumerated values are written as variable-length
+ * indices, lists of routes as bitsets of their indices in ChMap and bags of cards as the counts of each card, packed
+ * two per byte
  *
  * @author Elija Dirren (310502)
  * @author Lorin Lieberherr (326858)
@@ -22,21 +28,165 @@ public final class Serdes<T> {
     private final static String SEMICOLON_SEPARATOR = ";";
     private final static String COLON_SEPARATOR = ":";
     private final static String EMPTY_STRING = "";
+    private final static int MAX_PACKED_COUNT = 0xF; // Maximum count of a card in the binary form of a bag of cards
+    private final static List<Route> ROUTES = ChMap.routes(); // Routes, indexed by their index in ChMap
+    private final static Map<Route, Integer> ROUTE_INDICES = routeIndices(); // Index of each route of ChMap
 
     /**
      * Anonymous class for serializing / deserializing integers
      */
-    public final static Serde<Integer> INTEGER_SERDE = Serde.of(
-            i -> Integer.toString(i),
-            Integer::parseInt);
+    public final static Serde<Integer> INTEGER_SERDE = new Serde<>() {
+        /**
+         * This method serializes the given value
+         *
+         * @param type is the value to serialize
+         * @return the serialized string
+         */
+        @Override
+        public String serialize(Integer type) {
+            return Integer.toString(type);
+        }
+
+        /**
+         * This method deserializes the given string
+         *
+         * @param serializedText is the serialized text of the value
+         * @return the deserialized value
+         */
+        @Override
+        public Integer deserialize(String serializedText) {
+            return Integer.parseInt(serializedText);
+        }
+
+        /**
+         * Method which writes an integer in 1 to 5 bytes, the integers of small absolute value taking less bytes
+         *
+         * @param out   is the output on which the integer is written
+         * @param value is the integer to write
+         * @throws IOException if the integer cannot be written
+         */
+        @Override
+        public void write(DataOutput out, Integer value) throws IOException {
+            WireIO.writeVarInt(out, value << 1 ^ value >> 31); // Zigzag encoding: -1 is written as 1, 1 as 2, ...
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            int zigzag = WireIO.readVarInt(in);
+            return zigzag >>> 1 ^ -(zigzag & 1);
+        }
+    };
 
     /**
      * Anonymous class for serializing / deserializing strings
      */
-    public final static Serde<String> STRING_SERDE = Serde.of(
-            i -> Base64.getEncoder().encodeToString(i.getBytes(StandardCharsets.UTF_8)),
-            i -> new String(Base64.getDecoder().decode(i.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)
-    );
+    public final static Serde<String> STRING_SERDE = new Serde<>() {
+        /**
+         * This method serializes the given value
+         *
+         * @param type is the value to serialize
+         * @return the serialized string
+         */
+        @Override
+        public String serialize(String type) {
+            return Base64.getEncoder().encodeToString(type.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * This method deserializes the given string
+         *
+         * @param serializedText is the serialized text of the value
+         * @return the deserialized value
+         */
+        @Override
+        public String deserialize(String serializedText) {
+            return new String(Base64.getDecoder().decode(serializedText.getBytes(StandardCharsets.UTF_8)),
+                    StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Method which writes the length of the UTF-8 bytes of the string followed by the bytes, without Base64
+         *
+         * @param out   is the output on which the string is written
+         * @param value is the string to write
+         * @throws IOException if the string cannot be written
+         */
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            WireIO.writeString(out, value);
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public String read(DataInput in) throws IOException {
+            return WireIO.readString(in);
+        }
+    };
+
+    /**
+     * Anonymous class for serializing / deserializing message ids, by name in their textual form and by index in their
+     * binary form
+     */
+    public final static Serde<MessageId> MESSAGE_ID_SERDE = new Serde<>() {
+        /**
+         * This method serializes the given value
+         *
+         * @param type is the value to serialize
+         * @return the serialized string
+         */
+        @Override
+        public String serialize(MessageId type) {
+            return type.name();
+        }
+
+        /**
+         * This method deserializes the given string
+         *
+         * @param serializedText is the serialized text of the value
+         * @return the deserialized value
+         */
+        @Override
+        public MessageId deserialize(String serializedText) {
+            return MessageId.valueOf(serializedText);
+        }
+
+        /**
+         * This method writes the binary form of the given value
+         *
+         * @param out   is the output on which the value is written
+         * @param value is the value to write
+         * @throws IOException if the value cannot be written
+         */
+        @Override
+        public void write(DataOutput out, MessageId value) throws IOException {
+            WireIO.writeVarInt(out, value.ordinal());
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public MessageId read(DataInput in) throws IOException {
+            return MessageId.ALL.get(WireIO.readVarInt(in));
+        }
+    };
 
     /**
      * Anonymous class for serializing / deserializing player ids
@@ -76,12 +226,191 @@ public final class Serdes<T> {
     /**
      * Anonymous class for serializing / deserializing a list of routes
      */
-    public final static Serde<List<Route>> ROUTE_LIST_SERDE = Serde.listOf(ROUTE_SERDE, COMMA_SEPARATOR);
+    public final static Serde<List<Route>> ROUTE_LIST_SERDE = new Serde<>() {
+
+        private final Serde<List<Route>> textSerde = Serde.listOf(ROUTE_SERDE, COMMA_SEPARATOR); // Textual form
+
+        /**
+         * This method serializes the given value
+         *
+         * @param type is the value to serialize
+         * @return the serialized string
+         */
+        @Override
+        public String serialize(List<Route> type) {
+            return textSerde.serialize(type);
+        }
+
+        /**
+         * This method deserializes the given string
+         *
+         * @param serializedText is the serialized text of the value
+         * @return the deserialized value
+         */
+        @Override
+        public List<Route> deserialize(String serializedText) {
+            return textSerde.deserialize(serializedText);
+        }
+
+        /**
+         * Method which writes the list as the bitset of the indices of its routes in ChMap, without its trailing zero
+         * bytes, preceded by its number of bytes. The order of the routes in the list is not kept
+         *
+         * @param out   is the output on which the list is written
+         * @param value is the list of routes of ChMap to write
+         * @throws IOException if the list cannot be written
+         */
+        @Override
+        public void write(DataOutput out, List<Route> value) throws IOException {
+            BitSet indices = new BitSet(ROUTES.size());
+            for (Route route : value) {
+                Integer index = ROUTE_INDICES.get(route);
+                checkArgument(index != null);
+                indices.set(index);
+            }
+            byte[] bytes = indices.toByteArray();
+            WireIO.writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+
+        /**
+         * Method which reads a list written with write(...)
+         *
+         * @param in is the input from which the list is read
+         * @return the routes of the list, in the order of ChMap
+         * @throws IOException if the list cannot be read
+         */
+        @Override
+        public List<Route> read(DataInput in) throws IOException {
+            byte[] bytes = new byte[WireIO.readVarInt(in)];
+            in.readFully(bytes);
+            BitSet indices = BitSet.valueOf(bytes);
+            List<Route> routes = new ArrayList<>(indices.cardinality());
+            for (int i = indices.nextSetBit(0); i >= 0; i = indices.nextSetBit(i + 1)) {
+                checkArgument(i < ROUTES.size());
+                routes.add(ROUTES.get(i));
+            }
+            return routes;
+        }
+    };
 
     /**
      * Anonymous class for serializing / deserializing a sorted bag of cards
      */
-    public final static Serde<SortedBag<Card>> CARD_BAG_SERDE = Serde.bagOf(CARD_SERDE, COMMA_SEPARATOR);
+    public final static Serde<SortedBag<Card>> CARD_BAG_SERDE = new Serde<>() {
+
+        private final Serde<SortedBag<Card>> textSerde = Serde.bagOf(CARD_SERDE, COMMA_SEPARATOR); // Textual form
+
+        /**
+         * This method serializes the given value
+         *
+         * @param type is the value to serialize
+         * @return the serialized string
+         */
+        @Override
+        public String serialize(SortedBag<Card> type) {
+            return textSerde.serialize(type);
+        }
+
+        /**
+         * This method deserializes the given string
+         *
+         * @param serializedText is the serialized text of the value
+         * @return the deserialized value
+         */
+        @Override
+        public SortedBag<Card> deserialize(String serializedText) {
+            return textSerde.deserialize(serializedText);
+        }
+
+        /**
+         * This method writes the binary form of the given value
+         *
+         * @param out   is the output on which the value is written
+         * @param value is the value to write
+         * @throws IOException if the value cannot be written
+         */
+        @Override
+        public void write(DataOutput out, SortedBag<Card> value) throws IOException {
+            writeCardCounts(out, PackedCardBag.of(value));
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public SortedBag<Card> read(DataInput in) throws IOException {
+            return PackedCardBag.toSortedBag(readCardCounts(in));
+        }
+    };
+
+    /**
+     * Anonymous class for serializing / deserializing a bag of cards packed with PackedCardBag, with the same textual
+     * representation as CARD_BAG_SERDE
+     */
+    public final static Serde<Long> PACKED_CARD_BAG_SERDE = new Serde<>() {
+        /**
+         * This method serializes the given value
+         *
+         * @param bag is the value to serialize
+         * @return the serialized string
+         */
+        @Override
+        public String serialize(Long bag) {
+            StringJoiner serializedBag = new StringJoiner(COMMA_SEPARATOR);
+            for (Card card : Card.ALL) {
+                for (int i = 0; i < PackedCardBag.countOf(bag, card); ++i) {
+                    serializedBag.add(CARD_SERDE.serialize(card));
+                }
+            }
+            return serializedBag.toString();
+        }
+
+        /**
+         * This method deserializes the given string
+         *
+         * @param serializedBag is the serialized text of the value
+         * @return the deserialized value
+         */
+        @Override
+        public Long deserialize(String serializedBag) {
+            long bag = PackedCardBag.EMPTY;
+            if (!serializedBag.equals(EMPTY_STRING)) {
+                for (String serializedCard : serializedBag.split(Pattern.quote(COMMA_SEPARATOR), -1)) {
+                    bag = PackedCardBag.withAdded(bag, CARD_SERDE.deserialize(serializedCard));
+                }
+            }
+            return bag;
+        }
+
+        /**
+         * This method writes the binary form of the given value
+         *
+         * @param out   is the output on which the value is written
+         * @param bag   is the value to write
+         * @throws IOException if the value cannot be written
+         */
+        @Override
+        public void write(DataOutput out, Long bag) throws IOException {
+            writeCardCounts(out, bag);
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return readCardCounts(in);
+        }
+    };
 
     /**
      * Anonymous class for serializing / deserializing a sorted bag of tickets
@@ -129,6 +458,46 @@ public final class Serdes<T> {
                     INTEGER_SERDE.deserialize(stringWithoutSeparator[1]), // int deckSize
                     INTEGER_SERDE.deserialize(stringWithoutSeparator[2])); // int discardsSize
         }
+
+        /**
+         * Method which writes a public card state: the face-up cards two per byte, then the sizes of the deck and of
+         * the discard
+         *
+         * @param out   is the output on which the state is written
+         * @param value is the state to write
+         * @throws IOException if the state cannot be written
+         */
+        @Override
+        public void write(DataOutput out, PublicCardState value) throws IOException {
+            List<Card> faceUpCards = value.faceUpCards();
+            for (int i = 0; i < FACE_UP_CARDS_COUNT; i += 2) {
+                int high = faceUpCards.get(i).ordinal();
+                int low = i + 1 < FACE_UP_CARDS_COUNT ? faceUpCards.get(i + 1).ordinal() : 0;
+                out.writeByte(high << 4 | low);
+            }
+            WireIO.writeVarInt(out, value.deckSize());
+            WireIO.writeVarInt(out, value.discardsSize());
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public PublicCardState read(DataInput in) throws IOException {
+            List<Card> faceUpCards = new ArrayList<>(FACE_UP_CARDS_COUNT);
+            for (int i = 0; i < FACE_UP_CARDS_COUNT; i += 2) {
+                int pair = in.readUnsignedByte();
+                faceUpCards.add(Card.ALL.get(pair >>> 4));
+                if (i + 1 < FACE_UP_CARDS_COUNT) {
+                    faceUpCards.add(Card.ALL.get(pair & 0xF));
+                }
+            }
+            return new PublicCardState(faceUpCards, WireIO.readVarInt(in), WireIO.readVarInt(in));
+        }
     };
 
     /**
@@ -167,6 +536,32 @@ public final class Serdes<T> {
                     INTEGER_SERDE.deserialize(stringWithoutSeparator[1]), // int cardCount
                     ROUTE_LIST_SERDE.deserialize(stringWithoutSeparator[2])); // List<Route> routes
         }
+
+        /**
+         * This method writes the binary form of the given value
+         *
+         * @param out   is the output on which the value is written
+         * @param value is the value to write
+         * @throws IOException if the value cannot be written
+         */
+        @Override
+        public void write(DataOutput out, PublicPlayerState value) throws IOException {
+            WireIO.writeVarInt(out, value.ticketCount());
+            WireIO.writeVarInt(out, value.cardCount());
+            ROUTE_LIST_SERDE.write(out, value.routes());
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public PublicPlayerState read(DataInput in) throws IOException {
+            return new PublicPlayerState(WireIO.readVarInt(in), WireIO.readVarInt(in), ROUTE_LIST_SERDE.read(in));
+        }
     };
 
     /**
@@ -205,6 +600,35 @@ public final class Serdes<T> {
                     CARD_BAG_SERDE.deserialize(stringWithoutSeparator[1]), // SortedBag<Card> cards
                     ROUTE_LIST_SERDE.deserialize(stringWithoutSeparator[2])); // List<Route> route
         }
+
+        /**
+         * This method writes the binary form of the given value
+         *
+         * @param out   is the output on which the value is written
+         * @param value is the value to write
+         * @throws IOException if the value cannot be written
+         */
+        @Override
+        public void write(DataOutput out, PlayerState value) throws IOException {
+            TICKET_BAG_SERDE.write(out, value.tickets());
+            writeCardCounts(out, value.packedCards());
+            ROUTE_LIST_SERDE.write(out, value.routes());
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public PlayerState read(DataInput in) throws IOException {
+            return new PlayerState(
+                    TICKET_BAG_SERDE.read(in),
+                    PackedCardBag.toSortedBag(readCardCounts(in)),
+                    ROUTE_LIST_SERDE.read(in));
+        }
     };
 
     /**
@@ -257,6 +681,46 @@ public final class Serdes<T> {
                             ? null // if the index 5 is an empty string, it means that the lastPlayer is null
                             : PLAYER_ID_SERDE.deserialize(stringWithoutSeparator[5]));  // PlayerId lastPlayer
         }
+
+        /**
+         * Method which writes a public game state. The last player is written as 0 if it is not known yet, and as its
+         * ordinal plus one otherwise
+         *
+         * @param out   is the output on which the state is written
+         * @param value is the state to write
+         * @throws IOException if the state cannot be written
+         */
+        @Override
+        public void write(DataOutput out, PublicGameState value) throws IOException {
+            WireIO.writeVarInt(out, value.ticketsCount());
+            PUBLIC_CARD_STATE_SERDE.write(out, value.cardState());
+            PLAYER_ID_SERDE.write(out, value.currentPlayerId());
+            WireIO.writeVarInt(out, value.lastPlayer() == null ? 0 : value.lastPlayer().ordinal() + 1);
+            for (PlayerId playerId : PlayerId.ALL) {
+                PUBLIC_PLAYER_STATE_SERDE.write(out, value.playerState(playerId));
+            }
+        }
+
+        /**
+         * This method reads a value written with write(...)
+         *
+         * @param in is the input from which the value is read
+         * @return the value read
+         * @throws IOException if the value cannot be read
+         */
+        @Override
+        public PublicGameState read(DataInput in) throws IOException {
+            int ticketsCount = WireIO.readVarInt(in);
+            PublicCardState cardState = PUBLIC_CARD_STATE_SERDE.read(in);
+            PlayerId currentPlayerId = PLAYER_ID_SERDE.read(in);
+            int lastPlayer = WireIO.readVarInt(in);
+            Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+            for (PlayerId playerId : PlayerId.ALL) {
+                playerStates.put(playerId, PUBLIC_PLAYER_STATE_SERDE.read(in));
+            }
+            return new PublicGameState(ticketsCount, cardState, currentPlayerId, playerStates,
+                    lastPlayer == 0 ? null : PlayerId.ALL.get(lastPlayer - 1));
+        }
     };
 
     /**
@@ -264,5 +728,81 @@ public final class Serdes<T> {
      */
     private Serdes() {}
 
+    /**
+     * Internal method which writes the binary form of a bag of cards: the set of the kinds of cards it contains, as a
+     * mask of their ordinals, followed by the count of each of these kinds, two per byte
+     *
+     * @param out output
+     * @param bag packed bag of cards
+     * @throws IOException              if the bag cannot be written
+     * @throws IllegalArgumentException if the bag contains more than 15 cards of a kind
+     */
+    private static void writeCardCounts(DataOutput out, long bag) throws IOException {
+        int kinds = 0;
+        for (Card card : Card.ALL) {
+            if (PackedCardBag.countOf(bag, card) > 0) {
+                kinds |= 1 << card.ordinal();
+            }
+        }
+        WireIO.writeVarInt(out, kinds);
+        int pending = -1; // Count waiting for the second half of its byte
+        for (Card card : Card.ALL) {
+            int count = PackedCardBag.countOf(bag, card);
+            if (count > 0) {
+                checkArgument(count <= MAX_PACKED_COUNT);
+                if (pending < 0) {
+                    pending = count;
+                } else {
+                    out.writeByte(pending << 4 | count);
+                    pending = -1;
+                }
+            }
+        }
+        if (pending >= 0) {
+            out.writeByte(pending << 4);
+        }
+    }
+
+    /**
+     * Internal method which reads a bag of cards written with writeCardCounts(...)
+     *
+     * @param in input
+     * @return the packed bag of cards
+     * @throws IOException if the bag cannot be read
+     */
+    private static long readCardCounts(DataInput in) throws IOException {
+        int kinds = WireIO.readVarInt(in);
+        checkArgument(kinds >>> Card.COUNT == 0);
+        long bag = PackedCardBag.EMPTY;
+        int pair = -1; // Byte whose second half has not been read yet
+        for (Card card : Card.ALL) {
+            if ((kinds & 1 << card.ordinal()) != 0) {
+                int count;
+                if (pair < 0) {
+                    pair = in.readUnsignedByte();
+                    count = pair >>> 4;
+                } else {
+                    count = pair & MAX_PACKED_COUNT;
+                    pair = -1;
+                }
+                bag |= PackedCardBag.of(count, card);
+            }
+        }
+        return bag;
+    }
+
+    /**
+     * Internal method which indexes the routes of ChMap by identity
+     *
+     * @return map with route and index relationship
+     */
+    private static Map<Route, Integer> routeIndices() {
+        Map<Route, Integer> indices = new IdentityHashMap<>();
+        for (int i = 0; i < ROUTES.size(); ++i) {
+            indices.put(ROUTES.get(i), i);
+        }
+        return indices;
+    }
+
 }
 
@@ -0,0 +1,79 @@
+package ch.epfl.tchu.net;
+
+import java.io.*;
+import java.net.Socket;
+
+/**
+ * Class SocketMessageChannel is a message channel over a blocking socket, read and written through buffered streams
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+final class SocketMessageChannel implements MessageChannel {
+
+    private final OutputStream out; // Output of the socket
+    private final DataInputStream in; // Input of the socket
+
+    /**
+     * SocketMessageChannel constructor
+     *
+     * @param socket connected socket
+     * @throws UncheckedIOException if the streams of the socket cannot be opened
+     */
+    SocketMessageChannel(Socket socket) {
+        try {
+            out = new BufferedOutputStream(socket.getOutputStream());
+            in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void send(String message) {
+        write(WireIO.line(message));
+    }
+
+    @Override
+    public String receive() {
+        try {
+            return WireIO.readLine(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void sendFrame(byte[] payload) {
+        write(WireIO.frame(payload));
+    }
+
+    @Override
+    public byte[] receiveFrame() {
+        try {
+            return WireIO.readFrame(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void sendBatch(byte[] messages) {
+        write(messages);
+    }
+
+    /**
+     * Internal method which writes and flushes the given bytes
+     *
+     * @param bytes bytes of a line or of a frame
+     * @throws UncheckedIOException if the bytes cannot be written
+     */
+    private void write(byte[] bytes) {
+        try {
+            out.write(bytes);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,525 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+import static ch.epfl.tchu.game.Constants.FACE_UP_CARDS_COUNT;
+
+/**
+ * Class StateSync keeps, on each side of a connection using the delta mode of the binary format, the last states sent
+ * to the client, so that the proxy only sends the fields of the states which changed since then, and the client
+ * rebuilds the full states from them. Each state sent is numbered; a delta names the state it applies to, and every
+ * answer of the client acknowledges the last state it rebuilt. The proxy sends the full states instead of a delta
+ * periodically, when the client acknowledged another state than the last one sent (which is how the client asks for
+ * a resynchronization), and when a delta cannot express the change (e.g. a route lost by a player)
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+final class StateSync {
+
+    /**
+     * Maximum number of deltas sent between two full states
+     */
+    static final int RESYNC_PERIOD = 32;
+
+    /**
+     * Number of the state sent as a full state, i.e. without a state to apply it to
+     */
+    static final int NO_BASE = 0;
+
+    private static final int ROUTE_COUNT = ChMap.routes().size(); // Number of routes which can be sent
+
+    // Changed fields of a public game state
+    private static final int TICKETS_COUNT = 1;
+    private static final int FACE_UP_CARDS = 1 << 1;
+    private static final int DECK_SIZE = 1 << 2;
+    private static final int DISCARDS_SIZE = 1 << 3;
+    private static final int PLAYERS = 1 << 4;
+    private static final int FIRST_PLAYER_FIELD = 5;
+
+    // Changed fields of a public player state, shifted by FIRST_PLAYER_FIELD + 3 * ordinal of the player
+    private static final int PLAYER_TICKET_COUNT = 1;
+    private static final int PLAYER_CARD_COUNT = 1 << 1;
+    private static final int PLAYER_ROUTES = 1 << 2;
+    private static final int PLAYER_FIELDS = 3;
+
+    // Changed fields of an own player state
+    private static final int OWN_TICKETS = 1;
+    private static final int OWN_CARDS = 1 << 1;
+    private static final int OWN_ROUTES = 1 << 2;
+
+    private final BroadcastGroup broadcast; // Group sharing the public deltas written
+    private PublicGameState publicState; // Last public state sent or rebuilt, null before the first one
+    private PlayerState ownState; // Last own state sent or rebuilt, null before the first one
+    private int sequence = NO_BASE; // Number of the last state sent or rebuilt, NO_BASE if it is unknown
+    private int deltaCount; // Number of deltas sent since the last full state
+    private boolean resyncRequested; // True if the client acknowledged another state than the last one sent
+
+    /**
+     * Serde of the changes of the public game state, in binary form only. Writing a state writes its differences with
+     * the last public state and makes it the last one; reading applies the differences to the last public state
+     */
+    final Serde<PublicGameState> publicDeltas = new Serde<>() {
+        @Override
+        public String serialize(PublicGameState type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PublicGameState deserialize(String serializedText) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(DataOutput out, PublicGameState value) throws IOException {
+            out.write(broadcast.publicDelta(publicState, value));
+            publicState = value;
+        }
+
+        @Override
+        public PublicGameState read(DataInput in) throws IOException {
+            publicState = readPublicDelta(in);
+            return publicState;
+        }
+    };
+
+    /**
+     * Serde of the changes of the own player state, in binary form only. Writing a state writes its differences with
+     * the last own state and makes it the last one; reading applies the differences to the last own state
+     */
+    final Serde<PlayerState> ownDeltas = new Serde<>() {
+        @Override
+        public String serialize(PlayerState type) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public PlayerState deserialize(String serializedText) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void write(DataOutput out, PlayerState value) throws IOException {
+            writeOwnDelta(out, value);
+            ownState = value;
+        }
+
+        @Override
+        public PlayerState read(DataInput in) throws IOException {
+            ownState = readOwnDelta(in);
+            return ownState;
+        }
+    };
+
+    /**
+     * StateSync constructor, for a client or a proxy which does not share its deltas
+     */
+    StateSync() {
+        this(new BroadcastGroup());
+    }
+
+    /**
+     * StateSync constructor, for a proxy which shares the public deltas it writes with the other proxies of the group
+     *
+     * @param broadcast group of proxies of the game
+     */
+    StateSync(BroadcastGroup broadcast) {
+        this.broadcast = Objects.requireNonNull(broadcast);
+    }
+
+    /**
+     * Number of the last state sent or rebuilt getter
+     *
+     * @return int, NO_BASE if it is unknown
+     */
+    int sequence() {
+        return sequence;
+    }
+
+    /**
+     * Method used by the proxy, which returns true if the given states can be sent as a delta
+     *
+     * @param newState new public state
+     * @param newOwnState new own state
+     * @return boolean
+     */
+    boolean canSendDelta(PublicGameState newState, PlayerState newOwnState) {
+        if (publicState == null || resyncRequested || deltaCount >= RESYNC_PERIOD) {
+            return false;
+        }
+        for (PlayerId playerId : PlayerId.ALL) {
+            if (!keepsRoutes(publicState.playerState(playerId), newState.playerState(playerId))) {
+                return false;
+            }
+        }
+        return keepsRoutes(ownState, newOwnState);
+    }
+
+    /**
+     * Method called on both sides when full states are sent or received
+     *
+     * @param newState new public state
+     * @param newOwnState new own state
+     * @param newSequence number of the new states
+     */
+    void full(PublicGameState newState, PlayerState newOwnState, int newSequence) {
+        publicState = newState;
+        ownState = newOwnState;
+        sequence = newSequence;
+        deltaCount = 0;
+        resyncRequested = false;
+    }
+
+    /**
+     * Method called on both sides once a delta has been sent or received
+     *
+     * @param newSequence number of the new states
+     */
+    void delta(int newSequence) {
+        sequence = newSequence;
+        ++deltaCount;
+    }
+
+    /**
+     * Method used by the client, which returns true if a delta applying to the given state can be rebuilt. If not,
+     * the state of the client is unknown from then on, and its next acknowledgement asks for a resynchronization
+     *
+     * @param baseSequence number of the state to which the delta applies
+     * @return boolean
+     */
+    boolean canRebuild(int baseSequence) {
+        if (sequence == NO_BASE || baseSequence != sequence) {
+            sequence = NO_BASE;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method used by the proxy when the client acknowledges a state
+     *
+     * @param acknowledged number of the last state rebuilt by the client
+     */
+    void acknowledge(int acknowledged) {
+        if (acknowledged != sequence) {
+            resyncRequested = true;
+        }
+    }
+
+    /**
+     * Internal method which returns true if the new player state keeps every route of the old one, so that the
+     * routes can be sent as the routes claimed since then
+     *
+     * @param oldState old player state
+     * @param newState new player state
+     * @return boolean
+     */
+    private static boolean keepsRoutes(PublicPlayerState oldState, PublicPlayerState newState) {
+        for (Route route : oldState.routes()) {
+            if (!newState.routeSet().contains(route)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method which writes the fields of the public state which changed since the given one. It does not depend on the
+     * client, so that the delta can be shared by the proxies of a BroadcastGroup
+     *
+     * @param out      output
+     * @param oldState last public state sent
+     * @param newState new public state
+     * @throws IOException if the delta cannot be written
+     */
+    static void writePublicDelta(DataOutput out, PublicGameState oldState, PublicGameState newState)
+            throws IOException {
+        PublicCardState oldCards = oldState.cardState();
+        PublicCardState newCards = newState.cardState();
+        int faceUpSlots = 0;
+        for (int slot = 0; slot < FACE_UP_CARDS_COUNT; ++slot) {
+            if (oldCards.faceUpCard(slot) != newCards.faceUpCard(slot)) {
+                faceUpSlots |= 1 << slot;
+            }
+        }
+
+        int changes = 0;
+        if (oldState.ticketsCount() != newState.ticketsCount()) {
+            changes |= TICKETS_COUNT;
+        }
+        if (faceUpSlots != 0) {
+            changes |= FACE_UP_CARDS;
+        }
+        if (oldCards.deckSize() != newCards.deckSize()) {
+            changes |= DECK_SIZE;
+        }
+        if (oldCards.discardsSize() != newCards.discardsSize()) {
+            changes |= DISCARDS_SIZE;
+        }
+        if (oldState.currentPlayerId() != newState.currentPlayerId()
+                || oldState.lastPlayer() != newState.lastPlayer()) {
+            changes |= PLAYERS;
+        }
+        for (PlayerId playerId : PlayerId.ALL) {
+            PublicPlayerState oldPlayer = oldState.playerState(playerId);
+            PublicPlayerState newPlayer = newState.playerState(playerId);
+            int playerChanges = 0;
+            if (oldPlayer.ticketCount() != newPlayer.ticketCount()) {
+                playerChanges |= PLAYER_TICKET_COUNT;
+            }
+            if (oldPlayer.cardCount() != newPlayer.cardCount()) {
+                playerChanges |= PLAYER_CARD_COUNT;
+            }
+            if (oldPlayer.routes().size() != newPlayer.routes().size()) {
+                playerChanges |= PLAYER_ROUTES;
+            }
+            changes |= playerChanges << playerShift(playerId);
+        }
+
+        WireIO.writeVarInt(out, changes);
+        if ((changes & TICKETS_COUNT) != 0) {
+            WireIO.writeVarInt(out, newState.ticketsCount());
+        }
+        if ((changes & FACE_UP_CARDS) != 0) {
+            out.writeByte(faceUpSlots);
+            for (int slot = 0; slot < FACE_UP_CARDS_COUNT; ++slot) {
+                if ((faceUpSlots & 1 << slot) != 0) {
+                    out.writeByte(newCards.faceUpCard(slot).ordinal());
+                }
+            }
+        }
+        if ((changes & DECK_SIZE) != 0) {
+            WireIO.writeVarInt(out, newCards.deckSize());
+        }
+        if ((changes & DISCARDS_SIZE) != 0) {
+            WireIO.writeVarInt(out, newCards.discardsSize());
+        }
+        if ((changes & PLAYERS) != 0) {
+            out.writeByte(newState.currentPlayerId().ordinal());
+            out.writeByte(newState.lastPlayer() == null ? 0 : newState.lastPlayer().ordinal() + 1);
+        }
+        for (PlayerId playerId : PlayerId.ALL) {
+            int playerChanges = changes >>> playerShift(playerId);
+            PublicPlayerState newPlayer = newState.playerState(playerId);
+            if ((playerChanges & PLAYER_TICKET_COUNT) != 0) {
+                WireIO.writeVarInt(out, newPlayer.ticketCount());
+            }
+            if ((playerChanges & PLAYER_CARD_COUNT) != 0) {
+                WireIO.writeVarInt(out, newPlayer.cardCount());
+            }
+            if ((playerChanges & PLAYER_ROUTES) != 0) {
+                writeNewRoutes(out, oldState.playerState(playerId), newPlayer);
+            }
+        }
+    }
+
+    /**
+     * Internal method which applies the changes of the public state to the last one
+     *
+     * @param in input
+     * @return the new public state
+     * @throws IOException if the delta cannot be read
+     */
+    private PublicGameState readPublicDelta(DataInput in) throws IOException {
+        int changes = WireIO.readVarInt(in);
+        PublicCardState oldCards = publicState.cardState();
+
+        int ticketsCount = (changes & TICKETS_COUNT) != 0 ? WireIO.readVarInt(in) : publicState.ticketsCount();
+        List<Card> faceUpCards = oldCards.faceUpCards();
+        if ((changes & FACE_UP_CARDS) != 0) {
+            faceUpCards = new ArrayList<>(faceUpCards);
+            int faceUpSlots = in.readUnsignedByte();
+            for (int slot = 0; slot < FACE_UP_CARDS_COUNT; ++slot) {
+                if ((faceUpSlots & 1 << slot) != 0) {
+                    faceUpCards.set(slot, card(in.readUnsignedByte()));
+                }
+            }
+        }
+        int deckSize = (changes & DECK_SIZE) != 0 ? WireIO.readVarInt(in) : oldCards.deckSize();
+        int discardsSize = (changes & DISCARDS_SIZE) != 0 ? WireIO.readVarInt(in) : oldCards.discardsSize();
+        PlayerId currentPlayerId = publicState.currentPlayerId();
+        PlayerId lastPlayer = publicState.lastPlayer();
+        if ((changes & PLAYERS) != 0) {
+            currentPlayerId = playerId(in.readUnsignedByte());
+            int last = in.readUnsignedByte();
+            lastPlayer = last == 0 ? null : playerId(last - 1);
+        }
+
+        Map<PlayerId, PublicPlayerState> playerStates = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            int playerChanges = changes >>> playerShift(playerId);
+            PublicPlayerState oldPlayer = publicState.playerState(playerId);
+            if ((playerChanges & (PLAYER_TICKET_COUNT | PLAYER_CARD_COUNT | PLAYER_ROUTES)) == 0) {
+                playerStates.put(playerId, oldPlayer);
+                continue;
+            }
+            int ticketCount = (playerChanges & PLAYER_TICKET_COUNT) != 0 ? WireIO.readVarInt(in) : oldPlayer.ticketCount();
+            int cardCount = (playerChanges & PLAYER_CARD_COUNT) != 0 ? WireIO.readVarInt(in) : oldPlayer.cardCount();
+            List<Route> routes = (playerChanges & PLAYER_ROUTES) != 0 ? readNewRoutes(in, oldPlayer) : oldPlayer.routes();
+            playerStates.put(playerId, new PublicPlayerState(ticketCount, cardCount, routes));
+        }
+
+        return new PublicGameState(ticketsCount, new PublicCardState(faceUpCards, deckSize, discardsSize),
+                currentPlayerId, playerStates, lastPlayer);
+    }
+
+    /**
+     * Internal method which writes the fields of the own state which changed since the last one. The cards are
+     * written as the difference of the count of each kind of card which changed
+     *
+     * @param out         output
+     * @param newOwnState new own state
+     * @throws IOException if the delta cannot be written
+     */
+    private void writeOwnDelta(DataOutput out, PlayerState newOwnState) throws IOException {
+        long oldCards = ownState.packedCards();
+        long newCards = newOwnState.packedCards();
+        int changedKinds = 0;
+        for (Card card : Card.ALL) {
+            if (PackedCardBag.countOf(oldCards, card) != PackedCardBag.countOf(newCards, card)) {
+                changedKinds |= 1 << card.ordinal();
+            }
+        }
+
+        int changes = 0;
+        if (!ownState.tickets().equals(newOwnState.tickets())) {
+            changes |= OWN_TICKETS;
+        }
+        if (changedKinds != 0) {
+            changes |= OWN_CARDS;
+        }
+        if (ownState.routes().size() != newOwnState.routes().size()) {
+            changes |= OWN_ROUTES;
+        }
+
+        out.writeByte(changes);
+        if ((changes & OWN_TICKETS) != 0) {
+            Serdes.TICKET_BAG_SERDE.write(out, newOwnState.tickets());
+        }
+        if ((changes & OWN_CARDS) != 0) {
+            WireIO.writeVarInt(out, changedKinds);
+            for (Card card : Card.ALL) {
+                if ((changedKinds & 1 << card.ordinal()) != 0) {
+                    int difference = PackedCardBag.countOf(newCards, card) - PackedCardBag.countOf(oldCards, card);
+                    Serdes.INTEGER_SERDE.write(out, difference);
+                }
+            }
+        }
+        if ((changes & OWN_ROUTES) != 0) {
+            writeNewRoutes(out, ownState, newOwnState);
+        }
+    }
+
+    /**
+     * Internal method which applies the changes of the own state to the last one
+     *
+     * @param in input
+     * @return the new own state
+     * @throws IOException if the delta cannot be read
+     */
+    private PlayerState readOwnDelta(DataInput in) throws IOException {
+        int changes = in.readUnsignedByte();
+        SortedBag<Ticket> tickets = (changes & OWN_TICKETS) != 0 ? Serdes.TICKET_BAG_SERDE.read(in) : ownState.tickets();
+        SortedBag<Card> cards = ownState.cards();
+        if ((changes & OWN_CARDS) != 0) {
+            int changedKinds = WireIO.readVarInt(in);
+            SortedBag.Builder<Card> builder = new SortedBag.Builder<>();
+            for (Card card : Card.ALL) {
+                int count = cards.countOf(card);
+                if ((changedKinds & 1 << card.ordinal()) != 0) {
+                    count += Serdes.INTEGER_SERDE.read(in);
+                    checkArgument(count >= 0);
+                }
+                builder.add(count, card);
+            }
+            cards = builder.build();
+        }
+        List<Route> routes = (changes & OWN_ROUTES) != 0 ? readNewRoutes(in, ownState) : ownState.routes();
+        return new PlayerState(tickets, cards, routes);
+    }
+
+    /**
+     * Internal method which writes the routes of the new player state which the old one does not have
+     *
+     * @param out      output
+     * @param oldState old player state
+     * @param newState new player state, which keeps every route of the old one
+     * @throws IOException if the routes cannot be written
+     */
+    private static void writeNewRoutes(DataOutput out, PublicPlayerState oldState, PublicPlayerState newState)
+            throws IOException {
+        WireIO.writeVarInt(out, newState.routes().size() - oldState.routes().size());
+        for (Route route : newState.routes()) {
+            if (!oldState.routeSet().contains(route)) {
+                int index = RouteSet.indexOf(route);
+                checkArgument(index < ROUTE_COUNT);
+                WireIO.writeVarInt(out, index);
+            }
+        }
+    }
+
+    /**
+     * Internal method which reads the routes written by writeNewRoutes(...)
+     *
+     * @param in       input
+     * @param oldState old player state
+     * @return the routes of the old state followed by the new ones
+     * @throws IOException if the routes cannot be read
+     */
+    private static List<Route> readNewRoutes(DataInput in, PublicPlayerState oldState) throws IOException {
+        int count = WireIO.readVarInt(in);
+        List<Route> routes = new ArrayList<>(oldState.routes());
+        for (int i = 0; i < count; ++i) {
+            int index = WireIO.readVarInt(in);
+            checkArgument(index < ROUTE_COUNT);
+            routes.add(RouteSet.routeAt(index));
+        }
+        return routes;
+    }
+
+    /**
+     * Internal method which returns the position of the changed fields of the given player in the changes of a
+     * public state
+     *
+     * @param playerId player id
+     * @return int
+     */
+    private static int playerShift(PlayerId playerId) {
+        return FIRST_PLAYER_FIELD + PLAYER_FIELDS * playerId.ordinal();
+    }
+
+    /**
+     * Internal method which returns the player id of the given ordinal
+     *
+     * @param ordinal ordinal
+     * @return PlayerId
+     * @throws IllegalArgumentException if the ordinal is invalid
+     */
+    private static PlayerId playerId(int ordinal) {
+        checkArgument(ordinal < PlayerId.COUNT);
+        return PlayerId.ALL.get(ordinal);
+    }
+
+    /**
+     * Internal method which returns the card of the given ordinal
+     *
+     * @param ordinal ordinal
+     * @return Card
+     * @throws IllegalArgumentException if the ordinal is invalid
+     */
+    private static Card card(int ordinal) {
+        checkArgument(ordinal < Card.COUNT);
+        return Card.ALL.get(ordinal);
+    }
+}
@@ -0,0 +1,21 @@
+package ch.epfl.tchu.net;
+
+/**
+ * Enumeration WireFormat represents the formats in which the messages of the tCHu protocol can be carried. TEXT is the
+ * original format, one ASCII line per message built with the textual form of the Serdes. BINARY sends each message in
+ * a frame prefixed by its length, built with the compact binary form of the Serdes. A connection always starts in TEXT,
+ * and switches to BINARY only if the proxy offers it and the client accepts it. Since version 2 of the binary format,
+ * the states are sent as deltas (see StateSync), and every answer of the client starts with the number of the last
+ * state it received
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public enum WireFormat {
+
+    TEXT,
+    BINARY;
+
+    static final int BINARY_VERSION = 2; // Latest version of the binary format, offered by the proxies when they connect
+    static final int DELTA_VERSION = 2; // First version of the binary format sending the states as deltas
+}
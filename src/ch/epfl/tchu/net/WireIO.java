@@ -0,0 +1,173 @@
+package ch.epfl.tchu.net;
+
+import java.io.*;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Class WireIO contains the static methods shared by the message channels and the serdes to write and read lines,
+ * frames and variable-length integers. A line is an ASCII message ended by a line feed, a frame is a binary message
+ * prefixed by its length. Variable-length integers are written 7 bits per byte, from the least significant ones, the
+ * high bit of each byte telling whether another byte follows
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+final class WireIO {
+
+    private static final int RETURN_SYMBOL = '\n'; // End of a line
+    private static final int MAX_VARINT_SIZE = 5; // Maximum number of bytes of a variable-length int
+
+    /**
+     * Private constructor, the class is not instantiable
+     */
+    private WireIO() {}
+
+    /**
+     * Method which encodes a message as a line
+     *
+     * @param message message, without its end of line
+     * @return the bytes of the line
+     */
+    static byte[] line(String message) {
+        byte[] encoded = message.getBytes(US_ASCII);
+        byte[] line = Arrays.copyOf(encoded, encoded.length + 1);
+        line[encoded.length] = RETURN_SYMBOL;
+        return line;
+    }
+
+    /**
+     * Method which encodes a message as a frame
+     *
+     * @param payload message
+     * @return the bytes of the frame, i.e. the length of the message followed by the message
+     */
+    static byte[] frame(byte[] payload) {
+        int headerSize = 1;
+        for (int length = payload.length >>> 7; length != 0; length >>>= 7) {
+            ++headerSize;
+        }
+        byte[] frame = new byte[headerSize + payload.length];
+        int length = payload.length;
+        for (int i = 0; i < headerSize - 1; ++i) {
+            frame[i] = (byte) (length & 0x7F | 0x80);
+            length >>>= 7;
+        }
+        frame[headerSize - 1] = (byte) length;
+        System.arraycopy(payload, 0, frame, headerSize, payload.length);
+        return frame;
+    }
+
+    /**
+     * Method which reads the next line
+     *
+     * @param in input
+     * @return the message, without its end of line
+     * @throws EOFException if the input ends before the end of the line
+     * @throws IOException  if the line cannot be read
+     */
+    static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != RETURN_SYMBOL) {
+            if (b < 0) {
+                throw new EOFException();
+            }
+            line.append((char) b);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Method which reads the next frame
+     *
+     * @param in input
+     * @return the message of the frame
+     * @throws EOFException if the input ends before the end of the frame
+     * @throws IOException  if the frame cannot be read
+     */
+    static byte[] readFrame(DataInputStream in) throws IOException {
+        byte[] payload = new byte[readLength(in)];
+        in.readFully(payload);
+        return payload;
+    }
+
+    /**
+     * Method which writes a non-negative int in 1 to 5 bytes, small values taking less bytes
+     *
+     * @param out   output
+     * @param value value, interpreted as unsigned
+     * @throws IOException if the value cannot be written
+     */
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Method which reads an int written with writeVarInt(...)
+     *
+     * @param in input
+     * @return the value
+     * @throws StreamCorruptedException if the value is longer than 5 bytes
+     * @throws IOException              if the value cannot be read
+     */
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int i = 0; i < MAX_VARINT_SIZE; ++i) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << (7 * i);
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException();
+    }
+
+    /**
+     * Internal method which reads the length of a frame or of a string
+     *
+     * @param in input
+     * @return the length
+     * @throws StreamCorruptedException if the length is negative
+     * @throws IOException              if the length cannot be read
+     */
+    private static int readLength(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length < 0) {
+            throw new StreamCorruptedException();
+        }
+        return length;
+    }
+
+    /**
+     * Method which writes a string as its length followed by its UTF-8 bytes
+     *
+     * @param out    output
+     * @param string string
+     * @throws IOException if the string cannot be written
+     */
+    static void writeString(DataOutput out, String string) throws IOException {
+        byte[] bytes = string.getBytes(UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Method which reads a string written with writeString(...)
+     *
+     * @param in input
+     * @return the string
+     * @throws IOException if the string cannot be read
+     */
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readLength(in)];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,167 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.game.PlayerState;
+
+import java.util.Map;
+import java.util.Objects;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+import static ch.epfl.tchu.game.Constants.LONGEST_TRAIL_BONUS_POINTS;
+
+/**
+ * Class GameResult represents the outcome of a simulated game (winner, final points, longest trails and number of turns)
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class GameResult {
+
+    /**
+     * Game index of the results of the games which were not played by a simulation
+     */
+    public static final int NO_GAME_INDEX = -1;
+
+    private final int[] points; // Final points of each player, indexed by player id ordinal
+    private final int[] longestTrailLengths; // Length of the longest trail of each player, indexed by player id ordinal
+    private final int turns; // Number of turns played
+    private final PlayerId winner; // Winner of the game, null if the game ended with a draw
+    private final int gameIndex; // Index of the game in its simulation, NO_GAME_INDEX if it was not simulated
+
+    /**
+     * Private game result constructor, the results are computed with the method of(...)
+     *
+     * @param points              final points of each player
+     * @param longestTrailLengths length of the longest trail of each player
+     * @param turns               number of turns played
+     * @param gameIndex           index of the game in its simulation
+     */
+    private GameResult(int[] points, int[] longestTrailLengths, int turns, int gameIndex) {
+        this.points = points;
+        this.longestTrailLengths = longestTrailLengths;
+        this.turns = turns;
+        this.winner = computeWinner(points);
+        this.gameIndex = gameIndex;
+    }
+
+    /**
+     * Method which computes the result of a game from the final state of each player, the same way as Game.play
+     * does it (the players with the longest trail get the bonus)
+     *
+     * @param finalStates final player state of each player
+     * @param turns       number of turns played
+     * @return GameResult
+     * @throws IllegalArgumentException if there is not a final state for each player or if turns is negative
+     */
+    public static GameResult of(Map<PlayerId, PlayerState> finalStates, int turns) {
+        checkArgument(finalStates.size() == PlayerId.COUNT);
+        checkArgument(turns >= 0);
+
+        int[] points = new int[PlayerId.COUNT];
+        int[] longestTrailLengths = new int[PlayerId.COUNT];
+        int maxTrailLength = 0;
+
+        for (PlayerId playerId : PlayerId.ALL) {
+            PlayerState state = Objects.requireNonNull(finalStates.get(playerId));
+            points[playerId.ordinal()] = state.finalPoints();
+            longestTrailLengths[playerId.ordinal()] = state.longestTrailLength();
+            maxTrailLength = Math.max(maxTrailLength, longestTrailLengths[playerId.ordinal()]);
+        }
+
+        for (PlayerId playerId : PlayerId.ALL) {
+            if (longestTrailLengths[playerId.ordinal()] == maxTrailLength) {
+                points[playerId.ordinal()] += LONGEST_TRAIL_BONUS_POINTS;
+            }
+        }
+        return new GameResult(points, longestTrailLengths, turns, NO_GAME_INDEX);
+    }
+
+    /**
+     * Method which returns the same result, for the game of the given index of a simulation
+     *
+     * @param gameIndex index of the game in its simulation
+     * @return GameResult
+     * @throws IllegalArgumentException if the index is negative
+     */
+    GameResult withGameIndex(int gameIndex) {
+        checkArgument(gameIndex >= 0);
+        return new GameResult(points, longestTrailLengths, turns, gameIndex);
+    }
+
+    /**
+     * Internal method which determines the winner of the game
+     *
+     * @param points final points of each player
+     * @return the player with the most points, null if several players have the maximum of points
+     */
+    private static PlayerId computeWinner(int[] points) {
+        PlayerId winner = null;
+        int maxPoints = Integer.MIN_VALUE;
+        for (PlayerId playerId : PlayerId.ALL) {
+            int playerPoints = points[playerId.ordinal()];
+            if (playerPoints > maxPoints) {
+                maxPoints = playerPoints;
+                winner = playerId;
+            } else if (playerPoints == maxPoints) {
+                winner = null;
+            }
+        }
+        return winner;
+    }
+
+    /**
+     * Final points getter for the given player
+     *
+     * @param playerId player id
+     * @return int
+     */
+    public int points(PlayerId playerId) {
+        return points[playerId.ordinal()];
+    }
+
+    /**
+     * Longest trail length getter for the given player
+     *
+     * @param playerId player id
+     * @return int
+     */
+    public int longestTrailLength(PlayerId playerId) {
+        return longestTrailLengths[playerId.ordinal()];
+    }
+
+    /**
+     * Game index getter, which is the index to give to Simulator.replay(...) to play the game again
+     *
+     * @return the index of the game in its simulation, NO_GAME_INDEX if it was not played by a simulation
+     */
+    public int gameIndex() {
+        return gameIndex;
+    }
+
+    /**
+     * Turn count getter
+     *
+     * @return int
+     */
+    public int turns() {
+        return turns;
+    }
+
+    /**
+     * Winner getter
+     *
+     * @return the id of the winner, null if the game ended with a draw
+     */
+    public PlayerId winner() {
+        return winner;
+    }
+
+    /**
+     * Method which returns true if the game ended with a draw
+     *
+     * @return boolean
+     */
+    public boolean isDraw() {
+        return winner == null;
+    }
+}
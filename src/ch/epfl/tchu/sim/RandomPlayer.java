@@ -0,0 +1,214 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.game.Constants.*;
+
+/**
+ * Class RandomPlayer represents an in-process player (bot) which plays random but legal moves.
+ * It is used to simulate complete games without any graphical interface or network connection
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class RandomPlayer implements Player {
+
+    private final Random rng; // Random generator used to take the decisions
+    private PublicGameState gameState; // Last public game state received
+    private PlayerState ownState; // Last own player state received
+    private SortedBag<Ticket> initialTickets; // Tickets distributed at the beginning of the game
+    private Route routeToClaim; // Route chosen during the last call to nextTurn
+    private SortedBag<Card> initialClaimCards; // Cards chosen during the last call to nextTurn
+
+    private static final int CLAIM_ODDS = 4; // The player claims a route 3 times out of 4 when it can
+    private static final int MIN_INITIAL_TICKETS = 3; // Minimum number of initial tickets to keep
+
+    /**
+     * Random player constructor
+     *
+     * @param rng random generator used by the player to take its decisions
+     */
+    public RandomPlayer(Random rng) {
+        this.rng = rng;
+    }
+
+    /**
+     * Nothing to do: the random player does not care about its own id nor about the names
+     *
+     * @param ownId       own player id
+     * @param playerNames map with player id and player name string relationship
+     */
+    @Override
+    public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {}
+
+    /**
+     * Nothing to do: the random player ignores the information messages
+     *
+     * @param info information string
+     */
+    @Override
+    public void receiveInfo(String info) {}
+
+    /**
+     * Stores the new states, which are used to take the next decisions
+     *
+     * @param newState new public game state
+     * @param ownState new own player state
+     */
+    @Override
+    public void updateState(PublicGameState newState, PlayerState ownState) {
+        this.gameState = newState;
+        this.ownState = ownState;
+    }
+
+    /**
+     * Stores the tickets distributed at the beginning of the game
+     *
+     * @param tickets ticket options
+     */
+    @Override
+    public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+        initialTickets = tickets;
+    }
+
+    /**
+     * Keeps a random number (at least 3) of the initial tickets
+     *
+     * @return sorted bag of tickets
+     */
+    @Override
+    public SortedBag<Ticket> chooseInitialTickets() {
+        return randomSubset(initialTickets, MIN_INITIAL_TICKETS);
+    }
+
+    /**
+     * Chooses the action of the turn: claims a random claimable route most of the time, and draws cards
+     * (or tickets if no card can be drawn) otherwise
+     *
+     * @return turn kind
+     */
+    @Override
+    public TurnKind nextTurn() {
+        List<Route> claimableRoutes = claimableRoutes();
+        boolean canDrawTickets = gameState.ticketsCount() >= IN_GAME_TICKETS_COUNT;
+
+        if (!claimableRoutes.isEmpty() && (rng.nextInt(CLAIM_ODDS) != 0 || !gameState.canDrawCards())) {
+            routeToClaim = claimableRoutes.get(rng.nextInt(claimableRoutes.size()));
+            List<SortedBag<Card>> options = ownState.possibleClaimCards(routeToClaim);
+            initialClaimCards = options.get(rng.nextInt(options.size()));
+            return TurnKind.CLAIM_ROUTE;
+        }
+
+        return gameState.canDrawCards() || !canDrawTickets ? TurnKind.DRAW_CARDS : TurnKind.DRAW_TICKETS;
+    }
+
+    /**
+     * Keeps a random number (at least 1) of the drawn tickets
+     *
+     * @param options ticket bag options
+     * @return ticket bag containing the players' choice
+     */
+    @Override
+    public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+        return randomSubset(options, 1);
+    }
+
+    /**
+     * Draws either from the deck or from a random face up slot
+     *
+     * @return slot id int
+     */
+    @Override
+    public int drawSlot() {
+        return rng.nextInt(FACE_UP_CARDS_COUNT + 1) - 1;
+    }
+
+    /**
+     * Route getter, the route is chosen when the turn kind is chosen
+     *
+     * @return chosen route
+     */
+    @Override
+    public Route claimedRoute() {
+        return routeToClaim;
+    }
+
+    /**
+     * Claim cards getter, the cards are chosen when the turn kind is chosen
+     *
+     * @return sorted bag of cards
+     */
+    @Override
+    public SortedBag<Card> initialClaimCards() {
+        return initialClaimCards;
+    }
+
+    /**
+     * Chooses a random option among the given ones
+     *
+     * @param options options given to the player
+     * @return sorted bag of cards, chosen by the player
+     */
+    @Override
+    public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+        return options.get(rng.nextInt(options.size()));
+    }
+
+    /**
+     * Internal method which computes the routes that the player can claim, i.e. the routes that are not claimed
+     * yet, whose double route is not claimed either and for which the player has the necessary cards and cars
+     *
+     * @return <pre>List<Route></pre>
+     */
+    private List<Route> claimableRoutes() {
+        List<Route> claimedRoutes = gameState.claimedRoutes();
+        List<Route> claimableRoutes = new ArrayList<>();
+
+        for (Route route : ChMap.routes()) {
+            boolean claimedInGroup = false;
+            for (Route claimedRoute : claimedRoutes) {
+                if (sameStations(route, claimedRoute)) {
+                    claimedInGroup = true;
+                    break;
+                }
+            }
+            if (!claimedInGroup && ownState.canClaimRoute(route)) {
+                claimableRoutes.add(route);
+            }
+        }
+        return claimableRoutes;
+    }
+
+    /**
+     * Internal method which returns true if both routes connect the same stations
+     *
+     * @param r1 first route
+     * @param r2 second route
+     * @return boolean
+     */
+    private static boolean sameStations(Route r1, Route r2) {
+        return (r1.station1() == r2.station1() && r1.station2() == r2.station2())
+                || (r1.station1() == r2.station2() && r1.station2() == r2.station1());
+    }
+
+    /**
+     * Internal method which returns a random subset of the given tickets
+     *
+     * @param tickets tickets to choose from
+     * @param minSize minimum size of the subset
+     * @return sorted bag of tickets
+     */
+    private SortedBag<Ticket> randomSubset(SortedBag<Ticket> tickets, int minSize) {
+        List<Ticket> shuffledTickets = new ArrayList<>(tickets.toList());
+        Collections.shuffle(shuffledTickets, rng);
+        int size = minSize + rng.nextInt(tickets.size() - minSize + 1);
+        return SortedBag.of(shuffledTickets.subList(0, size));
+    }
+}
@@ -0,0 +1,391 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static ch.epfl.tchu.Preconditions.checkArgument;
+
+/**
+ * Class Simulator runs complete games headlessly (without graphical interface nor network) with in-process players,
+ * in parallel on a fixed pool of worker threads, and gathers the result of every game
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class Simulator {
+
+    private static final int DEFAULT_GAME_COUNT = 1_000; // Number of games simulated if none is given
+    private static final long DEFAULT_SEED = 2021; // Seed used if none is given
+    private static final double NANOS_PER_SECOND = 1e9; // Number of nanoseconds in a second
+
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets()); // Tickets used for every game
+    private static final Map<PlayerId, String> PLAYER_NAMES = computePlayerNames(); // Names given to the simulated players
+
+    /**
+     * private constructor without parameters to make this class non instantiable
+     */
+    private Simulator() {}
+
+    /**
+     * Main method, which simulates games between random players and prints a summary of the results
+     *
+     * @param args optional arguments: number of games, number of threads and seed (in this order)
+     * @throws InterruptedException if the main thread is interrupted while waiting for the simulation
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int gameCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_GAME_COUNT;
+        int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+
+        Report report = run(gameCount, threadCount, seed, RandomPlayer::new);
+        System.out.println(report);
+        if (report.firstFailure() != null) {
+            report.firstFailure().printStackTrace();
+        }
+    }
+
+    /**
+     * Method which simulates the given number of games on the given number of threads. Each game is played with its
+     * own random generator, derived from the seed and the index of the game (see SplitRandom), so that the results do
+     * not depend on the number of threads and any game can be replayed with the method replay(...)
+     *
+     * @param gameCount   number of games to simulate
+     * @param threadCount number of worker threads
+     * @param seed        seed from which the random generators of the games are derived
+     * @param playerFactory function creating an in-process player from its own random generator
+     * @return the report of the simulation
+     * @throws IllegalArgumentException if the number of games is negative or the number of threads is not positive
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the simulation
+     */
+    public static Report run(int gameCount, int threadCount, long seed, Function<Random, Player> playerFactory)
+            throws InterruptedException {
+        checkArgument(gameCount >= 0);
+        checkArgument(threadCount > 0);
+
+        GameResult[] results = new GameResult[gameCount];
+        RuntimeException[] failures = new RuntimeException[gameCount];
+        AtomicInteger nextGame = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        long start = System.nanoTime();
+
+        // Each worker takes the next game to play until all of them have been played
+        for (int i = 0; i < threadCount; ++i) {
+            executor.execute(() -> {
+                for (int game = nextGame.getAndIncrement(); game < gameCount; game = nextGame.getAndIncrement()) {
+                    try {
+                        results[game] = replay(seed, game, playerFactory);
+                    } catch (RuntimeException e) {
+                        failures[game] = e;
+                    }
+                }
+            });
+        }
+
+        executor.shutdown();
+        while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+            // Wait until every game has been played
+        }
+
+        // The arrays are read once every worker has terminated, which makes their writes visible
+        List<GameResult> playedGames = new ArrayList<>(gameCount);
+        int failedGames = 0;
+        int firstFailedGame = GameResult.NO_GAME_INDEX;
+        for (int game = 0; game < gameCount; ++game) {
+            if (results[game] != null) {
+                playedGames.add(results[game]);
+            } else {
+                ++failedGames;
+                if (firstFailedGame == GameResult.NO_GAME_INDEX) {
+                    firstFailedGame = game;
+                }
+            }
+        }
+        RuntimeException firstFailure = firstFailedGame == GameResult.NO_GAME_INDEX ? null : failures[firstFailedGame];
+        return new Report(playedGames, failedGames, firstFailedGame, firstFailure, System.nanoTime() - start);
+    }
+
+    /**
+     * Method which plays again the game of the given index of a simulation, exactly as it was played by run(...)
+     *
+     * @param seed          seed of the simulation
+     * @param gameIndex     index of the game in the simulation
+     * @param playerFactory function creating an in-process player from its own random generator
+     * @return the result of the game, whose game index is the given one
+     * @throws IllegalArgumentException if the game index is negative
+     */
+    public static GameResult replay(long seed, int gameIndex, Function<Random, Player> playerFactory) {
+        checkArgument(gameIndex >= 0);
+        return playGame(SplitRandom.forGame(seed, gameIndex), playerFactory).withGameIndex(gameIndex);
+    }
+
+    /**
+     * Method which plays a single game between two in-process players and returns its result. The generators of the
+     * players are split from the one of the game if it is a SplitRandom, and seeded from it otherwise
+     *
+     * @param rng           random generator of the game
+     * @param playerFactory function creating an in-process player from its own random generator
+     * @return the result of the game
+     */
+    public static GameResult playGame(Random rng, Function<Random, Player> playerFactory) {
+        Map<PlayerId, Recorder> recorders = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            Random playerRng = rng instanceof SplitRandom ? ((SplitRandom) rng).split() : new Random(rng.nextLong());
+            recorders.put(playerId, new Recorder(playerFactory.apply(playerRng)));
+        }
+
+        Game.play(Collections.unmodifiableMap(recorders), PLAYER_NAMES, TICKETS, rng);
+
+        Map<PlayerId, PlayerState> finalStates = new EnumMap<>(PlayerId.class);
+        int turns = 0;
+        for (PlayerId playerId : PlayerId.ALL) {
+            finalStates.put(playerId, recorders.get(playerId).lastOwnState);
+            turns += recorders.get(playerId).turns;
+        }
+        return GameResult.of(finalStates, turns);
+    }
+
+    /**
+     * Internal method which computes the names of the simulated players
+     *
+     * @return map with player id and player name string relationship
+     */
+    private static Map<PlayerId, String> computePlayerNames() {
+        Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+        for (PlayerId playerId : PlayerId.ALL) {
+            names.put(playerId, playerId.name());
+        }
+        return Collections.unmodifiableMap(names);
+    }
+
+    /**
+     * Class Report represents the results of a simulation
+     */
+    public static final class Report {
+
+        private final List<GameResult> results; // Results of the games that have been played until the end
+        private final int failedGames; // Number of games that have been interrupted by an exception
+        private final int firstFailedGame; // Index of the first game interrupted, NO_GAME_INDEX if there is none
+        private final RuntimeException firstFailure; // Exception which interrupted it, null if there is none
+        private final long elapsedNanos; // Duration of the simulation
+
+        /**
+         * Report constructor
+         *
+         * @param results         results of the games that have been played until the end
+         * @param failedGames     number of games that have been interrupted by an exception
+         * @param firstFailedGame index of the first game interrupted by an exception
+         * @param firstFailure    exception which interrupted it
+         * @param elapsedNanos    duration of the simulation, in nanoseconds
+         */
+        private Report(List<GameResult> results, int failedGames, int firstFailedGame,
+                       RuntimeException firstFailure, long elapsedNanos) {
+            this.results = List.copyOf(results);
+            this.failedGames = failedGames;
+            this.firstFailedGame = firstFailedGame;
+            this.firstFailure = firstFailure;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Results getter, the results are ordered by game index. The failed games have no result, so the game index
+         * of a result is given by GameResult.gameIndex(), which can differ from its position in the list
+         *
+         * @return <pre>List<GameResult></pre>
+         */
+        public List<GameResult> results() {
+            return results;
+        }
+
+        /**
+         * Failed games count getter
+         *
+         * @return int
+         */
+        public int failedGames() {
+            return failedGames;
+        }
+
+        /**
+         * First failed game getter
+         *
+         * @return the index of the first game interrupted by an exception, GameResult.NO_GAME_INDEX if there is none
+         */
+        public int firstFailedGame() {
+            return firstFailedGame;
+        }
+
+        /**
+         * First failure getter, which keeps the stack trace of the exception
+         *
+         * @return the exception which interrupted the first failed game, null if there is none
+         */
+        public RuntimeException firstFailure() {
+            return firstFailure;
+        }
+
+        /**
+         * Method which computes the number of games played per second
+         *
+         * @return double
+         */
+        public double gamesPerSecond() {
+            return elapsedNanos == 0 ? 0 : results.size() * NANOS_PER_SECOND / elapsedNanos;
+        }
+
+        /**
+         * Method which computes the number of games won by the given player
+         *
+         * @param playerId player id
+         * @return int
+         */
+        public int wins(PlayerId playerId) {
+            int wins = 0;
+            for (GameResult result : results) {
+                if (result.winner() == playerId) {
+                    ++wins;
+                }
+            }
+            return wins;
+        }
+
+        /**
+         * Method which computes the number of games which ended with a draw
+         *
+         * @return int
+         */
+        public int draws() {
+            int draws = 0;
+            for (GameResult result : results) {
+                if (result.isDraw()) {
+                    ++draws;
+                }
+            }
+            return draws;
+        }
+
+        /**
+         * Method which computes the average final points of the given player
+         *
+         * @param playerId player id
+         * @return double
+         */
+        public double averagePoints(PlayerId playerId) {
+            return results.stream().mapToInt(r -> r.points(playerId)).average().orElse(0);
+        }
+
+        /**
+         * Method which computes the average number of turns of a game
+         *
+         * @return double
+         */
+        public double averageTurns() {
+            return results.stream().mapToInt(GameResult::turns).average().orElse(0);
+        }
+
+        /**
+         * Method which returns a textual summary of the simulation
+         *
+         * @return String
+         */
+        @Override
+        public String toString() {
+            StringJoiner summary = new StringJoiner(System.lineSeparator());
+            summary.add(String.format("%d games played (%d failed) in %.2f s: %.1f games/s",
+                    results.size(), failedGames, elapsedNanos / NANOS_PER_SECOND, gamesPerSecond()));
+            for (PlayerId playerId : PlayerId.ALL) {
+                summary.add(String.format("%s: %d wins, %.1f points on average",
+                        playerId, wins(playerId), averagePoints(playerId)));
+            }
+            summary.add(String.format("%d draws, %.1f turns on average", draws(), averageTurns()));
+            if (firstFailure != null) {
+                summary.add(String.format("first failed game: %d (%s)", firstFailedGame, firstFailure));
+            }
+            return summary.toString();
+        }
+    }
+
+    /**
+     * Class Recorder is a player which delegates every call to another player, while remembering its last own state
+     * and the number of turns it has played
+     */
+    private static final class Recorder implements Player {
+
+        private final Player player; // Player to which the calls are delegated
+        private PlayerState lastOwnState; // Last own state received by the player
+        private int turns; // Number of turns played by the player
+
+        /**
+         * Recorder constructor
+         *
+         * @param player player to which the calls are delegated
+         */
+        private Recorder(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            lastOwnState = ownState;
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            ++turns;
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
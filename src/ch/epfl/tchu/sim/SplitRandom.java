@@ -0,0 +1,118 @@
+package ch.epfl.tchu.sim;
+
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/**
+ * Class SplitRandom is a random generator backed by a SplittableRandom, which can be used wherever a Random is
+ * expected (Game.play, GameState.initial, Deck.of...). It is not thread-safe, and therefore never contended: each game
+ * has its own generator, derived from a root seed and the index of the game, so that any game can be replayed exactly
+ * from these two numbers, and the generators of its players are split from it. Unlike Random, it is not serializable
+ *
+ * @author Elija Dirren (310502)
+ * @author Lorin Lieberherr (326858)
+ */
+public final class SplitRandom extends Random {
+
+    private static final long serialVersionUID = 1L; // Declared since Random is serializable, see writeObject
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L; // Increment used by SplittableRandom between two seeds
+
+    private final transient SplittableRandom source; // Generator to which every draw is delegated, not serializable
+
+    /**
+     * Private constructor, the generators are created with the method forGame(...) or split()
+     *
+     * @param source generator to which every draw is delegated
+     */
+    private SplitRandom(SplittableRandom source) {
+        this.source = source;
+    }
+
+    /**
+     * Method which returns the generator of the game of the given index
+     *
+     * @param rootSeed  seed of the whole simulation
+     * @param gameIndex index of the game
+     * @return a new generator, which always produces the same values for the same arguments
+     */
+    public static SplitRandom forGame(long rootSeed, long gameIndex) {
+        return new SplitRandom(new SplittableRandom(gameSeed(rootSeed, gameIndex)));
+    }
+
+    /**
+     * Method which returns the seed of the game of the given index, i.e. the value at that index in the sequence of
+     * longs produced by a SplittableRandom created with the root seed. It is computed in constant time
+     *
+     * @param rootSeed  seed of the whole simulation
+     * @param gameIndex index of the game
+     * @return long
+     */
+    public static long gameSeed(long rootSeed, long gameIndex) {
+        // SplittableRandom(s).nextLong() mixes s + GOLDEN_GAMMA, so this mixes rootSeed + (gameIndex + 1) * GOLDEN_GAMMA
+        return new SplittableRandom(rootSeed + gameIndex * GOLDEN_GAMMA).nextLong();
+    }
+
+    /**
+     * Method which splits a new generator from this one, which shares no state with it
+     *
+     * @return SplitRandom
+     */
+    public SplitRandom split() {
+        return new SplitRandom(source.split());
+    }
+
+    /**
+     * Not supported: the sequence of a generator is entirely determined when it is created
+     *
+     * @param seed ignored
+     * @throws UnsupportedOperationException always, once the generator has been created
+     */
+    @Override
+    public void setSeed(long seed) {
+        // Random's constructor calls this method before the source is set
+        if (source != null)
+            throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected int next(int bits) {
+        return (int) (source.nextLong() >>> (Long.SIZE - bits));
+    }
+
+    @Override
+    public int nextInt() {
+        return source.nextInt();
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return source.nextInt(bound);
+    }
+
+    @Override
+    public long nextLong() {
+        return source.nextLong();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return source.nextBoolean();
+    }
+
+    @Override
+    public double nextDouble() {
+        return source.nextDouble();
+    }
+
+    /**
+     * Not supported: the SplittableRandom to which the draws are delegated cannot be serialized
+     *
+     * @param out ignored
+     * @throws NotSerializableException always
+     */
+    private void writeObject(ObjectOutputStream out) throws NotSerializableException {
+        throw new NotSerializableException(SplitRandom.class.getName());
+    }
+}
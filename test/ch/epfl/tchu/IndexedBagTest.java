@@ -0,0 +1,107 @@
+package ch.epfl.tchu;
+
+import ch.epfl.tchu.game.Card;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Ticket;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedBagTest {
+    private static final IndexedBag.Universe<Card> CARDS = IndexedBag.Universe.of(Card.ALL);
+
+    @Test
+    void indexedBagWorksLikeSortedBag() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var sortedBag1 = randomBag(rng, 12);
+            var sortedBag2 = randomBag(rng, 12);
+            var bag1 = IndexedBag.of(CARDS, sortedBag1);
+            var bag2 = IndexedBag.of(CARDS, sortedBag2);
+
+            assertEquals(sortedBag1, bag1.toSortedBag());
+            assertEquals(sortedBag1.size(), bag1.size());
+            assertEquals(sortedBag1.isEmpty(), bag1.isEmpty());
+            assertEquals(sortedBag1.toList(), bag1.toList());
+            assertEquals(sortedBag1.toList(), bag1.stream().collect(Collectors.toList()));
+            assertEquals(sortedBag1.toMap(), bag1.toMap());
+            assertEquals(sortedBag1.toSet(), bag1.toSet());
+            assertEquals(sortedBag1.toString(), bag1.toString());
+            for (int j = 0; j < bag1.size(); j++)
+                assertEquals(sortedBag1.get(j), bag1.get(j));
+            for (var card : Card.ALL) {
+                assertEquals(sortedBag1.countOf(card), bag1.countOf(card));
+                assertEquals(sortedBag1.contains(card), bag1.contains(card));
+            }
+
+            assertEquals(sortedBag1.union(sortedBag2), bag1.union(bag2).toSortedBag());
+            assertEquals(sortedBag1.difference(sortedBag2), bag1.difference(bag2).toSortedBag());
+            assertEquals(sortedBag1.contains(sortedBag2), bag1.contains(bag2));
+            assertEquals(bag1, IndexedBag.of(CARDS, sortedBag1.toList()));
+            assertEquals(bag1.hashCode(), IndexedBag.of(CARDS, sortedBag1.toList()).hashCode());
+        }
+    }
+
+    @Test
+    void indexedBagSubsetsOfSizeWorksLikeSortedBag() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 200; i++) {
+            var sortedBag = randomBag(rng, 8);
+            var bag = IndexedBag.of(CARDS, sortedBag);
+            for (int size = 0; size <= bag.size(); size++) {
+                var subsets = new HashSet<SortedBag<Card>>();
+                for (var subset : bag.subsetsOfSize(size))
+                    subsets.add(subset.toSortedBag());
+                assertEquals(sortedBag.subsetsOfSize(size), subsets);
+            }
+            assertThrows(IllegalArgumentException.class, () -> bag.subsetsOfSize(bag.size() + 1));
+        }
+    }
+
+    @Test
+    void indexedBagWorksWithTickets() {
+        var tickets = IndexedBag.Universe.of(ChMap.tickets());
+        var sortedBag = SortedBag.of(ChMap.tickets());
+        var bag = IndexedBag.of(tickets, ChMap.tickets());
+        assertEquals(sortedBag, bag.toSortedBag());
+        assertEquals(sortedBag.toString(), bag.toString());
+        for (Ticket ticket : ChMap.tickets())
+            assertEquals(sortedBag.countOf(ticket), bag.countOf(ticket));
+    }
+
+    @Test
+    void indexedBagFailsWithElementsOutOfUniverse() {
+        var universe = IndexedBag.Universe.of(List.of(Card.RED, Card.BLUE));
+        assertThrows(IllegalArgumentException.class, () -> IndexedBag.of(universe, 1, Card.BLACK));
+        assertThrows(IllegalArgumentException.class, () -> new IndexedBag.Builder<>(universe).add(-1, Card.RED));
+        assertEquals(0, IndexedBag.of(universe, 2, Card.RED).countOf(Card.BLACK));
+        assertThrows(IllegalArgumentException.class,
+                () -> IndexedBag.of(universe).union(IndexedBag.of(CARDS)));
+    }
+
+    @Test
+    void indexedBagIteratorAndGetFailWhenExhausted() {
+        var bag = IndexedBag.of(CARDS, 2, Card.GREEN);
+        var iterator = bag.iterator();
+        assertSame(Card.GREEN, iterator.next());
+        assertSame(Card.GREEN, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertThrows(IndexOutOfBoundsException.class, () -> bag.get(2));
+    }
+
+    private static SortedBag<Card> randomBag(Random rng, int maxSize) {
+        var builder = new SortedBag.Builder<Card>();
+        var size = rng.nextInt(maxSize + 1);
+        for (int i = 0; i < size; i++)
+            builder.add(Card.ALL.get(rng.nextInt(Card.COUNT)));
+        return builder.build();
+    }
+}
@@ -0,0 +1,87 @@
+package ch.epfl.tchu;
+
+import ch.epfl.tchu.game.Card;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedBagTest {
+    @Test
+    void lazySubsetsOfSizeWorksOnKnownBag() {
+        var bag = SortedBag.of(2, Card.RED, 1, Card.BLUE);
+        var expected = List.of(
+                SortedBag.of(1, Card.BLUE, 1, Card.RED),
+                SortedBag.of(2, Card.RED));
+        var actual = new ArrayList<SortedBag<Card>>();
+        bag.lazySubsetsOfSize(2).forEach(actual::add);
+        assertEquals(expected, actual);
+        assertEquals(List.of(SortedBag.<Card>of()), bag.subsetsOfSizeStream(0).collect(Collectors.toList()));
+        assertEquals(List.of(bag), bag.subsetsOfSizeStream(3).collect(Collectors.toList()));
+    }
+
+    @Test
+    void lazySubsetsOfSizeGivesEachSubsetOnceInOrder() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 200; i++) {
+            var builder = new SortedBag.Builder<Card>();
+            var bagSize = rng.nextInt(9);
+            for (int j = 0; j < bagSize; j++)
+                builder.add(Card.ALL.get(rng.nextInt(Card.COUNT)));
+            var bag = builder.build();
+
+            for (int size = 0; size <= bag.size(); size++) {
+                var subsets = bag.subsetsOfSizeStream(size).collect(Collectors.toList());
+                assertEquals(naiveSubsetsOfSize(bag, size), new HashSet<>(subsets));
+                assertEquals(subsets.size(), new HashSet<>(subsets).size());
+                for (int j = 1; j < subsets.size(); j++)
+                    assertTrue(compare(subsets.get(j - 1).toList(), subsets.get(j).toList()) < 0);
+                assertEquals(new HashSet<>(subsets), bag.subsetsOfSize(size));
+            }
+        }
+    }
+
+    @Test
+    void lazySubsetsOfSizeFailsWithInvalidSize() {
+        var bag = SortedBag.of(2, Card.RED);
+        assertThrows(IllegalArgumentException.class, () -> bag.lazySubsetsOfSize(-1));
+        assertThrows(IllegalArgumentException.class, () -> bag.lazySubsetsOfSize(3));
+        assertThrows(IllegalArgumentException.class, () -> bag.subsetsOfSizeStream(3));
+    }
+
+    @Test
+    void lazySubsetsOfSizeIteratorFailsWhenExhausted() {
+        var iterator = SortedBag.of(2, Card.RED).lazySubsetsOfSize(1).iterator();
+        assertEquals(SortedBag.of(Card.RED), iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    // Énumération naïve, par récurrence sur les éléments retirés un à un
+    private static Set<SortedBag<Card>> naiveSubsetsOfSize(SortedBag<Card> bag, int size) {
+        if (size == 0)
+            return Set.of(SortedBag.of());
+        var result = new HashSet<SortedBag<Card>>();
+        for (var card : bag.toSet()) {
+            var single = SortedBag.of(card);
+            for (var subset : naiveSubsetsOfSize(bag.difference(single), size - 1))
+                result.add(single.union(subset));
+        }
+        return result;
+    }
+
+    private static int compare(List<Card> l1, List<Card> l2) {
+        for (int i = 0; i < Math.min(l1.size(), l2.size()); i++) {
+            var c = l1.get(i).compareTo(l2.get(i));
+            if (c != 0) return c;
+        }
+        return Integer.compare(l1.size(), l2.size());
+    }
+}
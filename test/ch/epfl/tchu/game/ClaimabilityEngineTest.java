@@ -0,0 +1,64 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClaimabilityEngineTest {
+    @Test
+    void routeGroupsContainRoutesWithSameStations() {
+        var routes = ChMap.routes();
+        for (var route : routes) {
+            var group = RouteGroups.groupOf(route);
+            assertTrue(group.contains(route));
+            for (var other : routes) {
+                var sameStations = (other.station1() == route.station1() && other.station2() == route.station2())
+                        || (other.station1() == route.station2() && other.station2() == route.station1());
+                assertEquals(sameStations, group.contains(other));
+            }
+        }
+    }
+
+    @Test
+    void routeGroupsFailWithRouteNotInMap() {
+        var route = new Route("X", new Station(0, "A"), new Station(1, "B"), 1, Route.Level.OVERGROUND, null);
+        assertThrows(IndexOutOfBoundsException.class, () -> RouteGroups.groupOf(route));
+    }
+
+    @Test
+    void claimabilityEngineGivesClaimableRoutes() {
+        var rng = TestRandomizer.newRandom();
+        var routes = ChMap.routes();
+        for (int game = 0; game < 20; game++) {
+            var engine = new ClaimabilityEngine();
+            var shuffledRoutes = new ArrayList<>(routes);
+            Collections.shuffle(shuffledRoutes, rng);
+            var previous = new boolean[routes.size()];
+
+            for (int turn = 0; turn < 40; turn++) {
+                var claimedRoutes = RouteSet.of(shuffledRoutes.subList(0, turn));
+                var cards = PackedCardBag.EMPTY;
+                var cardCount = rng.nextInt(12);
+                for (int i = 0; i < cardCount; i++)
+                    cards = PackedCardBag.withAdded(cards, Card.ALL.get(rng.nextInt(Card.COUNT)));
+                var carCount = rng.nextInt(8);
+
+                var changedRoutes = engine.update(claimedRoutes, cards, carCount);
+                var hand = PackedCardBag.toSortedBag(cards);
+                for (int i = 0; i < routes.size(); i++) {
+                    var route = routes.get(i);
+                    var expected = carCount >= route.length()
+                            && !claimedRoutes.intersects(RouteGroups.groupOf(route))
+                            && route.possibleClaimCards().stream().anyMatch(hand::contains);
+                    assertEquals(expected, engine.isClaimable(i));
+                    assertEquals(expected != previous[i], changedRoutes.contains(i));
+                    previous[i] = expected;
+                }
+            }
+        }
+    }
+}
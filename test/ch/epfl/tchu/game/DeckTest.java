@@ -120,6 +120,30 @@ class DeckTest {
         assertEquals(cards, actualCardsBuilder.build());
     }
 
+    @Test
+    void deckOfShufflesLikeCollectionsShuffle() {
+        for (var size = 0; size < 120; size++) {
+            var cards = listOfSize(size);
+            var expected = new ArrayList<>(cards);
+            Collections.shuffle(expected, new Random(size));
+            assertEquals(expected, deckToList(Deck.of(SortedBag.of(cards), new Random(size))));
+        }
+
+        var expectedCards = Constants.ALL_CARDS.toList();
+        Collections.shuffle(expectedCards, new Random(2021));
+        assertEquals(expectedCards, deckToList(Deck.of(Constants.ALL_CARDS, new Random(2021))));
+    }
+
+    @Test
+    void deckDrawsDoNotChangePreviousDecks() {
+        var deck = Deck.of(SortedBag.of(listOfSize(20)), new Random(2021));
+        var expected = deckToList(deck);
+        var drawnDeck = deck.withoutTopCards(5).withoutTopCard();
+        assertEquals(expected, deckToList(deck));
+        assertEquals(expected.subList(6, 20), deckToList(drawnDeck));
+        assertEquals(SortedBag.of(expected.subList(6, 9)), drawnDeck.topCards(3));
+    }
+
     private static <E extends Comparable<E>> List<E> deckToList(Deck<E> deck) {
         var list = new ArrayList<E>(deck.size());
         while (!deck.isEmpty()) {
@@ -0,0 +1,50 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+/**
+ * Micro-benchmark measuring the time and the bytes allocated by the transitions of GameState which replace the state
+ * of a player, as well as by a whole turn (drawing two cards and passing to the next player).
+ * Run with: java ch.epfl.tchu.game.GameStateBenchmark
+ */
+public final class GameStateBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private static volatile Object sink;
+
+    private GameStateBenchmark() {}
+
+    public static void main(String[] args) {
+        var state = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(2021))
+                .withInitiallyChosenTickets(PlayerId.PLAYER_1, SortedBag.of(ChMap.tickets().get(0)));
+        var route = ChMap.routes().get(0);
+
+        System.out.printf("%-28s %12s %16s%n", "transition", "time (ns)", "allocated (B)");
+        run("withBlindlyDrawnCard", state, GameState::withBlindlyDrawnCard);
+        run("withDrawnFaceUpCard", state, s -> s.withDrawnFaceUpCard(0));
+        run("withClaimedRoute", state, s -> s.withClaimedRoute(route, SortedBag.of()));
+        run("forNextTurn", state, GameState::forNextTurn);
+        run("turn (2 cards, next turn)", state,
+                s -> s.withBlindlyDrawnCard().withDrawnFaceUpCard(0).forNextTurn());
+    }
+
+    private static void run(String name, GameState state, UnaryOperator<GameState> transition) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            sink = transition.apply(state);
+
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var threadId = Thread.currentThread().getId();
+        var startBytes = threads.getThreadAllocatedBytes(threadId);
+        var start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+            sink = transition.apply(state);
+        var time = (System.nanoTime() - start) / (double) MEASURED_ITERATIONS;
+        var bytes = (threads.getThreadAllocatedBytes(threadId) - startBytes) / (double) MEASURED_ITERATIONS;
+        System.out.printf("%-28s %12.1f %16.1f%n", name, time, bytes);
+    }
+}
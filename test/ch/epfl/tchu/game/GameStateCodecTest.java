@@ -0,0 +1,110 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.journal.JournalReplayer;
+import ch.epfl.tchu.journal.JournalWriter;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStateCodecTest {
+    private static final SortedBag<Ticket> ALL_TICKETS = SortedBag.of(ChMap.tickets());
+
+    @Test
+    void gameStateCodecGivesBackInitialState() {
+        for (int i = 0; i < 20; i++) {
+            var state = GameState.initial(ALL_TICKETS, new Random(i));
+            var snapshot = GameStateCodec.encode(state);
+            assertSameState(state, GameStateCodec.decode(snapshot));
+            assertTrue(snapshot.length < 300);
+        }
+    }
+
+    @Test
+    void gameStateCodecGivesBackEveryStateOfGames() {
+        var states = new ArrayList<GameState>();
+        var replayer = new JournalReplayer(new ByteArrayInputStream(recordGames(5)));
+        while (replayer.replayNextGame(states::add) != null) {
+            // Collect the states of every game
+        }
+
+        var maxLength = 0;
+        for (var state : states) {
+            var snapshot = GameStateCodec.encode(state);
+            var decoded = GameStateCodec.decode(snapshot);
+            assertSameState(state, decoded);
+            assertArrayEquals(snapshot, GameStateCodec.encode(decoded));
+            maxLength = Math.max(maxLength, snapshot.length);
+        }
+        assertTrue(maxLength < 400);
+    }
+
+    @Test
+    void gameStateCodecFailsWithInvalidSnapshot() {
+        var snapshot = GameStateCodec.encode(GameState.initial(ALL_TICKETS, new Random(2021)));
+
+        var badMagic = Arrays.copyOf(snapshot, snapshot.length);
+        badMagic[0] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> GameStateCodec.decode(badMagic));
+
+        var badVersion = Arrays.copyOf(snapshot, snapshot.length);
+        badVersion[4] = 2;
+        assertThrows(IllegalArgumentException.class, () -> GameStateCodec.decode(badVersion));
+
+        var truncated = Arrays.copyOf(snapshot, snapshot.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> GameStateCodec.decode(truncated));
+    }
+
+    @Test
+    void gameStateCodecFailsWithRouteNotInMap() {
+        var s1 = new Station(0, "Lausanne");
+        var s2 = new Station(1, "EPFL");
+        var route = new Route("A", s1, s2, 1, Route.Level.OVERGROUND, Color.RED);
+        var state = GameState.initial(ALL_TICKETS, new Random(2021));
+        var playerStates = new PlayerState[PlayerId.COUNT];
+        for (var playerId : PlayerId.ALL)
+            playerStates[playerId.ordinal()] = new PlayerState(SortedBag.of(), SortedBag.of(), List.of(route));
+        var stateWithRoute = GameState.of(
+                state.privateCardState(), state.currentPlayerId(), playerStates, null, state.ticketsDeck());
+        assertThrows(IllegalArgumentException.class, () -> GameStateCodec.encode(stateWithRoute));
+    }
+
+    private static byte[] recordGames(int gameCount) {
+        var names = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+        var out = new ByteArrayOutputStream();
+        for (int game = 0; game < gameCount; game++) {
+            Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+            for (var playerId : PlayerId.ALL)
+                players.put(playerId, new RandomPlayer(new Random(game * PlayerId.COUNT + playerId.ordinal())));
+            JournalWriter.play(players, names, ALL_TICKETS, game, out);
+        }
+        return out.toByteArray();
+    }
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        assertEquals(expected.ticketsDeck().cards(), actual.ticketsDeck().cards());
+        assertEquals(expected.privateCardState().deck().cards(), actual.privateCardState().deck().cards());
+        assertEquals(expected.privateCardState().discard(), actual.privateCardState().discard());
+        assertEquals(expected.cardState().faceUpCards(), actual.cardState().faceUpCards());
+        for (var playerId : PlayerId.ALL) {
+            var expectedPlayerState = expected.playerState(playerId);
+            var actualPlayerState = actual.playerState(playerId);
+            assertEquals(expectedPlayerState.tickets(), actualPlayerState.tickets());
+            assertEquals(expectedPlayerState.cards(), actualPlayerState.cards());
+            assertEquals(expectedPlayerState.routes(), actualPlayerState.routes());
+            assertEquals(expectedPlayerState.finalPoints(), actualPlayerState.finalPoints());
+        }
+    }
+}
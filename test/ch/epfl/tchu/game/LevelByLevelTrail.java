@@ -0,0 +1,53 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reference implementation of the longest trail search, building every trail level by level as Trail.longest
+ * originally did. It is used to check LongestTrail and to compare their performance.
+ */
+final class LevelByLevelTrail {
+    private final Station station1;
+    private final Station station2;
+    private final List<Route> routes;
+    private final int length;
+
+    private LevelByLevelTrail(Station station1, Station station2, List<Route> routes) {
+        this.station1 = station1;
+        this.station2 = station2;
+        this.routes = List.copyOf(routes);
+        this.length = routes.stream().mapToInt(Route::length).sum();
+    }
+
+    static Trail longest(List<Route> routes) {
+        if (routes.isEmpty())
+            return Trail.longest(routes);
+
+        LevelByLevelTrail longestTrail = null;
+        var trailsWithNRoutes = new ArrayList<LevelByLevelTrail>();
+        for (var route : routes) {
+            trailsWithNRoutes.add(new LevelByLevelTrail(route.station1(), route.station2(), List.of(route)));
+            trailsWithNRoutes.add(new LevelByLevelTrail(route.station2(), route.station1(), List.of(route)));
+        }
+
+        while (!trailsWithNRoutes.isEmpty()) {
+            var extendedTrails = new ArrayList<LevelByLevelTrail>();
+            for (var t : trailsWithNRoutes) {
+                for (var r : routes) {
+                    if (!t.routes.contains(r)) {
+                        if (t.station2 == r.station1() || t.station2 == r.station2()) {
+                            var extendedRoutes = new ArrayList<>(t.routes);
+                            extendedRoutes.add(r);
+                            extendedTrails.add(new LevelByLevelTrail(t.station1, r.stationOpposite(t.station2), extendedRoutes));
+                        }
+                    }
+                }
+                if (longestTrail == null || longestTrail.length < t.length)
+                    longestTrail = t;
+            }
+            trailsWithNRoutes = extendedTrails;
+        }
+        return Trail.of(longestTrail.station1, longestTrail.station2, longestTrail.routes);
+    }
+}
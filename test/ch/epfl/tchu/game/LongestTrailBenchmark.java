@@ -0,0 +1,59 @@
+package ch.epfl.tchu.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Micro-benchmark comparing the level-by-level longest trail search with LongestTrail, on connected sets of 10, 20
+ * and 40 routes of the map. The level-by-level search is only run on the sizes given as arguments (by default 10 and
+ * 20), as it takes minutes on 40 routes.
+ * Run with: java ch.epfl.tchu.game.LongestTrailBenchmark [sizes of the level-by-level search...]
+ */
+public final class LongestTrailBenchmark {
+    private static final int[] ROUTE_COUNTS = {10, 20, 40};
+    private static final int[] DEFAULT_REFERENCE_COUNTS = {10, 20};
+    private static final int SETS_PER_SIZE = 20;
+    private static final long SEED = 2021;
+
+    private static volatile Object sink;
+
+    private LongestTrailBenchmark() {}
+
+    public static void main(String[] args) {
+        var referenceCounts = new ArrayList<Integer>();
+        for (var arg : args)
+            referenceCounts.add(Integer.parseInt(arg));
+        if (referenceCounts.isEmpty()) {
+            for (var count : DEFAULT_REFERENCE_COUNTS)
+                referenceCounts.add(count);
+        }
+
+        System.out.printf("%8s %22s %22s %22s%n", "routes", "level by level (us)", "LongestTrail (us)", "memoized (us)");
+        for (var routeCount : ROUTE_COUNTS) {
+            var rng = new Random(SEED);
+            var routeSets = new ArrayList<List<Route>>();
+            for (int i = 0; i < SETS_PER_SIZE; i++)
+                routeSets.add(LongestTrailTest.connectedRoutes(rng, routeCount));
+
+            var reference = referenceCounts.contains(routeCount)
+                    ? String.format("%22.1f", measure(routeSets, LevelByLevelTrail::longest))
+                    : String.format("%22s", "-");
+            var engine = measure(routeSets, LongestTrail::compute);
+            var memoized = measure(routeSets, LongestTrail::of);
+            System.out.printf("%8d %s %22.1f %22.1f%n", routeCount, reference, engine, memoized);
+        }
+    }
+
+    private static double measure(List<List<Route>> routeSets, Function<List<Route>, Trail> longest) {
+        // One warm-up pass, then a measured one
+        for (var routes : routeSets)
+            sink = longest.apply(routes);
+
+        var start = System.nanoTime();
+        for (var routes : routeSets)
+            sink = longest.apply(routes);
+        return (System.nanoTime() - start) / 1e3 / routeSets.size();
+    }
+}
@@ -0,0 +1,88 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongestTrailTest {
+    @Test
+    void longestTrailComputeFailsWithEmptyRoutes() {
+        assertThrows(IllegalArgumentException.class, () -> LongestTrail.compute(List.of()));
+    }
+
+    @Test
+    void longestTrailGivesSameTrailAsLevelByLevelSearch() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 300; i++) {
+            var routes = connectedRoutes(rng, 1 + rng.nextInt(12));
+            assertSameTrail(LevelByLevelTrail.longest(routes), LongestTrail.compute(routes));
+        }
+    }
+
+    @Test
+    void longestTrailGivesSameTrailAsLevelByLevelSearchOnDisconnectedRoutes() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 300; i++) {
+            var routes = new ArrayList<Route>();
+            for (int j = 0; j < 10; j++)
+                routes.add(ChMap.routes().get(rng.nextInt(ChMap.routes().size())));
+            assertSameTrail(LevelByLevelTrail.longest(routes), LongestTrail.compute(routes));
+        }
+    }
+
+    @Test
+    void longestTrailMemoizesResults() {
+        var routes = connectedRoutes(TestRandomizer.newRandom(), 10);
+        var trail = LongestTrail.of(routes);
+        assertSame(trail, LongestTrail.of(new ArrayList<>(routes)));
+        assertSameTrail(trail, Trail.longest(routes));
+    }
+
+    @Test
+    void longestTrailWorksWithMoreThan64Routes() {
+        var routes = new ArrayList<Route>();
+        var stations = new ArrayList<Station>();
+        for (int i = 0; i <= 70; i++)
+            stations.add(new Station(i, "S" + i));
+        for (int i = 0; i < 70; i++)
+            routes.add(new Route("R" + i, stations.get(i), stations.get(i + 1), 1 + i % 6, Route.Level.OVERGROUND, null));
+
+        var trail = LongestTrail.compute(routes);
+        assertEquals(routes.stream().mapToInt(Route::length).sum(), trail.length());
+        assertSame(stations.get(0), trail.station1());
+        assertSame(stations.get(70), trail.station2());
+    }
+
+    static List<Route> connectedRoutes(Random rng, int count) {
+        var allRoutes = ChMap.routes();
+        var routes = new ArrayList<Route>();
+        routes.add(allRoutes.get(rng.nextInt(allRoutes.size())));
+        while (routes.size() < count) {
+            var candidates = new ArrayList<Route>();
+            for (var route : allRoutes) {
+                if (routes.contains(route))
+                    continue;
+                for (var r : routes) {
+                    if (r.stations().contains(route.station1()) || r.stations().contains(route.station2())) {
+                        candidates.add(route);
+                        break;
+                    }
+                }
+            }
+            routes.add(candidates.get(rng.nextInt(candidates.size())));
+        }
+        return routes;
+    }
+
+    private static void assertSameTrail(Trail expected, Trail actual) {
+        assertEquals(expected.length(), actual.length());
+        assertEquals(expected.station1(), actual.station1());
+        assertEquals(expected.station2(), actual.station2());
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
@@ -0,0 +1,71 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongestTrailTrackerTest {
+    @Test
+    void longestTrailTrackerIsEmptyWithoutRoutes() {
+        assertEquals(0, LongestTrailTracker.EMPTY.length());
+        assertSame(LongestTrailTracker.EMPTY, LongestTrailTracker.of(List.of()));
+    }
+
+    @Test
+    void longestTrailTrackerFollowsLongestTrailAsRoutesAreAdded() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 100; i++) {
+            var shuffledRoutes = new ArrayList<>(ChMap.routes());
+            Collections.shuffle(shuffledRoutes, rng);
+
+            var routes = new ArrayList<Route>();
+            var tracker = LongestTrailTracker.EMPTY;
+            for (var route : shuffledRoutes.subList(0, 1 + rng.nextInt(15))) {
+                routes.add(route);
+                tracker = tracker.withRoute(route);
+                assertEquals(Trail.longest(routes).length(), tracker.length());
+            }
+            assertEquals(tracker.length(), LongestTrailTracker.of(routes).length());
+        }
+    }
+
+    @Test
+    void longestTrailTrackerMergesComponents() {
+        var stations = new ArrayList<Station>();
+        for (int i = 0; i < 5; i++)
+            stations.add(new Station(100 + i, "S" + i));
+        var route01 = new Route("R01", stations.get(0), stations.get(1), 2, Route.Level.OVERGROUND, null);
+        var route34 = new Route("R34", stations.get(3), stations.get(4), 3, Route.Level.OVERGROUND, null);
+        var route23 = new Route("R23", stations.get(2), stations.get(3), 1, Route.Level.OVERGROUND, null);
+        var route12 = new Route("R12", stations.get(1), stations.get(2), 1, Route.Level.OVERGROUND, null);
+
+        var tracker = LongestTrailTracker.EMPTY.withRoute(route01).withRoute(route34);
+        assertEquals(3, tracker.length());
+        tracker = tracker.withRoute(route23);
+        assertEquals(4, tracker.length());
+        tracker = tracker.withRoute(route12);
+        assertEquals(7, tracker.length());
+    }
+
+    @Test
+    void playerStateTracksLongestTrailOfClaimedRoutes() {
+        var rng = TestRandomizer.newRandom();
+        var shuffledRoutes = new ArrayList<>(ChMap.routes());
+        Collections.shuffle(shuffledRoutes, rng);
+
+        var state = PlayerState.initial(SortedBag.of(4, Card.RED));
+        var routes = new ArrayList<Route>();
+        for (var route : shuffledRoutes.subList(0, 12)) {
+            routes.add(route);
+            state = state.withClaimedRoute(route, SortedBag.of()).withAddedCard(Card.BLUE);
+            assertEquals(Trail.longest(routes).length(), state.longestTrailLength());
+        }
+        assertEquals(state.longestTrailLength(), new PublicPlayerState(0, 0, routes).longestTrailLength());
+    }
+}
@@ -0,0 +1,187 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MutableGameStateTest {
+    private static final SortedBag<Ticket> ALL_TICKETS = SortedBag.of(ChMap.tickets());
+
+    @Test
+    void mutableGameStateToGameStateGivesBackSameState() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < 10; i++) {
+            var gameState = GameState.initial(ALL_TICKETS, rng);
+            assertSameState(gameState, MutableGameState.of(gameState, new Random(i)).toGameState());
+        }
+    }
+
+    @Test
+    void mutableGameStateApplyFailsOutsideOfTurnPhase() {
+        var state = MutableGameState.of(GameState.initial(ALL_TICKETS, new Random(2021)), new Random(2021));
+        assertThrows(IllegalArgumentException.class, () -> state.apply(MutableGameState.endTurn()));
+
+        state.apply(MutableGameState.drawTickets(0b001));
+        assertThrows(IllegalArgumentException.class, () -> state.apply(MutableGameState.drawBlindCard()));
+        assertThrows(IllegalStateException.class, () -> {
+            state.undo();
+            state.undo();
+        });
+    }
+
+    @Test
+    void mutableGameStateMoveFactoriesFailWithInvalidArguments() {
+        assertThrows(IndexOutOfBoundsException.class, () -> MutableGameState.drawFaceUpCard(5));
+        assertThrows(IllegalArgumentException.class, () -> MutableGameState.drawTickets(0));
+        assertThrows(IllegalArgumentException.class, () -> MutableGameState.drawTickets(0b1000));
+
+        var state = MutableGameState.of(GameState.initial(ALL_TICKETS, new Random(2021)), new Random(2021));
+        var s1 = new Station(0, "Lausanne");
+        var s2 = new Station(1, "EPFL");
+        var unknownRoute = new Route("A", s1, s2, 1, Route.Level.OVERGROUND, Color.RED);
+        assertThrows(IllegalArgumentException.class, () -> {
+            state.claimRoute(unknownRoute, SortedBag.of(Card.RED), false);
+        });
+    }
+
+    @Test
+    void mutableGameStateBehavesLikeGameStateAndUndoesEverything() {
+        var rng = TestRandomizer.newRandom();
+        for (int game = 0; game < 20; game++) {
+            var initialState = GameState.initial(ALL_TICKETS, new Random(game));
+            var gameState = initialState;
+            var state = MutableGameState.of(initialState, new Random(game));
+            var gameStateRng = new Random(game);
+            var moves = new int[state.maxLegalMoves()];
+            var appliedMoves = 0;
+
+            while (!state.isGameOver()) {
+                var moveCount = state.legalMoves(moves);
+                assertTrue(moveCount > 0);
+
+                var kind = rng.nextInt(4);
+                var claimableRoutes = claimableRoutes(gameState);
+                if (gameState.ticketsCount() < 3 && claimableRoutes.isEmpty() && !gameState.canDrawCards())
+                    break;
+                if (kind == 0 && gameState.ticketsCount() >= 3) {
+                    var mask = 1 + rng.nextInt(7);
+                    var drawnTickets = gameState.ticketsDeck().cards().subList(0, 3);
+                    var keptTickets = new SortedBag.Builder<Ticket>();
+                    for (int i = 0; i < 3; i++) {
+                        if ((mask & (1 << i)) != 0)
+                            keptTickets.add(drawnTickets.get(i));
+                    }
+                    gameState = gameState.withChosenAdditionalTickets(SortedBag.of(drawnTickets), keptTickets.build());
+                    appliedMoves += apply(state, MutableGameState.drawTickets(mask), moves, moveCount);
+                } else if (kind == 1 && !claimableRoutes.isEmpty()) {
+                    var route = claimableRoutes.get(rng.nextInt(claimableRoutes.size()));
+                    var options = gameState.currentPlayerState().possibleClaimCards(route);
+                    var cards = options.get(rng.nextInt(options.size()));
+                    gameState = claim(gameState, route, cards, gameStateRng);
+                    appliedMoves += apply(state, state.claimRoute(route, cards, false), moves, moveCount);
+                } else if (gameState.canDrawCards()) {
+                    for (int i = 0; i < 2; i++) {
+                        gameState = gameState.withCardsDeckRecreatedIfNeeded(gameStateRng);
+                        var slot = rng.nextInt(6) - 1;
+                        gameState = slot == -1
+                                ? gameState.withBlindlyDrawnCard()
+                                : gameState.withDrawnFaceUpCard(slot);
+                        var move = slot == -1
+                                ? MutableGameState.drawBlindCard()
+                                : MutableGameState.drawFaceUpCard(slot);
+                        appliedMoves += apply(state, move, moves, moveCount);
+                        moveCount = state.legalMoves(moves);
+                    }
+                } else {
+                    continue;
+                }
+                assertSameState(gameState, state.toGameState());
+                for (var playerId : PlayerId.ALL) {
+                    var playerState = gameState.playerState(playerId);
+                    assertEquals(playerState.carCount(), state.carCount(playerId));
+                    assertEquals(playerState.claimPoints(), state.claimPoints(playerId));
+                    assertEquals(playerState.ticketPoints(), state.ticketPoints(playerId));
+                }
+
+                assertTrue(state.isActionDone());
+                var isLastTurn = gameState.currentPlayerId() == gameState.lastPlayer();
+                if (!isLastTurn)
+                    gameState = gameState.forNextTurn();
+                state.apply(MutableGameState.endTurn());
+                appliedMoves += 1;
+                assertEquals(isLastTurn, state.isGameOver());
+                assertSameState(gameState, state.toGameState());
+            }
+
+            for (int i = 0; i < appliedMoves; i++)
+                state.undo();
+            assertSameState(initialState, state.toGameState());
+        }
+    }
+
+    private static int apply(MutableGameState state, int move, int[] legalMoves, int legalMoveCount) {
+        var isLegal = false;
+        for (int i = 0; i < legalMoveCount; i++)
+            isLegal |= legalMoves[i] == move;
+        assertTrue(isLegal);
+        state.apply(move);
+        return 1;
+    }
+
+    private static GameState claim(GameState gameState, Route route, SortedBag<Card> cards, Random rng) {
+        if (route.level() == Route.Level.OVERGROUND)
+            return gameState.withClaimedRoute(route, cards);
+
+        var drawnCards = new SortedBag.Builder<Card>();
+        for (int i = 0; i < 3; i++) {
+            gameState = gameState.withCardsDeckRecreatedIfNeeded(rng);
+            drawnCards.add(gameState.topCard());
+            gameState = gameState.withoutTopCard();
+        }
+        var additionalCount = route.additionalClaimCardsCount(cards, drawnCards.build());
+        gameState = gameState.withMoreDiscardedCards(drawnCards.build());
+        if (additionalCount == 0)
+            return gameState.withClaimedRoute(route, cards);
+
+        var options = gameState.currentPlayerState().possibleAdditionalCards(additionalCount, cards);
+        return options.isEmpty()
+                ? gameState
+                : gameState.withClaimedRoute(route, cards.union(options.get(0)));
+    }
+
+    private static List<Route> claimableRoutes(GameState gameState) {
+        var claimableRoutes = new ArrayList<Route>();
+        for (var route : ChMap.routes()) {
+            var claimed = false;
+            for (var claimedRoute : gameState.claimedRoutes()) {
+                claimed |= route.station1() == claimedRoute.station1() && route.station2() == claimedRoute.station2()
+                        || route.station1() == claimedRoute.station2() && route.station2() == claimedRoute.station1();
+            }
+            if (!claimed && gameState.currentPlayerState().canClaimRoute(route))
+                claimableRoutes.add(route);
+        }
+        return claimableRoutes;
+    }
+
+    private static void assertSameState(GameState expected, GameState actual) {
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        assertEquals(expected.ticketsDeck().cards(), actual.ticketsDeck().cards());
+        assertEquals(expected.privateCardState().deck().cards(), actual.privateCardState().deck().cards());
+        assertEquals(expected.privateCardState().discard(), actual.privateCardState().discard());
+        assertEquals(expected.cardState().faceUpCards(), actual.cardState().faceUpCards());
+        for (var playerId : PlayerId.ALL) {
+            var expectedPlayerState = expected.playerState(playerId);
+            var actualPlayerState = actual.playerState(playerId);
+            assertEquals(expectedPlayerState.tickets(), actualPlayerState.tickets());
+            assertEquals(expectedPlayerState.cards(), actualPlayerState.cards());
+            assertEquals(expectedPlayerState.routes(), actualPlayerState.routes());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedCardBagTest {
+    @Test
+    void packedCardBagOfFailsWithInvalidCount() {
+        assertThrows(IllegalArgumentException.class, () -> PackedCardBag.of(-1, Card.RED));
+        assertThrows(IllegalArgumentException.class, () -> PackedCardBag.of(128, Card.RED));
+    }
+
+    @Test
+    void packedCardBagAdaptersAreInverse() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var bag = randomBag(rng, 20);
+            var packedBag = PackedCardBag.of(bag);
+            assertEquals(bag, PackedCardBag.toSortedBag(packedBag));
+            assertEquals(bag.size(), PackedCardBag.size(packedBag));
+            assertEquals(bag.isEmpty(), PackedCardBag.isEmpty(packedBag));
+            assertEquals(bag.toSet().size(), PackedCardBag.distinctCount(packedBag));
+            for (var card : Card.ALL)
+                assertEquals(bag.countOf(card), PackedCardBag.countOf(packedBag, card));
+            for (int j = 0; j < bag.size(); j++)
+                assertEquals(bag.get(j), PackedCardBag.get(packedBag, j));
+        }
+    }
+
+    @Test
+    void packedCardBagGetFailsWithInvalidIndex() {
+        var packedBag = PackedCardBag.of(2, Card.BLUE);
+        assertThrows(IndexOutOfBoundsException.class, () -> PackedCardBag.get(packedBag, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> PackedCardBag.get(packedBag, -1));
+    }
+
+    @Test
+    void packedCardBagOperationsWorkLikeSortedBag() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var bag1 = randomBag(rng, 60);
+            var bag2 = randomBag(rng, 60);
+            var packedBag1 = PackedCardBag.of(bag1);
+            var packedBag2 = PackedCardBag.of(bag2);
+
+            assertEquals(bag1.union(bag2), PackedCardBag.toSortedBag(PackedCardBag.union(packedBag1, packedBag2)));
+            assertEquals(bag1.difference(bag2), PackedCardBag.toSortedBag(PackedCardBag.difference(packedBag1, packedBag2)));
+            assertEquals(bag1.contains(bag2), PackedCardBag.contains(packedBag1, packedBag2));
+            assertTrue(PackedCardBag.contains(PackedCardBag.union(packedBag1, packedBag2), packedBag2));
+        }
+    }
+
+    @Test
+    void packedCardBagWorksWithFullLanes() {
+        var full = PackedCardBag.EMPTY;
+        for (var card : Card.ALL)
+            full = PackedCardBag.union(full, PackedCardBag.of(PackedCardBag.MAX_COUNT, card));
+        var fullBag = full;
+
+        assertEquals(Card.COUNT * PackedCardBag.MAX_COUNT, PackedCardBag.size(full));
+        assertEquals(PackedCardBag.EMPTY, PackedCardBag.difference(full, full));
+        assertTrue(PackedCardBag.contains(full, PackedCardBag.of(1, Card.LOCOMOTIVE)));
+        assertFalse(PackedCardBag.contains(PackedCardBag.of(1, Card.LOCOMOTIVE), full));
+        assertThrows(IllegalArgumentException.class, () -> PackedCardBag.withAdded(fullBag, Card.LOCOMOTIVE));
+        assertThrows(IllegalArgumentException.class, () -> PackedCardBag.withAdded(fullBag, Card.BLACK));
+    }
+
+    @Test
+    void routePackedPossibleClaimCardsMatchesPossibleClaimCards() {
+        for (var route : ChMap.routes()) {
+            var possibleClaimCards = route.possibleClaimCards();
+            var packedPossibleClaimCards = route.packedPossibleClaimCards();
+            assertEquals(possibleClaimCards.size(), packedPossibleClaimCards.length);
+            for (int i = 0; i < packedPossibleClaimCards.length; i++)
+                assertEquals(possibleClaimCards.get(i), PackedCardBag.toSortedBag(packedPossibleClaimCards[i]));
+        }
+    }
+
+    private static SortedBag<Card> randomBag(Random rng, int maxSize) {
+        var builder = new SortedBag.Builder<Card>();
+        var size = rng.nextInt(maxSize + 1);
+        for (int i = 0; i < size; i++)
+            builder.add(Card.ALL.get(rng.nextInt(Card.COUNT)));
+        return builder.build();
+    }
+}
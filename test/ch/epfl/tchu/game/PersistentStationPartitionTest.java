@@ -0,0 +1,106 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentStationPartitionTest {
+    @Test
+    void persistentStationPartitionInitiallyConnectsStationsWithThemselvesOnly() {
+        var stations = ChMap.stations();
+        for (var s1 : stations) {
+            for (var s2 : stations)
+                assertEquals(s1 == s2, PersistentStationPartition.EMPTY.connected(s1, s2));
+        }
+    }
+
+    @Test
+    void persistentStationPartitionWorksLikeStationPartition() {
+        var rng = TestRandomizer.newRandom();
+        var stations = ChMap.stations();
+        for (int i = 0; i < 100; i++) {
+            var builder = new StationPartition.Builder(stations.size());
+            var partition = PersistentStationPartition.EMPTY;
+            var connectionCount = rng.nextInt(60);
+            for (int j = 0; j < connectionCount; j++) {
+                var s1 = stations.get(rng.nextInt(stations.size()));
+                var s2 = stations.get(rng.nextInt(stations.size()));
+                builder.connect(s1, s2);
+                partition = partition.withConnected(s1, s2);
+            }
+
+            var expected = builder.build();
+            for (var s1 : stations) {
+                for (var s2 : stations)
+                    assertEquals(expected.connected(s1, s2), partition.connected(s1, s2));
+            }
+        }
+    }
+
+    @Test
+    void persistentStationPartitionDoesNotChangePreviousVersions() {
+        var rng = TestRandomizer.newRandom();
+        var routes = new ArrayList<>(ChMap.routes());
+        Collections.shuffle(routes, rng);
+
+        var versions = new ArrayList<PersistentStationPartition>();
+        var partition = PersistentStationPartition.EMPTY;
+        for (var route : routes) {
+            versions.add(partition);
+            partition = partition.withConnected(route.station1(), route.station2());
+        }
+
+        var stations = ChMap.stations();
+        for (int i = 0; i < versions.size(); i += 11) {
+            var expected = PersistentStationPartition.of(routes.subList(0, i));
+            for (var s1 : stations) {
+                for (var s2 : stations)
+                    assertEquals(expected.connected(s1, s2), versions.get(i).connected(s1, s2));
+            }
+        }
+    }
+
+    @Test
+    void persistentStationPartitionReturnsItselfWhenAlreadyConnected() {
+        var route = ChMap.routes().get(0);
+        var partition = PersistentStationPartition.EMPTY.withConnected(route.station1(), route.station2());
+        assertSame(partition, partition.withConnected(route.station2(), route.station1()));
+        assertSame(partition, partition.withConnected(route.station1(), route.station1()));
+    }
+
+    @Test
+    void persistentStationPartitionWorksWithStationsOutsideOfMap() {
+        var s1 = new Station(1000, "A");
+        var s2 = new Station(1001, "B");
+        var s3 = new Station(3, "C");
+        var partition = PersistentStationPartition.EMPTY.withConnected(s1, s3);
+        assertTrue(partition.connected(s1, s3));
+        assertFalse(partition.connected(s1, s2));
+        assertTrue(partition.connected(s2, s2));
+    }
+
+    @Test
+    void playerStateTicketPointsFollowClaimedRoutes() {
+        var rng = TestRandomizer.newRandom();
+        var routes = new ArrayList<>(ChMap.routes());
+        Collections.shuffle(routes, rng);
+        var tickets = SortedBag.of(ChMap.tickets().subList(0, 20));
+
+        var state = new PlayerState(tickets, SortedBag.of(), List.of());
+        var builder = new StationPartition.Builder(ChMap.stations().size());
+        for (var route : routes.subList(0, 40)) {
+            state = state.withClaimedRoute(route, SortedBag.of());
+            var partition = builder.connect(route.station1(), route.station2()).build();
+            var expectedPoints = 0;
+            for (var ticket : tickets)
+                expectedPoints += ticket.points(partition);
+            assertEquals(expectedPoints, state.ticketPoints());
+        }
+    }
+}
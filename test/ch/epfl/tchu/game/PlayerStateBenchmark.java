@@ -0,0 +1,50 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.tchu.SortedBag;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Micro-benchmark measuring the cost of the transitions of PlayerState as the number of claimed routes grows.
+ * The cost of withAddedCard and withAddedTickets must not depend on the number of routes.
+ * Run with: java ch.epfl.tchu.game.PlayerStateBenchmark
+ */
+public final class PlayerStateBenchmark {
+    private static final int[] ROUTE_COUNTS = {0, 10, 20, 40, 80};
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private static volatile Object sink;
+
+    private PlayerStateBenchmark() {}
+
+    public static void main(String[] args) {
+        var tickets = SortedBag.of(ChMap.tickets().subList(0, 3));
+        var cards = SortedBag.of(4, Card.RED, 2, Card.LOCOMOTIVE);
+        var newTickets = SortedBag.of(ChMap.tickets().get(3));
+
+        System.out.printf("%8s %20s %20s %20s%n", "routes", "withAddedCard (ns)", "withAddedTickets (ns)", "withClaimedRoute (ns)");
+        for (var routeCount : ROUTE_COUNTS) {
+            List<Route> routes = new ArrayList<>(ChMap.routes().subList(0, routeCount));
+            var state = new PlayerState(tickets, cards, routes);
+            var nextRoute = ChMap.routes().get(routeCount % ChMap.routes().size());
+
+            var addedCard = measure(() -> state.withAddedCard(Card.BLUE));
+            var addedTickets = measure(() -> state.withAddedTickets(newTickets));
+            var claimedRoute = measure(() -> state.withClaimedRoute(nextRoute, SortedBag.of()));
+            System.out.printf("%8d %20.1f %20.1f %20.1f%n", routeCount, addedCard, addedTickets, claimedRoute);
+        }
+    }
+
+    private static double measure(Supplier<PlayerState> transition) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++)
+            sink = transition.get();
+
+        var start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++)
+            sink = transition.get();
+        return (System.nanoTime() - start) / (double) MEASURED_ITERATIONS;
+    }
+}
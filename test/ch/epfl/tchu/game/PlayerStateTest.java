@@ -335,6 +335,30 @@ class PlayerStateTest {
         }
     }
 
+    @Test
+    void playerStatePossibleAdditionalCardsWorksWithFewRemainingCards() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var carCard = CAR_CARDS.get(rng.nextInt(CAR_CARDS.size()));
+            var initialCards = SortedBag.of(rng.nextInt(3), carCard, rng.nextInt(3), Card.LOCOMOTIVE);
+            if (initialCards.isEmpty())
+                continue;
+            var playerCards = initialCards.union(SortedBag.of(rng.nextInt(5), carCard, rng.nextInt(5), Card.LOCOMOTIVE));
+            var playerState = new PlayerState(SortedBag.of(), playerCards, List.of());
+            var remainingCards = playerCards.difference(initialCards);
+
+            var additionalCardsCount = 1 + rng.nextInt(3);
+            var expectedPAC = new ArrayList<SortedBag<Card>>();
+            for (int locoCount = 0; locoCount <= additionalCardsCount; locoCount++) {
+                var carCount = additionalCardsCount - locoCount;
+                var option = SortedBag.of(locoCount, Card.LOCOMOTIVE, carCount, carCard);
+                if ((carCount == 0 || initialCards.contains(carCard)) && remainingCards.contains(option))
+                    expectedPAC.add(option);
+            }
+            assertEquals(expectedPAC, playerState.possibleAdditionalCards(additionalCardsCount, initialCards));
+        }
+    }
+
     @Test
     void playerStateWithClaimedRouteWorks() {
         var chMap = new ChMap();
@@ -478,6 +502,26 @@ class PlayerStateTest {
         assertEquals(claimPoints + 14 - 7, s5.finalPoints());
     }
 
+    @Test
+    void playerStateTransitionsCarryRouteValuesForward() {
+        var rng = TestRandomizer.newRandom();
+        var routes = routesWithTotalLength(20);
+        var state = PlayerState.initial(SortedBag.of(INITIAL_CARD_COUNT, Card.BLUE));
+        for (var route : routes) {
+            state = state.withAddedCard(CAR_CARDS.get(rng.nextInt(CAR_CARDS.size())));
+            state = state.withClaimedRoute(route, SortedBag.of(state.cards().get(0)));
+
+            var rebuiltState = new PlayerState(state.tickets(), state.cards(), state.routes());
+            assertEquals(rebuiltState.claimPoints(), state.claimPoints());
+            assertEquals(rebuiltState.carCount(), state.carCount());
+            assertEquals(rebuiltState.cardCount(), state.cardCount());
+            assertEquals(rebuiltState.routeSet(), state.routeSet());
+            assertEquals(rebuiltState.packedCards(), state.packedCards());
+        }
+        assertEquals(TOTAL_CAR_COUNT - 20, state.carCount());
+        assertEquals(20, state.claimPoints());
+    }
+
     private static List<Route> routesWithTotalLength(int length) {
         var routes = new ArrayList<Route>();
         for (int i = 0; i < length; i++) {
@@ -39,6 +39,16 @@ class PublicGameStateTest {
         });
     }
 
+    @Test
+    void publicGameStateArrayConstructorFailsWithInvalidPlayerStates() {
+        var faceUpCards = SortedBag.of(5, Card.LOCOMOTIVE).toList();
+        var cardState = new PublicCardState(faceUpCards, 0, 0);
+        var initialPlayerState = (PublicPlayerState) PlayerState.initial(SortedBag.of(4, Card.RED));
+        assertThrows(IllegalArgumentException.class, () -> {
+            new PublicGameState(1, cardState, PLAYER_1, null, new PublicPlayerState[]{initialPlayerState});
+        });
+    }
+
     @Test
     void publicGameStateConstructorFailsWithNullArguments() {
         var faceUpCards = SortedBag.of(5, Card.LOCOMOTIVE).toList();
@@ -0,0 +1,96 @@
+package ch.epfl.tchu.game;
+
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteSetTest {
+    @Test
+    void routeSetIndexOfGivesChMapIndices() {
+        var routes = ChMap.routes();
+        for (int i = 0; i < routes.size(); i++) {
+            assertEquals(i, RouteSet.indexOf(routes.get(i)));
+            assertSame(routes.get(i), RouteSet.routeAt(i));
+        }
+    }
+
+    @Test
+    void routeSetWorksWithRoutesNotInChMap() {
+        var s1 = new Station(0, "Lausanne");
+        var s2 = new Station(1, "EPFL");
+        var route = new Route("A", s1, s2, 1, Route.Level.OVERGROUND, Color.RED);
+        var set = RouteSet.of(route);
+
+        assertTrue(RouteSet.indexOf(route) >= ChMap.routes().size());
+        assertSame(route, RouteSet.routeAt(RouteSet.indexOf(route)));
+        assertTrue(set.contains(route));
+        assertFalse(set.contains(ChMap.routes().get(0)));
+        assertEquals(List.of(route), set.toList());
+    }
+
+    @Test
+    void routeSetContainsExactlyGivenRoutes() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var routes = new ArrayList<Route>();
+            for (var route : ChMap.routes()) {
+                if (rng.nextInt(4) == 0)
+                    routes.add(route);
+            }
+            var set = RouteSet.of(routes);
+
+            assertEquals(routes.size(), set.size());
+            assertEquals(routes.isEmpty(), set.isEmpty());
+            assertEquals(routes, set.toList());
+            for (var route : ChMap.routes())
+                assertEquals(routes.contains(route), set.contains(route));
+        }
+    }
+
+    @Test
+    void routeSetUnionAndWithWork() {
+        var routes = ChMap.routes();
+        var set1 = RouteSet.of(routes.subList(0, 50));
+        var set2 = RouteSet.of(routes.subList(40, 88));
+
+        assertEquals(RouteSet.of(routes), set1.union(set2));
+        assertEquals(RouteSet.of(routes), set2.union(set1));
+        assertEquals(set1, set1.union(RouteSet.EMPTY));
+        assertTrue(set1.intersects(set2));
+        assertFalse(RouteSet.of(routes.subList(0, 40)).intersects(RouteSet.of(routes.subList(40, 88))));
+
+        var set3 = RouteSet.EMPTY.with(routes.get(87)).with(routes.get(3));
+        assertEquals(List.of(routes.get(3), routes.get(87)), set3.toList());
+        assertEquals(set3, set3.with(routes.get(3)));
+        assertEquals(set3.hashCode(), RouteSet.of(routes.get(87), routes.get(3)).hashCode());
+    }
+
+    @Test
+    void routeSetIteratorFailsWhenExhausted() {
+        var iterator = RouteSet.of(ChMap.routes().get(70)).iterator();
+        assertTrue(iterator.hasNext());
+        assertSame(ChMap.routes().get(70), iterator.next());
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+
+    @Test
+    void publicGameStateClaimedRouteSetContainsRoutesOfBothPlayers() {
+        var routes = ChMap.routes();
+        var playerState1 = new PublicPlayerState(0, 0, routes.subList(10, 15));
+        var playerState2 = new PublicPlayerState(0, 0, routes.subList(60, 62));
+        var cardState = new PublicCardState(List.of(Card.RED, Card.RED, Card.RED, Card.RED, Card.RED), 0, 0);
+        var gameState = new PublicGameState(0, cardState, PlayerId.PLAYER_1,
+                Map.of(PlayerId.PLAYER_1, playerState1, PlayerId.PLAYER_2, playerState2), null);
+
+        assertEquals(RouteSet.of(routes.subList(10, 15)), playerState1.routeSet());
+        assertEquals(RouteSet.of(gameState.claimedRoutes()), gameState.claimedRouteSet());
+        assertEquals(gameState.claimedRoutes(), gameState.claimedRouteSet().toList());
+    }
+}
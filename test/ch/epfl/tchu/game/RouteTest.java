@@ -383,4 +383,54 @@ class RouteTest {
             assertEquals(expectedClaimPoints.get(l), r.claimPoints());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void routePossibleClaimCardsAreSharedByRoutesOfSameKind() {
+        var s1 = new Station(0, "Lausanne");
+        var s2 = new Station(1, "EPFL");
+        var r1 = new Route("A", s1, s2, 3, Level.UNDERGROUND, null);
+        var r2 = new Route("B", s2, s1, 3, Level.UNDERGROUND, null);
+        assertSame(r1.possibleClaimCards(), r2.possibleClaimCards());
+        assertFalse(r1.packedPossibleClaimCards() == r1.packedPossibleClaimCards());
+    }
+
+    @Test
+    void routeCanClaimWorksLikePossibleClaimCards() {
+        var rng = TestRandomizer.newRandom();
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var builder = new SortedBag.Builder<Card>();
+            var size = rng.nextInt(10);
+            for (int j = 0; j < size; j++)
+                builder.add(Card.ALL.get(rng.nextInt(Card.COUNT)));
+            var cards = builder.build();
+            var packedCards = PackedCardBag.of(cards);
+
+            for (var route : ChMap.routes()) {
+                var expected = route.possibleClaimCards().stream().anyMatch(cards::contains);
+                assertEquals(expected, route.canClaim(packedCards));
+            }
+        }
+    }
+
+    @Test
+    void routePackedAdditionalClaimCardsCountWorksLikeSortedBagVersion() {
+        var rng = TestRandomizer.newRandom();
+        var s1 = new Station(0, "Lausanne");
+        var s2 = new Station(1, "EPFL");
+        var route = new Route("id", s1, s2, 3, Level.UNDERGROUND, null);
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var claimCards = SortedBag.of(
+                    1 + rng.nextInt(3), Card.ALL.get(rng.nextInt(Card.COUNT)),
+                    rng.nextInt(3), Card.LOCOMOTIVE);
+            var drawnBuilder = new SortedBag.Builder<Card>();
+            for (int j = 0; j < 3; j++)
+                drawnBuilder.add(Card.ALL.get(rng.nextInt(Card.COUNT)));
+            var drawnCards = drawnBuilder.build();
+
+            assertEquals(route.additionalClaimCardsCount(claimCards, drawnCards),
+                    route.additionalClaimCardsCount(PackedCardBag.of(claimCards), PackedCardBag.of(drawnCards)));
+        }
+        assertThrows(IllegalArgumentException.class, () ->
+                route.additionalClaimCardsCount(PackedCardBag.of(1, Card.RED), PackedCardBag.of(2, Card.RED)));
+    }
+}
@@ -1,5 +1,7 @@
 package ch.epfl.tchu.game;
 
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.test.TestRandomizer;
 import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
@@ -71,6 +73,45 @@ class TicketTest {
         assertEquals(+11, map.FR_NEIGHBORS.points(connectivity));
     }
 
+    @Test
+    void pointsFromComponentIdsAreSameAsPointsFromConnectivity() {
+        var rng = TestRandomizer.newRandom();
+        var stations = ChMap.stations();
+        for (int i = 0; i < 100; i++) {
+            var builder = new StationPartition.Builder(stations.size());
+            var connectionCount = rng.nextInt(80);
+            for (int j = 0; j < connectionCount; j++)
+                builder.connect(stations.get(rng.nextInt(stations.size())), stations.get(rng.nextInt(stations.size())));
+            var partition = builder.build();
+
+            var componentIds = new int[stations.size()];
+            for (var s1 : stations) {
+                for (var s2 : stations) {
+                    if (partition.connected(s1, s2)) {
+                        componentIds[s1.id()] = s2.id();
+                        break;
+                    }
+                }
+            }
+
+            var expectedSum = 0;
+            for (var ticket : ChMap.tickets()) {
+                assertEquals(ticket.points(partition), ticket.points(componentIds));
+                expectedSum += ticket.points(partition);
+            }
+            assertEquals(expectedSum, Ticket.points(SortedBag.of(ChMap.tickets()), componentIds));
+        }
+    }
+
+    @Test
+    void pointsFromComponentIdsOnlyConnectStationsOutsideOfArrayToThemselves() {
+        var map = new TestMap();
+        var componentIds = new int[2];
+        assertEquals(-13, map.LAU_STG.points(componentIds));
+        assertEquals(-5, map.FR_NEIGHBORS.points(new int[0]));
+        assertEquals(1, new Ticket(map.LAU, map.LAU, 1).points(new int[0]));
+    }
+
     @Test
     void compareToWorksOnKnownTickets() {
         var map = new TestMap();
@@ -0,0 +1,50 @@
+package ch.epfl.tchu.journal;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.sim.RandomPlayer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark measuring the speed at which recorded games are replayed, in decisions per second.
+ * Run with: java ch.epfl.tchu.journal.JournalReplayBenchmark [number of games]
+ */
+public final class JournalReplayBenchmark {
+    private static final int ROUNDS = 5;
+
+    private JournalReplayBenchmark() {}
+
+    public static void main(String[] args) {
+        var gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        var names = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+        var tickets = SortedBag.of(ChMap.tickets());
+
+        var out = new ByteArrayOutputStream();
+        for (int game = 0; game < gameCount; game++) {
+            Map<PlayerId, Player> players = new EnumMap<>(PlayerId.class);
+            for (var playerId : PlayerId.ALL)
+                players.put(playerId, new RandomPlayer(new Random(game * PlayerId.COUNT + playerId.ordinal())));
+            JournalWriter.play(players, names, tickets, game, out);
+        }
+        var journal = out.toByteArray();
+        System.out.printf("%d games, %d bytes (%.0f bytes/game)%n", gameCount, journal.length, journal.length / (double) gameCount);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            var replayer = new JournalReplayer(new ByteArrayInputStream(journal));
+            var start = System.nanoTime();
+            while (replayer.replayNextGame(state -> {}) != null) {
+                // Replay every game
+            }
+            var seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("round %d: %d moves in %.3f s, %.0f moves/s%n",
+                    round, replayer.moveCount(), seconds, replayer.moveCount() / seconds);
+        }
+    }
+}
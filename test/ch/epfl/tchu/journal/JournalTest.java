@@ -0,0 +1,120 @@
+package ch.epfl.tchu.journal;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.GameState;
+import ch.epfl.tchu.game.Player;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    @Test
+    void journalReplaysRecordedGames() {
+        var out = new ByteArrayOutputStream();
+        var gameCount = 20;
+        for (int game = 0; game < gameCount; game++)
+            JournalWriter.play(randomPlayers(game), NAMES, SortedBag.of(ChMap.tickets()), 2021 + game, out);
+
+        var replayer = new JournalReplayer(new ByteArrayInputStream(out.toByteArray()));
+        for (int game = 0; game < gameCount; game++) {
+            var checkpoints = new ArrayList<GameState>();
+            var finalState = replayer.replayNextGame(checkpoints::add);
+            assertNotNull(finalState);
+            assertTrue(checkpoints.size() > 2);
+            assertSame(finalState, checkpoints.get(checkpoints.size() - 1));
+            assertEquals(finalState.currentPlayerId(), finalState.lastPlayer());
+        }
+        assertNull(replayer.replayNextGame(s -> {}));
+        assertTrue(replayer.moveCount() > gameCount);
+    }
+
+    @Test
+    void journalReplayGivesStatesOfGame() {
+        var out = new ByteArrayOutputStream();
+        JournalWriter.play(randomPlayers(1), NAMES, SortedBag.of(ChMap.tickets()), 42, out);
+
+        var checkpoints = new ArrayList<GameState>();
+        new JournalReplayer(new ByteArrayInputStream(out.toByteArray())).replayNextGame(checkpoints::add);
+        var initialState = GameState.initial(SortedBag.of(ChMap.tickets()), new Random(42));
+        assertEquals(initialState.currentPlayerId(), checkpoints.get(0).currentPlayerId());
+        assertEquals(initialState.ticketsCount() - PlayerId.COUNT * 5, checkpoints.get(0).ticketsCount());
+        for (var playerId : PlayerId.ALL)
+            assertEquals(initialState.playerState(playerId).cards(), checkpoints.get(0).playerState(playerId).cards());
+    }
+
+    @Test
+    void journalReplayFailsWithCorruptedJournal() {
+        var out = new ByteArrayOutputStream();
+        JournalWriter.play(randomPlayers(3), NAMES, SortedBag.of(ChMap.tickets()), 7, out);
+        var bytes = out.toByteArray();
+
+        var badMagic = Arrays.copyOf(bytes, bytes.length);
+        badMagic[0] ^= 1;
+        assertThrows(IllegalArgumentException.class,
+                () -> new JournalReplayer(new ByteArrayInputStream(badMagic)).replayNextGame(s -> {}));
+
+        var badSeed = Arrays.copyOf(bytes, bytes.length);
+        badSeed[12] ^= 1;
+        assertThrows(IllegalArgumentException.class,
+                () -> new JournalReplayer(new ByteArrayInputStream(badSeed)).replayNextGame(s -> {}));
+
+        var truncated = Arrays.copyOf(bytes, bytes.length - 3);
+        assertThrows(UncheckedIOException.class,
+                () -> new JournalReplayer(new ByteArrayInputStream(truncated)).replayNextGame(s -> {}));
+    }
+
+    @Test
+    void journalDoesNotContainInterruptedGames() {
+        var out = new ByteArrayOutputStream();
+        JournalWriter.play(randomPlayers(4), NAMES, SortedBag.of(ChMap.tickets()), 4, out);
+        var firstGameLength = out.size();
+        var players = randomPlayers(5);
+        players.put(PlayerId.PLAYER_1, failingPlayer(players.get(PlayerId.PLAYER_1), 10));
+        assertThrows(IllegalStateException.class,
+                () -> JournalWriter.play(players, NAMES, SortedBag.of(ChMap.tickets()), 5, out));
+        assertEquals(firstGameLength, out.size());
+        JournalWriter.play(randomPlayers(6), NAMES, SortedBag.of(ChMap.tickets()), 6, out);
+
+        var replayer = new JournalReplayer(new ByteArrayInputStream(out.toByteArray()));
+        assertNotNull(replayer.replayNextGame(s -> {}));
+        assertNotNull(replayer.replayNextGame(s -> {}));
+        assertNull(replayer.replayNextGame(s -> {}));
+    }
+
+    private static Player failingPlayer(Player player, int turnCount) {
+        var turns = new int[1];
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("nextTurn") && ++turns[0] == turnCount)
+                        throw new IllegalStateException();
+                    try {
+                        return method.invoke(player, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    private static Map<PlayerId, Player> randomPlayers(long seed) {
+        var players = new EnumMap<PlayerId, Player>(PlayerId.class);
+        for (var playerId : PlayerId.ALL)
+            players.put(playerId, new RandomPlayer(new Random(seed * PlayerId.COUNT + playerId.ordinal())));
+        return players;
+    }
+}
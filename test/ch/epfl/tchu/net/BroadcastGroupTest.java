@@ -0,0 +1,161 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static ch.epfl.tchu.net.Serdes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BroadcastGroupTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    @Test
+    void infoMessageIsEncodedOncePerFormat() {
+        var broadcast = new BroadcastGroup();
+        var info = "Ada peut jouer.\n\n";
+        for (var format : WireFormat.values()) {
+            var message = broadcast.infoMessage(format, info);
+            var expected = new MessageWriter(format)
+                    .add(MESSAGE_ID_SERDE, MessageId.RECEIVE_INFO)
+                    .add(STRING_SERDE, info)
+                    .encoded();
+            assertArrayEquals(expected, message);
+            assertSame(message, broadcast.infoMessage(format, info));
+        }
+        assertEquals(2, broadcast.encodedCount());
+        assertEquals(2, broadcast.sharedCount());
+
+        var otherInfo = new String(info);
+        var message = broadcast.infoMessage(WireFormat.TEXT, otherInfo);
+        assertArrayEquals(broadcast.infoMessage(WireFormat.TEXT, otherInfo), message);
+        assertEquals(3, broadcast.encodedCount());
+    }
+
+    @Test
+    void publicStateIsEncodedOnce() {
+        var states = recordGame(1);
+        var broadcast = new BroadcastGroup();
+        for (var state : states.subList(0, 10)) {
+            for (int recipient = 0; recipient < 4; recipient++) {
+                assertEquals(PUBLIC_GAME_STATE_SERDE.serialize(state), broadcast.publicStates.serialize(state));
+                assertArrayEquals(write(PUBLIC_GAME_STATE_SERDE, state), write(broadcast.publicStates, state));
+            }
+        }
+        assertEquals(2 * 10, broadcast.encodedCount());
+        assertEquals(2 * 10 * 3, broadcast.sharedCount());
+    }
+
+    @Test
+    void sharedPublicDeltasAreIdenticalToUnsharedOnes() {
+        var states = recordGame(2);
+        var broadcast = new BroadcastGroup();
+        var shared = List.of(new StateSync(broadcast), new StateSync(broadcast));
+        var unshared = new StateSync();
+        var ownState = PlayerState.initial(SortedBag.of(4, Card.RED));
+
+        unshared.full(states.get(0), ownState, 1);
+        for (var sync : shared)
+            sync.full(states.get(0), ownState, 1);
+        for (int i = 1; i < states.size(); i++) {
+            var state = states.get(i);
+            if (!unshared.canSendDelta(state, ownState))
+                break;
+            var expected = write(unshared.publicDeltas, state);
+            unshared.delta(i + 1);
+            for (var sync : shared) {
+                assertArrayEquals(expected, write(sync.publicDeltas, state));
+                sync.delta(i + 1);
+            }
+        }
+        assertTrue(broadcast.encodedCount() > 0);
+        assertEquals(broadcast.encodedCount(), broadcast.sharedCount());
+    }
+
+    private static List<PublicGameState> recordGame(int seed) {
+        var states = new ArrayList<PublicGameState>();
+        var player = new RandomPlayer(new Random(seed));
+        var recorder = new Player() {
+            @Override
+            public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+                player.initPlayers(ownId, playerNames);
+            }
+
+            @Override
+            public void receiveInfo(String info) {
+                player.receiveInfo(info);
+            }
+
+            @Override
+            public void updateState(PublicGameState newState, PlayerState ownState) {
+                states.add(newState);
+                player.updateState(newState, ownState);
+            }
+
+            @Override
+            public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+                player.setInitialTicketChoice(tickets);
+            }
+
+            @Override
+            public SortedBag<Ticket> chooseInitialTickets() {
+                return player.chooseInitialTickets();
+            }
+
+            @Override
+            public TurnKind nextTurn() {
+                return player.nextTurn();
+            }
+
+            @Override
+            public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+                return player.chooseTickets(options);
+            }
+
+            @Override
+            public int drawSlot() {
+                return player.drawSlot();
+            }
+
+            @Override
+            public Route claimedRoute() {
+                return player.claimedRoute();
+            }
+
+            @Override
+            public SortedBag<Card> initialClaimCards() {
+                return player.initialClaimCards();
+            }
+
+            @Override
+            public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+                return player.chooseAdditionalCards(options);
+            }
+        };
+        var players = Map.<PlayerId, Player>of(
+                PlayerId.PLAYER_1, recorder,
+                PlayerId.PLAYER_2, new RandomPlayer(new Random(-seed)));
+        Game.play(players, NAMES, SortedBag.of(ChMap.tickets()), new Random(seed));
+        assertTrue(states.size() > 10);
+        return states;
+    }
+
+    private static <T> byte[] write(Serde<T> serde, T value) {
+        var bytes = new ByteArrayOutputStream();
+        try {
+            serde.write(new DataOutputStream(bytes), value);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return bytes.toByteArray();
+    }
+}
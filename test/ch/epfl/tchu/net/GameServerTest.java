@@ -0,0 +1,103 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    @Test
+    void gameServerPlaysConcurrentGamesAndCleansUp() throws InterruptedException {
+        var gameCount = 4;
+        try (var server = new GameServer(0)) {
+            var clients = new ArrayList<Thread>();
+            for (int i = 0; i < 2 * gameCount; i++) {
+                var client = new RemotePlayerClient(new RandomPlayer(new Random(i)), "localhost", server.port());
+                var thread = new Thread(client::run);
+                thread.start();
+                clients.add(thread);
+            }
+            for (var client : clients)
+                client.join(TimeUnit.SECONDS.toMillis(60));
+
+            var stats = awaitFinishedGames(server, gameCount);
+            assertEquals(gameCount, stats.finishedGames());
+            assertEquals(0, stats.failedGames());
+            assertEquals(0, stats.activeGames());
+            assertEquals(gameCount, stats.gamesPerMinute());
+            assertEquals(0, stats.threadsPerGame());
+            assertTrue(stats.liveThreads() > 0);
+            assertTrue(stats.peakThreads() >= stats.liveThreads());
+            assertTrue(stats.recentFailures().isEmpty());
+        }
+    }
+
+    @Test
+    void gameServerPlaysWithTextFormat() throws InterruptedException {
+        try (var server = new GameServer(0, WireFormat.TEXT)) {
+            var clients = new ArrayList<Thread>();
+            for (int i = 0; i < 2; i++) {
+                var client = new RemotePlayerClient(new RandomPlayer(new Random(i)), "localhost", server.port());
+                var thread = new Thread(client::run);
+                thread.start();
+                clients.add(thread);
+            }
+            for (var client : clients)
+                client.join(TimeUnit.SECONDS.toMillis(60));
+
+            var stats = awaitFinishedGames(server, 1);
+            assertEquals(1, stats.finishedGames());
+            assertEquals(0, stats.failedGames());
+        }
+    }
+
+    @Test
+    void gameServerRecordsWhyAGameFailed() throws InterruptedException, IOException {
+        try (var server = new GameServer(0)) {
+            var peers = new ArrayList<String>();
+            for (int i = 0; i < 2; i++) {
+                try (var socket = new Socket("localhost", server.port())) {
+                    peers.add(String.valueOf(socket.getLocalSocketAddress()));
+                }
+            }
+
+            var stats = awaitFinishedGames(server, 1);
+            assertEquals(1, stats.failedGames());
+            assertEquals(1, stats.recentFailures().size());
+            var failure = stats.recentFailures().get(0);
+            assertEquals(1, failure.gameNumber());
+            assertEquals(peers, failure.peers());
+            assertNotNull(failure.exception());
+        }
+    }
+
+    @Test
+    void gameServerDisconnectsWaitingClientWhenClosed() throws InterruptedException {
+        var server = new GameServer(0);
+        var client = new RemotePlayerClient(new RandomPlayer(new Random(0)), "localhost", server.port());
+        var thread = new Thread(client::run);
+        thread.start();
+        Thread.sleep(100);
+        server.close();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertFalse(thread.isAlive());
+        assertTrue(server.awaitGames(10, TimeUnit.SECONDS));
+        assertEquals(0, server.stats().activeGames());
+    }
+
+    private static GameServer.Stats awaitFinishedGames(GameServer server, int gameCount) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            var stats = server.stats();
+            if (stats.activeGames() == 0 && stats.finishedGames() + stats.failedGames() == gameCount)
+                return stats;
+            Thread.sleep(100);
+        }
+        return server.stats();
+    }
+}
@@ -0,0 +1,206 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageBatchTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+
+    @Test
+    void messagesAreWrittenTogetherBeforeReceiving() {
+        var channel = new RecordingChannel();
+        var batch = new MessageBatch(channel);
+        batch.send("RECEIVE_INFO a");
+        batch.send("RECEIVE_INFO b");
+        batch.sendFrame(new byte[]{1, 2, 3});
+        batch.send("NEXT_TURN");
+        assertEquals("ANSWER", batch.receive());
+
+        var expected = concat(WireIO.line("RECEIVE_INFO a"), WireIO.line("RECEIVE_INFO b"),
+                WireIO.frame(new byte[]{1, 2, 3}), WireIO.line("NEXT_TURN"));
+        assertEquals(1, channel.batches.size());
+        assertArrayEquals(expected, channel.batches.peek());
+        assertEquals(1, batch.flushCount());
+        assertEquals(expected.length, batch.sentBytes());
+    }
+
+    @Test
+    void emptyBatchIsNotWritten() {
+        var channel = new RecordingChannel();
+        var batch = new MessageBatch(channel);
+        batch.flush();
+        batch.receive();
+        assertTrue(channel.batches.isEmpty());
+        assertEquals(0, batch.flushCount());
+    }
+
+    @Test
+    void lingeringMessagesAreWrittenByTheTimer() throws InterruptedException {
+        var channel = new RecordingChannel();
+        var batch = new MessageBatch(channel);
+        batch.send("RECEIVE_INFO a");
+        batch.send("RECEIVE_INFO b");
+
+        var written = channel.batches.poll(10, TimeUnit.SECONDS);
+        assertArrayEquals(concat(WireIO.line("RECEIVE_INFO a"), WireIO.line("RECEIVE_INFO b")), written);
+        assertEquals(1, batch.flushCount());
+    }
+
+    @Test
+    void largeBatchIsWrittenAtOnce() {
+        var channel = new RecordingChannel();
+        var batch = new MessageBatch(channel);
+        batch.sendFrame(new byte[20_000]);
+        assertEquals(1, channel.batches.size());
+    }
+
+    @Test
+    void timerErrorIsRethrownToSender() throws InterruptedException {
+        var channel = new RecordingChannel();
+        channel.closed = true;
+        var batch = new MessageBatch(channel);
+        batch.send("RECEIVE_INFO a");
+        Thread.sleep(10 * MessageBatch.LINGER_MILLIS + 100);
+        assertThrows(UncheckedIOException.class, () -> batch.send("RECEIVE_INFO b"));
+    }
+
+    @Test
+    void proxyWritesFarFewerBatchesThanMessages() throws Exception {
+        var channels = new EnumMap<PlayerId, LineCountingChannel>(PlayerId.class);
+        var proxies = new EnumMap<PlayerId, RemotePlayerProxy>(PlayerId.class);
+        try (var server = new ServerSocket(0)) {
+            var clients = new ArrayList<Thread>();
+            var sockets = new ArrayList<java.net.Socket>();
+            for (var playerId : PlayerId.ALL) {
+                var client = new RemotePlayerClient(new RandomPlayer(new Random(playerId.ordinal())), "localhost",
+                        server.getLocalPort());
+                var thread = new Thread(client::run);
+                thread.start();
+                clients.add(thread);
+                var socket = server.accept();
+                sockets.add(socket);
+                var channel = new LineCountingChannel(new SocketMessageChannel(socket));
+                channels.put(playerId, channel);
+                proxies.put(playerId, new RemotePlayerProxy(channel, WireFormat.TEXT));
+            }
+            Game.play(Map.copyOf(proxies), NAMES, SortedBag.of(ChMap.tickets()), new Random(2021));
+            proxies.values().forEach(RemotePlayerProxy::flush);
+            for (var socket : sockets)
+                socket.close();
+            for (var thread : clients) {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+                assertFalse(thread.isAlive());
+            }
+        }
+
+        for (var playerId : PlayerId.ALL) {
+            var proxy = proxies.get(playerId);
+            var channel = channels.get(playerId);
+            assertTrue(proxy.turnCount() > 0);
+            assertEquals(channel.batchCount, proxy.flushCount());
+            assertEquals(channel.bytes, proxy.sentBytes());
+            assertTrue(3 * proxy.flushCount() < channel.lineCount);
+        }
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        var length = 0;
+        for (var part : parts)
+            length += part.length;
+        var bytes = new byte[length];
+        var offset = 0;
+        for (var part : parts) {
+            System.arraycopy(part, 0, bytes, offset, part.length);
+            offset += part.length;
+        }
+        return bytes;
+    }
+
+    private static final class LineCountingChannel implements MessageChannel {
+        private final MessageChannel channel;
+        private long batchCount;
+        private long bytes;
+        private long lineCount;
+
+        LineCountingChannel(MessageChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void send(String message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String receive() {
+            return channel.receive();
+        }
+
+        @Override
+        public void sendFrame(byte[] payload) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] receiveFrame() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendBatch(byte[] messages) {
+            ++batchCount;
+            bytes += messages.length;
+            for (var b : messages) {
+                if (b == '\n')
+                    ++lineCount;
+            }
+            channel.sendBatch(messages);
+        }
+    }
+
+    private static final class RecordingChannel implements MessageChannel {
+        private final LinkedBlockingQueue<byte[]> batches = new LinkedBlockingQueue<>();
+        private volatile boolean closed;
+
+        @Override
+        public void send(String message) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String receive() {
+            return "ANSWER";
+        }
+
+        @Override
+        public void sendFrame(byte[] payload) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public byte[] receiveFrame() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendBatch(byte[] messages) {
+            if (closed)
+                throw new UncheckedIOException(new EOFException());
+            batches.add(messages);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.ChMap;
+import ch.epfl.tchu.game.Game;
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NioTransportTest {
+    @Test
+    void nioTransportCarriesMessagesBothWays() throws InterruptedException {
+        try (var transport = new NioTransport(2)) {
+            var accepted = new LinkedBlockingQueue<NioConnection>();
+            var port = transport.listen(0, accepted::add);
+            var client = transport.connect("localhost", port);
+            var server = accepted.poll(10, TimeUnit.SECONDS);
+            assertNotNull(server);
+
+            var longMessage = "x".repeat(100_000);
+            for (int i = 0; i < 1_000; i++)
+                client.send("MESSAGE " + i);
+            client.send(longMessage);
+            client.send("");
+            for (int i = 0; i < 1_000; i++)
+                assertEquals("MESSAGE " + i, server.receive());
+            assertEquals(longMessage, server.receive());
+            assertEquals("", server.receive());
+
+            server.send("REPLY");
+            assertEquals("REPLY", client.receive());
+
+            server.close();
+            assertThrows(UncheckedIOException.class, client::receive);
+            assertThrows(UncheckedIOException.class, client::receive);
+        }
+    }
+
+    @Test
+    void nioTransportServesManyConnectionsWithFewThreads() throws InterruptedException {
+        var connectionCount = 500;
+        try (var transport = new NioTransport(2)) {
+            var accepted = new LinkedBlockingQueue<NioConnection>();
+            var port = transport.listen(0, accepted::add);
+            var clients = new ArrayList<NioConnection>();
+            for (int i = 0; i < connectionCount; i++) {
+                var client = transport.connect("localhost", port);
+                client.send(Integer.toString(i));
+                clients.add(client);
+            }
+            for (int i = 0; i < connectionCount; i++) {
+                var server = accepted.poll(10, TimeUnit.SECONDS);
+                assertNotNull(server);
+                server.send("ECHO " + server.receive());
+            }
+            for (int i = 0; i < connectionCount; i++)
+                assertEquals("ECHO " + i, clients.get(i).receive());
+        }
+    }
+
+    @Test
+    void nioPlayerProxyPlaysGameWithRemoteClients() throws InterruptedException {
+        try (var transport = new NioTransport(1)) {
+            var accepted = new LinkedBlockingQueue<NioConnection>();
+            var port = transport.listen(0, accepted::add);
+
+            var clients = new ArrayList<Thread>();
+            for (var playerId : PlayerId.ALL) {
+                var client = new RemotePlayerClient(new RandomPlayer(new Random(playerId.ordinal())), "localhost", port);
+                var thread = new Thread(client::run);
+                thread.start();
+                clients.add(thread);
+            }
+
+            Map<PlayerId, RemotePlayerProxy> players = new EnumMap<>(PlayerId.class);
+            Map<PlayerId, String> names = new EnumMap<>(PlayerId.class);
+            var connections = new ArrayList<NioConnection>();
+            for (var playerId : PlayerId.ALL) {
+                var connection = accepted.poll(10, TimeUnit.SECONDS);
+                assertNotNull(connection);
+                connections.add(connection);
+                players.put(playerId, new RemotePlayerProxy(connection));
+                names.put(playerId, playerId.name());
+            }
+            Game.play(Map.copyOf(players), names, SortedBag.of(ChMap.tickets()), new Random(2021));
+            players.values().forEach(RemotePlayerProxy::flush);
+            connections.forEach(NioConnection::close);
+
+            for (var client : clients) {
+                client.join(TimeUnit.SECONDS.toMillis(10));
+                assertFalse(client.isAlive());
+            }
+        }
+    }
+}
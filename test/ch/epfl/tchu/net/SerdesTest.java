@@ -178,6 +178,18 @@ public class SerdesTest {
         assertEquals(cardBag, CARD_BAG_SERDE.deserialize(cardBagSer));
     }
 
+    @Test
+    public void packedCardBagSerdeTest()
+    {
+        SortedBag<Card> cardBag = SortedBag.of(generateRandomListOfCards(50));
+        long packedCardBag = PackedCardBag.of(cardBag);
+
+        String cardBagSer = PACKED_CARD_BAG_SERDE.serialize(packedCardBag);
+        assertEquals(CARD_BAG_SERDE.serialize(cardBag), cardBagSer);
+        assertEquals(packedCardBag, (long) PACKED_CARD_BAG_SERDE.deserialize(cardBagSer));
+        assertEquals(PackedCardBag.EMPTY, (long) PACKED_CARD_BAG_SERDE.deserialize(""));
+    }
+
     @Test
     public void ticketBagSerdeTest()
     {
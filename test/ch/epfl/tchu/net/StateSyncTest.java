@@ -0,0 +1,266 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static ch.epfl.tchu.net.Serdes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateSyncTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    @Test
+    void deltasRebuildEveryStateOfAGame() {
+        var recorder = recordGame(1);
+        var proxy = new StateSync();
+        var client = new StateSync();
+
+        var fullCount = 0;
+        for (int i = 0; i < recorder.states.size(); i++) {
+            var state = recorder.states.get(i);
+            var ownState = recorder.ownStates.get(i);
+            var sequence = proxy.sequence() + 1;
+            if (proxy.canSendDelta(state, ownState)) {
+                var base = proxy.sequence();
+                var frame = frame(new MessageWriter(WireFormat.BINARY)
+                        .add(proxy.publicDeltas, state)
+                        .add(proxy.ownDeltas, ownState));
+                proxy.delta(sequence);
+
+                assertTrue(client.canRebuild(base));
+                var reader = new MessageReader(frame);
+                assertSameState(state, reader.next(client.publicDeltas));
+                assertSameOwnState(ownState, reader.next(client.ownDeltas));
+                client.delta(sequence);
+            } else {
+                proxy.full(state, ownState, sequence);
+                client.full(state, ownState, sequence);
+                ++fullCount;
+            }
+            assertEquals(proxy.sequence(), client.sequence());
+            proxy.acknowledge(client.sequence());
+        }
+
+        // A full state is sent first, then at least once every RESYNC_PERIOD deltas
+        assertTrue(fullCount >= 1);
+        assertTrue(fullCount >= recorder.states.size() / (StateSync.RESYNC_PERIOD + 1));
+        assertTrue(fullCount < recorder.states.size() / 4);
+    }
+
+    @Test
+    void fullStateIsSentFirstAndPeriodically() {
+        var recorder = recordGame(2);
+        var sync = new StateSync();
+        var state = recorder.states.get(0);
+        var ownState = recorder.ownStates.get(0);
+
+        assertFalse(sync.canSendDelta(state, ownState));
+        sync.full(state, ownState, 1);
+        for (int i = 0; i < StateSync.RESYNC_PERIOD; i++) {
+            assertTrue(sync.canSendDelta(state, ownState));
+            frame(new MessageWriter(WireFormat.BINARY).add(sync.publicDeltas, state).add(sync.ownDeltas, ownState));
+            sync.delta(i + 2);
+        }
+        assertFalse(sync.canSendDelta(state, ownState));
+        sync.full(state, ownState, StateSync.RESYNC_PERIOD + 2);
+        assertTrue(sync.canSendDelta(state, ownState));
+    }
+
+    @Test
+    void mismatchedAcknowledgementRequestsFullState() {
+        var recorder = recordGame(3);
+        var sync = new StateSync();
+        var state = recorder.states.get(0);
+        var ownState = recorder.ownStates.get(0);
+
+        sync.full(state, ownState, 1);
+        sync.acknowledge(1);
+        assertTrue(sync.canSendDelta(state, ownState));
+        sync.acknowledge(StateSync.NO_BASE);
+        assertFalse(sync.canSendDelta(state, ownState));
+        sync.full(state, ownState, 2);
+        assertTrue(sync.canSendDelta(state, ownState));
+    }
+
+    @Test
+    void clientCannotRebuildDeltaOfUnknownState() {
+        var recorder = recordGame(4);
+        var client = new StateSync();
+
+        assertFalse(client.canRebuild(1));
+        client.full(recorder.states.get(0), recorder.ownStates.get(0), 1);
+        assertFalse(client.canRebuild(2));
+        assertEquals(StateSync.NO_BASE, client.sequence());
+        assertFalse(client.canRebuild(1));
+    }
+
+    @Test
+    void deltasAreMuchSmallerThanFullBinaryStates() {
+        var recorder = recordGame(5);
+        var sync = new StateSync();
+
+        var fullBytes = 0;
+        var deltaBytes = 0;
+        for (int i = 0; i < recorder.states.size(); i++) {
+            var state = recorder.states.get(i);
+            var ownState = recorder.ownStates.get(i);
+            fullBytes += frame(new MessageWriter(WireFormat.BINARY)
+                    .add(PUBLIC_GAME_STATE_SERDE, state)
+                    .add(PLAYER_STATE_SERDE, ownState)).length;
+            if (sync.canSendDelta(state, ownState)) {
+                deltaBytes += frame(new MessageWriter(WireFormat.BINARY)
+                        .add(sync.publicDeltas, state)
+                        .add(sync.ownDeltas, ownState)).length;
+                sync.delta(sync.sequence() + 1);
+            } else {
+                deltaBytes += frame(new MessageWriter(WireFormat.BINARY)
+                        .add(PUBLIC_GAME_STATE_SERDE, state)
+                        .add(PLAYER_STATE_SERDE, ownState)).length;
+                sync.full(state, ownState, sync.sequence() + 1);
+            }
+        }
+        assertTrue(2 * deltaBytes < fullBytes);
+    }
+
+    @Test
+    void deltasCannotBeSentAsText() {
+        var sync = new StateSync();
+        assertThrows(UnsupportedOperationException.class,
+                () -> new MessageWriter(WireFormat.TEXT).add(sync.ownDeltas, null));
+    }
+
+    private static Recorder recordGame(int seed) {
+        var recorder = new Recorder(new RandomPlayer(new Random(seed)));
+        var players = Map.<PlayerId, Player>of(
+                PlayerId.PLAYER_1, recorder,
+                PlayerId.PLAYER_2, new RandomPlayer(new Random(-seed)));
+        Game.play(players, NAMES, TICKETS, new Random(seed));
+        assertFalse(recorder.states.isEmpty());
+        return recorder;
+    }
+
+    private static byte[] frame(MessageWriter writer) {
+        var frame = new byte[1][];
+        writer.sendTo(new MessageChannel() {
+            @Override
+            public void send(String message) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String receive() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void sendFrame(byte[] payload) {
+                frame[0] = payload;
+            }
+
+            @Override
+            public byte[] receiveFrame() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void sendBatch(byte[] messages) {
+                throw new UnsupportedOperationException();
+            }
+        });
+        return frame[0];
+    }
+
+    private static void assertSameState(PublicGameState expected, PublicGameState actual) {
+        assertEquals(expected.ticketsCount(), actual.ticketsCount());
+        assertEquals(expected.cardState().faceUpCards(), actual.cardState().faceUpCards());
+        assertEquals(expected.cardState().deckSize(), actual.cardState().deckSize());
+        assertEquals(expected.cardState().discardsSize(), actual.cardState().discardsSize());
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        for (var playerId : PlayerId.ALL) {
+            var expectedPlayer = expected.playerState(playerId);
+            var actualPlayer = actual.playerState(playerId);
+            assertEquals(expectedPlayer.ticketCount(), actualPlayer.ticketCount());
+            assertEquals(expectedPlayer.cardCount(), actualPlayer.cardCount());
+            assertEquals(Set.copyOf(expectedPlayer.routes()), Set.copyOf(actualPlayer.routes()));
+        }
+    }
+
+    private static void assertSameOwnState(PlayerState expected, PlayerState actual) {
+        assertEquals(expected.tickets(), actual.tickets());
+        assertEquals(expected.cards(), actual.cards());
+        assertEquals(Set.copyOf(expected.routes()), Set.copyOf(actual.routes()));
+    }
+
+    private static final class Recorder implements Player {
+        private final Player player;
+        private final List<PublicGameState> states = new ArrayList<>();
+        private final List<PlayerState> ownStates = new ArrayList<>();
+
+        Recorder(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            states.add(newState);
+            ownStates.add(ownState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
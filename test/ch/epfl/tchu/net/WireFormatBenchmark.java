@@ -0,0 +1,303 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.*;
+
+import static ch.epfl.tchu.net.Serdes.*;
+
+/**
+ * Benchmark comparing the text and binary wire formats: bytes exchanged per game over loopback sockets, with and
+ * without the state deltas of the latest binary version, and
+ * nanoseconds to encode and decode the UPDATE_STATE and RECEIVE_INFO messages of recorded games, and to encode them
+ * for several recipients with and without a shared BroadcastGroup.
+ * Run with: java ch.epfl.tchu.net.WireFormatBenchmark [number of games]
+ */
+public final class WireFormatBenchmark {
+    private static final int ROUNDS = 5;
+    private static final int[] FAN_OUT = {2, 8}; // Numbers of recipients of each broadcast
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    private WireFormatBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        var gameCount = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+
+        for (int version = 0; version <= WireFormat.BINARY_VERSION; version++) {
+            var format = version == 0 ? WireFormat.TEXT : WireFormat.BINARY;
+            var bytes = 0L;
+            for (int game = 0; game < gameCount; game++)
+                bytes += bytesPerGame(format, version, game);
+            System.out.printf("%s v%d: %.0f bytes/game%n", format, version, bytes / (double) gameCount);
+        }
+
+        var states = new ArrayList<PublicGameState>();
+        var ownStates = new ArrayList<PlayerState>();
+        var infos = new ArrayList<String>();
+        for (int game = 0; game < gameCount; game++) {
+            var recorder = new Recorder(new RandomPlayer(new Random(game)), states, ownStates, infos);
+            var players = Map.<PlayerId, Player>of(
+                    PlayerId.PLAYER_1, recorder,
+                    PlayerId.PLAYER_2, new RandomPlayer(new Random(-game)));
+            Game.play(players, NAMES, TICKETS, new Random(game));
+        }
+        var messageCount = states.size() + infos.size();
+        System.out.printf("%d messages (%d UPDATE_STATE, %d RECEIVE_INFO)%n", messageCount, states.size(), infos.size());
+
+        for (int round = 0; round < ROUNDS; round++) {
+            for (var format : WireFormat.values()) {
+                var channel = new LastMessageChannel();
+                var encoded = new ArrayList<Object>(messageCount);
+                var start = System.nanoTime();
+                for (int i = 0; i < states.size(); i++) {
+                    new MessageWriter(format)
+                            .add(MESSAGE_ID_SERDE, MessageId.UPDATE_STATE)
+                            .add(PUBLIC_GAME_STATE_SERDE, states.get(i))
+                            .add(PLAYER_STATE_SERDE, ownStates.get(i))
+                            .sendTo(channel);
+                    encoded.add(channel.last);
+                }
+                for (var info : infos) {
+                    new MessageWriter(format)
+                            .add(MESSAGE_ID_SERDE, MessageId.RECEIVE_INFO)
+                            .add(STRING_SERDE, info)
+                            .sendTo(channel);
+                    encoded.add(channel.last);
+                }
+                var encodeNanos = System.nanoTime() - start;
+
+                var checksum = 0;
+                start = System.nanoTime();
+                for (var message : encoded) {
+                    var reader = message instanceof String
+                            ? new MessageReader((String) message)
+                            : new MessageReader((byte[]) message);
+                    if (reader.next(MESSAGE_ID_SERDE) == MessageId.UPDATE_STATE) {
+                        checksum += reader.next(PUBLIC_GAME_STATE_SERDE).ticketsCount();
+                        checksum += reader.next(PLAYER_STATE_SERDE).ticketCount();
+                    } else {
+                        checksum += reader.next(STRING_SERDE).length();
+                    }
+                }
+                var decodeNanos = System.nanoTime() - start;
+                System.out.printf("round %d %s: encode %.0f ns/message, decode %.0f ns/message (checksum %d)%n",
+                        round, format, encodeNanos / (double) messageCount, decodeNanos / (double) messageCount,
+                        checksum);
+            }
+        }
+
+        for (int round = 0; round < ROUNDS; round++) {
+            for (var recipients : FAN_OUT) {
+                for (var format : WireFormat.values()) {
+                    var unshared = fanOutNanos(format, recipients, false, states, ownStates, infos);
+                    var shared = fanOutNanos(format, recipients, true, states, ownStates, infos);
+                    System.out.printf("round %d %s x%d: %.0f ns/event unshared, %.0f ns/event shared%n",
+                            round, format, recipients, unshared / (double) messageCount,
+                            shared / (double) messageCount);
+                }
+            }
+        }
+    }
+
+    private static long fanOutNanos(WireFormat format, int recipients, boolean shared, List<PublicGameState> states,
+                                    List<PlayerState> ownStates, List<String> infos) {
+        var groups = new BroadcastGroup[recipients];
+        for (int r = 0; r < recipients; r++)
+            groups[r] = shared && r > 0 ? groups[0] : new BroadcastGroup();
+        var checksum = 0L;
+        var start = System.nanoTime();
+        for (int i = 0; i < states.size(); i++) {
+            for (var group : groups) {
+                checksum += new MessageWriter(format)
+                        .add(MESSAGE_ID_SERDE, MessageId.UPDATE_STATE)
+                        .add(group.publicStates, states.get(i))
+                        .add(PLAYER_STATE_SERDE, ownStates.get(i))
+                        .encoded().length;
+            }
+        }
+        for (var info : infos) {
+            for (var group : groups)
+                checksum += group.infoMessage(format, info).length;
+        }
+        var nanos = System.nanoTime() - start;
+        if (checksum == 0)
+            throw new AssertionError();
+        return nanos;
+    }
+
+    private static long bytesPerGame(WireFormat format, int binaryVersion, int game) throws IOException, InterruptedException {
+        try (var server = new ServerSocket(0)) {
+            var clients = new ArrayList<Thread>();
+            var sockets = new ArrayList<Socket>();
+            var channels = new ArrayList<CountingChannel>();
+            Map<PlayerId, RemotePlayerProxy> proxies = new EnumMap<>(PlayerId.class);
+            for (var playerId : PlayerId.ALL) {
+                var client = new RemotePlayerClient(
+                        new RandomPlayer(new Random(game * PlayerId.COUNT + playerId.ordinal())), "localhost",
+                        server.getLocalPort());
+                var thread = new Thread(client::run);
+                thread.start();
+                clients.add(thread);
+                var socket = server.accept();
+                sockets.add(socket);
+                var channel = new CountingChannel(new SocketMessageChannel(socket));
+                channels.add(channel);
+                proxies.put(playerId, new RemotePlayerProxy(channel, format, binaryVersion));
+            }
+            Game.play(Map.copyOf(proxies), NAMES, TICKETS, new Random(game));
+            proxies.values().forEach(RemotePlayerProxy::flush);
+            for (var socket : sockets)
+                socket.close();
+            for (var client : clients)
+                client.join();
+            return channels.stream().mapToLong(c -> c.bytes).sum();
+        }
+    }
+
+    private static final class CountingChannel implements MessageChannel {
+        private final MessageChannel channel;
+        private long bytes;
+
+        CountingChannel(MessageChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void send(String message) {
+            bytes += WireIO.line(message).length;
+            channel.send(message);
+        }
+
+        @Override
+        public String receive() {
+            var message = channel.receive();
+            bytes += WireIO.line(message).length;
+            return message;
+        }
+
+        @Override
+        public void sendFrame(byte[] payload) {
+            bytes += WireIO.frame(payload).length;
+            channel.sendFrame(payload);
+        }
+
+        @Override
+        public byte[] receiveFrame() {
+            var payload = channel.receiveFrame();
+            bytes += WireIO.frame(payload).length;
+            return payload;
+        }
+
+        @Override
+        public void sendBatch(byte[] messages) {
+            bytes += messages.length;
+            channel.sendBatch(messages);
+        }
+    }
+
+    private static final class LastMessageChannel implements MessageChannel {
+        private Object last;
+
+        @Override
+        public void send(String message) {
+            last = message;
+        }
+
+        @Override
+        public String receive() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendFrame(byte[] payload) {
+            last = payload;
+        }
+
+        @Override
+        public byte[] receiveFrame() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendBatch(byte[] messages) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class Recorder implements Player {
+        private final Player player;
+        private final List<PublicGameState> states;
+        private final List<PlayerState> ownStates;
+        private final List<String> infos;
+
+        Recorder(Player player, List<PublicGameState> states, List<PlayerState> ownStates, List<String> infos) {
+            this.player = player;
+            this.states = states;
+            this.ownStates = ownStates;
+            this.infos = infos;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            infos.add(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            states.add(newState);
+            ownStates.add(ownState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package ch.epfl.tchu.net;
+
+import ch.epfl.tchu.SortedBag;
+import ch.epfl.tchu.game.*;
+import ch.epfl.tchu.sim.RandomPlayer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.*;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static ch.epfl.tchu.net.Serdes.*;
+import static ch.epfl.test.TestRandomizer.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WireFormatTest {
+    private static final Map<PlayerId, String> NAMES = Map.of(PlayerId.PLAYER_1, "Ada", PlayerId.PLAYER_2, "Charles");
+    private static final SortedBag<Ticket> TICKETS = SortedBag.of(ChMap.tickets());
+
+    @Test
+    void binarySerdesRoundTripEveryStateOfAGame() {
+        var player = new RecordingPlayer(new RandomPlayer(new Random(1)));
+        var players = Map.<PlayerId, Player>of(
+                PlayerId.PLAYER_1, player,
+                PlayerId.PLAYER_2, new RandomPlayer(new Random(2)));
+        Game.play(players, NAMES, TICKETS, new Random(3));
+
+        assertFalse(player.states.isEmpty());
+        for (int i = 0; i < player.states.size(); i++) {
+            var state = player.states.get(i);
+            var ownState = player.ownStates.get(i);
+            var reader = new MessageReader(binary(new MessageWriter(WireFormat.BINARY)
+                    .add(PUBLIC_GAME_STATE_SERDE, state)
+                    .add(PLAYER_STATE_SERDE, ownState)));
+            assertSameState(state, reader.next(PUBLIC_GAME_STATE_SERDE));
+            var decodedOwnState = reader.next(PLAYER_STATE_SERDE);
+            assertEquals(ownState.tickets(), decodedOwnState.tickets());
+            assertEquals(ownState.cards(), decodedOwnState.cards());
+            assertEquals(Set.copyOf(ownState.routes()), Set.copyOf(decodedOwnState.routes()));
+        }
+    }
+
+    @Test
+    void binaryUpdateStateIsMuchSmallerThanText() {
+        var player = new RecordingPlayer(new RandomPlayer(new Random(4)));
+        var players = Map.<PlayerId, Player>of(
+                PlayerId.PLAYER_1, player,
+                PlayerId.PLAYER_2, new RandomPlayer(new Random(5)));
+        Game.play(players, NAMES, TICKETS, new Random(6));
+
+        var textBytes = 0;
+        var binaryBytes = 0;
+        for (int i = 0; i < player.states.size(); i++) {
+            var text = text(new MessageWriter(WireFormat.TEXT)
+                    .add(MESSAGE_ID_SERDE, MessageId.UPDATE_STATE)
+                    .add(PUBLIC_GAME_STATE_SERDE, player.states.get(i))
+                    .add(PLAYER_STATE_SERDE, player.ownStates.get(i)));
+            var binary = binary(new MessageWriter(WireFormat.BINARY)
+                    .add(MESSAGE_ID_SERDE, MessageId.UPDATE_STATE)
+                    .add(PUBLIC_GAME_STATE_SERDE, player.states.get(i))
+                    .add(PLAYER_STATE_SERDE, player.ownStates.get(i)));
+            assertTrue(binary.length < 64);
+            assertTrue(binary.length < text.length());
+            textBytes += text.length();
+            binaryBytes += binary.length;
+        }
+        assertTrue(2 * binaryBytes < textBytes);
+    }
+
+    @Test
+    void binarySerdesRoundTripRandomValues() {
+        var rng = newRandom();
+        var ints = new ArrayList<>(List.of(0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE));
+        for (int i = 0; i < RANDOM_ITERATIONS; i++)
+            ints.add(rng.nextInt());
+        for (var i : ints)
+            assertEquals(i, roundTrip(INTEGER_SERDE, i));
+
+        for (var string : List.of("", "Ada", "Rien n'est si pénible — ☃ 🚂"))
+            assertEquals(string, roundTrip(STRING_SERDE, string));
+        assertEquals(List.of("Ada", "", "Charles"), roundTrip(STRING_LIST_SERDE, List.of("Ada", "", "Charles")));
+
+        for (int i = 0; i < RANDOM_ITERATIONS; i++) {
+            var cards = new SortedBag.Builder<Card>();
+            for (var card : Card.ALL)
+                if (rng.nextBoolean())
+                    cards.add(rng.nextInt(15), card);
+            var bag = cards.build();
+            assertEquals(bag, roundTrip(CARD_BAG_SERDE, bag));
+            assertEquals(PackedCardBag.of(bag), (long) roundTrip(PACKED_CARD_BAG_SERDE, PackedCardBag.of(bag)));
+            assertEquals(List.of(bag, SortedBag.of()), roundTrip(CARD_BAG_LIST_SERDE, List.of(bag, SortedBag.of())));
+
+            var tickets = new ArrayList<>(ChMap.tickets());
+            Collections.shuffle(tickets, rng);
+            var ticketBag = SortedBag.of(tickets.subList(0, rng.nextInt(tickets.size())));
+            assertEquals(ticketBag, roundTrip(TICKET_BAG_SERDE, ticketBag));
+
+            var routes = new ArrayList<>(ChMap.routes());
+            routes.removeIf(r -> rng.nextBoolean());
+            assertEquals(routes, roundTrip(ROUTE_LIST_SERDE, routes));
+        }
+        for (var id : MessageId.ALL)
+            assertEquals(id, roundTrip(MESSAGE_ID_SERDE, id));
+    }
+
+    @Test
+    void binaryCardBagsHaveAtMost15CardsOfAKind() {
+        var writer = new MessageWriter(WireFormat.BINARY);
+        assertThrows(IllegalArgumentException.class, () -> writer.add(CARD_BAG_SERDE, SortedBag.of(16, Card.RED)));
+    }
+
+    @Test
+    void truncatedBinaryMessageIsRejected() {
+        var state = new PlayerState(SortedBag.of(ChMap.tickets().get(0)), SortedBag.of(3, Card.RED), ChMap.routes());
+        var frame = binary(new MessageWriter(WireFormat.BINARY).add(PLAYER_STATE_SERDE, state));
+        var truncated = Arrays.copyOf(frame, frame.length - 1);
+        assertThrows(IllegalArgumentException.class, () -> new MessageReader(truncated).next(PLAYER_STATE_SERDE));
+    }
+
+    @Test
+    void remoteGamesAreIdenticalToLocalGameInBothFormats() throws Exception {
+        var localPlayers = recordingPlayers();
+        Game.play(Map.copyOf(localPlayers), NAMES, TICKETS, new Random(7));
+
+        for (var format : WireFormat.values()) {
+            var socketPlayers = recordingPlayers();
+            playOverSockets(socketPlayers, format);
+            var nioPlayers = recordingPlayers();
+            playOverNio(nioPlayers, format);
+            for (var playerId : PlayerId.ALL) {
+                assertEquals(localPlayers.get(playerId).infos, socketPlayers.get(playerId).infos);
+                assertEquals(localPlayers.get(playerId).infos, nioPlayers.get(playerId).infos);
+            }
+        }
+    }
+
+    @Test
+    void remoteGameWithoutDeltasIsIdenticalToLocalGame() throws Exception {
+        var localPlayers = recordingPlayers();
+        Game.play(Map.copyOf(localPlayers), NAMES, TICKETS, new Random(7));
+
+        var socketPlayers = recordingPlayers();
+        playOverSockets(socketPlayers, WireFormat.BINARY, WireFormat.DELTA_VERSION - 1);
+        for (var playerId : PlayerId.ALL) {
+            assertEquals(localPlayers.get(playerId).infos, socketPlayers.get(playerId).infos);
+            assertEquals(localPlayers.get(playerId).states.size(), socketPlayers.get(playerId).states.size());
+        }
+    }
+
+    @Test
+    void proxiesSharingBroadcastGroupEncodeEachPayloadOnce() throws Exception {
+        var localPlayers = recordingPlayers();
+        Game.play(Map.copyOf(localPlayers), NAMES, TICKETS, new Random(7));
+
+        for (var format : WireFormat.values()) {
+            var broadcast = new BroadcastGroup();
+            var socketPlayers = recordingPlayers();
+            playOverSockets(socketPlayers, format, WireFormat.BINARY_VERSION, broadcast);
+            for (var playerId : PlayerId.ALL)
+                assertEquals(localPlayers.get(playerId).infos, socketPlayers.get(playerId).infos);
+            assertTrue(broadcast.encodedCount() > 0);
+            // Every payload is sent to both players, and a state may be sent twice in a row
+            assertTrue(broadcast.sharedCount() >= broadcast.encodedCount());
+        }
+    }
+
+    @Test
+    void textProxyDoesNotOfferBinaryFormat() throws Exception {
+        try (var server = new ServerSocket(0)) {
+            var client = new Thread(() -> {
+                try (var socket = new java.net.Socket("localhost", server.getLocalPort())) {
+                    var channel = new SocketMessageChannel(socket);
+                    var message = new MessageReader(channel.receive());
+                    assertEquals(MessageId.RECEIVE_INFO, message.next(MESSAGE_ID_SERDE));
+                    assertEquals("Hello", message.next(STRING_SERDE));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            client.start();
+            try (var socket = server.accept()) {
+                new RemotePlayerProxy(socket).receiveInfo("Hello");
+                client.join(TimeUnit.SECONDS.toMillis(10));
+            }
+            assertFalse(client.isAlive());
+        }
+    }
+
+    private static void playOverSockets(Map<PlayerId, RecordingPlayer> clientPlayers, WireFormat format)
+            throws Exception {
+        playOverSockets(clientPlayers, format, WireFormat.BINARY_VERSION);
+    }
+
+    private static void playOverSockets(Map<PlayerId, RecordingPlayer> clientPlayers, WireFormat format,
+                                        int binaryVersion) throws Exception {
+        playOverSockets(clientPlayers, format, binaryVersion, null);
+    }
+
+    private static void playOverSockets(Map<PlayerId, RecordingPlayer> clientPlayers, WireFormat format,
+                                        int binaryVersion, BroadcastGroup broadcast) throws Exception {
+        try (var server = new ServerSocket(0)) {
+            var clients = startClients(clientPlayers, server.getLocalPort());
+            var sockets = new ArrayList<java.net.Socket>();
+            var proxies = new EnumMap<PlayerId, RemotePlayerProxy>(PlayerId.class);
+            for (var playerId : PlayerId.ALL) {
+                var socket = server.accept();
+                sockets.add(socket);
+                var channel = new SocketMessageChannel(socket);
+                proxies.put(playerId, broadcast == null
+                        ? new RemotePlayerProxy(channel, format, binaryVersion)
+                        : new RemotePlayerProxy(channel, format, binaryVersion, broadcast));
+            }
+            Game.play(Map.copyOf(proxies), NAMES, TICKETS, new Random(7));
+            proxies.values().forEach(RemotePlayerProxy::flush);
+            for (var socket : sockets)
+                socket.close();
+            joinAll(clients);
+        }
+    }
+
+    private static void playOverNio(Map<PlayerId, RecordingPlayer> clientPlayers, WireFormat format)
+            throws Exception {
+        try (var transport = new NioTransport(1)) {
+            var accepted = new LinkedBlockingQueue<NioConnection>();
+            var clients = startClients(clientPlayers, transport.listen(0, accepted::add));
+            var connections = new ArrayList<NioConnection>();
+            var proxies = new EnumMap<PlayerId, RemotePlayerProxy>(PlayerId.class);
+            for (var playerId : PlayerId.ALL) {
+                var connection = accepted.poll(10, TimeUnit.SECONDS);
+                assertNotNull(connection);
+                connections.add(connection);
+                proxies.put(playerId, new RemotePlayerProxy(connection, format));
+            }
+            Game.play(Map.copyOf(proxies), NAMES, TICKETS, new Random(7));
+            proxies.values().forEach(RemotePlayerProxy::flush);
+            connections.forEach(NioConnection::close);
+            joinAll(clients);
+        }
+    }
+
+    private static List<Thread> startClients(Map<PlayerId, RecordingPlayer> players, int port) {
+        var clients = new ArrayList<Thread>();
+        for (var playerId : PlayerId.ALL) {
+            // The clients connect in the order of the player ids, which is the order in which they are accepted
+            var client = new RemotePlayerClient(players.get(playerId), "localhost", port);
+            var thread = new Thread(client::run);
+            thread.start();
+            clients.add(thread);
+        }
+        return clients;
+    }
+
+    private static void joinAll(List<Thread> threads) throws InterruptedException {
+        for (var thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+            assertFalse(thread.isAlive());
+        }
+    }
+
+    private static Map<PlayerId, RecordingPlayer> recordingPlayers() {
+        var players = new EnumMap<PlayerId, RecordingPlayer>(PlayerId.class);
+        for (var playerId : PlayerId.ALL)
+            players.put(playerId, new RecordingPlayer(new RandomPlayer(new Random(10 + playerId.ordinal()))));
+        return players;
+    }
+
+    private static <T> T roundTrip(Serde<T> serde, T value) {
+        var reader = new MessageReader(binary(new MessageWriter(WireFormat.BINARY).add(serde, value)));
+        return reader.next(serde);
+    }
+
+    private static byte[] binary(MessageWriter writer) {
+        var channel = new CapturingChannel();
+        writer.sendTo(channel);
+        return channel.frame;
+    }
+
+    private static String text(MessageWriter writer) {
+        var channel = new CapturingChannel();
+        writer.sendTo(channel);
+        return channel.line;
+    }
+
+    private static void assertSameState(PublicGameState expected, PublicGameState actual) {
+        assertEquals(expected.ticketsCount(), actual.ticketsCount());
+        assertEquals(expected.cardState().faceUpCards(), actual.cardState().faceUpCards());
+        assertEquals(expected.cardState().deckSize(), actual.cardState().deckSize());
+        assertEquals(expected.cardState().discardsSize(), actual.cardState().discardsSize());
+        assertEquals(expected.currentPlayerId(), actual.currentPlayerId());
+        assertEquals(expected.lastPlayer(), actual.lastPlayer());
+        for (var playerId : PlayerId.ALL) {
+            var expectedPlayer = expected.playerState(playerId);
+            var actualPlayer = actual.playerState(playerId);
+            assertEquals(expectedPlayer.ticketCount(), actualPlayer.ticketCount());
+            assertEquals(expectedPlayer.cardCount(), actualPlayer.cardCount());
+            assertEquals(Set.copyOf(expectedPlayer.routes()), Set.copyOf(actualPlayer.routes()));
+        }
+    }
+
+    private static final class CapturingChannel implements MessageChannel {
+        private String line;
+        private byte[] frame;
+
+        @Override
+        public void send(String message) {
+            line = message;
+        }
+
+        @Override
+        public String receive() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendFrame(byte[] payload) {
+            frame = payload;
+        }
+
+        @Override
+        public byte[] receiveFrame() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sendBatch(byte[] messages) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class RecordingPlayer implements Player {
+        private final Player player;
+        private final List<String> infos = new ArrayList<>();
+        private final List<PublicGameState> states = new ArrayList<>();
+        private final List<PlayerState> ownStates = new ArrayList<>();
+
+        RecordingPlayer(Player player) {
+            this.player = player;
+        }
+
+        @Override
+        public void initPlayers(PlayerId ownId, Map<PlayerId, String> playerNames) {
+            player.initPlayers(ownId, playerNames);
+        }
+
+        @Override
+        public void receiveInfo(String info) {
+            infos.add(info);
+            player.receiveInfo(info);
+        }
+
+        @Override
+        public void updateState(PublicGameState newState, PlayerState ownState) {
+            states.add(newState);
+            ownStates.add(ownState);
+            player.updateState(newState, ownState);
+        }
+
+        @Override
+        public void setInitialTicketChoice(SortedBag<Ticket> tickets) {
+            player.setInitialTicketChoice(tickets);
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseInitialTickets() {
+            return player.chooseInitialTickets();
+        }
+
+        @Override
+        public TurnKind nextTurn() {
+            return player.nextTurn();
+        }
+
+        @Override
+        public SortedBag<Ticket> chooseTickets(SortedBag<Ticket> options) {
+            return player.chooseTickets(options);
+        }
+
+        @Override
+        public int drawSlot() {
+            return player.drawSlot();
+        }
+
+        @Override
+        public Route claimedRoute() {
+            return player.claimedRoute();
+        }
+
+        @Override
+        public SortedBag<Card> initialClaimCards() {
+            return player.initialClaimCards();
+        }
+
+        @Override
+        public SortedBag<Card> chooseAdditionalCards(List<SortedBag<Card>> options) {
+            return player.chooseAdditionalCards(options);
+        }
+    }
+}
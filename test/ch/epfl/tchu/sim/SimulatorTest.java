@@ -0,0 +1,99 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.PlayerId;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatorTest {
+    @Test
+    void simulatorRunFailsWithInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            Simulator.run(-1, 1, 2021, RandomPlayer::new);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            Simulator.run(1, 0, 2021, RandomPlayer::new);
+        });
+    }
+
+    @Test
+    void simulatorRunPlaysAllGames() throws InterruptedException {
+        var report = Simulator.run(20, 4, 2021, RandomPlayer::new);
+        assertEquals(20, report.results().size() + report.failedGames());
+        assertEquals(0, report.failedGames());
+
+        var wins = 0;
+        for (var playerId : PlayerId.ALL)
+            wins += report.wins(playerId);
+        assertEquals(report.results().size(), wins + report.draws());
+    }
+
+    @Test
+    void simulatorRunDoesNotDependOnThreadCount() throws InterruptedException {
+        var report1 = Simulator.run(10, 1, 2021, RandomPlayer::new);
+        var report2 = Simulator.run(10, 3, 2021, RandomPlayer::new);
+        for (int i = 0; i < 10; i++) {
+            var r1 = report1.results().get(i);
+            var r2 = report2.results().get(i);
+            assertEquals(r1.turns(), r2.turns());
+            assertEquals(r1.winner(), r2.winner());
+            for (var playerId : PlayerId.ALL) {
+                assertEquals(r1.points(playerId), r2.points(playerId));
+                assertEquals(r1.longestTrailLength(playerId), r2.longestTrailLength(playerId));
+            }
+        }
+    }
+
+    @Test
+    void simulatorPlayGameGivesConsistentResult() {
+        for (int i = 0; i < 10; i++) {
+            var result = Simulator.playGame(new Random(i), RandomPlayer::new);
+            assertTrue(result.turns() > 0);
+
+            var p1 = result.points(PlayerId.PLAYER_1);
+            var p2 = result.points(PlayerId.PLAYER_2);
+            if (p1 == p2)
+                assertTrue(result.isDraw());
+            else
+                assertEquals(p1 > p2 ? PlayerId.PLAYER_1 : PlayerId.PLAYER_2, result.winner());
+        }
+    }
+
+    @Test
+    void simulatorRunKeepsFirstFailureAndGameIndices() throws InterruptedException {
+        var createdPlayers = new AtomicInteger();
+        var report = Simulator.run(5, 1, 2021, rng -> {
+            // With a single thread, the games are played in order and the 7th player is the first one of game 3
+            if (createdPlayers.incrementAndGet() == 7)
+                throw new IllegalStateException("game 3");
+            return new RandomPlayer(rng);
+        });
+
+        assertEquals(1, report.failedGames());
+        assertEquals(3, report.firstFailedGame());
+        assertEquals("game 3", report.firstFailure().getMessage());
+        assertEquals(4, report.results().size());
+        var expectedIndices = new int[]{0, 1, 2, 4};
+        for (int i = 0; i < expectedIndices.length; i++) {
+            var result = report.results().get(i);
+            assertEquals(expectedIndices[i], result.gameIndex());
+            var replayed = Simulator.replay(2021, result.gameIndex(), RandomPlayer::new);
+            assertEquals(result.turns(), replayed.turns());
+            for (var playerId : PlayerId.ALL)
+                assertEquals(result.points(playerId), replayed.points(playerId));
+        }
+    }
+
+    @Test
+    void simulatorRunWithoutFailureHasNoFirstFailure() throws InterruptedException {
+        var report = Simulator.run(3, 2, 2021, RandomPlayer::new);
+        assertEquals(GameResult.NO_GAME_INDEX, report.firstFailedGame());
+        assertNull(report.firstFailure());
+        for (int i = 0; i < 3; i++)
+            assertEquals(i, report.results().get(i).gameIndex());
+        assertEquals(GameResult.NO_GAME_INDEX, Simulator.playGame(new Random(1), RandomPlayer::new).gameIndex());
+    }
+}
@@ -0,0 +1,80 @@
+package ch.epfl.tchu.sim;
+
+import ch.epfl.tchu.game.PlayerId;
+import ch.epfl.test.TestRandomizer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectOutputStream;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SplitRandomTest {
+    @Test
+    void gameSeedIsValueOfSplittableRandomSequence() {
+        var rootSeed = TestRandomizer.newRandom().nextLong();
+        var sequence = new SplittableRandom(rootSeed);
+        for (int i = 0; i < 1_000; i++)
+            assertEquals(sequence.nextLong(), SplitRandom.gameSeed(rootSeed, i));
+    }
+
+    @Test
+    void forGameIsReproducible() {
+        var rng1 = SplitRandom.forGame(2021, 17);
+        var rng2 = SplitRandom.forGame(2021, 17);
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(rng1.nextInt(100), rng2.nextInt(100));
+            assertEquals(rng1.nextLong(), rng2.nextLong());
+            assertEquals(rng1.nextDouble(), rng2.nextDouble());
+        }
+        var split1 = rng1.split();
+        var split2 = rng2.split();
+        for (int i = 0; i < 1_000; i++)
+            assertEquals(split1.nextInt(), split2.nextInt());
+    }
+
+    @Test
+    void forGameGivesDifferentStreamsForDifferentGames() {
+        var rng1 = SplitRandom.forGame(2021, 0);
+        var rng2 = SplitRandom.forGame(2021, 1);
+        var equalCount = 0;
+        for (int i = 0; i < 1_000; i++)
+            if (rng1.nextLong() == rng2.nextLong()) equalCount++;
+        assertTrue(equalCount < 10);
+    }
+
+    @Test
+    void splitRandomDrawsAreInBounds() {
+        var rng = SplitRandom.forGame(1, 2);
+        for (int i = 0; i < TestRandomizer.RANDOM_ITERATIONS; i++) {
+            var bound = 1 + i % 50;
+            var value = rng.nextInt(bound);
+            assertTrue(0 <= value && value < bound);
+            var bits = rng.nextInt() >>> 1;
+            assertTrue(bits >= 0);
+        }
+        assertThrows(UnsupportedOperationException.class, () -> rng.setSeed(0));
+    }
+
+    @Test
+    void simulatorReplayGivesSameResultAsRun() throws InterruptedException {
+        var report = Simulator.run(6, 3, 2021, RandomPlayer::new);
+        for (int i = 0; i < 6; i++) {
+            var played = report.results().get(i);
+            var replayed = Simulator.replay(2021, i, RandomPlayer::new);
+            assertEquals(played.turns(), replayed.turns());
+            assertEquals(played.winner(), replayed.winner());
+            for (var playerId : PlayerId.ALL)
+                assertEquals(played.points(playerId), replayed.points(playerId));
+        }
+    }
+
+    @Test
+    void splitRandomIsNotSerializable() throws Exception {
+        try (var out = new ObjectOutputStream(new ByteArrayOutputStream())) {
+            assertThrows(NotSerializableException.class, () -> out.writeObject(SplitRandom.forGame(1, 2)));
+        }
+    }
+}